@@ -0,0 +1,78 @@
+package sbmlme.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.sbml.jsbml.SBMLException;
+import org.sbml.jsbml.text.parser.ParseException;
+import org.sbolstandard.core2.SBOLConversionException;
+import org.sbolstandard.core2.SBOLValidationException;
+
+import sbmlme.converter.MEConverterOptions;
+
+/**
+ * Runs the {@link RoundTripHarness} with each combination of the streaming
+ * and the parallel mode and prints the throughput of each leg in reactions
+ * per second.
+ * <p>
+ * The arguments are the number of genes of
+ * {@link SyntheticModelGenerator generated} models, by default 1000, or the
+ * paths of COBRAme JSON files. Each round trip is run once as warm up before
+ * it is timed.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+public class RoundTripRunner {
+
+  public static void main(String[] args) throws IOException, ParseException,
+    SBOLValidationException, SBMLException, XMLStreamException,
+    SBOLConversionException {
+    if (args.length == 0) {
+      args = new String[] {"1000"};
+    }
+    for (String arg : args) {
+      String name;
+      byte[] json;
+      if (arg.matches("\\d+")) {
+        SyntheticModelGenerator generator = new SyntheticModelGenerator(1L);
+        generator.setSize(Integer.parseInt(arg));
+        name = "synthetic_" + arg;
+        json = RoundTripHarness.toJSON(generator.generate());
+      } else {
+        Path file = Paths.get(arg);
+        name = file.getFileName().toString().replaceFirst("\\.json$", "");
+        json = Files.readAllBytes(file);
+      }
+      for (int mode = 0; mode < 4; mode++) {
+        MEConverterOptions options = new MEConverterOptions();
+        options.setStreaming(mode % 2 == 1);
+        options.setParallel(mode >= 2);
+        RoundTripHarness harness = new RoundTripHarness(options);
+        // warm up before timing the round trip
+        harness.run(json, name);
+        RoundTripHarness.Result result = harness.run(json, name);
+        System.out.println(name + (options.isStreaming() ? " streaming" : "")
+          + (options.isParallel() ? " parallel" : "") + ": "
+          + result.getReactions() + " reactions, "
+          + (result.isIdentical() ? "identical"
+            : result.isEquivalent() ? "equivalent"
+              : result.getDifferences().size() + " differences"));
+        for (int leg = 0; leg < RoundTripHarness.legs.size(); leg++) {
+          System.out.println("  " + RoundTripHarness.legs.get(leg) + ": "
+            + String.format("%.1f", result.getNanoseconds(leg) / 1e6)
+            + " ms, "
+            + String.format("%.0f", result.getThroughput(leg))
+            + " reactions/s");
+        }
+        for (String difference : result.getDifferences()) {
+          System.out.println("  " + difference);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package sbmlme.benchmark.jmh;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler and writes the results as JSON, so
+ * that the throughput and the allocation rate of different runs can be
+ * compared.
+ * <p>
+ * The arguments are those of the JMH command line, e.g. a regular expression
+ * to select the benchmarks. The result file is {@value #resultFile} unless it
+ * is set with -rff, the format is JSON unless it is set with -rf.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+public class BenchmarkRunner {
+
+  /**
+   * the default file of the results
+   */
+  public static final String resultFile = "jmh-result.json";
+
+
+  public static void main(String[] args)
+    throws RunnerException, CommandLineOptionException {
+    CommandLineOptions commandLine = new CommandLineOptions(args);
+    ChainedOptionsBuilder builder =
+      new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class);
+    // options of the builder take precedence over those of the command line
+    if (!commandLine.getResultFormat().hasValue()) {
+      builder.resultFormat(ResultFormatType.JSON);
+    }
+    if (!commandLine.getResult().hasValue()) {
+      builder.result(resultFile);
+    }
+    new Runner(builder.build()).run();
+  }
+}
@@ -0,0 +1,119 @@
+package sbmlme.benchmark.jmh;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import sbmlme.MECoefficientLexer;
+
+/**
+ * Compares the classification of stoichiometric coefficients and the search
+ * for their parameters by {@link MECoefficientLexer} with the regular
+ * expressions previously used by
+ * {@link sbmlme.MEReactionPlugin#addCOBRAmeSpeciesToFragment(sbmlme.MEReactionFragment, String, String)}
+ * and {@link sbmlme.MECoefficientFormula}.
+ * <p>
+ * The coefficients are a mix of numbers and growth rate dependent formulas as
+ * found in COBRAme models, each coefficient is classified once per operation.
+ * That both implementations give the same results is checked by the
+ * MECoefficientLexerTest of SBMLme.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CoefficientLexerBenchmark {
+
+  /**
+   * coefficients as they are found in the reactions of COBRAme models
+   */
+  private static final String[] coefficients = {"-1", "1", "2.0", "-0.5",
+    "1.0E-5", "-4.27350427350427e-6*mu", "mu", "-0.000116266666666667*mu",
+    "0.01*mu + 0.02", "-(mu*2 + 3)", "-1/(mu + 0.5)",
+    "-(0.000116266666666667*mu + 3.3e-5)", "-2.34405624e-5*mu - 0.0001",
+    "-1.0*(mu*0.0036363636 + 0.000954)", "kt*mu/(mu + r0*kt)", "-1337.0",
+    "-(mu/(0.0001*mu + 0.000116))*1.5"};
+  private static final int      coefficientCount = 17;
+
+
+  @Benchmark
+  @OperationsPerInvocation(coefficientCount)
+  public void lexer(Blackhole blackhole) {
+    for (String coefficient : coefficients) {
+      MECoefficientLexer.Kind kind = MECoefficientLexer.classify(coefficient);
+      blackhole.consume(kind);
+      if (kind != MECoefficientLexer.Kind.NUMERIC) {
+        blackhole.consume(MECoefficientLexer.findParameters(
+          MECoefficientLexer.removeSpaces(coefficient)));
+      }
+    }
+  }
+
+
+  @Benchmark
+  @OperationsPerInvocation(coefficientCount)
+  public void regularExpressions(Blackhole blackhole) {
+    for (String coefficient : coefficients) {
+      if (coefficient.matches("-?\\d+\\.?\\d*")) {
+        blackhole.consume(MECoefficientLexer.Kind.NUMERIC);
+      } else {
+        String expression = coefficient.replace(" ", "");
+        blackhole.consume(findParameters(expression));
+        blackhole.consume(isReactant(expression));
+      }
+    }
+  }
+
+
+  /**
+   * the parameter search of the former {@link sbmlme.MECoefficientFormula}
+   */
+  private static List<String> findParameters(String expression) {
+    // search for new parameter ids
+    List<String> parameterSearch = Arrays.asList(
+      expression.split("(?<=[-+*/\\(\\)])|(?=[-+*/\\(\\)])"));
+    List<String> tempParameters = new ArrayList<String>();
+    for (int i = 0; i < parameterSearch.size(); i++) {
+      // if element contains word characters and does not match an Integer
+      if ((parameterSearch.get(i).matches("\\w+"))
+        && !(parameterSearch.get(i).matches("\\d+"))
+        && !tempParameters.contains(parameterSearch.get(i))) {
+        tempParameters.add(parameterSearch.get(i));
+      }
+    }
+    return tempParameters;
+  }
+
+
+  /**
+   * the decision between reactant and product of the former
+   * {@link sbmlme.MECoefficientFormula}
+   */
+  private static boolean isReactant(String expression) {
+    // check the first character that is not an opening bracket, for minus to
+    // decide between reactant and product
+    int i = 0;
+    while ((i < expression.length()) && (expression.charAt(i) == '(')) {
+      i++;
+    }
+    return (i < expression.length()) && (expression.charAt(i) == '-');
+  }
+}
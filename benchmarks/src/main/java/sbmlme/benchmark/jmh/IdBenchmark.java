@@ -0,0 +1,93 @@
+package sbmlme.benchmark.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import sbmlme.MEReactionPlugin;
+import sbmlme.converter.MESBMLToJson;
+
+/**
+ * Measures the conversion of COBRAme ids to SBML ids by
+ * {@link sbmlme.MEAbstractXMLNodePlugin#createSBMLConformId(String)} and back
+ * by {@link MESBMLToJson#ConvertSBMLIdToCOBRAId(String)}.
+ * <p>
+ * The ids have the shapes of the ids in COBRAme models, i.e. they contain
+ * colons and dashes or start with a digit, and each id is converted once per
+ * operation in the same order as in a conversion.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdBenchmark {
+
+  private static final int idCount = 1000;
+  private String[]         cobraIds;
+  private String[]         sbmlIds;
+  private MEReactionPlugin reactionPlugin;
+  private MESBMLToJson     sbmlToJson;
+
+
+  @Setup
+  public void setUp() {
+    reactionPlugin = new MEReactionPlugin();
+    sbmlToJson =
+      new MESBMLToJson(MESBMLToJson.createJSONMapper(), false, null);
+    cobraIds = new String[idCount];
+    sbmlIds = new String[idCount];
+    for (int i = 0; i < idCount; i++) {
+      switch (i % 5) {
+      case 0:
+        cobraIds[i] = i + "fthf_c";
+        break;
+      case 1:
+        cobraIds[i] = "Def_mono_mod_" + i + ":fe2";
+        break;
+      case 2:
+        cobraIds[i] = "RNAP" + i + "-CPLX";
+        break;
+      case 3:
+        cobraIds[i] = "charging_tRNA_b" + i + "_AAC";
+        break;
+      default:
+        cobraIds[i] = "formation_cplx_b" + i + "_mono";
+      }
+      sbmlIds[i] = reactionPlugin.createSBMLConformId(cobraIds[i]);
+    }
+  }
+
+
+  @Benchmark
+  @OperationsPerInvocation(idCount)
+  public void createSBMLConformId(Blackhole blackhole) {
+    for (String id : cobraIds) {
+      blackhole.consume(reactionPlugin.createSBMLConformId(id));
+    }
+  }
+
+
+  @Benchmark
+  @OperationsPerInvocation(idCount)
+  public void convertSBMLIdToCOBRAId(Blackhole blackhole) {
+    for (String id : sbmlIds) {
+      blackhole.consume(sbmlToJson.ConvertSBMLIdToCOBRAId(id));
+    }
+  }
+}
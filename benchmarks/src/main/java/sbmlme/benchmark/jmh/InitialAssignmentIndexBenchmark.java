@@ -0,0 +1,111 @@
+package sbmlme.benchmark.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sbml.jsbml.InitialAssignment;
+import org.sbml.jsbml.ListOf;
+import org.sbml.jsbml.Model;
+
+import sbmlme.benchmark.SyntheticModelGenerator;
+import sbmlme.converter.MEInitialAssignmentIndex;
+
+/**
+ * Compares the lookup of InitialAssignments by
+ * {@link Model#getInitialAssignmentBySymbol(String)} with
+ * {@link MEInitialAssignmentIndex} on models of the
+ * {@link SyntheticModelGenerator} with different numbers of assignments.
+ * <p>
+ * The generated model is cut down to the given number of assignments, most of
+ * them belong to symbolic stoichiometries. Both lookups resolve the same
+ * symbols, which are spread evenly over the list of assignments, so that the
+ * search has to scan half of the list on average. The creation of the
+ * formulas of the assignments and the construction of the index are measured
+ * separately.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class InitialAssignmentIndexBenchmark {
+
+  private static final int         lookupCount = 1000;
+  @Param({"1000", "10000", "50000"})
+  public int                       assignments;
+  private Model                    model;
+  private MEInitialAssignmentIndex index;
+  private String[]                 symbols;
+
+
+  @Setup
+  public void setUp() throws Exception {
+    // about 21 assignments are generated per gene
+    SyntheticModelGenerator generator = new SyntheticModelGenerator(42L);
+    generator.setSize(assignments / 20 + 1);
+    model = generator.generate().getSBMLDocument().getModel();
+    ListOf<InitialAssignment> list = model.getListOfInitialAssignments();
+    if (list.size() < assignments) {
+      throw new IllegalStateException("Only " + list.size()
+        + " assignments were generated instead of " + assignments);
+    }
+    while (list.size() > assignments) {
+      list.remove(list.size() - 1);
+    }
+    index = new MEInitialAssignmentIndex(model);
+    symbols = new String[lookupCount];
+    for (int i = 0; i < lookupCount; i++) {
+      symbols[i] = list.get((int) ((long) i * assignments / lookupCount))
+                       .getVariable();
+    }
+  }
+
+
+  @Benchmark
+  @OperationsPerInvocation(lookupCount)
+  public void search(Blackhole blackhole) {
+    for (String symbol : symbols) {
+      blackhole.consume(model.getInitialAssignmentBySymbol(symbol));
+    }
+  }
+
+
+  @Benchmark
+  @OperationsPerInvocation(lookupCount)
+  public void index(Blackhole blackhole) {
+    for (String symbol : symbols) {
+      blackhole.consume(index.getInitialAssignment(symbol));
+    }
+  }
+
+
+  @Benchmark
+  @OperationsPerInvocation(lookupCount)
+  public void formula(Blackhole blackhole) {
+    for (String symbol : symbols) {
+      blackhole.consume(index.getFormula(symbol));
+    }
+  }
+
+
+  @Benchmark
+  public void buildIndex(Blackhole blackhole) {
+    blackhole.consume(new MEInitialAssignmentIndex(model));
+  }
+}
@@ -0,0 +1,117 @@
+package sbmlme.benchmark.jmh;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sbml.jsbml.Model;
+import org.sbml.jsbml.ext.groups.Group;
+import org.sbml.jsbml.ext.groups.GroupsConstants;
+import org.sbml.jsbml.ext.groups.GroupsModelPlugin;
+import org.sbml.jsbml.ext.groups.Member;
+import org.sbml.jsbml.text.parser.ParseException;
+import org.sbolstandard.core2.SBOLValidationException;
+
+import sbmlme.benchmark.SyntheticModelGenerator;
+import sbmlme.converter.MEDocuments;
+import sbmlme.converter.MEInitialAssignmentIndex;
+import sbmlme.converter.MEJsonProcessData;
+import sbmlme.converter.MEObjectiveIndex;
+import sbmlme.converter.MESBMLToJson;
+import sbmlme.converter.MESequenceIndex;
+import sbmlme.converter.MESpeciesIndex;
+
+/**
+ * Measures the conversion of the SBML reactions of a model of the
+ * {@link SyntheticModelGenerator} to their JSON representation by
+ * {@link MESBMLToJson#addReaction(String, Model, MEObjectiveIndex, List, String, MESequenceIndex, MESpeciesIndex, MEInitialAssignmentIndex)}.
+ * <p>
+ * The indexes are created once like in a conversion of the whole model, so
+ * that only the conversion of the reactions is measured. A single operation
+ * is the conversion of one reaction, the reactions are converted in the order
+ * of their groups.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonReactionBenchmark {
+
+  @Param({"100"})
+  public int                       genes;
+  private Model                    model;
+  private MEObjectiveIndex         objectiveIndex;
+  private MESBMLToJson             sbmlToJson;
+  private MESequenceIndex          sequenceIndex;
+  private MESpeciesIndex           speciesIndex;
+  private MEInitialAssignmentIndex assignmentIndex;
+  /**
+   * the ids of the reactions in the order of their groups
+   */
+  private List<String>             reactionIds;
+  /**
+   * the ids of the groups of the reactions
+   */
+  private List<String>             groupIds;
+  /**
+   * the position in the list of reactions
+   */
+  private int                      count;
+
+
+  @Setup
+  public void setUp() throws ParseException, SBOLValidationException {
+    SyntheticModelGenerator generator = new SyntheticModelGenerator(42L);
+    generator.setSize(genes);
+    MEDocuments documents = generator.generate();
+    model = documents.getSBMLDocument().getModel();
+    objectiveIndex = new MEObjectiveIndex(model);
+    GroupsModelPlugin groups =
+      (GroupsModelPlugin) model.getPlugin(GroupsConstants.shortLabel);
+    sbmlToJson =
+      new MESBMLToJson(MESBMLToJson.createJSONMapper(), false, null);
+    sequenceIndex = new MESequenceIndex(documents.getSBOLDocument());
+    speciesIndex = new MESpeciesIndex(groups);
+    assignmentIndex = new MEInitialAssignmentIndex(model);
+    reactionIds = new ArrayList<String>();
+    groupIds = new ArrayList<String>();
+    for (Group group : groups.getListOfGroups()) {
+      for (Member member : group.getListOfMembers()) {
+        if (model.getReaction(member.getIdRef()) != null) {
+          reactionIds.add(member.getIdRef());
+          groupIds.add(group.getId());
+        }
+      }
+    }
+  }
+
+
+  @Benchmark
+  public void addReaction(Blackhole blackhole) throws IOException {
+    // the process data of the reactions are not kept between operations
+    List<MEJsonProcessData> processData = new ArrayList<MEJsonProcessData>(1);
+    blackhole.consume(sbmlToJson.addReaction(reactionIds.get(count), model,
+      objectiveIndex, processData, groupIds.get(count), sequenceIndex,
+      speciesIndex, assignmentIndex));
+    blackhole.consume(processData);
+    count = (count + 1) % reactionIds.size();
+  }
+}
@@ -0,0 +1,240 @@
+package sbmlme.benchmark.jmh;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sbml.jsbml.Model;
+import org.sbml.jsbml.Reaction;
+import org.sbml.jsbml.ext.fbc.FBCConstants;
+import org.sbml.jsbml.ext.fbc.FBCModelPlugin;
+import org.sbml.jsbml.ext.fbc.FBCReactionPlugin;
+import org.sbml.jsbml.ext.fbc.Objective;
+import org.sbml.jsbml.ext.groups.GroupsConstants;
+import org.sbml.jsbml.ext.groups.GroupsModelPlugin;
+import org.sbml.jsbml.text.parser.ParseException;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLValidationException;
+
+import sbmlme.MEReactionPlugin;
+import sbmlme.benchmark.SyntheticModelGenerator;
+import sbmlme.converter.MEDocuments;
+
+/**
+ * Measures the creation of the reactions of every type by the
+ * {@link MEReactionPlugin}, as well as the addition of a single species by
+ * {@link MEReactionPlugin#addCOBRAmeSpeciesToReaction} and the bounds of a
+ * reaction by {@link MEReactionPlugin#setBounds}.
+ * <p>
+ * Every iteration starts with a model of the {@link SyntheticModelGenerator}
+ * without reactions, whose reactions were recorded by a
+ * {@link ReactionRecorder}. Every operation creates one of the recorded
+ * reactions of its type with a new id, the recorded reactions are used in
+ * turn. The model therefore grows during an iteration like it does during the
+ * conversion of a COBRAme model.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReactionBenchmark {
+
+  /**
+   * the bound of the DNA replication in the COBRAme model of E. coli
+   */
+  private static final String       symbolicBound       =
+    "mu*(-0.125041790343836*mu**3.90364139015214/(mu**3.90364139015214 + 0.116858742296566) + 0.192933177925728)";
+  private static final List<String> summarySpecies      =
+    Arrays.asList("protein_biomass", "biomass");
+  private static final List<String> summaryCoefficients =
+    Arrays.asList("-1", "1");
+  @Param({"100"})
+  public int                        genes;
+  private SyntheticModelGenerator   generator;
+  private ReactionRecorder          recorder;
+  private Model                     model;
+  private SBOLDocument              sbol;
+  private GroupsModelPlugin         groups;
+  private Objective                 objective;
+  private MEReactionPlugin          reactionPlugin;
+  /**
+   * the ids of the species that are added to reactions in turn
+   */
+  private String[]                  speciesIds;
+  /**
+   * the number of operations in the current iteration
+   */
+  private int                       count;
+  /**
+   * the reaction that species are added to, replaced after all species
+   */
+  private Reaction                  reaction;
+
+
+  @Setup
+  public void setUpGenerator() {
+    generator = new SyntheticModelGenerator(42L);
+    generator.setSize(genes);
+    recorder = new ReactionRecorder();
+    generator.setReactionPlugin(recorder);
+    reactionPlugin = new MEReactionPlugin();
+  }
+
+
+  @Setup(Level.Iteration)
+  public void setUp() throws ParseException, SBOLValidationException {
+    // the same seed always records the same reactions
+    recorder.clear();
+    MEDocuments documents = generator.generate();
+    model = documents.getSBMLDocument().getModel();
+    sbol = documents.getSBOLDocument();
+    groups = (GroupsModelPlugin) model.getPlugin(GroupsConstants.shortLabel);
+    objective = ((FBCModelPlugin) model.getPlugin(FBCConstants.shortLabel))
+      .getActiveObjectiveInstance();
+    speciesIds = new String[model.getSpeciesCount()];
+    for (int i = 0; i < speciesIds.length; i++) {
+      speciesIds[i] = model.getSpecies(i).getId();
+    }
+    count = 0;
+  }
+
+
+  @Benchmark
+  public void createTranscriptionReaction()
+    throws ParseException, SBOLValidationException {
+    create(ReactionRecorder.transcription, "TU_");
+  }
+
+
+  @Benchmark
+  public void createTranslationReaction()
+    throws ParseException, SBOLValidationException {
+    create(ReactionRecorder.translation, "b");
+  }
+
+
+  @Benchmark
+  public void createtRNAChargingReaction()
+    throws ParseException, SBOLValidationException {
+    create(ReactionRecorder.tRNACharging, "charging_");
+  }
+
+
+  @Benchmark
+  public void createPostTranslationReaction()
+    throws ParseException, SBOLValidationException {
+    create(ReactionRecorder.postTranslation, "translocation_");
+  }
+
+
+  @Benchmark
+  public void createComplexFormationReaction()
+    throws ParseException, SBOLValidationException {
+    create(ReactionRecorder.complexFormation, "formation_");
+  }
+
+
+  @Benchmark
+  public void createMetabolicReaction()
+    throws ParseException, SBOLValidationException {
+    create(ReactionRecorder.metabolic, "metabolic_");
+  }
+
+
+  @Benchmark
+  public void createGenericFormationReaction()
+    throws ParseException, SBOLValidationException {
+    create(ReactionRecorder.genericFormation, "generic_");
+  }
+
+
+  @Benchmark
+  public void createMEReaction()
+    throws ParseException, SBOLValidationException {
+    create(ReactionRecorder.meReaction, "DM_");
+  }
+
+
+  @Benchmark
+  public void createSummaryVariableReaction() throws ParseException {
+    reactionPlugin.createSummaryVariableReaction(model, groups, objective,
+      "summary_" + count++, "", "1000.00000000000", "0.0", summarySpecies,
+      summaryCoefficients, 0.0, "continuous");
+  }
+
+
+  @Benchmark
+  public void addNumericSpecies() throws ParseException {
+    int i = count++;
+    reactionPlugin.addCOBRAmeSpeciesToReaction(model, getReaction(i),
+      speciesIds[i % speciesIds.length], "-1.0");
+  }
+
+
+  @Benchmark
+  public void addSymbolicSpecies() throws ParseException {
+    int i = count++;
+    reactionPlugin.addCOBRAmeSpeciesToReaction(model, getReaction(i),
+      speciesIds[i % speciesIds.length], "-4.27350427350427e-6*mu");
+  }
+
+
+  @Benchmark
+  public void setNumericBounds() throws ParseException {
+    reactionPlugin.setBounds(model, createFBCReaction("bounds_" + count++),
+      "1000.00000000000", "0.0");
+  }
+
+
+  @Benchmark
+  public void setSymbolicBounds() throws ParseException {
+    reactionPlugin.setBounds(model, createFBCReaction("bounds_" + count++),
+      symbolicBound, "mu");
+  }
+
+
+  /**
+   * Creates the next recorded reaction of the given type with a new id.
+   */
+  private void create(String type, String prefix)
+    throws ParseException, SBOLValidationException {
+    int i = count++;
+    recorder.create(type, i, prefix + i, model, sbol, groups, objective);
+  }
+
+
+  /**
+   * Returns the reaction for the species of the given operation, a new
+   * reaction is created when all species have been added to the current one.
+   */
+  private Reaction getReaction(int operation) {
+    if (operation % speciesIds.length == 0) {
+      reaction =
+        model.createReaction("species_" + operation / speciesIds.length);
+    }
+    return reaction;
+  }
+
+
+  private FBCReactionPlugin createFBCReaction(String id) {
+    return (FBCReactionPlugin) model.createReaction(id)
+                                    .getPlugin(FBCConstants.shortLabel);
+  }
+}
@@ -0,0 +1,331 @@
+package sbmlme.benchmark.jmh;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.sbml.jsbml.Model;
+import org.sbml.jsbml.ext.fbc.Objective;
+import org.sbml.jsbml.ext.groups.GroupsModelPlugin;
+import org.sbml.jsbml.text.parser.ParseException;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLValidationException;
+
+import sbmlme.MEReactionPlugin;
+import sbmlme.benchmark.SyntheticModelGenerator;
+
+/**
+ * Records the reactions of a {@link SyntheticModelGenerator} instead of
+ * creating them, so that they can be created again with new ids.
+ * <p>
+ * A model generated with the recorder only contains the species and the
+ * process data. The arguments of every reaction are kept by its type, and
+ * {@link #create} passes them to a plain {@link MEReactionPlugin}. The
+ * reactions of the types with a sequence take the new id also as id of their
+ * data, since it names the sequence in the SBOL document.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+public class ReactionRecorder extends MEReactionPlugin {
+
+  /**
+   * 
+   */
+  private static final long       serialVersionUID = 1L;
+  public static final String      transcription    = "transcription";
+  public static final String      translation      = "translation";
+  public static final String      tRNACharging     = "tRNA charging";
+  public static final String      postTranslation  = "post translation";
+  public static final String      complexFormation = "complex formation";
+  public static final String      metabolic        = "metabolic";
+  public static final String      genericFormation = "generic formation";
+  public static final String      meReaction       = "ME reaction";
+  public static final String      summaryVariable  = "summary variable";
+  /**
+   * the recorded reactions by their type
+   */
+  private Map<String, List<Call>> calls            =
+    new LinkedHashMap<String, List<Call>>();
+  /**
+   * the plugin that creates the recorded reactions
+   */
+  private MEReactionPlugin        reactionPlugin   = new MEReactionPlugin();
+
+
+  /**
+   * Creates the reaction of the given type with the given index among the
+   * recorded reactions of this type, the index is taken modulo their number.
+   * 
+   * @param type
+   *        the type of the reaction, e.g. {@link #transcription}
+   * @param index
+   *        the index of the reaction
+   * @param id
+   *        the new id of the reaction
+   * @param model
+   *        the model that the reaction is added to
+   * @param sbol
+   *        the SBOL document of the model
+   * @param groups
+   *        the groups plugin of the model
+   * @param objective
+   *        the objective of the model
+   * @throws ParseException
+   * @throws SBOLValidationException
+   */
+  public void create(String type, int index, String id, Model model,
+    SBOLDocument sbol, GroupsModelPlugin groups, Objective objective)
+    throws ParseException, SBOLValidationException {
+    List<Call> typeCalls = calls.get(type);
+    if (typeCalls == null) {
+      throw new IllegalArgumentException("No reaction of type " + type
+        + " was recorded");
+    }
+    typeCalls.get(index % typeCalls.size()).create(id, model, sbol, groups,
+      objective);
+  }
+
+
+  /**
+   * @param type
+   *        the type of the reactions, e.g. {@link #transcription}
+   * @return the number of recorded reactions of the type
+   */
+  public int getCount(String type) {
+    List<Call> typeCalls = calls.get(type);
+    return typeCalls == null ? 0 : typeCalls.size();
+  }
+
+
+  /**
+   * Removes all recorded reactions, e.g. before a new model is generated.
+   */
+  public void clear() {
+    calls.clear();
+  }
+
+
+  private void record(String type, Call call) {
+    List<Call> typeCalls = calls.get(type);
+    if (typeCalls == null) {
+      typeCalls = new ArrayList<Call>();
+      calls.put(type, typeCalls);
+    }
+    typeCalls.add(call);
+  }
+
+
+  @Override
+  public void createSummaryVariableReaction(Model model,
+    GroupsModelPlugin groups, Objective objective, String id,
+    final String name, final String upperBound, final String lowerBound,
+    final List<String> speciesIds, final List<String> coefficients,
+    final double objectiveCoefficient, final String variableKind) {
+    record(summaryVariable, new Call() {
+
+      @Override
+      void create(String id, Model model, SBOLDocument sbol,
+        GroupsModelPlugin groups, Objective objective) throws ParseException {
+        reactionPlugin.createSummaryVariableReaction(model, groups, objective,
+          id, name, upperBound, lowerBound, speciesIds, coefficients,
+          objectiveCoefficient, variableKind);
+      }
+    });
+  }
+
+
+  @Override
+  public void createGenericFormationReaction(Model model,
+    GroupsModelPlugin groups, Objective objective, String id,
+    final String name, final double upperBound, final double lowerBound,
+    final List<String> speciesIds, final List<String> coefficients,
+    final double objectiveCoefficient, final String variableKind) {
+    record(genericFormation, new Call() {
+
+      @Override
+      void create(String id, Model model, SBOLDocument sbol,
+        GroupsModelPlugin groups, Objective objective) throws ParseException {
+        reactionPlugin.createGenericFormationReaction(model, groups,
+          objective, id, name, upperBound, lowerBound, speciesIds,
+          coefficients, objectiveCoefficient, variableKind);
+      }
+    });
+  }
+
+
+  @Override
+  public void createTranscriptionReaction(Model model, SBOLDocument sbol,
+    GroupsModelPlugin groups, Objective objective, String id,
+    final String name, String dataId, final double upperBound,
+    final double lowerBound, final List<String> speciesIds,
+    final List<String> coefficients, final double objectiveCoefficient,
+    final String variableKind, final String sequence,
+    final LinkedHashMap<String, Double> subreactionMap) {
+    record(transcription, new Call() {
+
+      @Override
+      void create(String id, Model model, SBOLDocument sbol,
+        GroupsModelPlugin groups, Objective objective)
+        throws ParseException, SBOLValidationException {
+        reactionPlugin.createTranscriptionReaction(model, sbol, groups,
+          objective, "transcription_" + id, name, id, upperBound, lowerBound,
+          speciesIds, coefficients, objectiveCoefficient, variableKind,
+          sequence, subreactionMap);
+      }
+    });
+  }
+
+
+  @Override
+  public void createTranslationReaction(Model model, SBOLDocument sbol,
+    GroupsModelPlugin groups, Objective objective, String id,
+    final String name, String dataId, final double upperBound,
+    final double lowerBound, final List<String> speciesIds,
+    final List<String> coefficients, final double objectiveCoefficient,
+    final String variableKind, final String sequence,
+    final LinkedHashMap<String, Double> subreactionMap) {
+    record(translation, new Call() {
+
+      @Override
+      void create(String id, Model model, SBOLDocument sbol,
+        GroupsModelPlugin groups, Objective objective)
+        throws ParseException, SBOLValidationException {
+        reactionPlugin.createTranslationReaction(model, sbol, groups,
+          objective, "translation_" + id, name, id, upperBound, lowerBound,
+          speciesIds, coefficients, objectiveCoefficient, variableKind,
+          sequence, subreactionMap);
+      }
+    });
+  }
+
+
+  @Override
+  public void createtRNAChargingReaction(Model model, GroupsModelPlugin groups,
+    Objective objective, String id, final String name, final String dataId,
+    final double upperBound, final double lowerBound, final double keff,
+    final List<String> speciesIds, final List<String> coefficients,
+    final double objectiveCoefficient, final String variableKind,
+    final LinkedHashMap<String, Double> subreactionMap,
+    final String synthetase, final String codon, final String aminoAcid) {
+    record(tRNACharging, new Call() {
+
+      @Override
+      void create(String id, Model model, SBOLDocument sbol,
+        GroupsModelPlugin groups, Objective objective)
+        throws ParseException, SBOLValidationException {
+        reactionPlugin.createtRNAChargingReaction(model, groups, objective, id,
+          name, dataId, upperBound, lowerBound, keff, speciesIds,
+          coefficients, objectiveCoefficient, variableKind, subreactionMap,
+          synthetase, codon, aminoAcid);
+      }
+    });
+  }
+
+
+  @Override
+  public void createPostTranslationReaction(Model model,
+    GroupsModelPlugin groups, Objective objective, String id,
+    final String name, final String dataId, final double upperBound,
+    final double lowerBound, final List<String> speciesIds,
+    final List<String> coefficients, final double objectiveCoefficient,
+    final String variableKind,
+    final LinkedHashMap<String, Double> subreactionMap,
+    final double aggregationPropensity, final List<String> translocation,
+    final List<Double> multipliers, final double propensityScaling,
+    final List<String> surfaceArea, final List<Double> surfaceAreaValue,
+    final List<String> keqFolding, final List<Double> keqValues,
+    final List<String> kFolding, final List<Double> kValues,
+    final String biomassType, final String processed,
+    final String unprocessed) {
+    record(postTranslation, new Call() {
+
+      @Override
+      void create(String id, Model model, SBOLDocument sbol,
+        GroupsModelPlugin groups, Objective objective) throws ParseException {
+        reactionPlugin.createPostTranslationReaction(model, groups, objective,
+          id, name, dataId, upperBound, lowerBound, speciesIds, coefficients,
+          objectiveCoefficient, variableKind, subreactionMap,
+          aggregationPropensity, translocation, multipliers,
+          propensityScaling, surfaceArea, surfaceAreaValue, keqFolding,
+          keqValues, kFolding, kValues, biomassType, processed, unprocessed);
+      }
+    });
+  }
+
+
+  @Override
+  public void createComplexFormationReaction(Model model,
+    GroupsModelPlugin groups, Objective objective, String id,
+    final String name, final String dataId, final String complexId,
+    final double upperBound, final double lowerBound,
+    final List<String> speciesIds, final List<String> coefficients,
+    final double objectiveCoefficient, final String variableKind,
+    final LinkedHashMap<String, Double> subreactionMap,
+    final LinkedHashMap<String, Double> stoichiometricMap) {
+    record(complexFormation, new Call() {
+
+      @Override
+      void create(String id, Model model, SBOLDocument sbol,
+        GroupsModelPlugin groups, Objective objective) throws ParseException {
+        reactionPlugin.createComplexFormationReaction(model, groups,
+          objective, id, name, dataId, complexId, upperBound, lowerBound,
+          speciesIds, coefficients, objectiveCoefficient, variableKind,
+          subreactionMap, stoichiometricMap);
+      }
+    });
+  }
+
+
+  @Override
+  public void createMetabolicReaction(Model model, GroupsModelPlugin groups,
+    Objective objective, String id, final String name, final String dataId,
+    final double upperBound, final double lowerBound,
+    final List<String> speciesIds, final List<String> coefficients,
+    final double objectiveCoefficient, final String variableKind,
+    final double keff, final boolean reverse, final String complexDataId) {
+    record(metabolic, new Call() {
+
+      @Override
+      void create(String id, Model model, SBOLDocument sbol,
+        GroupsModelPlugin groups, Objective objective) throws ParseException {
+        reactionPlugin.createMetabolicReaction(model, groups, objective, id,
+          name, dataId, upperBound, lowerBound, speciesIds, coefficients,
+          objectiveCoefficient, variableKind, keff, reverse, complexDataId);
+      }
+    });
+  }
+
+
+  @Override
+  public void createMEReaction(Model model, GroupsModelPlugin groups,
+    Objective objective, String id, final String name,
+    final double upperBound, final double lowerBound,
+    final List<String> speciesIds, final List<String> coefficients,
+    final double objectiveCoefficient, final String variableKind) {
+    record(meReaction, new Call() {
+
+      @Override
+      void create(String id, Model model, SBOLDocument sbol,
+        GroupsModelPlugin groups, Objective objective) throws ParseException {
+        reactionPlugin.createMEReaction(model, groups, objective, id, name,
+          upperBound, lowerBound, speciesIds, coefficients,
+          objectiveCoefficient, variableKind);
+      }
+    });
+  }
+
+
+  /**
+   * The arguments of a recorded reaction.
+   * 
+   * @author Marc A. Voigt
+   */
+  private abstract static class Call {
+
+    abstract void create(String id, Model model, SBOLDocument sbol,
+      GroupsModelPlugin groups, Objective objective)
+      throws ParseException, SBOLValidationException;
+  }
+}
@@ -0,0 +1,112 @@
+package sbmlme.benchmark.jmh;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import sbmlme.benchmark.SyntheticModelGenerator;
+import sbmlme.converter.MEConverter;
+import sbmlme.converter.MEConverterOptions;
+import sbmlme.converter.MEDocuments;
+
+/**
+ * Measures the conversion of a model of the {@link SyntheticModelGenerator}
+ * from COBRAme JSON to a COMBINE archive, back to JSON and the whole round
+ * trip with an {@link MEConverter} in memory.
+ * <p>
+ * The JSON input is created once from the generated model, the documents for
+ * the conversion to JSON are created once from this input. The round trip
+ * converts the documents that it has written to the archive back to JSON.
+ * Neither leg writes to the file system, so that the results do not depend on
+ * the disk.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class RoundTripBenchmark {
+
+  @Param({"100", "1000"})
+  public int          genes;
+  @Param({"false", "true"})
+  public boolean      parallel;
+  private MEConverter converter;
+  private byte[]      json;
+  private MEDocuments documents;
+
+
+  @Setup
+  public void setUp() throws Exception {
+    SyntheticModelGenerator generator = new SyntheticModelGenerator(42L);
+    generator.setSize(genes);
+    MEDocuments synthetic = generator.generate();
+    MEConverterOptions options = new MEConverterOptions();
+    options.setModelName("synthetic_model");
+    options.setParallel(parallel);
+    options.setLog(null);
+    converter = new MEConverter(options);
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    converter.convertToJSON(synthetic.getSBMLDocument(),
+      synthetic.getSBOLDocument(), stream);
+    json = stream.toByteArray();
+    documents = toDocuments(json);
+  }
+
+
+  @Benchmark
+  public void jsonToArchive(Blackhole blackhole) throws Exception {
+    blackhole.consume(toArchive(toDocuments(json)));
+  }
+
+
+  @Benchmark
+  public void sbmlToJson(Blackhole blackhole) throws Exception {
+    blackhole.consume(toJson(documents));
+  }
+
+
+  @Benchmark
+  public void roundTrip(Blackhole blackhole) throws Exception {
+    MEDocuments converted = toDocuments(json);
+    blackhole.consume(toArchive(converted));
+    blackhole.consume(toJson(converted));
+  }
+
+
+  private MEDocuments toDocuments(byte[] input) throws Exception {
+    return converter.convertToSBML(new ByteArrayInputStream(input));
+  }
+
+
+  private byte[] toArchive(MEDocuments input) throws Exception {
+    ByteArrayOutputStream archive = new ByteArrayOutputStream();
+    converter.writeArchive(input, archive, "synthetic_model");
+    return archive.toByteArray();
+  }
+
+
+  private byte[] toJson(MEDocuments input) throws Exception {
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    converter.convertToJSON(input.getSBMLDocument(), input.getSBOLDocument(),
+      stream);
+    return stream.toByteArray();
+  }
+}
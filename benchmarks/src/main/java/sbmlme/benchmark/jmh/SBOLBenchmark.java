@@ -0,0 +1,91 @@
+package sbmlme.benchmark.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sbml.jsbml.text.parser.ParseException;
+import org.sbolstandard.core2.OrientationType;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLValidationException;
+import org.sbolstandard.core2.Sequence;
+
+import sbmlme.MESBOLPlugin;
+import sbmlme.benchmark.SyntheticModelGenerator;
+
+/**
+ * Measures the creation of a sequence with its ComponentDefinition and
+ * SequenceAnnotation by
+ * {@link MESBOLPlugin#createSBOLSequenceWithAnnotation(SBOLDocument, String, String, String, OrientationType, int, int)}.
+ * <p>
+ * Every iteration starts with an empty SBOL document and every operation adds
+ * the sequence of the next gene of a model of the
+ * {@link SyntheticModelGenerator} with a new id.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SBOLBenchmark {
+
+  @Param({"100"})
+  public int             genes;
+  private String[]       sequences;
+  private MESBOLPlugin   sbolPlugin;
+  private SBOLDocument   sbol;
+  /**
+   * the number of operations in the current iteration
+   */
+  private int            count;
+
+
+  @Setup
+  public void setUpSequences() throws SBOLValidationException,
+    ParseException {
+    SyntheticModelGenerator generator = new SyntheticModelGenerator(42L);
+    generator.setSize(genes);
+    List<String> elements = new ArrayList<String>();
+    for (Sequence sequence : generator.generate().getSBOLDocument()
+                                      .getSequences()) {
+      elements.add(sequence.getElements());
+    }
+    sequences = elements.toArray(new String[elements.size()]);
+    sbolPlugin = new MESBOLPlugin();
+  }
+
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    sbol = new SBOLDocument();
+    sbol.setDefaultURIprefix("http://cobramens.url/sbol/");
+    count = 0;
+  }
+
+
+  @Benchmark
+  public void createSBOLSequenceWithAnnotation()
+    throws SBOLValidationException {
+    int i = count++;
+    String sequence = sequences[i % sequences.length];
+    sbolPlugin.createSBOLSequenceWithAnnotation(sbol, "RNA_" + i, sequence,
+      "mRNA", OrientationType.INLINE, 1 + i * 1600, i * 1600
+        + sequence.length());
+  }
+}
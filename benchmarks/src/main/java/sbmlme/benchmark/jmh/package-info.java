@@ -0,0 +1,18 @@
+/**
+ * The SBMLme JMH package contains the benchmarks of the hot paths of the
+ * conversion between COBRAme and SBMLme, from the conversion of single ids up
+ * to the round trip of a whole model. The benchmarks use models of a fixed
+ * size from the {@link sbmlme.benchmark.SyntheticModelGenerator} of the SBMLme
+ * tests and are run by {@link sbmlme.benchmark.jmh.BenchmarkRunner} with the
+ * GC profiler, which writes the throughput and the allocation rate as JSON.
+ * The module is built after the SBMLme artifact and its test-jar have been
+ * installed:
+ * 
+ * <pre>
+ * mvn install
+ * cd benchmarks
+ * mvn package
+ * java -jar target/benchmarks.jar [regexp]
+ * </pre>
+ */
+package sbmlme.benchmark.jmh;
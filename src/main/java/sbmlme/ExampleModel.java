@@ -2,7 +2,6 @@ package sbmlme;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
@@ -15,7 +14,6 @@ import org.jdom2.JDOMException;
 import org.sbml.jsbml.Model;
 import org.sbml.jsbml.SBMLDocument;
 import org.sbml.jsbml.SBMLException;
-import org.sbml.jsbml.TidySBMLWriter;
 import org.sbml.jsbml.ext.fbc.FBCConstants;
 import org.sbml.jsbml.ext.fbc.FBCModelPlugin;
 import org.sbml.jsbml.ext.fbc.Objective;
@@ -26,7 +24,6 @@ import org.sbolstandard.core2.SBOLConversionException;
 import org.sbolstandard.core2.SBOLDocument;
 import org.sbolstandard.core2.SBOLValidationException;
 
-import de.unirostock.sems.cbarchive.CombineArchive;
 import de.unirostock.sems.cbarchive.CombineArchiveException;
 
 /**
@@ -747,16 +744,14 @@ public class ExampleModel implements MEConstants {
     //
     // write
     //
-    TidySBMLWriter tidySBMLWriter = new TidySBMLWriter();
-    tidySBMLWriter.write(doc, "example/ExampleModel.sbex");
-    // SBOL Test
-    sbol.write("example/ExampleModel.sbox");
-    CombineArchive ca = new CombineArchive(new File("ExampleArchive.zip"));
-    ca.addEntry(new File("example"), new File("example/ExampleModel.sbex"),
-      new URI("http://identifiers.org/combine.specifications/sbml"));
-    ca.addEntry(new File("example"), new File("example/ExampleModel.sbox"),
-      new URI("http://identifiers.org/combine.specifications/sbol"));
-    ca.pack();
-    ca.close();
+    MEArchiveWriter archive =
+      new MEArchiveWriter(new File("ExampleArchive" + archiveExtension));
+    try {
+      archive.writeSBML("ExampleModel" + sbmlExtension, doc, true);
+      archive.writeSBOL("ExampleModel" + sbolExtension, sbol);
+      archive.finish();
+    } finally {
+      archive.close();
+    }
   }
 }
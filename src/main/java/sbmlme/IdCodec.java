@@ -0,0 +1,164 @@
+package sbmlme;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Translates COBRAme ids into SBML conform ids and back.
+ * <p>
+ * COBRA ids are semantically overloaded and may contain characters that are
+ * forbidden in SBML ids. The characters ':', '-' and '/' are therefore
+ * replaced by placeholders and ids starting with a digit are prefixed by a
+ * placeholder. Encoding works in a single pass over the characters of the id.
+ * Ids that need no change, which are most ids when decoding, are returned
+ * themselves without a copy. Since the same ids are translated many times
+ * during a conversion, e.g. the id of a species for every reference to it, the
+ * other ids are kept in concurrent caches, so that a repeated translation only
+ * costs a single lookup. The caches stop growing when they are full, so that
+ * the ids of the first models of a long running process stay in them.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+public class IdCodec {
+
+  private static final String                        colon     =
+    "__meCOLONme__";
+  private static final String                        minus     =
+    "__meMINUSme__";
+  private static final String                        slash     =
+    "__meSLASHme__";
+  private static final String                        start     =
+    "__meSTARTme__";
+  /**
+   * common beginning of all placeholders
+   */
+  private static final String                        marker    = "__me";
+  /**
+   * maximum number of ids kept in each cache
+   */
+  private static final int                           cacheSize = 1 << 17;
+  /**
+   * SBML ids by their COBRAme ids
+   */
+  private static final ConcurrentMap<String, String> encoded   =
+    new ConcurrentHashMap<String, String>();
+  /**
+   * COBRAme ids by their SBML ids
+   */
+  private static final ConcurrentMap<String, String> decoded   =
+    new ConcurrentHashMap<String, String>();
+
+
+  private IdCodec() {
+  }
+
+
+  /**
+   * Converts a COBRAme id into a SBML conform id.
+   * 
+   * @param id
+   *        the COBRAme id
+   * @return the SBML conform id
+   */
+  public static String encode(String id) {
+    if (!needsEncoding(id)) {
+      return id;
+    }
+    String sbmlId = encoded.get(id);
+    if (sbmlId == null) {
+      sbmlId = translate(id);
+      cache(encoded, id, sbmlId);
+    }
+    return sbmlId;
+  }
+
+
+  /**
+   * Converts a SBML conform id created by {@link #encode(String)} back to the
+   * COBRAme id.
+   * 
+   * @param id
+   *        the SBML id
+   * @return the COBRAme id
+   */
+  public static String decode(String id) {
+    if (id.indexOf(marker) < 0) {
+      return id;
+    }
+    String cobraId = decoded.get(id);
+    if (cobraId == null) {
+      // placeholders may overlap, e.g. "__meMINUSme__meCOLONme__", so they
+      // are replaced one after another in a fixed order
+      cobraId = id.replace(colon, ":").replace(minus, "-").replace(slash, "/")
+                  .replace(start, "");
+      cache(decoded, id, cobraId);
+    }
+    return cobraId;
+  }
+
+
+  /**
+   * Adds the translation of an id to the cache unless the cache is full.
+   */
+  private static void cache(ConcurrentMap<String, String> cache, String id,
+    String translation) {
+    if (cache.size() < cacheSize) {
+      cache.putIfAbsent(id, translation);
+    }
+  }
+
+
+  /**
+   * Tests whether the id contains a character that is replaced by a
+   * placeholder or starts with a digit.
+   */
+  private static boolean needsEncoding(String id) {
+    int length = id.length();
+    if ((length > 0) && (id.charAt(0) >= '0') && (id.charAt(0) <= '9')) {
+      return true;
+    }
+    for (int i = 0; i < length; i++) {
+      char c = id.charAt(i);
+      if ((c == ':') || (c == '-') || (c == '/')) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+
+  /**
+   * Encodes the id. Ids that do not need to be changed are returned
+   * themselves.
+   */
+  private static String translate(String id) {
+    StringBuilder builder = null;
+    int length = id.length();
+    for (int i = 0; i < length; i++) {
+      char c = id.charAt(i);
+      String replacement = null;
+      if (c == ':') {
+        replacement = colon;
+      } else if (c == '-') {
+        replacement = minus;
+      } else if (c == '/') {
+        replacement = slash;
+      }
+      if (replacement != null) {
+        if (builder == null) {
+          builder = new StringBuilder(length + 16);
+          builder.append(id, 0, i);
+        }
+        builder.append(replacement);
+      } else if (builder != null) {
+        builder.append(c);
+      }
+    }
+    String result = builder == null ? id : builder.toString();
+    if ((length > 0) && (id.charAt(0) >= '0') && (id.charAt(0) <= '9')) {
+      result = start + result;
+    }
+    return result;
+  }
+}
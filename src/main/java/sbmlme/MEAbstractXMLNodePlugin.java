@@ -40,7 +40,8 @@ public class MEAbstractXMLNodePlugin extends XMLNode implements MEConstants {
    * <p>
    * A COBRA id may contain characters that are forbidden in an SBML id. There
    * are also lesser restriction as to what characters may start an id in COBRA.
-   * This method is therefore used to transform a COBRA id into a valid SBML id.
+   * This method is therefore used to transform a COBRA id into a valid SBML id,
+   * see {@link IdCodec}.
    * </p>
    * 
    * @param id
@@ -48,13 +49,7 @@ public class MEAbstractXMLNodePlugin extends XMLNode implements MEConstants {
    * @return the SBML conform id
    */
   public String createSBMLConformId(String id) {
-    id = id.replace(":", "__meCOLONme__");
-    id = id.replace("-", "__meMINUSme__");
-    id = id.replace("/", "__meSLASHme__");
-    if (id.matches("^\\d.*")) {
-      id = "__meSTARTme__" + id;
-    }
-    return id;
+    return IdCodec.encode(id);
   }
 
 
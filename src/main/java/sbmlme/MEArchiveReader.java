@@ -0,0 +1,199 @@
+package sbmlme;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.sbml.jsbml.SBMLDocument;
+import org.sbml.jsbml.SBMLReader;
+import org.sbolstandard.core2.SBOLConversionException;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLReader;
+import org.sbolstandard.core2.SBOLValidationException;
+
+/**
+ * Reads the SBML and SBOL documents of a SBMLme model from a COMBINE archive.
+ * <p>
+ * The entries of the documents are resolved from the manifest of the archive
+ * by their format URIs, so that the names of the files in the archive do not
+ * matter. The documents are read directly from the zip file without
+ * extracting them.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+public class MEArchiveReader implements Closeable, MEConstants {
+
+  /**
+   * the zip file of the archive
+   */
+  private ZipFile             zip;
+  /**
+   * formats of the entries by their locations as listed in the manifest
+   */
+  private Map<String, String> formats;
+
+
+  /**
+   * Opens the COMBINE archive and reads its manifest.
+   * 
+   * @param archive
+   *        the zip file of the archive
+   * @throws IOException
+   *         if the archive can not be read or does not contain a manifest
+   * @throws XMLStreamException
+   *         if the manifest is not valid XML
+   */
+  public MEArchiveReader(File archive) throws IOException, XMLStreamException {
+    zip = new ZipFile(archive);
+    try {
+      formats = readManifest();
+    } catch (IOException e) {
+      zip.close();
+      throw e;
+    } catch (XMLStreamException e) {
+      zip.close();
+      throw e;
+    }
+  }
+
+
+  /**
+   * Reads the SBML document of the archive.
+   * 
+   * @return the SBML document
+   * @throws IOException
+   *         if the archive does not contain a SBML document
+   * @throws XMLStreamException
+   */
+  public SBMLDocument readSBML() throws IOException, XMLStreamException {
+    InputStream stream = openEntry(sbmlFormat);
+    try {
+      return new SBMLReader().readSBMLFromStream(stream);
+    } finally {
+      stream.close();
+    }
+  }
+
+
+  /**
+   * Opens the SBML document of the archive for reading it without JSBML, e.g.
+   * with the {@link sbmlme.converter.MEStaxReader}. The stream has to be
+   * closed by the caller.
+   * 
+   * @return the stream of the SBML document
+   * @throws IOException
+   *         if the archive does not contain a SBML document
+   */
+  public InputStream openSBML() throws IOException {
+    return openEntry(sbmlFormat);
+  }
+
+
+  /**
+   * Reads the SBOL document of the archive.
+   * 
+   * @return the SBOL document
+   * @throws IOException
+   *         if the archive does not contain a SBOL document
+   * @throws SBOLValidationException
+   * @throws SBOLConversionException
+   */
+  public SBOLDocument readSBOL()
+    throws IOException, SBOLValidationException, SBOLConversionException {
+    InputStream stream = openEntry(sbolFormat);
+    try {
+      return SBOLReader.read(stream);
+    } finally {
+      stream.close();
+    }
+  }
+
+
+  @Override
+  public void close() throws IOException {
+    zip.close();
+  }
+
+
+  /**
+   * Opens the first entry of the manifest with the given format. Versioned
+   * formats like ".../sbml.level-3.version-1" match as well.
+   */
+  private InputStream openEntry(String format) throws IOException {
+    for (Entry<String, String> entry : formats.entrySet()) {
+      String entryFormat = entry.getValue();
+      if (entryFormat.equals(format)
+        || entryFormat.startsWith(format + ".")) {
+        ZipEntry zipEntry = zip.getEntry(entry.getKey());
+        if (zipEntry == null) {
+          throw new IOException("Missing entry in COMBINE archive: "
+            + entry.getKey());
+        }
+        return new BufferedInputStream(zip.getInputStream(zipEntry));
+      }
+    }
+    throw new IOException(
+      "COMBINE archive " + zip.getName() + " contains no entry of format "
+        + format);
+  }
+
+
+  /**
+   * Returns the formats of the entries listed in the manifest by the names of
+   * the entries in the zip file.
+   */
+  private Map<String, String> readManifest()
+    throws IOException, XMLStreamException {
+    ZipEntry manifest = zip.getEntry(manifestFile);
+    if (manifest == null) {
+      throw new IOException(
+        "COMBINE archive " + zip.getName() + " contains no " + manifestFile);
+    }
+    Map<String, String> entries = new LinkedHashMap<String, String>();
+    InputStream stream = zip.getInputStream(manifest);
+    XMLStreamReader reader =
+      XMLInputFactory.newInstance().createXMLStreamReader(stream);
+    try {
+      while (reader.hasNext()) {
+        if ((reader.next() == XMLStreamConstants.START_ELEMENT)
+          && reader.getLocalName().equals("content")) {
+          String location = reader.getAttributeValue(null, "location");
+          String format = reader.getAttributeValue(null, "format");
+          if ((location != null) && (format != null)) {
+            entries.put(toEntryName(location), format);
+          }
+        }
+      }
+    } finally {
+      reader.close();
+      stream.close();
+    }
+    return entries;
+  }
+
+
+  /**
+   * Converts a location of the manifest, e.g. "./model.sbml", into the name of
+   * the entry in the zip file.
+   */
+  private static String toEntryName(String location) {
+    String name = location.replace('\\', '/');
+    while (name.startsWith("./") || name.startsWith("/")) {
+      name = name.substring(name.indexOf('/') + 1);
+    }
+    return name;
+  }
+}
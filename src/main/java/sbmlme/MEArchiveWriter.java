@@ -0,0 +1,259 @@
+package sbmlme;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.sbml.jsbml.SBMLDocument;
+import org.sbml.jsbml.SBMLException;
+import org.sbml.jsbml.SBMLWriter;
+import org.sbml.jsbml.TidySBMLWriter;
+import org.sbolstandard.core2.SBOLConversionException;
+import org.sbolstandard.core2.SBOLDocument;
+
+/**
+ * Writes the SBML and SBOL documents of a SBMLme model into a COMBINE archive.
+ * <p>
+ * The documents are serialized directly into the entries of the zip file, so
+ * that no intermediate files are written and read again. The manifest and the
+ * (empty) metadata are generated when the archive is finished, from the
+ * entries that were written before. The layout of the archive is the same as
+ * the one created by the CombineArchive library.
+ * </p>
+ * <p>
+ * An archive that is closed without being finished, e.g. because writing an
+ * entry failed, gets no manifest and is therefore no valid COMBINE archive.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+public class MEArchiveWriter implements Closeable, MEConstants {
+
+  private static final String metadata =
+    "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+      + "<rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\""
+      + " xmlns:dcterms=\"http://purl.org/dc/terms/\""
+      + " xmlns:vCard=\"http://www.w3.org/2006/vcard/ns#\" />";
+  /**
+   * the zip stream of the archive
+   */
+  private ZipOutputStream   zip;
+  /**
+   * the stream used by the writers of the documents, closing it only closes
+   * the current entry
+   */
+  private OutputStream      entryStream;
+  /**
+   * names of the entries written so far
+   */
+  private List<String>      locations;
+  /**
+   * formats of the entries written so far
+   */
+  private List<String>      formats;
+
+
+  /**
+   * Creates a new COMBINE archive, an existing file is overwritten.
+   * 
+   * @param archive
+   *        the zip file of the archive
+   * @throws IOException
+   */
+  public MEArchiveWriter(File archive) throws IOException {
+    this(new BufferedOutputStream(new FileOutputStream(archive)));
+  }
+
+
+  /**
+   * Creates a new COMBINE archive that is written to the given stream. The
+   * stream is closed when the archive is finished or closed.
+   * 
+   * @param stream
+   *        the stream of the zip file of the archive
+   */
+  public MEArchiveWriter(OutputStream stream) {
+    zip = new ZipOutputStream(stream);
+    entryStream = new FilterOutputStream(zip) {
+
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+      }
+
+
+      @Override
+      public void close() throws IOException {
+        flush();
+      }
+    };
+    locations = new ArrayList<String>();
+    formats = new ArrayList<String>();
+  }
+
+
+  /**
+   * Writes the SBML document to a new entry of the archive.
+   * 
+   * @param name
+   *        the name of the entry
+   * @param doc
+   *        the SBML document
+   * @param tidy
+   *        whether the document should be printed tidy
+   * @throws IOException
+   * @throws SBMLException
+   * @throws XMLStreamException
+   */
+  public void writeSBML(String name, SBMLDocument doc, boolean tidy)
+    throws IOException, SBMLException, XMLStreamException {
+    startEntry(name, sbmlFormat);
+    if (tidy) {
+      new TidySBMLWriter().write(doc, entryStream);
+    } else {
+      new SBMLWriter().write(doc, entryStream);
+    }
+    entryStream.flush();
+    zip.closeEntry();
+  }
+
+
+  /**
+   * Writes the SBOL document to a new entry of the archive.
+   * 
+   * @param name
+   *        the name of the entry
+   * @param sbol
+   *        the SBOL document
+   * @throws IOException
+   * @throws SBOLConversionException
+   */
+  public void writeSBOL(String name, SBOLDocument sbol)
+    throws IOException, SBOLConversionException {
+    startEntry(name, sbolFormat);
+    sbol.write(entryStream);
+    entryStream.flush();
+    zip.closeEntry();
+  }
+
+
+  /**
+   * Writes the metadata and the manifest of all entries and closes the
+   * archive. This should only be called after all entries were written
+   * successfully.
+   * 
+   * @throws IOException
+   */
+  public void finish() throws IOException {
+    if (zip == null) {
+      throw new IOException("COMBINE archive is already closed");
+    }
+    try {
+      startEntry(metadataFile, metadataFormat);
+      zip.write(metadata.getBytes(StandardCharsets.UTF_8));
+      zip.closeEntry();
+      zip.putNextEntry(new ZipEntry(manifestFile));
+      zip.write(createManifest().getBytes(StandardCharsets.UTF_8));
+      zip.closeEntry();
+    } finally {
+      close();
+    }
+  }
+
+
+  /**
+   * Closes the archive. If it was not finished before, no metadata and no
+   * manifest are written, see {@link #finish()}.
+   * 
+   * @throws IOException
+   */
+  @Override
+  public void close() throws IOException {
+    if (zip == null) {
+      return;
+    }
+    try {
+      zip.close();
+    } finally {
+      zip = null;
+    }
+  }
+
+
+  private void startEntry(String name, String format) throws IOException {
+    if (locations.contains(name) || name.equals(manifestFile)) {
+      throw new IOException("Duplicate entry in COMBINE archive: " + name);
+    }
+    zip.putNextEntry(new ZipEntry(name));
+    locations.add(name);
+    formats.add(format);
+  }
+
+
+  /**
+   * Creates the manifest listing the archive, the manifest and all entries
+   * with their formats.
+   */
+  private String createManifest() {
+    StringBuilder manifest = new StringBuilder();
+    manifest.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+    manifest.append("<omexManifest xmlns=\"" + manifestFormat + "\">\n");
+    appendContent(manifest, ".", omexFormat);
+    appendContent(manifest, "./" + manifestFile, manifestFormat);
+    for (int i = 0; i < locations.size(); i++) {
+      appendContent(manifest, "./" + locations.get(i), formats.get(i));
+    }
+    manifest.append("</omexManifest>\n");
+    return manifest.toString();
+  }
+
+
+  private void appendContent(StringBuilder manifest, String location,
+    String format) {
+    manifest.append("  <content location=\"").append(escape(location))
+            .append("\" format=\"").append(format).append("\" />\n");
+  }
+
+
+  /**
+   * Escapes the characters of the given text that are not allowed in an XML
+   * attribute value.
+   */
+  private static String escape(String text) {
+    StringBuilder escaped = new StringBuilder(text.length());
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      switch (c) {
+      case '&':
+        escaped.append("&amp;");
+        break;
+      case '<':
+        escaped.append("&lt;");
+        break;
+      case '>':
+        escaped.append("&gt;");
+        break;
+      case '"':
+        escaped.append("&quot;");
+        break;
+      case '\'':
+        escaped.append("&apos;");
+        break;
+      default:
+        escaped.append(c);
+      }
+    }
+    return escaped.toString();
+  }
+}
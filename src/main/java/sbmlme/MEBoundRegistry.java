@@ -0,0 +1,188 @@
+package sbmlme;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.sbml.jsbml.ASTNode;
+import org.sbml.jsbml.InitialAssignment;
+import org.sbml.jsbml.Model;
+import org.sbml.jsbml.Parameter;
+import org.sbml.jsbml.text.parser.ParseException;
+
+/**
+ * Hands out the parameters that SBMLme uses as flux bounds of reactions.
+ * <p>
+ * Reactions with the same bound share one constant parameter whose id starts
+ * with "me_bound_". Nearly all reactions of an ME model use one of a few
+ * bounds, e.g. 0, 1000 or an expression of the growth rate. The registry
+ * keeps the ids of numeric bounds by their value and the ids of symbolic
+ * bounds by their expression without white spaces, so that the id of a bound
+ * is only built and the parameter only created once. The registry of a model
+ * is stored as user object of the model, see {@link #get(Model)}.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+public class MEBoundRegistry {
+
+  /**
+   * key of the registry in the user objects of the model
+   */
+  private static final String userObjectKey = "sbmlme.MEBoundRegistry";
+  /**
+   * prefix of the ids of all bound parameters
+   */
+  private static final String idPrefix      = "me_bound_";
+  /**
+   * the SBML model
+   */
+  private Model               model;
+  /**
+   * the ids of the parameters of numeric bounds by their value
+   */
+  private Map<Double, String> numericIds;
+  /**
+   * the ids of the parameters of symbolic bounds by their expression without
+   * white spaces and with "^" as power operator
+   */
+  private Map<String, String> symbolicIds;
+
+
+  private MEBoundRegistry(Model model) {
+    this.model = model;
+    numericIds = new HashMap<Double, String>();
+    symbolicIds = new HashMap<String, String>();
+  }
+
+
+  /**
+   * Returns the registry of the given model. The registry is created on the
+   * first call for a model.
+   * 
+   * @param model
+   *        the SBML model
+   * @return the registry of the bound parameters of the model
+   */
+  public static MEBoundRegistry get(Model model) {
+    Object registry = model.getUserObject(userObjectKey);
+    // user objects are copied if the model is cloned, so check that the
+    // registry belongs to the given model
+    if ((registry instanceof MEBoundRegistry)
+      && (((MEBoundRegistry) registry).model == model)) {
+      return (MEBoundRegistry) registry;
+    }
+    MEBoundRegistry newRegistry = new MEBoundRegistry(model);
+    model.putUserObject(userObjectKey, newRegistry);
+    return newRegistry;
+  }
+
+
+  /**
+   * Returns the id of the parameter with the given value. If the model does
+   * not contain such a parameter it is created.
+   * 
+   * @param value
+   *        the value of the bound
+   * @return the id of the bound parameter
+   */
+  public String getParameterId(double value) {
+    // -0.0 and 0.0 are different keys, but the same bound
+    Double key = Double.valueOf(value + 0.0);
+    String id = numericIds.get(key);
+    if (id == null) {
+      id = encodeId(Double.toString(key.doubleValue()));
+      if (model.getParameter(id) == null) {
+        Parameter parameter = model.createParameter(id);
+        parameter.setConstant(true);
+        parameter.setValue(key.doubleValue());
+      }
+      numericIds.put(key, id);
+    }
+    return id;
+  }
+
+
+  /**
+   * Returns the id of the parameter of a bound given as text. Numbers are
+   * treated like the values of {@link #getParameterId(double)}, other bounds
+   * are expressions that may depend on other parameters, e.g. the growth
+   * rate. If the model does not contain the parameter of an expression it is
+   * created together with an InitialAssignment. The power operator "**" of
+   * COBRAme is replaced by "^".
+   * 
+   * @param bound
+   *        the bound as number or expression
+   * @return the id of the bound parameter
+   * @throws ParseException
+   *         if the expression cannot be parsed
+   */
+  public String getParameterId(String bound) throws ParseException {
+    if (MECoefficientLexer.isNumeric(bound)) {
+      return getParameterId(Double.parseDouble(bound));
+    }
+    String expression =
+      MECoefficientLexer.removeSpaces(bound).replace("**", "^");
+    String id = symbolicIds.get(expression);
+    if (id == null) {
+      MEMetrics.count(MEMetrics.Counter.SYMBOLIC_BOUNDS);
+      id = encodeId(expression);
+      if (model.getParameter(id) == null) {
+        Parameter parameter = model.createParameter(id);
+        parameter.setConstant(true);
+        InitialAssignment assignment = model.createInitialAssignment();
+        MEMetrics.count(MEMetrics.Counter.FORMULA_PARSES);
+        assignment.setMath(ASTNode.parseFormula(expression));
+        assignment.setVariable(id);
+      }
+      symbolicIds.put(expression, id);
+    }
+    return id;
+  }
+
+
+  /**
+   * Translates a bound into a valid SBML id by replacing the operators,
+   * brackets and decimal points with words.
+   * 
+   * @param bound
+   *        the bound without white spaces
+   * @return the id of the bound parameter
+   */
+  private static String encodeId(String bound) {
+    StringBuilder id =
+      new StringBuilder(idPrefix.length() + 2 * bound.length());
+    id.append(idPrefix);
+    for (int i = 0; i < bound.length(); i++) {
+      char c = bound.charAt(i);
+      switch (c) {
+      case '-':
+        id.append("__minus__");
+        break;
+      case '.':
+        id.append("__");
+        break;
+      case '+':
+        id.append("__plus__");
+        break;
+      case '^':
+        id.append("__power__");
+        break;
+      case '*':
+        id.append("__times__");
+        break;
+      case '/':
+        id.append("__divide__");
+        break;
+      case '(':
+        id.append("__open__");
+        break;
+      case ')':
+        id.append("__close__");
+        break;
+      default:
+        id.append(c);
+      }
+    }
+    return id.toString();
+  }
+}
@@ -0,0 +1,116 @@
+package sbmlme;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.sbml.jsbml.ASTNode;
+import org.sbml.jsbml.text.parser.ParseException;
+
+/**
+ * Holds a parsed symbolic stoichiometric coefficient of a COBRAme reaction.
+ * <p>
+ * In ME models most of the symbolic coefficients are a few hundred distinct
+ * growth rate dependent expressions that are used by tens of thousands of
+ * species references. Therefore parsed coefficients are kept in a concurrent
+ * cache, so that each distinct expression is only parsed and searched for
+ * parameters once, also when reactions are prepared in parallel. The cache
+ * stops growing when it is full. The cached formulas are never changed, every
+ * call of {@link #getMath()} returns a new copy of the math.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+public class MECoefficientFormula {
+
+  /**
+   * maximum number of distinct coefficients kept in the cache
+   */
+  private static final int                                         cacheSize =
+    4096;
+  /**
+   * parsed coefficients by their expression without white spaces
+   */
+  private static final ConcurrentMap<String, MECoefficientFormula> cache     =
+    new ConcurrentHashMap<String, MECoefficientFormula>();
+  /**
+   * the stoichiometry of the species reference, already converted to a
+   * positive value for reactants
+   */
+  private ASTNode                                                  math;
+  /**
+   * the parameters found in the coefficient in order of appearance
+   */
+  private List<String>                                             parameters;
+  /**
+   * whether the species is a reactant of the reaction
+   */
+  private boolean                                                  reactant;
+
+
+  private MECoefficientFormula(String coefficient, String expression)
+    throws ParseException {
+    parameters = Collections.unmodifiableList(
+      MECoefficientLexer.findParameters(expression));
+    // decide between reactant and product
+    reactant = MECoefficientLexer.classify(
+      expression) == MECoefficientLexer.Kind.SYMBOLIC_NEGATIVE;
+    MEMetrics.count(MEMetrics.Counter.FORMULA_PARSES);
+    math = ASTNode.parseFormula(coefficient);
+    if (reactant) {
+      // need to convert value due to COBRAme only possessing one list for
+      // both reactants & products
+      ASTNode convert = new ASTNode();
+      convert.setValue(-1);
+      math = math.multiplyWith(convert);
+    }
+  }
+
+
+  /**
+   * Returns the parsed form of the given symbolic coefficient. Coefficients
+   * that only differ in white spaces share the same entry in the cache.
+   * 
+   * @param coefficient
+   *        the symbolic coefficient of a species in a COBRAme reaction
+   * @return the parsed coefficient
+   * @throws ParseException
+   */
+  public static MECoefficientFormula parse(String coefficient)
+    throws ParseException {
+    String expression = MECoefficientLexer.removeSpaces(coefficient);
+    MECoefficientFormula formula = cache.get(expression);
+    if (formula == null) {
+      formula = new MECoefficientFormula(coefficient, expression);
+      if (cache.size() < cacheSize) {
+        MECoefficientFormula cached = cache.putIfAbsent(expression, formula);
+        if (cached != null) {
+          formula = cached;
+        }
+      }
+    }
+    return formula;
+  }
+
+
+  /**
+   * Returns a copy of the stoichiometry, which can be used as math of the
+   * InitialAssignment of a species reference.
+   * 
+   * @return a new copy of the stoichiometry
+   */
+  public ASTNode getMath() {
+    return math.clone();
+  }
+
+
+  public List<String> getParameters() {
+    return parameters;
+  }
+
+
+  public boolean isReactant() {
+    return reactant;
+  }
+}
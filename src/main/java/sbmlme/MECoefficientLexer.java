@@ -0,0 +1,187 @@
+package sbmlme;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single pass lexer for the stoichiometric coefficients of COBRAme reactions.
+ * <p>
+ * A coefficient is either a number or a formula that depends on parameters,
+ * mostly the growth rate. Numeric coefficients match the pattern
+ * {@code -?\d+\.?\d*}, all other coefficients are symbolic. A symbolic
+ * coefficient belongs to a reactant if the first character that is neither a
+ * white space nor an opening bracket is a minus. The parameters of a symbolic
+ * coefficient are the tokens between the operators {@code + - * / ( )} that
+ * only consist of word characters and are not integers. White spaces are
+ * ignored.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+public class MECoefficientLexer {
+
+  /**
+   * The kinds of stoichiometric coefficients in COBRAme reactions.
+   */
+  public enum Kind {
+    /**
+     * a number matching {@code -?\d+\.?\d*}
+     */
+    NUMERIC,
+    /**
+     * a formula of a reactant
+     */
+    SYMBOLIC_NEGATIVE,
+    /**
+     * a formula of a product
+     */
+    SYMBOLIC_POSITIVE
+  }
+
+
+  private MECoefficientLexer() {
+  }
+
+
+  /**
+   * Returns the kind of the given coefficient.
+   * 
+   * @param coefficient
+   *        the coefficient of a species in a COBRAme reaction
+   * @return the kind of the coefficient
+   */
+  public static Kind classify(String coefficient) {
+    if (isNumeric(coefficient)) {
+      return Kind.NUMERIC;
+    }
+    for (int i = 0; i < coefficient.length(); i++) {
+      char c = coefficient.charAt(i);
+      if ((c != ' ') && (c != '(')) {
+        return c == '-' ? Kind.SYMBOLIC_NEGATIVE : Kind.SYMBOLIC_POSITIVE;
+      }
+    }
+    return Kind.SYMBOLIC_POSITIVE;
+  }
+
+
+  /**
+   * Tests whether the given coefficient matches {@code -?\d+\.?\d*}.
+   * 
+   * @param coefficient
+   *        the coefficient of a species in a COBRAme reaction
+   * @return {@code true} if the coefficient is a number
+   */
+  public static boolean isNumeric(String coefficient) {
+    int length = coefficient.length();
+    int i = 0;
+    if ((i < length) && (coefficient.charAt(i) == '-')) {
+      i++;
+    }
+    int digits = i;
+    while ((i < length) && isDigit(coefficient.charAt(i))) {
+      i++;
+    }
+    if (i == digits) {
+      return false;
+    }
+    if ((i < length) && (coefficient.charAt(i) == '.')) {
+      i++;
+    }
+    while ((i < length) && isDigit(coefficient.charAt(i))) {
+      i++;
+    }
+    return i == length;
+  }
+
+
+  /**
+   * Returns the parameters of the given symbolic coefficient in order of
+   * their first appearance, each parameter is only contained once.
+   * 
+   * @param coefficient
+   *        the coefficient of a species in a COBRAme reaction
+   * @return the list of parameter ids
+   */
+  public static List<String> findParameters(String coefficient) {
+    List<String> parameters = new ArrayList<String>();
+    int length = coefficient.length();
+    int start = 0;
+    while (start <= length) {
+      // find the end of the current token and check its characters
+      int end = start;
+      boolean word = true;
+      boolean integer = true;
+      boolean spaces = false;
+      boolean empty = true;
+      while ((end < length) && !isOperator(coefficient.charAt(end))) {
+        char c = coefficient.charAt(end);
+        if (c == ' ') {
+          spaces = true;
+        } else {
+          empty = false;
+          if (!isDigit(c)) {
+            integer = false;
+            if (!isWordCharacter(c)) {
+              word = false;
+            }
+          }
+        }
+        end++;
+      }
+      if (word && !integer && !empty) {
+        String parameter = spaces ? removeSpaces(coefficient, start, end)
+          : coefficient.substring(start, end);
+        if (!parameters.contains(parameter)) {
+          parameters.add(parameter);
+        }
+      }
+      start = end + 1;
+    }
+    return parameters;
+  }
+
+
+  /**
+   * Returns the given coefficient without white spaces. If the coefficient
+   * does not contain any white space it is returned itself.
+   * 
+   * @param coefficient
+   *        the coefficient of a species in a COBRAme reaction
+   * @return the coefficient without white spaces
+   */
+  public static String removeSpaces(String coefficient) {
+    if (coefficient.indexOf(' ') < 0) {
+      return coefficient;
+    }
+    return removeSpaces(coefficient, 0, coefficient.length());
+  }
+
+
+  private static String removeSpaces(String coefficient, int start, int end) {
+    StringBuilder builder = new StringBuilder(end - start);
+    for (int i = start; i < end; i++) {
+      char c = coefficient.charAt(i);
+      if (c != ' ') {
+        builder.append(c);
+      }
+    }
+    return builder.toString();
+  }
+
+
+  private static boolean isOperator(char c) {
+    return (c == '+') || (c == '-') || (c == '*') || (c == '/') || (c == '(')
+      || (c == ')');
+  }
+
+
+  private static boolean isDigit(char c) {
+    return (c >= '0') && (c <= '9');
+  }
+
+
+  private static boolean isWordCharacter(char c) {
+    return ((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z'))
+      || isDigit(c) || (c == '_');
+  }
+}
@@ -98,4 +98,20 @@ public interface MEConstants {
   public static final String ribosomalRNA             = "ribosomal RNA";
   public static final String dnaSegment               = "DNA segment";
   public static final String proteinComplex           = "protein complex";
+  // Values for COMBINE archives
+  public static final String sbmlExtension            = ".sbex";
+  public static final String sbolExtension            = ".sbox";
+  public static final String archiveExtension         = ".zip";
+  public static final String manifestFile             = "manifest.xml";
+  public static final String metadataFile             = "metadata.rdf";
+  public static final String omexFormat               =
+    "http://identifiers.org/combine.specifications/omex";
+  public static final String manifestFormat           =
+    "http://identifiers.org/combine.specifications/omex-manifest";
+  public static final String metadataFormat           =
+    "http://identifiers.org/combine.specifications/omex-metadata";
+  public static final String sbmlFormat               =
+    "http://identifiers.org/combine.specifications/sbml";
+  public static final String sbolFormat               =
+    "http://identifiers.org/combine.specifications/sbol";
 }
@@ -0,0 +1,177 @@
+package sbmlme;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.sbml.jsbml.ext.groups.Group;
+import org.sbml.jsbml.ext.groups.GroupsModelPlugin;
+import org.sbml.jsbml.ext.groups.Member;
+
+/**
+ * Resolves the groups of a SBMLme model by their ids.
+ * <p>
+ * SBMLme uses classification groups to encode the types of species, reactions
+ * and parameters and collection groups to encode generic data. Every element
+ * of the model is therefore added to a group. The registry looks up each group
+ * once and keeps it, so that adding an element does not require searching the
+ * ListOfGroups. Groups that do not exist yet are created when the first member
+ * is added. The registry of a {@link GroupsModelPlugin} is stored as user
+ * object of the plugin, see {@link #get(GroupsModelPlugin)}.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+public class MEGroupRegistry {
+
+  /**
+   * key of the registry in the user objects of the GroupsModelPlugin
+   */
+  private static final String userObjectKey = "sbmlme.MEGroupRegistry";
+  /**
+   * the GroupsModelPlugin of the SBML model
+   */
+  private GroupsModelPlugin   groups;
+  /**
+   * the groups that were already looked up by their ids
+   */
+  private Map<String, Group>  groupMap;
+
+
+  private MEGroupRegistry(GroupsModelPlugin groups) {
+    this.groups = groups;
+    groupMap = new HashMap<String, Group>();
+  }
+
+
+  /**
+   * Returns the registry of the given GroupsModelPlugin. The registry is
+   * created on the first call for a plugin.
+   * 
+   * @param groups
+   *        the GroupsModelPlugin of the SBML model
+   * @return the registry of the groups of the model
+   */
+  public static MEGroupRegistry get(GroupsModelPlugin groups) {
+    Object registry = groups.getUserObject(userObjectKey);
+    // user objects are copied if the plugin is cloned, so check that the
+    // registry belongs to the given plugin
+    if ((registry instanceof MEGroupRegistry)
+      && (((MEGroupRegistry) registry).groups == groups)) {
+      return (MEGroupRegistry) registry;
+    }
+    MEGroupRegistry newRegistry = new MEGroupRegistry(groups);
+    groups.putUserObject(userObjectKey, newRegistry);
+    return newRegistry;
+  }
+
+
+  /**
+   * Returns the group with the given id or null if the model does not contain
+   * such a group.
+   * 
+   * @param groupId
+   *        the id of the group
+   * @return the group or null
+   */
+  public Group getGroup(String groupId) {
+    Group group = groupMap.get(groupId);
+    if (group == null) {
+      group = (Group) groups.getGroup(groupId);
+      if (group != null) {
+        groupMap.put(groupId, group);
+      }
+    }
+    return group;
+  }
+
+
+  /**
+   * Returns the group with the given id. If the model does not contain such a
+   * group it is created with the given kind.
+   * 
+   * @param groupId
+   *        the id of the group
+   * @param kind
+   *        the kind of the group if it needs to be created
+   * @return the group
+   */
+  public Group getOrCreateGroup(String groupId, Group.Kind kind) {
+    Group group = getGroup(groupId);
+    if (group == null) {
+      group = groups.createGroup(groupId);
+      group.setKind(kind);
+      groupMap.put(groupId, group);
+    }
+    return group;
+  }
+
+
+  /**
+   * Adds a member referring to the given id to a classification group.
+   * 
+   * @param groupId
+   *        the id of the group
+   * @param idRef
+   *        the id of the element that is a member of the group
+   */
+  public void addMember(String groupId, String idRef) {
+    getOrCreateGroup(groupId, Group.Kind.classification).createMemberWithIdRef(
+      idRef);
+  }
+
+
+  /**
+   * Adds members referring to the given ids to a group in the order of the
+   * list.
+   * 
+   * @param groupId
+   *        the id of the group
+   * @param kind
+   *        the kind of the group if it needs to be created
+   * @param idRefs
+   *        the ids of the elements that are members of the group
+   */
+  public void addMembers(String groupId, Group.Kind kind, List<String> idRefs) {
+    if (idRefs.isEmpty()) {
+      return;
+    }
+    Group group = getOrCreateGroup(groupId, kind);
+    for (String idRef : idRefs) {
+      group.createMemberWithIdRef(idRef);
+    }
+  }
+
+
+  /**
+   * Returns the number of members of the group with the given id.
+   * 
+   * @param groupId
+   *        the id of the group
+   * @return the number of members, 0 if the group does not exist
+   */
+  public int getMemberCount(String groupId) {
+    Group group = getGroup(groupId);
+    return group != null ? group.getMemberCount() : 0;
+  }
+
+
+  /**
+   * Returns the ids the members of the group with the given id refer to.
+   * 
+   * @param groupId
+   *        the id of the group
+   * @return the list of ids, empty if the group does not exist
+   */
+  public List<String> getMemberIdRefs(String groupId) {
+    List<String> idRefs = new ArrayList<String>(getMemberCount(groupId));
+    Group group = getGroup(groupId);
+    if (group != null) {
+      for (Member member : group.getListOfMembers()) {
+        idRefs.add(member.getIdRef());
+      }
+    }
+    return idRefs;
+  }
+}
@@ -0,0 +1,307 @@
+package sbmlme;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Records the duration, the allocated memory and the number of processed
+ * elements of the phases of a single conversion, as well as the counters of
+ * expensive operations during the conversion.
+ * <p>
+ * A phase that is started several times, e.g. the reactions in streaming
+ * mode, accumulates its values. The allocated memory is only measured for the
+ * thread that runs the phase, so that the allocations of parallel workers are
+ * not included, and is -1 if the JVM does not support the measurement.
+ * </p>
+ * <p>
+ * The counters are kept for the whole JVM, since they are incremented by code
+ * that is shared by all conversions, like the {@link MECoefficientFormula}
+ * cache. A conversion reports the increments since its metrics were created,
+ * which also include the operations of other conversions that run at the
+ * same time.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+@SuppressWarnings("restriction")
+public class MEMetrics {
+
+  public static final String phaseReading       = "reading";
+  public static final String phaseSpecies       = "adding species";
+  public static final String phaseGlobalInfo    = "global info";
+  public static final String phaseMEProcessData = "MEProcessData";
+  public static final String phaseReactions     = "reactions";
+  public static final String phaseValidation    = "validation";
+  public static final String phaseSBMLWrite     = "SBML write";
+  public static final String phaseSBOLWrite     = "SBOL write";
+  public static final String phaseArchivePack   = "archive pack";
+  public static final String phaseJSONWrite     = "JSON write";
+
+
+  /**
+   * The expensive operations that are counted.
+   * 
+   * @author Marc A. Voigt
+   */
+  public enum Counter {
+    /**
+     * a formula is parsed into an ASTNode
+     */
+    FORMULA_PARSES,
+    /**
+     * a distinct symbolic bound gets its parameter, see
+     * {@link sbmlme.MEBoundRegistry}
+     */
+    SYMBOLIC_BOUNDS,
+    /**
+     * a Sequence, ComponentDefinition or SequenceAnnotation is created
+     */
+    SBOL_OBJECTS;
+  }
+
+  /**
+   * the counters of the JVM in the order of {@link Counter}
+   */
+  private static final AtomicLong[] counters = createCounters();
+  /**
+   * the values of the counters at the creation of the metrics
+   */
+  private long[]                    counterStart;
+  private long                      startTime;
+  private Map<String, Phase>        phases;
+
+
+  public MEMetrics() {
+    phases = new LinkedHashMap<String, Phase>();
+    counterStart = new long[counters.length];
+    for (int i = 0; i < counters.length; i++) {
+      counterStart[i] = counters[i].get();
+    }
+    startTime = System.nanoTime();
+  }
+
+
+  private static AtomicLong[] createCounters() {
+    AtomicLong[] result = new AtomicLong[Counter.values().length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = new AtomicLong();
+    }
+    return result;
+  }
+
+
+  /**
+   * Increments the given counter of the JVM by one.
+   * 
+   * @param counter
+   *        the counted operation
+   */
+  public static void count(Counter counter) {
+    counters[counter.ordinal()].incrementAndGet();
+  }
+
+
+  /**
+   * Increments the given counter of the JVM.
+   * 
+   * @param counter
+   *        the counted operation
+   * @param delta
+   *        the number of operations
+   */
+  public static void count(Counter counter, long delta) {
+    counters[counter.ordinal()].addAndGet(delta);
+  }
+
+
+  /**
+   * Starts the phase with the given name. The phase is added to the metrics
+   * when it is started for the first time.
+   * 
+   * @param name
+   *        the name of the phase, e.g. {@link #phaseReactions}
+   * @return the started phase
+   */
+  public synchronized Phase startPhase(String name) {
+    Phase phase = phases.get(name);
+    if (phase == null) {
+      phase = new Phase(name);
+      phases.put(name, phase);
+    }
+    phase.start();
+    return phase;
+  }
+
+
+  /**
+   * @return the phases in the order they were started first
+   */
+  public synchronized List<Phase> getPhases() {
+    return new ArrayList<Phase>(phases.values());
+  }
+
+
+  /**
+   * Returns the increments of the given counter since the creation of the
+   * metrics.
+   * 
+   * @param counter
+   *        the counted operation
+   * @return the number of operations
+   */
+  public long getCount(Counter counter) {
+    return counters[counter.ordinal()].get()
+      - counterStart[counter.ordinal()];
+  }
+
+
+  /**
+   * Writes the phases, the counters and the total duration since the creation
+   * of the metrics as JSON to the given stream. The stream is not closed.
+   * 
+   * @param stream
+   *        the stream of the report
+   * @throws IOException
+   */
+  public void writeReport(OutputStream stream) throws IOException {
+    JsonGenerator generator =
+      new JsonFactory().createGenerator(stream, JsonEncoding.UTF8);
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    generator.useDefaultPrettyPrinter();
+    try {
+      generator.writeStartObject();
+      generator.writeNumberField("seconds",
+        toSeconds(System.nanoTime() - startTime));
+      generator.writeArrayFieldStart("phases");
+      for (Phase phase : getPhases()) {
+        generator.writeStartObject();
+        generator.writeStringField("name", phase.getName());
+        generator.writeNumberField("seconds", phase.getSeconds());
+        generator.writeNumberField("allocated_bytes",
+          phase.getAllocatedBytes());
+        generator.writeNumberField("elements", phase.getElements());
+        generator.writeEndObject();
+      }
+      generator.writeEndArray();
+      generator.writeObjectFieldStart("counters");
+      for (Counter counter : Counter.values()) {
+        generator.writeNumberField(counter.name().toLowerCase(),
+          getCount(counter));
+      }
+      generator.writeEndObject();
+      generator.writeEndObject();
+    } finally {
+      generator.close();
+    }
+  }
+
+
+  private static double toSeconds(long nanos) {
+    return (nanos / 1000000) / 1000.0;
+  }
+
+
+  /**
+   * Returns the memory allocated by the current thread so far or -1 if the
+   * JVM does not support the measurement.
+   */
+  private static long allocatedBytes() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean sunBean =
+        (com.sun.management.ThreadMXBean) bean;
+      if (sunBean.isThreadAllocatedMemorySupported()
+        && sunBean.isThreadAllocatedMemoryEnabled()) {
+        return sunBean.getThreadAllocatedBytes(
+          Thread.currentThread().getId());
+      }
+    }
+    return -1;
+  }
+
+
+  /**
+   * The accumulated values of a named phase of the conversion.
+   * 
+   * @author Marc A. Voigt
+   */
+  public static class Phase {
+
+    private String name;
+    private long   duration;
+    private long   allocated;
+    private long   elements;
+    private long   startTime;
+    private long   startAllocated;
+
+
+    private Phase(String name) {
+      this.name = name;
+    }
+
+
+    private void start() {
+      startAllocated = allocatedBytes();
+      startTime = System.nanoTime();
+    }
+
+
+    /**
+     * Stops the phase and adds the given number of processed elements.
+     *
+     * @param count
+     *        the number of elements processed since the phase was started
+     */
+    public void stop(long count) {
+      duration += System.nanoTime() - startTime;
+      long endAllocated = allocatedBytes();
+      if ((startAllocated < 0) || (endAllocated < 0) || (allocated < 0)) {
+        allocated = -1;
+      } else {
+        allocated += endAllocated - startAllocated;
+      }
+      elements += count;
+    }
+
+
+    public String getName() {
+      return name;
+    }
+
+
+    /**
+     * @return the duration of the phase in seconds
+     */
+    public double getSeconds() {
+      return toSeconds(duration);
+    }
+
+
+    /**
+     * @return the memory allocated by the thread of the phase or -1 if it
+     *         could not be measured
+     */
+    public long getAllocatedBytes() {
+      return allocated;
+    }
+
+
+    /**
+     * @return the number of processed elements, e.g. reactions
+     */
+    public long getElements() {
+      return elements;
+    }
+  }
+}
@@ -0,0 +1,246 @@
+package sbmlme;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sbml.jsbml.InitialAssignment;
+import org.sbml.jsbml.Model;
+import org.sbml.jsbml.Parameter;
+import org.sbml.jsbml.Reaction;
+import org.sbml.jsbml.ext.fbc.FBCConstants;
+import org.sbml.jsbml.ext.fbc.FBCReactionPlugin;
+import org.sbml.jsbml.ext.fbc.Objective;
+import org.sbml.jsbml.ext.groups.Group;
+import org.sbml.jsbml.ext.groups.GroupsModelPlugin;
+import org.sbml.jsbml.text.parser.ParseException;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLValidationException;
+
+/**
+ * Holds a reaction of a COBRAme model that has been prepared but not yet added
+ * to the SBML model.
+ * <p>
+ * A fragment contains the reaction with its species references and SBMLme
+ * annotation, the InitialAssignments of symbolic stoichiometries, the
+ * parameters used in these and the sequence that needs to be added to the SBOL
+ * document. Fragments are created by the prepare methods of
+ * {@link MEReactionPlugin}, which only read the model. Therefore the fragments
+ * of different reactions can be prepared concurrently, while the
+ * {@link #commit(Model, SBOLDocument, GroupsModelPlugin, Objective)} method
+ * needs to be called for one fragment after the other.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+public class MEReactionFragment {
+
+  /**
+   * the plugin that prepared this fragment
+   */
+  private MEReactionPlugin        plugin;
+  /**
+   * the reaction with all species references and its annotation
+   */
+  private Reaction                reaction;
+  /**
+   * the name of the group encoding the reaction type
+   */
+  private String                  group;
+  /**
+   * the bounds given as text, null if the bounds are numeric
+   */
+  private String                  upperBound;
+  private String                  lowerBound;
+  private double                  upperValue;
+  private double                  lowerValue;
+  private double                  objectiveCoefficient;
+  /**
+   * the parameters used in symbolic stoichiometries in order of appearance
+   */
+  private List<String>            parameters;
+  /**
+   * the InitialAssignments of the symbolic stoichiometries
+   */
+  private List<InitialAssignment> initialAssignments;
+  private String                  genericGroup;
+  private String                  genericMember;
+  private String                  sbolId;
+  private String                  sequence;
+  private String                  role;
+
+
+  public MEReactionFragment(MEReactionPlugin plugin, Reaction reaction,
+    String group, String upperBound, String lowerBound,
+    double objectiveCoefficient) {
+    this.plugin = plugin;
+    this.reaction = reaction;
+    this.group = group;
+    this.upperBound = upperBound;
+    this.lowerBound = lowerBound;
+    this.objectiveCoefficient = objectiveCoefficient;
+    parameters = new ArrayList<String>();
+    initialAssignments = new ArrayList<InitialAssignment>();
+  }
+
+
+  public MEReactionFragment(MEReactionPlugin plugin, Reaction reaction,
+    String group, double upperBound, double lowerBound,
+    double objectiveCoefficient) {
+    this(plugin, reaction, group, null, null, objectiveCoefficient);
+    upperValue = upperBound;
+    lowerValue = lowerBound;
+  }
+
+
+  /**
+   * Adds the prepared reaction and all of its dependent elements to the
+   * model, in the same order the create methods of {@link MEReactionPlugin}
+   * add them.
+   * 
+   * @param model
+   *        the SBML model
+   * @param sbol
+   *        the SBOL document, can be null if the fragment has no sequence
+   * @param groups
+   *        the GroupsModelPlugin of the SBML model
+   * @param objective
+   *        the active objective of the SBML model
+   * @throws ParseException
+   * @throws SBOLValidationException
+   */
+  public void commit(Model model, SBOLDocument sbol, GroupsModelPlugin groups,
+    Objective objective) throws ParseException, SBOLValidationException {
+    commit(model, groups, objective);
+    if (isSetSequence()) {
+      MESBOLPlugin meSBOL = new MESBOLPlugin();
+      meSBOL.createSBOL(sbol, sbolId, sequence, role);
+    }
+  }
+
+
+  /**
+   * Adds the prepared reaction and all of its dependent elements to the
+   * model, without the sequence of the reaction.
+   * 
+   * @param model
+   *        the SBML model
+   * @param groups
+   *        the GroupsModelPlugin of the SBML model
+   * @param objective
+   *        the active objective of the SBML model
+   * @throws ParseException
+   */
+  public void commit(Model model, GroupsModelPlugin groups,
+    Objective objective) throws ParseException {
+    String id = reaction.getId();
+    model.addReaction(reaction);
+    MEGroupRegistry registry = MEGroupRegistry.get(groups);
+    registry.addMember(group, id);
+    FBCReactionPlugin fbcTempReaction =
+      (FBCReactionPlugin) reaction.getPlugin(FBCConstants.shortLabel);
+    if (upperBound != null) {
+      plugin.setBounds(model, fbcTempReaction, upperBound, lowerBound);
+    } else {
+      plugin.setBounds(model, fbcTempReaction, upperValue, lowerValue);
+    }
+    if (!plugin.isSparseObjective() || (objectiveCoefficient != 0.0)) {
+      objective.createFluxObjective(id + "_coefficient", "",
+        objectiveCoefficient, reaction);
+    }
+    commitInitialAssignments(model);
+    if (genericGroup != null) {
+      registry.getOrCreateGroup(genericGroup, Group.Kind.collection)
+              .createMemberWithIdRef(genericMember);
+    }
+  }
+
+
+  /**
+   * Adds the parameters and InitialAssignments of the symbolic stoichiometries
+   * to the model. Parameters that already exist in the model are reused.
+   * 
+   * @param model
+   *        the SBML model
+   */
+  public void commitInitialAssignments(Model model) {
+    for (String parameterId : parameters) {
+      if (!model.containsParameter(parameterId)) {
+        Parameter parameter = model.createParameter(parameterId);
+        parameter.initDefaults(2, 4, true);
+        parameter.setConstant(false);
+      }
+    }
+    for (InitialAssignment initialAssignment : initialAssignments) {
+      model.addInitialAssignment(initialAssignment);
+    }
+  }
+
+
+  public Reaction getReaction() {
+    return reaction;
+  }
+
+
+  public String getGroup() {
+    return group;
+  }
+
+
+  public List<String> getParameters() {
+    return parameters;
+  }
+
+
+  public List<InitialAssignment> getInitialAssignments() {
+    return initialAssignments;
+  }
+
+
+  public boolean isSetSequence() {
+    return sbolId != null;
+  }
+
+
+  public void addParameter(String parameterId) {
+    parameters.add(parameterId);
+  }
+
+
+  public void addInitialAssignment(InitialAssignment initialAssignment) {
+    initialAssignments.add(initialAssignment);
+  }
+
+
+  /**
+   * Sets the collection group of a GenericFormationReaction.
+   * 
+   * @param genericGroup
+   *        the id of the group representing the generic species
+   * @param genericMember
+   *        the id of the species that is a member of the generic species
+   */
+  public void setGenericGroup(String genericGroup, String genericMember) {
+    this.genericGroup = genericGroup;
+    this.genericMember = genericMember;
+  }
+
+
+  /**
+   * Sets the sequence that is added to the SBOL document when the fragment is
+   * committed.
+   * 
+   * @param sbolId
+   *        the display id of the sequence in the SBOL document
+   * @param sequence
+   *        the nucleotide sequence
+   * @param role
+   *        the role of the sequence, see
+   *        {@link MESBOLPlugin#createSBOL(SBOLDocument, String, String, String)}
+   */
+  public void setSequence(String sbolId, String sequence,
+    String role) {
+    this.sbolId = sbolId;
+    this.sequence = sequence;
+    this.role = role;
+  }
+}
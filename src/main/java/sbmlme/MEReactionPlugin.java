@@ -1,20 +1,15 @@
 package sbmlme;
 
-import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
-import org.sbml.jsbml.ASTNode;
 import org.sbml.jsbml.InitialAssignment;
 import org.sbml.jsbml.Model;
-import org.sbml.jsbml.Parameter;
 import org.sbml.jsbml.Reaction;
 import org.sbml.jsbml.SpeciesReference;
-import org.sbml.jsbml.ext.fbc.FBCConstants;
 import org.sbml.jsbml.ext.fbc.FBCReactionPlugin;
 import org.sbml.jsbml.ext.fbc.Objective;
-import org.sbml.jsbml.ext.groups.Group;
 import org.sbml.jsbml.ext.groups.GroupsModelPlugin;
 import org.sbml.jsbml.text.parser.ParseException;
 import org.sbml.jsbml.xml.XMLAttributes;
@@ -30,7 +25,9 @@ import org.sbolstandard.core2.SBOLValidationException;
  * Besides SBML core the packages fbc and groups are used in all reaction
  * creating methods of this class. The groups package is used to encode the
  * reaction type. The fbc package is used to encode the upper and lower bounds
- * and the objective coefficient of the reaction.
+ * and the objective coefficient of the reaction. With a sparse objective only
+ * the objective coefficients other than 0 are encoded as flux objectives, see
+ * {@link #setSparseObjective(boolean)}.
  * </p>
  * 
  * @author Marc A. Voigt
@@ -42,6 +39,10 @@ public class MEReactionPlugin extends MEAbstractXMLNodePlugin
    * 
    */
   private static final long serialVersionUID = 1L;
+  /**
+   * whether flux objectives are only created for coefficients other than 0
+   */
+  private boolean           sparseObjective  = false;
 
 
   // constructors
@@ -55,6 +56,30 @@ public class MEReactionPlugin extends MEAbstractXMLNodePlugin
     if (rp.isSetId()) {
       setId(rp.getId());
     }
+    sparseObjective = rp.sparseObjective;
+  }
+
+
+  /**
+   * Sets whether the reactions created by this plugin only get a flux
+   * objective if their objective coefficient is not 0. ME models usually
+   * have a single reaction in the objective, so that a sparse objective
+   * saves one element per reaction. The converters read missing flux
+   * objectives as coefficient 0.
+   * 
+   * @param sparseObjective
+   *        whether flux objectives with a coefficient of 0 are omitted
+   */
+  public void setSparseObjective(boolean sparseObjective) {
+    this.sparseObjective = sparseObjective;
+  }
+
+
+  /**
+   * @return whether flux objectives with a coefficient of 0 are omitted
+   */
+  public boolean isSparseObjective() {
+    return sparseObjective;
   }
 
 
@@ -71,7 +96,8 @@ public class MEReactionPlugin extends MEAbstractXMLNodePlugin
    * currently unknown parameters that need to be added to the ListOfParameters
    * of the model. The check whether a species is a product or reactant is based
    * on the first character in the string that is not an opening bracket, if
-   * this is a minus the species is assumed to be a reactant.
+   * this is a minus the species is assumed to be a reactant. Parsed
+   * coefficients are cached, see {@link MECoefficientFormula}.
    * </p>
    * 
    * @param model
@@ -86,8 +112,37 @@ public class MEReactionPlugin extends MEAbstractXMLNodePlugin
    */
   public void addCOBRAmeSpeciesToReaction(Model model, Reaction reaction,
     String speciesId, String coefficient) throws ParseException {
+    MEReactionFragment fragment =
+      new MEReactionFragment(this, reaction, null, null, null, 0.0);
+    addCOBRAmeSpeciesToFragment(fragment, speciesId, coefficient);
+    fragment.commitInitialAssignments(model);
+  }
+
+
+  /**
+   * Adds a single species from a COBRAme reaction list to the reaction of a
+   * {@link MEReactionFragment} without changing the model.
+   * <p>
+   * Parameters that are found in the coefficient and the InitialAssignment of
+   * a symbolic coefficient are stored in the fragment and only added to the
+   * model when the fragment is committed, see
+   * {@link #addCOBRAmeSpeciesToReaction(Model, Reaction, String, String)}.
+   * </p>
+   * 
+   * @param fragment
+   *        the fragment containing the reaction that the species should be
+   *        added to
+   * @param speciesId
+   *        the id of the species
+   * @param coefficient
+   *        the coefficient of the species
+   * @throws ParseException
+   */
+  public void addCOBRAmeSpeciesToFragment(MEReactionFragment fragment,
+    String speciesId, String coefficient) throws ParseException {
+    Reaction reaction = fragment.getReaction();
     // Is coefficient integer or double
-    if (coefficient.matches("-?\\d+\\.?\\d*")) {
+    if (MECoefficientLexer.isNumeric(coefficient)) {
       double tempCoefficient = Double.valueOf(coefficient);
       if (tempCoefficient < 0) {
         SpeciesReference temp = reaction.createReactant(reaction.getId() + "___"
@@ -105,54 +160,28 @@ public class MEReactionPlugin extends MEAbstractXMLNodePlugin
         temp.setConstant(false);
       }
     } else {
-      // search for new parameter ids
-      List<String> parameterSearch =
-        Arrays.asList(coefficient.replaceAll(" ", "")
-                                 .split("(?<=[-+*/\\(\\)])|(?=[-+*/\\(\\)])"));
-      for (int i = 0; i < parameterSearch.size(); i++) {
-        // if element contains word characters and does not match an Integer
-        if ((parameterSearch.get(i).matches("\\w+"))
-          && !(parameterSearch.get(i).matches("\\d+"))) {
-          // if element is not already in List of Parameters add it
-          if (!model.containsParameter(parameterSearch.get(i))) {
-            model.createParameter(parameterSearch.get(i));
-            model.getParameter(parameterSearch.get(i)).initDefaults(2, 4, true);
-            model.getParameter(parameterSearch.get(i)).setConstant(false);
-          }
-        }
+      MECoefficientFormula formula = MECoefficientFormula.parse(coefficient);
+      // parameters are added to the model if they are not already in the
+      // List of Parameters
+      for (String parameterId : formula.getParameters()) {
+        fragment.addParameter(parameterId);
       }
-      // check the first character that is not an opening bracket, for minus to
-      // decide between reactant and product
-      String testCoefficient = coefficient;
-      for (int i = 0; i < coefficient.length(); i++) {
-        if (testCoefficient.substring(0, 1).equals("(")) {
-          testCoefficient = testCoefficient.substring(1);
-        } else if (testCoefficient.substring(0, 1).equals("-")) {
-          SpeciesReference temp = reaction.createReactant(reaction.getId()
-            + "___" + createSBMLConformId(speciesId) + "___reactant",
-            createSBMLConformId(speciesId));
-          temp.setConstant(false);
-          ASTNode coefficientNode = ASTNode.parseFormula(coefficient);
-          // need to convert value due to COBRAme only possessing one list for
-          // both reactants & products
-          ASTNode convert = new ASTNode();
-          convert.setValue(-1);
-          InitialAssignment speciesAssignment = model.createInitialAssignment();
-          speciesAssignment.setMath(coefficientNode.multiplyWith(convert));
-          speciesAssignment.setVariable(temp.getId());
-          break;
-        } else {
-          SpeciesReference temp = reaction.createProduct(reaction.getId()
-            + "___" + createSBMLConformId(speciesId) + "___product",
-            createSBMLConformId(speciesId));
-          temp.setConstant(false);
-          ASTNode coefficientNode = ASTNode.parseFormula(coefficient);
-          InitialAssignment speciesAssignment = model.createInitialAssignment();
-          speciesAssignment.setMath(coefficientNode);
-          speciesAssignment.setVariable(temp.getId());
-          break;
-        }
+      SpeciesReference temp;
+      if (formula.isReactant()) {
+        temp = reaction.createReactant(reaction.getId() + "___"
+          + createSBMLConformId(speciesId) + "___reactant",
+          createSBMLConformId(speciesId));
+      } else {
+        temp = reaction.createProduct(reaction.getId() + "___"
+          + createSBMLConformId(speciesId) + "___product",
+          createSBMLConformId(speciesId));
       }
+      temp.setConstant(false);
+      InitialAssignment speciesAssignment =
+        new InitialAssignment(reaction.getLevel(), reaction.getVersion());
+      speciesAssignment.setMath(formula.getMath());
+      speciesAssignment.setVariable(temp.getId());
+      fragment.addInitialAssignment(speciesAssignment);
     }
   }
 
@@ -162,10 +191,10 @@ public class MEReactionPlugin extends MEAbstractXMLNodePlugin
    * valid
    * parameter a new one is created.
    * <p>
-   * In order to not create several parameters with the same value this method
-   * translates the value into a String that can be used as a valid SBML id. The
-   * method then searches the ListOfParameter for a parameter with the
-   * translated id. If no such parameter is found a new parameter is created.
+   * In order to not create several parameters with the same value the
+   * parameters are handed out by the {@link MEBoundRegistry} of the model,
+   * which keeps numeric bounds by their value and symbolic bounds by their
+   * expression.
    * </p>
    * 
    * @param model
@@ -180,88 +209,30 @@ public class MEReactionPlugin extends MEAbstractXMLNodePlugin
    */
   public void setBounds(Model model, FBCReactionPlugin fbcTempReaction,
     String upperBound, String lowerBound) throws ParseException {
-    boolean upperNumber = false;
-    boolean lowerNumber = false;
-    // Are the values for the Bounds simple numbers?
-    if (upperBound.matches("-?\\d+\\.?\\d*")) {
-      upperNumber = true;
-    }
-    if (lowerBound.matches("-?\\d+\\.?\\d*")) {
-      lowerNumber = true;
-    }
-    // set basic ids for bounds that apply if the bound is an int or double
-    String upperId = "me_bound_" + upperBound;
-    upperId = upperId.replaceAll("\\-", "__minus__");
-    upperId = upperId.replaceAll("\\.", "__");
-    String lowerId = "me_bound_" + lowerBound;
-    lowerId = lowerId.replaceAll("\\-", "__minus__");
-    lowerId = lowerId.replaceAll("\\.", "__");
-    // change the id if the bound is a coplex expression to create a valid SBML
-    // id
-    if (!upperNumber) {
-      // change power operator from Pythons ** to ^ to make the value valid
-      upperBound = upperBound.replaceAll("\\*\\*", "\\^");
-      upperId = upperId.replaceAll("\\+", "__plus__");
-      upperId = upperId.replaceAll("\\*\\*", "__power__");
-      upperId = upperId.replaceAll("\\^", "__power__");
-      upperId = upperId.replaceAll("\\*", "__times__");
-      upperId = upperId.replaceAll("\\/", "__divide__");
-      upperId = upperId.replaceAll("\\(", "__open__");
-      upperId = upperId.replaceAll("\\)", "__close__");
-      upperId = upperId.replaceAll(" ", "");
-    }
-    if (!lowerNumber) {
-      // change power operator from Pythons ** to ^ to make the value valid
-      lowerBound = lowerBound.replaceAll("\\*\\*", "\\^");
-      lowerId = lowerId.replaceAll("\\+", "__plus__");
-      lowerId = lowerId.replaceAll("\\*\\*", "__power__");
-      lowerId = lowerId.replaceAll("\\^", "__power__");
-      lowerId = lowerId.replaceAll("\\*", "__times__");
-      lowerId = lowerId.replaceAll("\\/", "__divide__");
-      lowerId = lowerId.replaceAll("\\(", "__open__");
-      lowerId = lowerId.replaceAll("\\)", "__close__");
-      lowerId = lowerId.replaceAll(" ", "");
-    }
-    // test if parameter already set
-    if (model.getParameter(upperId) != null) {
-      // case parameter already in model
-      fbcTempReaction.setUpperFluxBound(upperId);
-    } else if (upperNumber) {
-      // case parameter not in model but is a double or int
-      Parameter upper = model.createParameter(upperId);
-      upper.setConstant(true);
-      upper.setValue(Double.valueOf(upperBound));
-      fbcTempReaction.setUpperFluxBound(upper);
-    } else {
-      // case parameter not in model and is a complex expression that may be
-      // dependent on other parameters
-      Parameter upper = model.createParameter(upperId);
-      upper.setConstant(true);
-      InitialAssignment upperIA = model.createInitialAssignment();
-      upperIA.setMath(ASTNode.parseFormula(upperBound));
-      upperIA.setVariable(upper.getId());
-      fbcTempReaction.setUpperFluxBound(upper);
-    }
-    // test if parameter already set
-    if (model.getParameter(lowerId) != null) {
-      // case parameter already in model
-      fbcTempReaction.setLowerFluxBound(lowerId);
-    } else if (lowerNumber) {
-      // case parameter not in model but is a double or int
-      Parameter lower = model.createParameter(lowerId);
-      lower.setConstant(true);
-      lower.setValue(Double.valueOf(lowerBound));
-      fbcTempReaction.setLowerFluxBound(lower);
-    } else {
-      // case parameter not in model and is a complex expression that may be
-      // dependent on other parameters
-      Parameter lower = model.createParameter(lowerId);
-      lower.setConstant(true);
-      InitialAssignment lowerIA = model.createInitialAssignment();
-      lowerIA.setMath(ASTNode.parseFormula(lowerBound));
-      lowerIA.setVariable(lower.getId());
-      fbcTempReaction.setLowerFluxBound(lower);
-    }
+    MEBoundRegistry registry = MEBoundRegistry.get(model);
+    fbcTempReaction.setUpperFluxBound(registry.getParameterId(upperBound));
+    fbcTempReaction.setLowerFluxBound(registry.getParameterId(lowerBound));
+  }
+
+
+  /**
+   * Sets the numeric Bounds of a fbc reaction to a valid parameter, see
+   * {@link #setBounds(Model, FBCReactionPlugin, String, String)}.
+   * 
+   * @param model
+   *        the SBML model
+   * @param fbcTempReaction
+   *        the fbc plugin for the reaction
+   * @param upperBound
+   *        the designated upper bound
+   * @param lowerBound
+   *        the designated lower bound
+   */
+  public void setBounds(Model model, FBCReactionPlugin fbcTempReaction,
+    double upperBound, double lowerBound) {
+    MEBoundRegistry registry = MEBoundRegistry.get(model);
+    fbcTempReaction.setUpperFluxBound(registry.getParameterId(upperBound));
+    fbcTempReaction.setLowerFluxBound(registry.getParameterId(lowerBound));
   }
 
 
@@ -304,31 +275,41 @@ public class MEReactionPlugin extends MEAbstractXMLNodePlugin
     String upperBound, String lowerBound, List<String> speciesIds,
     List<String> coefficients, double objectiveCoefficient, String variableKind)
     throws ParseException {
+    prepareSummaryVariableReaction(model, id, name, upperBound, lowerBound,
+      speciesIds, coefficients, objectiveCoefficient, variableKind)
+      .commit(model, groups, objective);
+  }
+
+
+  /**
+   * Prepares the reaction of {@link #createSummaryVariableReaction} as a
+   * {@link MEReactionFragment} without changing the model or the SBOL
+   * document.
+   * 
+   * @return the fragment holding the prepared reaction
+   * @throws ParseException
+   */
+  public MEReactionFragment prepareSummaryVariableReaction(Model model,
+    String id, String name, String upperBound, String lowerBound,
+    List<String> speciesIds, List<String> coefficients,
+    double objectiveCoefficient, String variableKind) throws ParseException {
     id = createSBMLConformId(id);
-    Reaction tempReaction = model.createReaction(id);
+    Reaction tempReaction =
+      new Reaction(id, model.getLevel(), model.getVersion());
     tempReaction.initDefaults(2, 4, true);
     tempReaction.setReversible(false);
     tempReaction.setName(name);
-    Group group = (Group) groups.getGroup(summaryVariable);
-    if (group != null) {
-      group.createMemberWithIdRef(id);
-    } else {
-      group = groups.createGroup(summaryVariable);
-      group.setKind(Group.Kind.classification);
-      group.createMemberWithIdRef(id);
-    }
-    FBCReactionPlugin fbcTempReaction =
-      (FBCReactionPlugin) tempReaction.getPlugin(FBCConstants.shortLabel);
-    setBounds(model, fbcTempReaction, upperBound, lowerBound);
-    objective.createFluxObjective(id + "_coefficient", "", objectiveCoefficient,
-      model.getReaction(id));
+    MEReactionFragment fragment =
+      new MEReactionFragment(this, tempReaction, summaryVariable, upperBound,
+        lowerBound, objectiveCoefficient);
     for (int i = 0; i < speciesIds.size(); i++) {
-      addCOBRAmeSpeciesToReaction(model, tempReaction, speciesIds.get(i),
+      addCOBRAmeSpeciesToFragment(fragment, speciesIds.get(i),
         coefficients.get(i));
     }
     MEReactionPlugin meReaction = new MEReactionPlugin();
     meReaction.setVariableKind(variableKind);
     tempReaction.appendAnnotation(meReaction);
+    return fragment;
   }
 
 
@@ -371,25 +352,33 @@ public class MEReactionPlugin extends MEAbstractXMLNodePlugin
     double upperBound, double lowerBound, List<String> speciesIds,
     List<String> coefficients, double objectiveCoefficient, String variableKind)
     throws ParseException {
+    prepareGenericFormationReaction(model, id, name, upperBound, lowerBound,
+      speciesIds, coefficients, objectiveCoefficient, variableKind)
+      .commit(model, groups, objective);
+  }
+
+
+  /**
+   * Prepares the reaction of {@link #createGenericFormationReaction} as a
+   * {@link MEReactionFragment} without changing the model or the SBOL
+   * document.
+   * 
+   * @return the fragment holding the prepared reaction
+   * @throws ParseException
+   */
+  public MEReactionFragment prepareGenericFormationReaction(Model model,
+    String id, String name, double upperBound, double lowerBound,
+    List<String> speciesIds, List<String> coefficients,
+    double objectiveCoefficient, String variableKind) throws ParseException {
     id = createSBMLConformId(id);
-    Reaction tempReaction = model.createReaction(id);
+    Reaction tempReaction =
+      new Reaction(id, model.getLevel(), model.getVersion());
     tempReaction.setName(name);
     tempReaction.initDefaults(2, 4, true);
     tempReaction.setReversible(false);
-    Group group = (Group) groups.getGroup(genericFormation);
-    if (group != null) {
-      group.createMemberWithIdRef(id);
-    } else {
-      group = groups.createGroup(genericFormation);
-      group.setKind(Group.Kind.classification);
-      group.createMemberWithIdRef(id);
-    }
-    FBCReactionPlugin fbcTempReaction =
-      (FBCReactionPlugin) tempReaction.getPlugin(FBCConstants.shortLabel);
-    setBounds(model, fbcTempReaction, String.valueOf(upperBound),
-      String.valueOf(lowerBound));
-    objective.createFluxObjective(id + "_coefficient", "", objectiveCoefficient,
-      model.getReaction(id));
+    MEReactionFragment fragment =
+      new MEReactionFragment(this, tempReaction, genericFormation,
+        upperBound, lowerBound, objectiveCoefficient);
     // create group for representing the genericData of COBRAme
     String metabolite = "";
     String generic = "";
@@ -415,18 +404,11 @@ public class MEReactionPlugin extends MEAbstractXMLNodePlugin
         generic = "genericData___" + createSBMLConformId(speciesIds.get(i));
       }
     }
-    // test if group already exists
-    Group genericGroup = (Group) groups.getGroup(generic);
-    if (genericGroup != null) {
-      genericGroup.createMemberWithIdRef(metabolite);
-    } else {
-      genericGroup = groups.createGroup(generic);
-      genericGroup.setKind(Group.Kind.collection);
-      genericGroup.createMemberWithIdRef(metabolite);
-    }
+    fragment.setGenericGroup(generic, metabolite);
     MEReactionPlugin meReaction = new MEReactionPlugin();
     meReaction.setVariableKind(variableKind);
     tempReaction.appendAnnotation(meReaction);
+    return fragment;
   }
 
 
@@ -486,44 +468,51 @@ public class MEReactionPlugin extends MEAbstractXMLNodePlugin
     double objectiveCoefficient, String variableKind, String sequence,
     LinkedHashMap<String, Double> subreactionMap)
     throws ParseException, SBOLValidationException {
+    prepareTranscriptionReaction(model, sbol, id, name, dataId, upperBound,
+      lowerBound, speciesIds, coefficients, objectiveCoefficient, variableKind,
+      sequence, subreactionMap)
+      .commit(model, sbol, groups, objective);
+  }
+
+
+  /**
+   * Prepares the reaction of {@link #createTranscriptionReaction} as a
+   * {@link MEReactionFragment} without changing the model or the SBOL
+   * document.
+   * 
+   * @return the fragment holding the prepared reaction
+   * @throws ParseException
+   */
+  public MEReactionFragment prepareTranscriptionReaction(Model model,
+    SBOLDocument sbol, String id, String name, String dataId, double upperBound,
+    double lowerBound, List<String> speciesIds, List<String> coefficients,
+    double objectiveCoefficient, String variableKind, String sequence,
+    LinkedHashMap<String, Double> subreactionMap) throws ParseException {
     id = createSBMLConformId(id);
     dataId = createSBMLConformId(dataId);
-    Reaction tempReaction = model.createReaction(id);
+    Reaction tempReaction =
+      new Reaction(id, model.getLevel(), model.getVersion());
     tempReaction.setName(name);
     tempReaction.initDefaults(2, 4, true);
     tempReaction.setReversible(false);
-    // add reaction to group
-    Group group = (Group) groups.getGroup(transcription);
-    if (group != null) {
-      group.createMemberWithIdRef(id);
-    } else {
-      group = groups.createGroup(transcription);
-      group.setKind(Group.Kind.classification);
-      group.createMemberWithIdRef(id);
-    }
-    // set fbc data
-    FBCReactionPlugin fbcTempReaction =
-      (FBCReactionPlugin) tempReaction.getPlugin(FBCConstants.shortLabel);
-    setBounds(model, fbcTempReaction, String.valueOf(upperBound),
-      String.valueOf(lowerBound));
-    objective.createFluxObjective(id + "_coefficient", "", objectiveCoefficient,
-      model.getReaction(id));
+    MEReactionFragment fragment =
+      new MEReactionFragment(this, tempReaction, transcription,
+        upperBound, lowerBound, objectiveCoefficient);
     // add species to reaction
     for (int i = 0; i < speciesIds.size(); i++) {
-      addCOBRAmeSpeciesToReaction(model, tempReaction, speciesIds.get(i),
+      addCOBRAmeSpeciesToFragment(fragment, speciesIds.get(i),
         coefficients.get(i));
     }
     // add sequence to SBOL document
-    MESBOLPlugin meSBOL = new MESBOLPlugin();
     MEReactionPlugin meReaction = new MEReactionPlugin();
     // test if dataId is also a species id which is valid in COBRAme but would
     // not work in SBOL because ids must be globally unique here
     if (model.getSpecies(dataId) != null) {
-      meSBOL.createSBOL(sbol, dataId + "__REACTION", sequence, "DNA");
+      fragment.setSequence(dataId + "__REACTION", sequence, "DNA");
       meReaction.setSequence(
         sbol.getDefaultURIprefix() + dataId + "__REACTION");
     } else {
-      meSBOL.createSBOL(sbol, dataId, sequence, "DNA");
+      fragment.setSequence(dataId, sequence, "DNA");
       meReaction.setSequence(sbol.getDefaultURIprefix() + dataId);
     }
     // add ME exclusive data to annotation
@@ -542,6 +531,7 @@ public class MEReactionPlugin extends MEAbstractXMLNodePlugin
       meReaction.addChild(listSubRef);
     }
     tempReaction.appendAnnotation(meReaction);
+    return fragment;
   }
 
 
@@ -601,44 +591,51 @@ public class MEReactionPlugin extends MEAbstractXMLNodePlugin
     double objectiveCoefficient, String variableKind, String sequence,
     LinkedHashMap<String, Double> subreactionMap)
     throws ParseException, SBOLValidationException {
+    prepareTranslationReaction(model, sbol, id, name, dataId, upperBound,
+      lowerBound, speciesIds, coefficients, objectiveCoefficient, variableKind,
+      sequence, subreactionMap)
+      .commit(model, sbol, groups, objective);
+  }
+
+
+  /**
+   * Prepares the reaction of {@link #createTranslationReaction} as a
+   * {@link MEReactionFragment} without changing the model or the SBOL
+   * document.
+   * 
+   * @return the fragment holding the prepared reaction
+   * @throws ParseException
+   */
+  public MEReactionFragment prepareTranslationReaction(Model model,
+    SBOLDocument sbol, String id, String name, String dataId, double upperBound,
+    double lowerBound, List<String> speciesIds, List<String> coefficients,
+    double objectiveCoefficient, String variableKind, String sequence,
+    LinkedHashMap<String, Double> subreactionMap) throws ParseException {
     id = createSBMLConformId(id);
     dataId = createSBMLConformId(dataId);
-    Reaction tempReaction = model.createReaction(id);
+    Reaction tempReaction =
+      new Reaction(id, model.getLevel(), model.getVersion());
     tempReaction.setName(name);
     tempReaction.initDefaults(2, 4, true);
     tempReaction.setReversible(false);
-    // add reaction to group
-    Group group = (Group) groups.getGroup(translation);
-    if (group != null) {
-      group.createMemberWithIdRef(id);
-    } else {
-      group = groups.createGroup(translation);
-      group.setKind(Group.Kind.classification);
-      group.createMemberWithIdRef(id);
-    }
-    // set fbc data
-    FBCReactionPlugin fbcTempReaction =
-      (FBCReactionPlugin) tempReaction.getPlugin(FBCConstants.shortLabel);
-    setBounds(model, fbcTempReaction, String.valueOf(upperBound),
-      String.valueOf(lowerBound));
-    objective.createFluxObjective(id + "_coefficient", "", objectiveCoefficient,
-      model.getReaction(id));
+    MEReactionFragment fragment =
+      new MEReactionFragment(this, tempReaction, translation,
+        upperBound, lowerBound, objectiveCoefficient);
     // add species to reaction
     for (int i = 0; i < speciesIds.size(); i++) {
-      addCOBRAmeSpeciesToReaction(model, tempReaction, speciesIds.get(i),
+      addCOBRAmeSpeciesToFragment(fragment, speciesIds.get(i),
         coefficients.get(i));
     }
     // add sequence to SBOL document
-    MESBOLPlugin meSBOL = new MESBOLPlugin();
     MEReactionPlugin meReaction = new MEReactionPlugin();
     // test if dataId is also a species id which is valid in COBRAme but would
     // not work in SBOL because ids must be globally unique here
     if (model.getSpecies(dataId) != null) {
-      meSBOL.createSBOL(sbol, dataId + "__REACTION", sequence, "mRNA");
+      fragment.setSequence(dataId + "__REACTION", sequence, "mRNA");
       meReaction.setSequence(
         sbol.getDefaultURIprefix() + dataId + "__REACTION");
     } else {
-      meSBOL.createSBOL(sbol, dataId, sequence, "mRNA");
+      fragment.setSequence(dataId, sequence, "mRNA");
       meReaction.setSequence(sbol.getDefaultURIprefix() + dataId);
     }
     // add ME exclusive data to annotation
@@ -657,6 +654,7 @@ public class MEReactionPlugin extends MEAbstractXMLNodePlugin
       meReaction.addChild(listSubRef);
     }
     tempReaction.appendAnnotation(meReaction);
+    return fragment;
   }
 
 
@@ -716,31 +714,40 @@ public class MEReactionPlugin extends MEAbstractXMLNodePlugin
     LinkedHashMap<String, Double> subreactionMap, String synthetase,
     String codon, String aminoAcid)
     throws ParseException, SBOLValidationException {
+    preparetRNAChargingReaction(model, id, name, dataId, upperBound, lowerBound,
+      keff, speciesIds, coefficients, objectiveCoefficient, variableKind,
+      subreactionMap, synthetase, codon, aminoAcid)
+      .commit(model, groups, objective);
+  }
+
+
+  /**
+   * Prepares the reaction of {@link #createtRNAChargingReaction} as a
+   * {@link MEReactionFragment} without changing the model or the SBOL
+   * document.
+   * 
+   * @return the fragment holding the prepared reaction
+   * @throws ParseException
+   */
+  public MEReactionFragment preparetRNAChargingReaction(Model model, String id,
+    String name, String dataId, double upperBound, double lowerBound,
+    double keff, List<String> speciesIds, List<String> coefficients,
+    double objectiveCoefficient, String variableKind,
+    LinkedHashMap<String, Double> subreactionMap, String synthetase,
+    String codon, String aminoAcid) throws ParseException {
     id = createSBMLConformId(id);
     dataId = createSBMLConformId(dataId);
-    Reaction tempReaction = model.createReaction(id);
+    Reaction tempReaction =
+      new Reaction(id, model.getLevel(), model.getVersion());
     tempReaction.setName(name);
     tempReaction.initDefaults(2, 4, true);
     tempReaction.setReversible(false);
-    // add reaction to group
-    Group group = (Group) groups.getGroup(tRNACharging);
-    if (group != null) {
-      group.createMemberWithIdRef(id);
-    } else {
-      group = groups.createGroup(tRNACharging);
-      group.setKind(Group.Kind.classification);
-      group.createMemberWithIdRef(id);
-    }
-    // set fbc data
-    FBCReactionPlugin fbcTempReaction =
-      (FBCReactionPlugin) tempReaction.getPlugin(FBCConstants.shortLabel);
-    setBounds(model, fbcTempReaction, String.valueOf(upperBound),
-      String.valueOf(lowerBound));
-    objective.createFluxObjective(id + "_coefficient", "", objectiveCoefficient,
-      model.getReaction(id));
+    MEReactionFragment fragment =
+      new MEReactionFragment(this, tempReaction, tRNACharging,
+        upperBound, lowerBound, objectiveCoefficient);
     // add species to reaction
     for (int i = 0; i < speciesIds.size(); i++) {
-      addCOBRAmeSpeciesToReaction(model, tempReaction, speciesIds.get(i),
+      addCOBRAmeSpeciesToFragment(fragment, speciesIds.get(i),
         coefficients.get(i));
     }
     // add ME exclusive data to annotation
@@ -764,6 +771,7 @@ public class MEReactionPlugin extends MEAbstractXMLNodePlugin
       meReaction.addChild(listSubRef);
     }
     tempReaction.appendAnnotation(meReaction);
+    return fragment;
   }
 
 
@@ -860,31 +868,47 @@ public class MEReactionPlugin extends MEAbstractXMLNodePlugin
     List<Double> keqValues, List<String> kFolding, List<Double> kValues,
     String biomassType, String processed, String unprocessed)
     throws ParseException {
+    preparePostTranslationReaction(model, id, name, dataId, upperBound,
+      lowerBound, speciesIds, coefficients, objectiveCoefficient, variableKind,
+      subreactionMap, aggregationPropensity, translocation, multipliers,
+      propensityScaling, surfaceArea, surfaceAreaValue, keqFolding, keqValues,
+      kFolding, kValues, biomassType, processed, unprocessed)
+      .commit(model, groups, objective);
+  }
+
+
+  /**
+   * Prepares the reaction of {@link #createPostTranslationReaction} as a
+   * {@link MEReactionFragment} without changing the model or the SBOL
+   * document.
+   * 
+   * @return the fragment holding the prepared reaction
+   * @throws ParseException
+   */
+  public MEReactionFragment preparePostTranslationReaction(Model model,
+    String id, String name, String dataId, double upperBound, double lowerBound,
+    List<String> speciesIds, List<String> coefficients,
+    double objectiveCoefficient, String variableKind,
+    LinkedHashMap<String, Double> subreactionMap, double aggregationPropensity,
+    List<String> translocation, List<Double> multipliers,
+    double propensityScaling, List<String> surfaceArea,
+    List<Double> surfaceAreaValue, List<String> keqFolding,
+    List<Double> keqValues, List<String> kFolding, List<Double> kValues,
+    String biomassType, String processed, String unprocessed)
+    throws ParseException {
     id = createSBMLConformId(id);
     dataId = createSBMLConformId(dataId);
-    Reaction tempReaction = model.createReaction(id);
+    Reaction tempReaction =
+      new Reaction(id, model.getLevel(), model.getVersion());
     tempReaction.setName(name);
     tempReaction.initDefaults(2, 4, true);
     tempReaction.setReversible(false);
-    // add reaction to group
-    Group group = (Group) groups.getGroup(postTranslationReaction);
-    if (group != null) {
-      group.createMemberWithIdRef(id);
-    } else {
-      group = groups.createGroup(postTranslationReaction);
-      group.setKind(Group.Kind.classification);
-      group.createMemberWithIdRef(id);
-    }
-    // set fbc data
-    FBCReactionPlugin fbcTempReaction =
-      (FBCReactionPlugin) tempReaction.getPlugin(FBCConstants.shortLabel);
-    setBounds(model, fbcTempReaction, String.valueOf(upperBound),
-      String.valueOf(lowerBound));
-    objective.createFluxObjective(id + "_coefficient", "", objectiveCoefficient,
-      model.getReaction(id));
+    MEReactionFragment fragment =
+      new MEReactionFragment(this, tempReaction, postTranslationReaction,
+        upperBound, lowerBound, objectiveCoefficient);
     // add species to reaction
     for (int i = 0; i < speciesIds.size(); i++) {
-      addCOBRAmeSpeciesToReaction(model, tempReaction, speciesIds.get(i),
+      addCOBRAmeSpeciesToFragment(fragment, speciesIds.get(i),
         coefficients.get(i));
     }
     // add ME exclusive data to annotation
@@ -951,6 +975,7 @@ public class MEReactionPlugin extends MEAbstractXMLNodePlugin
       meReaction.addChild(listK);
     }
     tempReaction.appendAnnotation(meReaction);
+    return fragment;
   }
 
 
@@ -1000,32 +1025,41 @@ public class MEReactionPlugin extends MEAbstractXMLNodePlugin
     double objectiveCoefficient, String variableKind,
     LinkedHashMap<String, Double> subreactionMap,
     LinkedHashMap<String, Double> stoichiometricMap) throws ParseException {
+    prepareComplexFormationReaction(model, id, name, dataId, complexId,
+      upperBound, lowerBound, speciesIds, coefficients, objectiveCoefficient,
+      variableKind, subreactionMap, stoichiometricMap)
+      .commit(model, groups, objective);
+  }
+
+
+  /**
+   * Prepares the reaction of {@link #createComplexFormationReaction} as a
+   * {@link MEReactionFragment} without changing the model or the SBOL
+   * document.
+   * 
+   * @return the fragment holding the prepared reaction
+   * @throws ParseException
+   */
+  public MEReactionFragment prepareComplexFormationReaction(Model model,
+    String id, String name, String dataId, String complexId, double upperBound,
+    double lowerBound, List<String> speciesIds, List<String> coefficients,
+    double objectiveCoefficient, String variableKind,
+    LinkedHashMap<String, Double> subreactionMap,
+    LinkedHashMap<String, Double> stoichiometricMap) throws ParseException {
     id = createSBMLConformId(id);
     dataId = createSBMLConformId(dataId);
     complexId = createSBMLConformId(complexId);
-    Reaction tempReaction = model.createReaction(id);
+    Reaction tempReaction =
+      new Reaction(id, model.getLevel(), model.getVersion());
     tempReaction.setName(name);
     tempReaction.initDefaults(2, 4, true);
     tempReaction.setReversible(false);
-    // add reaction to group
-    Group group = (Group) groups.getGroup(complexFormationReaction);
-    if (group != null) {
-      group.createMemberWithIdRef(id);
-    } else {
-      group = groups.createGroup(complexFormationReaction);
-      group.setKind(Group.Kind.classification);
-      group.createMemberWithIdRef(id);
-    }
-    // set fbc data
-    FBCReactionPlugin fbcTempReaction =
-      (FBCReactionPlugin) tempReaction.getPlugin(FBCConstants.shortLabel);
-    setBounds(model, fbcTempReaction, String.valueOf(upperBound),
-      String.valueOf(lowerBound));
-    objective.createFluxObjective(id + "_coefficient", "", objectiveCoefficient,
-      model.getReaction(id));
+    MEReactionFragment fragment =
+      new MEReactionFragment(this, tempReaction, complexFormationReaction,
+        upperBound, lowerBound, objectiveCoefficient);
     // add species to reaction
     for (int i = 0; i < speciesIds.size(); i++) {
-      addCOBRAmeSpeciesToReaction(model, tempReaction, speciesIds.get(i),
+      addCOBRAmeSpeciesToFragment(fragment, speciesIds.get(i),
         coefficients.get(i));
     }
     // add ME exclusive data to annotation
@@ -1054,6 +1088,7 @@ public class MEReactionPlugin extends MEAbstractXMLNodePlugin
       meReaction.addChild(listStoRef);
     }
     tempReaction.appendAnnotation(meReaction);
+    return fragment;
   }
 
 
@@ -1112,31 +1147,39 @@ public class MEReactionPlugin extends MEAbstractXMLNodePlugin
     double upperBound, double lowerBound, List<String> speciesIds,
     List<String> coefficients, double objectiveCoefficient, String variableKind,
     double keff, boolean reverse, String complexDataId) throws ParseException {
+    prepareMetabolicReaction(model, id, name, dataId, upperBound, lowerBound,
+      speciesIds, coefficients, objectiveCoefficient, variableKind, keff,
+      reverse, complexDataId)
+      .commit(model, groups, objective);
+  }
+
+
+  /**
+   * Prepares the reaction of {@link #createMetabolicReaction} as a
+   * {@link MEReactionFragment} without changing the model or the SBOL
+   * document.
+   * 
+   * @return the fragment holding the prepared reaction
+   * @throws ParseException
+   */
+  public MEReactionFragment prepareMetabolicReaction(Model model, String id,
+    String name, String dataId, double upperBound, double lowerBound,
+    List<String> speciesIds, List<String> coefficients,
+    double objectiveCoefficient, String variableKind, double keff,
+    boolean reverse, String complexDataId) throws ParseException {
     id = createSBMLConformId(id);
     dataId = createSBMLConformId(dataId);
-    Reaction tempReaction = model.createReaction(id);
+    Reaction tempReaction =
+      new Reaction(id, model.getLevel(), model.getVersion());
     tempReaction.setName(name);
     tempReaction.initDefaults(2, 4, true);
     tempReaction.setReversible(false);
-    // add reaction to group
-    Group group = (Group) groups.getGroup(metabolicReaction);
-    if (group != null) {
-      group.createMemberWithIdRef(id);
-    } else {
-      group = groups.createGroup(metabolicReaction);
-      group.setKind(Group.Kind.classification);
-      group.createMemberWithIdRef(id);
-    }
-    // set fbc data
-    FBCReactionPlugin fbcTempReaction =
-      (FBCReactionPlugin) tempReaction.getPlugin(FBCConstants.shortLabel);
-    setBounds(model, fbcTempReaction, String.valueOf(upperBound),
-      String.valueOf(lowerBound));
-    objective.createFluxObjective(id + "_coefficient", "", objectiveCoefficient,
-      model.getReaction(id));
+    MEReactionFragment fragment =
+      new MEReactionFragment(this, tempReaction, metabolicReaction,
+        upperBound, lowerBound, objectiveCoefficient);
     // add species to reaction
     for (int i = 0; i < speciesIds.size(); i++) {
-      addCOBRAmeSpeciesToReaction(model, tempReaction, speciesIds.get(i),
+      addCOBRAmeSpeciesToFragment(fragment, speciesIds.get(i),
         coefficients.get(i));
     }
     // add ME exclusive data to annotation
@@ -1151,6 +1194,7 @@ public class MEReactionPlugin extends MEAbstractXMLNodePlugin
       meReaction.setComplexId(complexDataId);
     }
     tempReaction.appendAnnotation(meReaction);
+    return fragment;
   }
 
 
@@ -1189,36 +1233,43 @@ public class MEReactionPlugin extends MEAbstractXMLNodePlugin
     Objective objective, String id, String name, double upperBound,
     double lowerBound, List<String> speciesIds, List<String> coefficients,
     double objectiveCoefficient, String variableKind) throws ParseException {
+    prepareMEReaction(model, id, name, upperBound, lowerBound, speciesIds,
+      coefficients, objectiveCoefficient, variableKind)
+      .commit(model, groups, objective);
+  }
+
+
+  /**
+   * Prepares the reaction of {@link #createMEReaction} as a
+   * {@link MEReactionFragment} without changing the model or the SBOL
+   * document.
+   * 
+   * @return the fragment holding the prepared reaction
+   * @throws ParseException
+   */
+  public MEReactionFragment prepareMEReaction(Model model, String id,
+    String name, double upperBound, double lowerBound, List<String> speciesIds,
+    List<String> coefficients, double objectiveCoefficient, String variableKind)
+    throws ParseException {
     id = createSBMLConformId(id);
-    Reaction tempReaction = model.createReaction(id);
+    Reaction tempReaction =
+      new Reaction(id, model.getLevel(), model.getVersion());
     tempReaction.setName(name);
     tempReaction.initDefaults(2, 4, true);
     tempReaction.setReversible(false);
-    // add reaction to group
-    Group group = (Group) groups.getGroup(meReaction);
-    if (group != null) {
-      group.createMemberWithIdRef(id);
-    } else {
-      group = groups.createGroup(meReaction);
-      group.setKind(Group.Kind.classification);
-      group.createMemberWithIdRef(id);
-    }
-    // set fbc data
-    FBCReactionPlugin fbcTempReaction =
-      (FBCReactionPlugin) tempReaction.getPlugin(FBCConstants.shortLabel);
-    setBounds(model, fbcTempReaction, String.valueOf(upperBound),
-      String.valueOf(lowerBound));
-    objective.createFluxObjective(id + "_coefficient", "", objectiveCoefficient,
-      model.getReaction(id));
+    MEReactionFragment fragment =
+      new MEReactionFragment(this, tempReaction, meReaction,
+        upperBound, lowerBound, objectiveCoefficient);
     // add species to reaction
     for (int i = 0; i < speciesIds.size(); i++) {
-      addCOBRAmeSpeciesToReaction(model, tempReaction, speciesIds.get(i),
+      addCOBRAmeSpeciesToFragment(fragment, speciesIds.get(i),
         coefficients.get(i));
     }
     // add ME exclusive data to annotation
     MEReactionPlugin meReaction = new MEReactionPlugin();
     meReaction.setVariableKind(variableKind);
     tempReaction.appendAnnotation(meReaction);
+    return fragment;
   }
 
 
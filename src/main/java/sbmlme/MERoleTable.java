@@ -0,0 +1,96 @@
+package sbmlme;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.sbolstandard.core2.SystemsBiologyOntology;
+
+/**
+ * Maps the types of sequences used in COBRAme ("mRNA", "tRNA", "ncRNA",
+ * "rRNA", "DNA" and "Protein") to the URIs of the corresponding terms of the
+ * Systems Biology Ontology, which are used as roles of ComponentDefinitions in
+ * SBOL, and back.
+ * <p>
+ * Resolving a term by its name requires searching the complete ontology.
+ * The six terms are therefore resolved once, when the table is first used,
+ * and then shared by all conversions.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+public class MERoleTable implements MEConstants {
+
+  /**
+   * URIs of the SBO terms by the COBRAme types of sequences
+   */
+  private static final Map<String, URI> roles;
+  /**
+   * COBRAme types of sequences by the URIs of the SBO terms
+   */
+  private static final Map<URI, String> types;
+
+  static {
+    SystemsBiologyOntology sbo = new SystemsBiologyOntology();
+    Map<String, URI> tempRoles = new LinkedHashMap<String, URI>();
+    tempRoles.put(mRNA, sbo.getURIbyName(messengerRNA));
+    tempRoles.put(tRNA, sbo.getURIbyName(transferRNA));
+    tempRoles.put(ncRNA, sbo.getURIbyName(noncodingRNA));
+    tempRoles.put(rRNA, sbo.getURIbyName(ribosomalRNA));
+    tempRoles.put(dna, sbo.getURIbyName(dnaSegment));
+    tempRoles.put(protein, sbo.getURIbyName(proteinComplex));
+    Map<URI, String> tempTypes = new HashMap<URI, String>();
+    for (Entry<String, URI> entry : tempRoles.entrySet()) {
+      tempTypes.put(entry.getValue(), entry.getKey());
+    }
+    roles = Collections.unmodifiableMap(tempRoles);
+    types = Collections.unmodifiableMap(tempTypes);
+  }
+
+
+  private MERoleTable() {
+  }
+
+
+  /**
+   * Returns the URI of the SBO term that represents the given type of
+   * sequence.
+   * 
+   * @param type
+   *        the type of the sequence, e.g. "mRNA", "DNA",...
+   * @return the URI of the SBO term or null if the type is unknown
+   */
+  public static URI getRole(String type) {
+    return roles.get(type);
+  }
+
+
+  /**
+   * Returns the type of sequence that is represented by the SBO term with the
+   * given URI.
+   * 
+   * @param role
+   *        the URI of the SBO term
+   * @return the type of the sequence, e.g. "mRNA", "DNA",... or null if the
+   *         role does not belong to a type of sequence
+   */
+  public static String getType(URI role) {
+    return types.get(role);
+  }
+
+
+  /**
+   * Returns whether the given type of sequence is a RNA.
+   * 
+   * @param type
+   *        the type of the sequence, e.g. "mRNA", "DNA",...
+   * @return {@code true} for "mRNA", "tRNA", "ncRNA" and "rRNA"
+   */
+  public static boolean isRNA(String type) {
+    return type.equals(mRNA) || type.equals(tRNA) || type.equals(ncRNA)
+      || type.equals(rRNA);
+  }
+}
@@ -7,7 +7,6 @@ import org.sbolstandard.core2.OrientationType;
 import org.sbolstandard.core2.SBOLDocument;
 import org.sbolstandard.core2.SBOLValidationException;
 import org.sbolstandard.core2.Sequence;
-import org.sbolstandard.core2.SystemsBiologyOntology;
 
 /**
  * implements methods to add sequences with additional information to an
@@ -54,8 +53,7 @@ public class MESBOLPlugin implements MEConstants {
     throws SBOLValidationException {
     URI encoding = null;
     URI type = null;
-    if ((role.equals(mRNA)) || (role.equals(tRNA)) || (role.equals(ncRNA))
-      || (role.equals(rRNA))) {
+    if (MERoleTable.isRNA(role)) {
       encoding = Sequence.IUPAC_RNA;
       type = ComponentDefinition.RNA;
     } else if (role.equals(dna)) {
@@ -69,27 +67,12 @@ public class MESBOLPlugin implements MEConstants {
     sbol.createComponentDefinition(id, versionOne, type);
     sbol.getComponentDefinition(id, versionOne).addSequence(id + seq,
       versionOne);
-    // create SBO URI for correct role
-    SystemsBiologyOntology sbo = new SystemsBiologyOntology();
-    if (role.equals(mRNA)) {
-      sbol.getComponentDefinition(id, versionOne)
-          .addRole(sbo.getURIbyName(messengerRNA));
-      // change role to other ontology
-    } else if (role.equals(tRNA)) {
-      sbol.getComponentDefinition(id, versionOne)
-          .addRole(sbo.getURIbyName(transferRNA));
-    } else if (role.equals(ncRNA)) {
-      sbol.getComponentDefinition(id, versionOne)
-          .addRole(sbo.getURIbyName(noncodingRNA));
-    } else if (role.equals(rRNA)) {
-      sbol.getComponentDefinition(id, versionOne)
-          .addRole(sbo.getURIbyName(ribosomalRNA));
-    } else if (role.equals(dna)) {
-      sbol.getComponentDefinition(id, versionOne)
-          .addRole(sbo.getURIbyName(dnaSegment));
-    } else if (role.equals(protein)) {
-      sbol.getComponentDefinition(id, versionOne)
-          .addRole(sbo.getURIbyName(proteinComplex));
+    // the Sequence, the ComponentDefinition and the SequenceAnnotation
+    MEMetrics.count(MEMetrics.Counter.SBOL_OBJECTS, 3);
+    // add SBO term for the role
+    URI sboRole = MERoleTable.getRole(role);
+    if (sboRole != null) {
+      sbol.getComponentDefinition(id, versionOne).addRole(sboRole);
     }
     // COBRAme allows null values for left and and right, these are invalid in
     // SBOL and need to be changed
@@ -131,8 +114,7 @@ public class MESBOLPlugin implements MEConstants {
     String role) throws SBOLValidationException {
     URI encoding = null;
     URI type = null;
-    if ((role.equals(mRNA)) || (role.equals(tRNA)) || (role.equals(ncRNA))
-      || (role.equals(rRNA))) {
+    if (MERoleTable.isRNA(role)) {
       encoding = Sequence.IUPAC_RNA;
       type = ComponentDefinition.RNA;
     } else if (role.equals(dna)) {
@@ -146,5 +128,6 @@ public class MESBOLPlugin implements MEConstants {
     sbol.createComponentDefinition(id, versionOne, type);
     sbol.getComponentDefinition(id, versionOne).addSequence(id + seq,
       versionOne);
+    MEMetrics.count(MEMetrics.Counter.SBOL_OBJECTS, 2);
   }
 }
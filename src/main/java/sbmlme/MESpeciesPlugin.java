@@ -5,7 +5,6 @@ import org.sbml.jsbml.Model;
 import org.sbml.jsbml.Species;
 import org.sbml.jsbml.ext.fbc.FBCConstants;
 import org.sbml.jsbml.ext.fbc.FBCSpeciesPlugin;
-import org.sbml.jsbml.ext.groups.Group;
 import org.sbml.jsbml.ext.groups.GroupsModelPlugin;
 import org.sbml.jsbml.xml.XMLAttributes;
 import org.sbml.jsbml.xml.XMLTriple;
@@ -105,14 +104,7 @@ public class MESpeciesPlugin extends MEAbstractXMLNodePlugin
     if (formula != null) {
       fbcSpecies.setChemicalFormula(formula);
     }
-    Group group = (Group) groups.getGroup(groupName);
-    if (group != null) {
-      group.createMemberWithIdRef(id);
-    } else {
-      group = groups.createGroup(groupName);
-      group.setKind(Group.Kind.classification);
-      group.createMemberWithIdRef(id);
-    }
+    MEGroupRegistry.get(groups).addMember(groupName, id);
   }
 
 
@@ -161,14 +153,7 @@ public class MESpeciesPlugin extends MEAbstractXMLNodePlugin
     }
     MESpeciesPlugin seqME = new MESpeciesPlugin();
     seqME.setUnprocessed(createSBMLConformId(unprocessedId));
-    Group group = (Group) groups.getGroup(groupName);
-    if (group != null) {
-      group.createMemberWithIdRef(id);
-    } else {
-      group = groups.createGroup(groupName);
-      group.setKind(Group.Kind.classification);
-      group.createMemberWithIdRef(id);
-    }
+    MEGroupRegistry.get(groups).addMember(groupName, id);
     meSpecies.getAnnotation().appendNonRDFAnnotation(seqME);
   }
 
@@ -265,14 +250,7 @@ public class MESpeciesPlugin extends MEAbstractXMLNodePlugin
     seqME.setSequence(sbol.getDefaultURIprefix() + id);
     seqME.setGenomePos(Integer.toString(genomePosition));
     meSpecies.getAnnotation().appendNonRDFAnnotation(seqME);
-    Group group = (Group) groups.getGroup(groupName);
-    if (group != null) {
-      group.createMemberWithIdRef(id);
-    } else {
-      group = groups.createGroup(groupName);
-      group.setKind(Group.Kind.classification);
-      group.createMemberWithIdRef(id);
-    }
+    MEGroupRegistry.get(groups).addMember(groupName, id);
   }
 
 
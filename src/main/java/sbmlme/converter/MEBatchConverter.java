@@ -0,0 +1,394 @@
+package sbmlme.converter;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import sbmlme.MEConstants;
+import sbmlme.MEMetrics;
+
+/**
+ * Converts several models in one JVM on a bounded pool of workers.
+ * <p>
+ * All conversions of a batch share one {@link MEConverter} and therefore its
+ * Jackson mappers, as well as the static caches of the JVM, e.g. of the
+ * {@link sbmlme.IdCodec} and the {@link sbmlme.MERoleTable}. COBRAme JSON
+ * files are converted to COMBINE archives, which are named like the JSON
+ * files and whose models are named like the JSON files as well. COMBINE
+ * archives are converted to COBRAme JSON files. The progress messages of the
+ * single conversions are not printed, instead a line is printed for each
+ * converted file and a report with the status and the duration of each
+ * conversion is written at the end.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+public class MEBatchConverter implements MEConstants {
+
+  /**
+   * the name of the report in the output directory
+   */
+  public static final String reportFile = "batch_report.tsv";
+  private MEConverter        converter;
+  /**
+   * the number of files that are converted at the same time
+   */
+  private int                workers;
+  /**
+   * the stream for progress messages, null for no messages
+   */
+  private PrintStream        log;
+
+
+  /**
+   * @param converter
+   *        the converter, whose options are used for all files except for the
+   *        name of the model
+   * @param workers
+   *        the number of files that are converted at the same time
+   * @param log
+   *        the stream for progress messages, null for no messages
+   */
+  public MEBatchConverter(MEConverter converter, int workers,
+    PrintStream log) {
+    if (workers < 1) {
+      throw new IllegalArgumentException(
+        "At least one worker is needed, got " + workers);
+    }
+    this.converter = converter;
+    this.workers = workers;
+    this.log = log;
+  }
+
+
+  /**
+   * Returns the input files of a batch. If the given path is a directory, its
+   * COBRAme JSON files or COMBINE archives respectively are returned in the
+   * order of their names. Otherwise the path is a manifest with one input
+   * file per line, empty lines and lines starting with '#' are skipped.
+   * Relative paths in the manifest are resolved against its directory.
+   * 
+   * @param path
+   *        the directory or the manifest
+   * @param toJSON
+   *        whether COMBINE archives are converted to JSON instead of JSON
+   *        files to COMBINE archives
+   * @return the input files
+   * @throws IOException
+   */
+  public static List<Path> readInputs(Path path, boolean toJSON)
+    throws IOException {
+    List<Path> inputs = new ArrayList<Path>();
+    if (Files.isDirectory(path)) {
+      String extension = toJSON ? archiveExtension : ".json";
+      DirectoryStream<Path> directory = Files.newDirectoryStream(path);
+      try {
+        for (Path file : directory) {
+          if (Files.isRegularFile(file)
+            && file.getFileName().toString().endsWith(extension)) {
+            inputs.add(file);
+          }
+        }
+      } finally {
+        directory.close();
+      }
+      Collections.sort(inputs);
+    } else {
+      Path parent = path.toAbsolutePath().getParent();
+      for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+        line = line.trim();
+        if (!line.isEmpty() && !line.startsWith("#")) {
+          inputs.add(parent.resolve(line));
+        }
+      }
+    }
+    return inputs;
+  }
+
+
+  /**
+   * Converts the given files into the output directory and writes the report
+   * {@value #reportFile} into it. A failed conversion does not stop the
+   * batch, its error is recorded in the report instead. The output files are
+   * named like the input files, therefore no two input files may have the
+   * same name, regardless of their directories and of case.
+   * 
+   * @param inputs
+   *        the COBRAme JSON files or the COMBINE archives
+   * @param outputDirectory
+   *        the directory of the converted files, created if needed
+   * @param toJSON
+   *        whether COMBINE archives are converted to JSON instead of JSON
+   *        files to COMBINE archives
+   * @return the results in the order of the inputs
+   * @throws IOException
+   *         if the output directory or the report can not be written
+   * @throws IllegalArgumentException
+   *         if two input files would be written to the same output file
+   */
+  public List<Result> convert(List<Path> inputs, final Path outputDirectory,
+    final boolean toJSON) throws IOException {
+    // fail before anything is written instead of overwriting outputs
+    Map<String, Path> names = new HashMap<String, Path>();
+    for (Path input : inputs) {
+      Path other = names.put(
+        getOutputName(input, toJSON).toLowerCase(Locale.ENGLISH), input);
+      if (other != null) {
+        throw new IllegalArgumentException("The inputs " + other + " and "
+          + input + " would be converted to the same output file");
+      }
+    }
+    Files.createDirectories(outputDirectory);
+    log("Convert " + inputs.size() + " files with " + workers + " workers");
+    ExecutorService pool = Executors.newFixedThreadPool(workers);
+    List<Future<Result>> futures = new ArrayList<Future<Result>>();
+    try {
+      for (final Path input : inputs) {
+        futures.add(pool.submit(new Callable<Result>() {
+
+          @Override
+          public Result call() {
+            return convert(input, outputDirectory, toJSON);
+          }
+        }));
+      }
+    } finally {
+      pool.shutdown();
+    }
+    List<Result> results = new ArrayList<Result>();
+    for (int i = 0; i < futures.size(); i++) {
+      Result result;
+      try {
+        result = futures.get(i).get();
+      } catch (InterruptedException e) {
+        pool.shutdownNow();
+        Thread.currentThread().interrupt();
+        throw new IOException("Batch conversion was interrupted", e);
+      } catch (ExecutionException e) {
+        // errors like an OutOfMemoryError are not caught by the worker
+        result = new Result(inputs.get(i), null, 0L, e.getCause());
+      }
+      results.add(result);
+    }
+    writeReport(results, outputDirectory.resolve(reportFile));
+    int failed = 0;
+    for (Result result : results) {
+      if (!result.isSuccess()) {
+        failed++;
+      }
+    }
+    log("Converted " + (results.size() - failed) + " of " + results.size()
+      + " files, report written to " + outputDirectory.resolve(reportFile));
+    return results;
+  }
+
+
+  /**
+   * Returns the name of the input file without its extension, which is the
+   * name of all output files of its conversion.
+   */
+  private static String getOutputName(Path input, boolean toJSON) {
+    String name = input.getFileName().toString();
+    String extension = toJSON ? archiveExtension : ".json";
+    if (name.endsWith(extension)) {
+      name = name.substring(0, name.length() - extension.length());
+    }
+    return name;
+  }
+
+
+  /**
+   * Converts a single file and catches its exceptions.
+   */
+  private Result convert(Path input, Path outputDirectory, boolean toJSON) {
+    String name = getOutputName(input, toJSON);
+    Path output = outputDirectory
+      .resolve(name + (toJSON ? ".json" : archiveExtension));
+    long startTime = System.nanoTime();
+    try {
+      if (toJSON) {
+        OutputStream stream =
+          new BufferedOutputStream(Files.newOutputStream(output));
+        MEMetrics metrics;
+        try {
+          metrics = converter.convertArchiveToJSON(input, stream);
+        } finally {
+          stream.close();
+        }
+        writeMetrics(metrics,
+          outputDirectory.resolve(name + SBMLmeConverter.metricsSuffix));
+      } else {
+        MEDocuments documents = converter.convertToSBML(input, name);
+        if (converter.getOptions().isValidation()) {
+          byte[] byteWrite = documents.getSBMLDocument().getErrorLog()
+            .getValidationErrors().toString().getBytes(StandardCharsets.UTF_8);
+          Files.write(outputDirectory.resolve(name + "_validationErrors.txt"),
+            byteWrite);
+        }
+        converter.writeArchive(documents, output);
+        writeMetrics(documents.getMetrics(),
+          outputDirectory.resolve(name + SBMLmeConverter.metricsSuffix));
+      }
+    } catch (Exception e) {
+      Result result =
+        new Result(input, output, System.nanoTime() - startTime, e);
+      log("Failed " + input + ": " + result.getMessage());
+      return result;
+    }
+    Result result = new Result(input, output, System.nanoTime() - startTime,
+      null);
+    log("Converted " + input + " after " + result.getSeconds() + " seconds");
+    return result;
+  }
+
+
+  /**
+   * Writes the metrics of a conversion if there are any.
+   */
+  private static void writeMetrics(MEMetrics metrics, Path report)
+    throws IOException {
+    if (metrics == null) {
+      return;
+    }
+    OutputStream stream =
+      new BufferedOutputStream(Files.newOutputStream(report));
+    try {
+      metrics.writeReport(stream);
+    } finally {
+      stream.close();
+    }
+  }
+
+
+  /**
+   * Writes the results as tab separated table with the columns input,
+   * output, status, seconds and message.
+   */
+  private static void writeReport(List<Result> results, Path report)
+    throws IOException {
+    BufferedWriter writer =
+      Files.newBufferedWriter(report, StandardCharsets.UTF_8);
+    try {
+      writer.write("input\toutput\tstatus\tseconds\tmessage");
+      writer.newLine();
+      for (Result result : results) {
+        writer.write(result.getInput() + "\t"
+          + (result.getOutput() == null ? "" : result.getOutput()) + "\t"
+          + (result.isSuccess() ? "ok" : "failed") + "\t"
+          + result.getSeconds() + "\t"
+          + (result.isSuccess() ? "" : result.getMessage()));
+        writer.newLine();
+      }
+    } finally {
+      writer.close();
+    }
+  }
+
+
+  private synchronized void log(String message) {
+    if (log != null) {
+      log.println(message);
+    }
+  }
+
+
+  /**
+   * The status and the duration of the conversion of a single file.
+   * 
+   * @author Marc A. Voigt
+   */
+  public static class Result {
+
+    private Path      input;
+    private Path      output;
+    /**
+     * the duration of the conversion in nanoseconds
+     */
+    private long      duration;
+    /**
+     * the reason of a failed conversion, null if the conversion succeeded
+     */
+    private Throwable error;
+
+
+    private Result(Path input, Path output, long duration, Throwable error) {
+      this.input = input;
+      this.output = output;
+      this.duration = duration;
+      this.error = error;
+    }
+
+
+    /**
+     * @return the converted file
+     */
+    public Path getInput() {
+      return input;
+    }
+
+
+    /**
+     * @return the written file, which may be incomplete if the conversion
+     *         failed
+     */
+    public Path getOutput() {
+      return output;
+    }
+
+
+    /**
+     * @return the duration of the conversion in seconds
+     */
+    public double getSeconds() {
+      return (duration / 1000000) / 1000.0;
+    }
+
+
+    /**
+     * @return whether the conversion succeeded
+     */
+    public boolean isSuccess() {
+      return error == null;
+    }
+
+
+    /**
+     * @return the reason of a failed conversion, null if the conversion
+     *         succeeded
+     */
+    public Throwable getError() {
+      return error;
+    }
+
+
+    /**
+     * @return the message of the error in a single line, null if the
+     *         conversion succeeded
+     */
+    public String getMessage() {
+      if (error == null) {
+        return null;
+      }
+      String message = error.getMessage() == null ? error.toString()
+        : error.getClass().getSimpleName() + ": " + error.getMessage();
+      return message.replaceAll("\\s+", " ");
+    }
+  }
+}
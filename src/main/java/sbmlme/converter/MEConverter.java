@@ -0,0 +1,518 @@
+package sbmlme.converter;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.sbml.jsbml.Model;
+import org.sbml.jsbml.SBMLDocument;
+import org.sbml.jsbml.SBMLException;
+import org.sbml.jsbml.SBMLReader;
+import org.sbml.jsbml.text.parser.ParseException;
+import org.sbolstandard.core2.SBOLConversionException;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLReader;
+import org.sbolstandard.core2.SBOLValidationException;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import sbmlme.MEArchiveReader;
+import sbmlme.MEArchiveWriter;
+import sbmlme.MEConstants;
+import sbmlme.MEMetrics;
+
+/**
+ * Converts COBRAme JSON documents to SBMLme models and back without the need
+ * for intermediate files.
+ * <p>
+ * In contrast to {@link MEJsonToSBML} and {@link MESBMLToJson}, whose
+ * constructors convert files, a converter is created once and used for any
+ * number of conversions. The Jackson mappers for reading and writing COBRAme
+ * JSON are created with the converter and shared by all its conversions. The
+ * inputs can be files, streams or documents that are already in memory, the
+ * results are returned as documents or written to streams. Progress messages
+ * are only printed if a stream is set in the {@link MEConverterOptions}.
+ * </p>
+ * <p>
+ * The options are read at the start of each conversion. A converter can be
+ * used by several threads as long as its options are not changed.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+public class MEConverter implements MEConstants {
+
+  private MEConverterOptions options;
+  /**
+   * the mapper for reading COBRAme JSON, see
+   * {@link MEJsonToSBML#createCOBRAmeMapper()}
+   */
+  private ObjectMapper       readMapper;
+  /**
+   * the mapper for writing COBRAme JSON, see
+   * {@link MESBMLToJson#createJSONMapper()}
+   */
+  private ObjectMapper       writeMapper;
+
+
+  /**
+   * Creates a converter with the default options.
+   */
+  public MEConverter() {
+    this(new MEConverterOptions());
+  }
+
+
+  /**
+   * @param options
+   *        the options of the conversions
+   */
+  public MEConverter(MEConverterOptions options) {
+    this.options = options;
+    readMapper = MEJsonToSBML.createCOBRAmeMapper();
+    writeMapper = MESBMLToJson.createJSONMapper();
+  }
+
+
+  /**
+   * @return the options of the conversions
+   */
+  public MEConverterOptions getOptions() {
+    return options;
+  }
+
+
+  /**
+   * Converts a COBRAme JSON file to the SBML and SBOL documents of its SBMLme
+   * representation. In streaming mode the file is read a second time if the
+   * reactions precede the content they depend on.
+   * 
+   * @param jsonFile
+   *        the JSON file of the COBRAme model
+   * @return the SBML and SBOL documents
+   * @throws IOException
+   *         if the file can not be read or its root is not an object
+   * @throws ParseException
+   * @throws SBOLValidationException
+   */
+  public MEDocuments convertToSBML(Path jsonFile)
+    throws IOException, ParseException, SBOLValidationException {
+    return convertToSBML(jsonFile, options.getModelName());
+  }
+
+
+  /**
+   * Converts a COBRAme JSON file to the SBML and SBOL documents of its SBMLme
+   * representation with the given name of the model instead of the name in
+   * the options, e.g. for the conversion of several files.
+   * 
+   * @param jsonFile
+   *        the JSON file of the COBRAme model
+   * @param modelName
+   *        the name of the model in SBML
+   * @return the SBML and SBOL documents
+   * @throws IOException
+   *         if the file can not be read or its root is not an object
+   * @throws ParseException
+   * @throws SBOLValidationException
+   */
+  public MEDocuments convertToSBML(Path jsonFile, String modelName)
+    throws IOException, ParseException, SBOLValidationException {
+    File file = jsonFile.toFile();
+    return convertToSBML(readMapper.getFactory().createParser(file), file,
+      modelName);
+  }
+
+
+  /**
+   * Converts a COBRAme JSON document to the SBML and SBOL documents of its
+   * SBMLme representation. The stream is not closed. In streaming mode the
+   * reactions are buffered if they precede the content they depend on.
+   * 
+   * @param json
+   *        the stream of the JSON document
+   * @return the SBML and SBOL documents
+   * @throws IOException
+   *         if the stream can not be read or the root of the document is not
+   *         an object
+   * @throws ParseException
+   * @throws SBOLValidationException
+   */
+  public MEDocuments convertToSBML(InputStream json)
+    throws IOException, ParseException, SBOLValidationException {
+    JsonParser jsonParser = readMapper.getFactory().createParser(json);
+    jsonParser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+    return convertToSBML(jsonParser, null, options.getModelName());
+  }
+
+
+  /**
+   * Converts a COBRAme JSON document that has already been read to the SBML
+   * and SBOL documents of its SBMLme representation.
+   * 
+   * @param json
+   *        the root of the JSON document
+   * @return the SBML and SBOL documents
+   * @throws IOException
+   *         if the root of the document is not an object
+   * @throws ParseException
+   * @throws SBOLValidationException
+   */
+  public MEDocuments convertToSBML(JsonNode json)
+    throws IOException, ParseException, SBOLValidationException {
+    return convertToSBML(readMapper.treeAsTokens(json), null,
+      options.getModelName());
+  }
+
+
+  private MEDocuments convertToSBML(JsonParser jsonParser, File jsonFile,
+    String modelName)
+    throws IOException, ParseException, SBOLValidationException {
+    MEJsonToSBML converter =
+      new MEJsonToSBML(readMapper, options.isParallel(), options.getLog());
+    MEMetrics metrics = createMetrics();
+    converter.setMetrics(metrics);
+    converter.setSparseObjective(options.isSparseObjective());
+    log("Start conversion from JSON to SBML/SBOL");
+    MEDocuments documents = converter.convert(jsonParser, jsonFile,
+      modelName, options.isStreaming());
+    if (documents == null) {
+      throw new IOException("The root of the COBRAme JSON document is not an"
+        + " object");
+    }
+    documents.setMetrics(metrics);
+    if (options.isValidation()) {
+      converter.validate(documents.getSBMLDocument());
+    }
+    return documents;
+  }
+
+
+  /**
+   * Writes the SBML and SBOL documents into a new COMBINE archive. The
+   * entries are named like the archive, e.g. "model.sbex" and "model.sbox"
+   * for "model.zip". The writing is recorded in the metrics of the documents
+   * if they have any.
+   * 
+   * @param documents
+   *        the SBML and SBOL documents
+   * @param archiveFile
+   *        the zip file of the archive, an existing file is overwritten and
+   *        the file is deleted again if writing fails
+   * @throws IOException
+   * @throws SBMLException
+   * @throws XMLStreamException
+   * @throws SBOLConversionException
+   */
+  public void writeArchive(MEDocuments documents, Path archiveFile)
+    throws IOException, SBMLException, XMLStreamException,
+    SBOLConversionException {
+    String name = archiveFile.getFileName().toString();
+    if (name.endsWith(archiveExtension)) {
+      name = name.substring(0, name.length() - archiveExtension.length());
+    }
+    boolean written = false;
+    try {
+      writeArchive(documents, new MEArchiveWriter(archiveFile.toFile()), name);
+      written = true;
+    } finally {
+      if (!written) {
+        // no partial archive without manifest is left behind
+        archiveFile.toFile().delete();
+      }
+    }
+  }
+
+
+  /**
+   * Writes the SBML and SBOL documents as COMBINE archive to the given
+   * stream. The stream is closed.
+   * 
+   * @param documents
+   *        the SBML and SBOL documents
+   * @param stream
+   *        the stream of the zip file of the archive
+   * @param name
+   *        the name of the entries without file extension
+   * @throws IOException
+   * @throws SBMLException
+   * @throws XMLStreamException
+   * @throws SBOLConversionException
+   */
+  public void writeArchive(MEDocuments documents, OutputStream stream,
+    String name) throws IOException, SBMLException, XMLStreamException,
+    SBOLConversionException {
+    writeArchive(documents, new MEArchiveWriter(stream), name);
+  }
+
+
+  private void writeArchive(MEDocuments documents, MEArchiveWriter archive,
+    String name) throws IOException, SBMLException, XMLStreamException,
+    SBOLConversionException {
+    log("write model to COMBINE archive");
+    MEMetrics metrics = documents.getMetrics();
+    Model model = documents.getSBMLDocument().getModel();
+    SBOLDocument sbol = documents.getSBOLDocument();
+    try {
+      MEMetrics.Phase phase = startPhase(metrics, MEMetrics.phaseSBMLWrite);
+      archive.writeSBML(name + sbmlExtension, documents.getSBMLDocument(),
+        options.isTidy());
+      stopPhase(phase, model.getSpeciesCount() + model.getReactionCount()
+        + model.getParameterCount());
+      phase = startPhase(metrics, MEMetrics.phaseSBOLWrite);
+      archive.writeSBOL(name + sbolExtension, sbol);
+      stopPhase(phase, sbol.getComponentDefinitions().size()
+        + sbol.getSequences().size());
+      // the manifest is only written once both entries are complete
+      phase = startPhase(metrics, MEMetrics.phaseArchivePack);
+      archive.finish();
+      stopPhase(phase, 0);
+    } finally {
+      archive.close();
+    }
+  }
+
+
+  /**
+   * Converts the SBML and SBOL documents of a SBMLme model to a COBRAme model
+   * in memory.
+   * 
+   * @param sbmlDocument
+   *        the SBML document
+   * @param sbolDocument
+   *        the SBOL document
+   * @return the COBRAme model
+   * @throws IOException
+   */
+  public MEJsonCOBRAme convertToJSON(SBMLDocument sbmlDocument,
+    SBOLDocument sbolDocument) throws IOException {
+    // the entries are written as tokens and bound to the typed classes
+    TokenBuffer buffer = new TokenBuffer(writeMapper, false);
+    createSBMLToJson().convertToJSON(sbmlDocument.getModel(),
+      new MESequenceIndex(sbolDocument), buffer);
+    JsonParser jsonParser = buffer.asParser(readMapper);
+    try {
+      return readMapper.readValue(jsonParser, MEJsonCOBRAme.class);
+    } finally {
+      jsonParser.close();
+    }
+  }
+
+
+  /**
+   * Converts the SBML and SBOL documents of a SBMLme model to a COBRAme JSON
+   * document, which is written to the given stream. The stream is not closed.
+   * 
+   * @param sbmlDocument
+   *        the SBML document
+   * @param sbolDocument
+   *        the SBOL document
+   * @param json
+   *        the stream of the JSON document
+   * @return the metrics of the conversion or null if no metrics are recorded
+   * @throws IOException
+   */
+  public MEMetrics convertToJSON(SBMLDocument sbmlDocument,
+    SBOLDocument sbolDocument, OutputStream json) throws IOException {
+    MEMetrics metrics = createMetrics();
+    Model model = sbmlDocument.getModel();
+    MEMetrics.Phase phase = startPhase(metrics, MEMetrics.phaseJSONWrite);
+    JsonGenerator generator = createGenerator(json);
+    try {
+      createSBMLToJson().convertToJSON(model,
+        new MESequenceIndex(sbolDocument), generator);
+    } finally {
+      generator.close();
+    }
+    stopPhase(phase, model.getSpeciesCount() + model.getReactionCount());
+    return metrics;
+  }
+
+
+  /**
+   * Converts the SBML and SBOL files of a SBMLme model to a COBRAme JSON
+   * document, which is written to the given stream. The SBOL file is only
+   * read if it is needed. The stream is not closed.
+   * 
+   * @param sbmlFile
+   *        the SBML file
+   * @param sbolFile
+   *        the SBOL file
+   * @param json
+   *        the stream of the JSON document
+   * @return the metrics of the conversion or null if no metrics are recorded
+   * @throws IOException
+   * @throws XMLStreamException
+   */
+  public MEMetrics convertToJSON(Path sbmlFile, Path sbolFile,
+    OutputStream json) throws IOException, XMLStreamException {
+    MESequenceIndex sequenceIndex =
+      new MESequenceIndex(sbolFile.toFile(), false, options.getLog());
+    log("Read in SBML file");
+    InputStream sbml = new BufferedInputStream(Files.newInputStream(sbmlFile));
+    try {
+      return convertToJSON(sbml, sequenceIndex, json);
+    } finally {
+      sbml.close();
+    }
+  }
+
+
+  /**
+   * Converts the SBML and SBOL documents of a SBMLme model to a COBRAme JSON
+   * document, which is written to the given stream. None of the streams is
+   * closed.
+   * 
+   * @param sbml
+   *        the stream of the SBML document
+   * @param sbol
+   *        the stream of the SBOL document
+   * @param json
+   *        the stream of the JSON document
+   * @return the metrics of the conversion or null if no metrics are recorded
+   * @throws IOException
+   * @throws XMLStreamException
+   * @throws SBOLValidationException
+   * @throws SBOLConversionException
+   */
+  public MEMetrics convertToJSON(InputStream sbml, InputStream sbol,
+    OutputStream json) throws IOException, XMLStreamException,
+    SBOLValidationException, SBOLConversionException {
+    MESequenceIndex sequenceIndex =
+      new MESequenceIndex(SBOLReader.read(sbol));
+    return convertToJSON(sbml, sequenceIndex, json);
+  }
+
+
+  /**
+   * Converts the SBML and SBOL documents of a SBMLme model in a COMBINE
+   * archive to a COBRAme JSON document, which is written to the given
+   * stream. The SBOL document is only read if it is needed. The stream is not
+   * closed.
+   * 
+   * @param archiveFile
+   *        the COMBINE archive
+   * @param json
+   *        the stream of the JSON document
+   * @return the metrics of the conversion or null if no metrics are recorded
+   * @throws IOException
+   * @throws XMLStreamException
+   */
+  public MEMetrics convertArchiveToJSON(Path archiveFile, OutputStream json)
+    throws IOException, XMLStreamException {
+    File file = archiveFile.toFile();
+    MESequenceIndex sequenceIndex =
+      new MESequenceIndex(file, true, options.getLog());
+    log("Read in SBML document from COMBINE archive");
+    MEArchiveReader archive = new MEArchiveReader(file);
+    try {
+      InputStream sbml = archive.openSBML();
+      try {
+        return convertToJSON(sbml, sequenceIndex, json);
+      } finally {
+        sbml.close();
+      }
+    } finally {
+      archive.close();
+    }
+  }
+
+
+  /**
+   * Reads the SBML document with JSBML, or with the {@link MEStaxReader} in
+   * streaming mode, and converts it.
+   */
+  private MEMetrics convertToJSON(InputStream sbml,
+    MESequenceIndex sequenceIndex, OutputStream json)
+    throws IOException, XMLStreamException {
+    MESBMLToJson converter = createSBMLToJson();
+    MEMetrics metrics = createMetrics();
+    if (options.isStreaming()) {
+      MEMetrics.Phase phase = startPhase(metrics, MEMetrics.phaseReading);
+      MEStaxReader document = new MEStaxReader(sbml);
+      int count = document.getSpeciesCount() + document.getReactionCount();
+      stopPhase(phase, count);
+      phase = startPhase(metrics, MEMetrics.phaseJSONWrite);
+      JsonGenerator generator = createGenerator(json);
+      try {
+        converter.convertToJSON(document, sequenceIndex, generator);
+      } finally {
+        generator.close();
+      }
+      stopPhase(phase, count);
+    } else {
+      MEMetrics.Phase phase = startPhase(metrics, MEMetrics.phaseReading);
+      Model model = new SBMLReader().readSBMLFromStream(sbml).getModel();
+      int count = model.getSpeciesCount() + model.getReactionCount();
+      stopPhase(phase, count);
+      phase = startPhase(metrics, MEMetrics.phaseJSONWrite);
+      JsonGenerator generator = createGenerator(json);
+      try {
+        converter.convertToJSON(model, sequenceIndex, generator);
+      } finally {
+        generator.close();
+      }
+      stopPhase(phase, count);
+    }
+    return metrics;
+  }
+
+
+  private MESBMLToJson createSBMLToJson() {
+    return new MESBMLToJson(writeMapper, options.isParallel(),
+      options.getLog());
+  }
+
+
+  /**
+   * Creates a generator that does not close the given stream.
+   */
+  private JsonGenerator createGenerator(OutputStream json) throws IOException {
+    JsonGenerator generator =
+      writeMapper.getFactory().createGenerator(json, JsonEncoding.UTF8);
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    // readable output
+    if (options.isTidy()) {
+      generator.useDefaultPrettyPrinter();
+    }
+    return generator;
+  }
+
+
+  /**
+   * @return new metrics or null if no metrics should be recorded
+   */
+  private MEMetrics createMetrics() {
+    return options.isMetrics() ? new MEMetrics() : null;
+  }
+
+
+  private static MEMetrics.Phase startPhase(MEMetrics metrics, String name) {
+    return metrics == null ? null : metrics.startPhase(name);
+  }
+
+
+  private static void stopPhase(MEMetrics.Phase phase, long count) {
+    if (phase != null) {
+      phase.stop(count);
+    }
+  }
+
+
+  private void log(String message) {
+    if (options.getLog() != null) {
+      options.getLog().println(message);
+    }
+  }
+}
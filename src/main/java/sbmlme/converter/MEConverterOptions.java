@@ -0,0 +1,221 @@
+package sbmlme.converter;
+
+import java.io.PrintStream;
+
+/**
+ * Options of a {@link MEConverter}. The options are read at the start of each
+ * conversion, so that a converter can be reconfigured between conversions.
+ * 
+ * @author Marc A. Voigt
+ */
+public class MEConverterOptions {
+
+  /**
+   * the name of the model in SBML
+   */
+  private String      modelName       = "";
+  /**
+   * whether the created SBML model should be validated
+   */
+  private boolean     validation      = false;
+  /**
+   * whether the documents should be printed tidy
+   */
+  private boolean     tidy            = false;
+  /**
+   * whether the documents should be converted while they are read
+   */
+  private boolean     streaming       = false;
+  /**
+   * whether the reactions should be converted on all available processors
+   */
+  private boolean     parallel        = false;
+  /**
+   * whether flux objectives are only written for coefficients other than 0
+   */
+  private boolean     sparseObjective = false;
+  /**
+   * whether the phases of the conversions should be measured
+   */
+  private boolean     metrics         = false;
+  /**
+   * the stream for progress messages, null for no messages
+   */
+  private PrintStream log             = null;
+
+
+  public MEConverterOptions() {
+    super();
+  }
+
+
+  /**
+   * Sets the name of the model in SBML.
+   * 
+   * @param modelName
+   *        the name of the model
+   */
+  public void setModelName(String modelName) {
+    this.modelName = modelName;
+  }
+
+
+  /**
+   * @return the name of the model in SBML
+   */
+  public String getModelName() {
+    return modelName;
+  }
+
+
+  /**
+   * Sets whether the created SBML model should be validated, currently does
+   * not involve the validity of the SBMLme attributes. The validation errors
+   * are stored in the error log of the SBML document.
+   * 
+   * @param validation
+   *        whether the created SBML model should be validated
+   */
+  public void setValidation(boolean validation) {
+    this.validation = validation;
+  }
+
+
+  /**
+   * @return whether the created SBML model should be validated
+   */
+  public boolean isValidation() {
+    return validation;
+  }
+
+
+  /**
+   * Sets whether the written documents should be printed with intends for
+   * easier reading.
+   * 
+   * @param tidy
+   *        whether the documents should be printed tidy
+   */
+  public void setTidy(boolean tidy) {
+    this.tidy = tidy;
+  }
+
+
+  /**
+   * @return whether the documents should be printed tidy
+   */
+  public boolean isTidy() {
+    return tidy;
+  }
+
+
+  /**
+   * Sets whether the SBML model should be built while the JSON document is
+   * read, or the SBML document should be read with the {@link MEStaxReader}
+   * instead of JSBML respectively.
+   * <p>
+   * Reactions can only be built after the metabolites, the process data and
+   * the global information of the JSON document. If they come first, a JSON
+   * file is read a second time for them, while the reactions of a JSON stream
+   * are copied to a temporary file until the rest of the stream is read.
+   * </p>
+   * 
+   * @param streaming
+   *        whether the documents should be converted while they are read
+   */
+  public void setStreaming(boolean streaming) {
+    this.streaming = streaming;
+  }
+
+
+  /**
+   * @return whether the documents should be converted while they are read
+   */
+  public boolean isStreaming() {
+    return streaming;
+  }
+
+
+  /**
+   * Sets whether the reactions should be prepared, or the reactions and
+   * metabolites should be converted to JSON respectively, on all available
+   * processors.
+   * 
+   * @param parallel
+   *        whether the reactions should be converted in parallel
+   */
+  public void setParallel(boolean parallel) {
+    this.parallel = parallel;
+  }
+
+
+  /**
+   * @return whether the reactions should be converted in parallel
+   */
+  public boolean isParallel() {
+    return parallel;
+  }
+
+
+  /**
+   * Sets whether the SBML model should only contain flux objectives for
+   * reactions with an objective coefficient other than 0. Missing flux
+   * objectives are read as coefficient 0 in both directions of the
+   * conversion.
+   * 
+   * @param sparseObjective
+   *        whether flux objectives with a coefficient of 0 are omitted
+   */
+  public void setSparseObjective(boolean sparseObjective) {
+    this.sparseObjective = sparseObjective;
+  }
+
+
+  /**
+   * @return whether flux objectives with a coefficient of 0 are omitted
+   */
+  public boolean isSparseObjective() {
+    return sparseObjective;
+  }
+
+
+  /**
+   * Sets whether the duration, the allocated memory and the processed
+   * elements of the phases of each conversion should be recorded in an
+   * {@link sbmlme.MEMetrics} object.
+   * 
+   * @param metrics
+   *        whether the phases of the conversions should be measured
+   */
+  public void setMetrics(boolean metrics) {
+    this.metrics = metrics;
+  }
+
+
+  /**
+   * @return whether the phases of the conversions should be measured
+   */
+  public boolean isMetrics() {
+    return metrics;
+  }
+
+
+  /**
+   * Sets the stream for the progress messages of the conversion.
+   * 
+   * @param log
+   *        the stream, e.g. {@code System.out}, or null for no messages
+   */
+  public void setLog(PrintStream log) {
+    this.log = log;
+  }
+
+
+  /**
+   * @return the stream for progress messages or null if no messages are
+   *         printed
+   */
+  public PrintStream getLog() {
+    return log;
+  }
+}
@@ -0,0 +1,69 @@
+package sbmlme.converter;
+
+import org.sbml.jsbml.SBMLDocument;
+import org.sbolstandard.core2.SBOLDocument;
+
+import sbmlme.MEMetrics;
+
+/**
+ * The SBML and SBOL documents of a SBMLme model.
+ * 
+ * @author Marc A. Voigt
+ */
+public class MEDocuments {
+
+  private SBMLDocument sbmlDocument;
+  private SBOLDocument sbolDocument;
+  /**
+   * the metrics of the conversion that created the documents
+   */
+  private MEMetrics    metrics;
+
+
+  /**
+   * @param sbmlDocument
+   *        the SBML document of the model
+   * @param sbolDocument
+   *        the SBOL document with the sequences of the model
+   */
+  public MEDocuments(SBMLDocument sbmlDocument, SBOLDocument sbolDocument) {
+    this.sbmlDocument = sbmlDocument;
+    this.sbolDocument = sbolDocument;
+  }
+
+
+  /**
+   * @return the SBML document of the model
+   */
+  public SBMLDocument getSBMLDocument() {
+    return sbmlDocument;
+  }
+
+
+  /**
+   * @return the SBOL document with the sequences of the model
+   */
+  public SBOLDocument getSBOLDocument() {
+    return sbolDocument;
+  }
+
+
+  /**
+   * Sets the metrics that record the phases of the conversion of the model,
+   * including the writing of the documents.
+   * 
+   * @param metrics
+   *        the metrics or null if no metrics are recorded
+   */
+  public void setMetrics(MEMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+
+  /**
+   * @return the metrics of the conversion or null if no metrics are recorded
+   */
+  public MEMetrics getMetrics() {
+    return metrics;
+  }
+}
@@ -0,0 +1,105 @@
+package sbmlme.converter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.sbml.jsbml.InitialAssignment;
+import org.sbml.jsbml.Model;
+
+/**
+ * Index of the InitialAssignments of a SBMLme model by their symbols.
+ * <p>
+ * SBMLme stores growth rate dependent flux bounds and stoichiometries as
+ * InitialAssignments, so that ME models contain one assignment for every
+ * symbolic coefficient. {@link Model#getInitialAssignmentBySymbol(String)}
+ * searches the complete list for each lookup, the index maps the symbols to
+ * their assignments in a single pass instead. The formulas of the flux
+ * bounds are cached as well, since a bound parameter is shared by all
+ * reactions with the same bound, while the formula of every species reference
+ * is only needed once.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+public class MEInitialAssignmentIndex {
+
+  /**
+   * the InitialAssignments by their symbols
+   */
+  private Map<String, InitialAssignment> assignments;
+  /**
+   * the COBRAme formulas of the bound parameters by their ids
+   */
+  private ConcurrentMap<String, String>  boundFormulas;
+
+
+  /**
+   * Builds the index of all InitialAssignments of the given model.
+   * 
+   * @param model
+   *        the SBML model
+   */
+  public MEInitialAssignmentIndex(Model model) {
+    int count = model.getInitialAssignmentCount();
+    assignments = new HashMap<String, InitialAssignment>(count * 2);
+    boundFormulas = new ConcurrentHashMap<String, String>();
+    for (int i = 0; i < count; i++) {
+      InitialAssignment assignment = model.getInitialAssignment(i);
+      String symbol = assignment.getVariable();
+      // like Model.getInitialAssignmentBySymbol use the first assignment
+      if (!assignments.containsKey(symbol)) {
+        assignments.put(symbol, assignment);
+      }
+    }
+  }
+
+
+  /**
+   * Returns the InitialAssignment of the given symbol.
+   * 
+   * @param symbol
+   *        the id of the parameter or species reference
+   * @return the InitialAssignment or null if the symbol has none
+   */
+  public InitialAssignment getInitialAssignment(String symbol) {
+    return assignments.get(symbol);
+  }
+
+
+  /**
+   * Returns the math of the InitialAssignment of the given symbol as formula
+   * in the syntax of COBRAme, i.e. powers are written as "**".
+   * 
+   * @param symbol
+   *        the id of the parameter or species reference
+   * @return the formula
+   * @throws NullPointerException
+   *         if the symbol has no InitialAssignment
+   */
+  public String getFormula(String symbol) {
+    return assignments.get(symbol).getMath().toFormula().replace("^", "**");
+  }
+
+
+  /**
+   * Returns the formula of the InitialAssignment of the given flux bound
+   * parameter like {@link #getFormula(String)}. The formula is only created
+   * for the first reaction with this bound.
+   * 
+   * @param parameterId
+   *        the id of the bound parameter
+   * @return the formula
+   * @throws NullPointerException
+   *         if the parameter has no InitialAssignment
+   */
+  public String getBoundFormula(String parameterId) {
+    String formula = boundFormulas.get(parameterId);
+    if (formula == null) {
+      formula = getFormula(parameterId);
+      boundFormulas.putIfAbsent(parameterId, formula);
+    }
+    return formula;
+  }
+}
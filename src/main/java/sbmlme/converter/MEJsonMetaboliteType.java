@@ -1,5 +1,7 @@
 package sbmlme.converter;
 
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonSetter;
@@ -70,6 +72,11 @@ public class MEJsonMetaboliteType {
    */
   @JsonInclude(JsonInclude.Include.NON_NULL)
   private MEJsonMetaboliteTypeAttributes TranscribedGene;
+  /**
+   * The name of a type that is not declared in this class.
+   */
+  @JsonIgnore
+  private String                         otherType;
 
 
   public MEJsonMetaboliteType() {
@@ -196,4 +203,43 @@ public class MEJsonMetaboliteType {
   public MEJsonMetaboliteTypeAttributes getTranscribedGene() {
     return TranscribedGene;
   }
+
+
+  @JsonAnySetter
+  public void setOtherType(String type, Object attributes) {
+    otherType = type;
+  }
+
+
+  /**
+   * Returns the name of the type that is set for the species.
+   * 
+   * @return the name of the type in the COBRAme JSON schema or {@code null} if
+   *         no type is set
+   */
+  @JsonIgnore
+  public String getTypeName() {
+    if (Constraint != null) {
+      return "Constraint";
+    } else if (Metabolite != null) {
+      return "Metabolite";
+    } else if (Complex != null) {
+      return "Complex";
+    } else if (GenerictRNA != null) {
+      return "GenerictRNA";
+    } else if (TranslatedGene != null) {
+      return "TranslatedGene";
+    } else if (Ribosome != null) {
+      return "Ribosome";
+    } else if (RNAP != null) {
+      return "RNAP";
+    } else if (GenericComponent != null) {
+      return "GenericComponent";
+    } else if (ProcessedProtein != null) {
+      return "ProcessedProtein";
+    } else if (TranscribedGene != null) {
+      return "TranscribedGene";
+    }
+    return otherType;
+  }
 }
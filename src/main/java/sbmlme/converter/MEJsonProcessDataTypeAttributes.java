@@ -5,6 +5,7 @@ import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.annotation.JsonSetter;
 
 /**
@@ -12,6 +13,14 @@ import com.fasterxml.jackson.annotation.JsonSetter;
  * 
  * @author Marc A. Voigt
  */
+@JsonPropertyOrder({"subreactions", "protein", "mRNA", "nucleotide_sequence",
+  "RNA_products", "RNA_polymerase", "component_list", "stoichiometry",
+  "complex_id", "synthetase_keff", "synthetase", "amino_acid", "codon", "RNA",
+  "unprocessed_protein_id", "processed_protein_id", "biomass_type",
+  "aggregation_propensity", "propensity_scaling", "translocation_multipliers",
+  "keq_folding", "k_folding", "surface_area", "translocation", "keff",
+  "enzyme", "element_contribution", "enzyme_dict", "length_dependent_energy",
+  "lower_bound", "upper_bound", "_stoichiometry"})
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class MEJsonProcessDataTypeAttributes {
 
@@ -1,6 +1,7 @@
 package sbmlme.converter;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.annotation.JsonSetter;
 
 /**
@@ -9,6 +10,9 @@ import com.fasterxml.jackson.annotation.JsonSetter;
  * 
  * @author Marc A. Voigt
  */
+@JsonPropertyOrder({"transcription_data", "translation_data", "tRNA_data",
+  "posttranslation_data", "complex_data_id", "_complex_id", "keff", "reverse",
+  "stoichiometric_data", "complex_data"})
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class MEJsonReactionTypeAttributes {
 
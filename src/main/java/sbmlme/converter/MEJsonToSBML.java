@@ -2,8 +2,9 @@ package sbmlme.converter;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.URI;
+import java.io.PrintStream;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -12,6 +13,8 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import javax.xml.stream.XMLStreamException;
 import javax.xml.transform.TransformerException;
@@ -20,8 +23,6 @@ import org.jdom2.JDOMException;
 import org.sbml.jsbml.Model;
 import org.sbml.jsbml.SBMLDocument;
 import org.sbml.jsbml.SBMLException;
-import org.sbml.jsbml.SBMLWriter;
-import org.sbml.jsbml.TidySBMLWriter;
 import org.sbml.jsbml.ext.fbc.FBCConstants;
 import org.sbml.jsbml.ext.fbc.FBCModelPlugin;
 import org.sbml.jsbml.ext.fbc.Objective;
@@ -33,16 +34,21 @@ import org.sbolstandard.core2.SBOLConversionException;
 import org.sbolstandard.core2.SBOLDocument;
 import org.sbolstandard.core2.SBOLValidationException;
 
-import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.MappingJsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
-import de.unirostock.sems.cbarchive.CombineArchive;
 import de.unirostock.sems.cbarchive.CombineArchiveException;
+import sbmlme.MEArchiveWriter;
 import sbmlme.MEConstants;
+import sbmlme.MEGroupRegistry;
+import sbmlme.MEMetrics;
 import sbmlme.MEProcessData;
+import sbmlme.MEReactionFragment;
 import sbmlme.MEReactionPlugin;
 import sbmlme.MESpeciesPlugin;
 
@@ -54,6 +60,37 @@ import sbmlme.MESpeciesPlugin;
 @SuppressWarnings("restriction")
 public class MEJsonToSBML implements MEConstants, MEJsonConstants {
 
+  /**
+   * number of reactions that are read from the JSON file before they are
+   * prepared in parallel in streaming mode
+   */
+  private static final int reactionBlockSize     = 2048;
+  /**
+   * number of reactions that a single task prepares without further splitting
+   */
+  private static final int reactionTaskThreshold = 64;
+  /**
+   * whether the reactions are prepared in parallel
+   */
+  private boolean          parallel;
+  /**
+   * whether flux objectives are only created for coefficients other than 0
+   */
+  private boolean          sparseObjective;
+  /**
+   * the mapper for reading COBRAme JSON documents
+   */
+  private ObjectMapper     objectMapper;
+  /**
+   * the stream for progress messages, null for no messages
+   */
+  private PrintStream      log;
+  /**
+   * the metrics of the conversion, null if no metrics are recorded
+   */
+  private MEMetrics        metrics;
+
+
   /**
    * Reads in the given COBRAme JSON file and converts it to the CombineArchive
    * of the SBMLme representation with the respective SBML and SBOL files.
@@ -86,31 +123,316 @@ public class MEJsonToSBML implements MEConstants, MEJsonConstants {
     SBOLValidationException, ParseException, SBMLException, XMLStreamException,
     SBOLConversionException, JDOMException, java.text.ParseException,
     CombineArchiveException, URISyntaxException, TransformerException {
-    System.out.println("Start conversion from JSON to SBML/SBOL");
+    this(jsonFile, output, modelName, validation, tidy, false, false);
+  }
+
+
+  /**
+   * Reads in the given COBRAme JSON file and converts it to the CombineArchive
+   * of the SBMLme representation with the respective SBML and SBOL files.
+   * <p>
+   * In streaming mode species, parameters and reactions are added to the
+   * documents while the JSON file is read, so that only the process data
+   * referenced by reactions has to be kept in memory (see
+   * {@link #addModelFromJSONStream(String, Model, SBOLDocument, GroupsModelPlugin, Objective)}).
+   * </p>
+   * 
+   * @param jsonFile
+   *        the JSON file of the COBRAme model
+   * @param output
+   *        the prefix of the output files
+   * @param modelName
+   *        the name of the model in SBML
+   * @param validation
+   *        whether the created SBML model should be validated, currently does
+   *        not involve the validity of the SBMLme attributes.
+   * @param tidy
+   *        whether the documents should be printed tidy.
+   * @param streaming
+   *        whether the model should be built while the JSON file is read
+   *        instead of reading the complete file into memory first.
+   * @throws IOException
+   * @throws SBOLValidationException
+   * @throws ParseException
+   * @throws SBMLException
+   * @throws XMLStreamException
+   * @throws SBOLConversionException
+   * @throws JDOMException
+   * @throws java.text.ParseException
+   * @throws CombineArchiveException
+   * @throws URISyntaxException
+   * @throws TransformerException
+   */
+  public MEJsonToSBML(String jsonFile, String output, String modelName,
+    boolean validation, boolean tidy, boolean streaming) throws IOException,
+    SBOLValidationException, ParseException, SBMLException, XMLStreamException,
+    SBOLConversionException, JDOMException, java.text.ParseException,
+    CombineArchiveException, URISyntaxException, TransformerException {
+    this(jsonFile, output, modelName, validation, tidy, streaming, false);
+  }
+
+
+  /**
+   * Reads in the given COBRAme JSON file and converts it to the CombineArchive
+   * of the SBMLme representation with the respective SBML and SBOL files.
+   * <p>
+   * In streaming mode species, parameters and reactions are added to the
+   * documents while the JSON file is read, so that only the process data
+   * referenced by reactions has to be kept in memory (see
+   * {@link #addModelFromJSONStream(String, Model, SBOLDocument, GroupsModelPlugin, Objective)}).
+   * </p>
+   * <p>
+   * In parallel mode the reactions are prepared concurrently, see
+   * {@link #addReactionsFromJSON(Model, SBOLDocument, GroupsModelPlugin, Objective, List, LinkedHashMap)}.
+   * </p>
+   * 
+   * @param jsonFile
+   *        the JSON file of the COBRAme model
+   * @param output
+   *        the prefix of the output files
+   * @param modelName
+   *        the name of the model in SBML
+   * @param validation
+   *        whether the created SBML model should be validated, currently does
+   *        not involve the validity of the SBMLme attributes.
+   * @param tidy
+   *        whether the documents should be printed tidy.
+   * @param streaming
+   *        whether the model should be built while the JSON file is read
+   *        instead of reading the complete file into memory first.
+   * @param parallel
+   *        whether the reactions should be prepared in parallel on all
+   *        available processors. The prepared reactions are still added to
+   *        the documents in the order of the JSON file.
+   * @throws IOException
+   * @throws SBOLValidationException
+   * @throws ParseException
+   * @throws SBMLException
+   * @throws XMLStreamException
+   * @throws SBOLConversionException
+   * @throws JDOMException
+   * @throws java.text.ParseException
+   * @throws CombineArchiveException
+   * @throws URISyntaxException
+   * @throws TransformerException
+   */
+  public MEJsonToSBML(String jsonFile, String output, String modelName,
+    boolean validation, boolean tidy, boolean streaming, boolean parallel)
+    throws IOException, SBOLValidationException, ParseException, SBMLException,
+    XMLStreamException, SBOLConversionException, JDOMException,
+    java.text.ParseException, CombineArchiveException, URISyntaxException,
+    TransformerException {
+    this(createCOBRAmeMapper(), parallel, System.out);
+    log("Start conversion from JSON to SBML/SBOL");
+    File file = new File(jsonFile);
+    MEDocuments documents = convert(
+      objectMapper.getFactory().createParser(file), file, modelName, streaming);
+    if (documents == null) {
+      return;
+    }
+    SBMLDocument doc = documents.getSBMLDocument();
+    // Validation of SBML document (currently only for core, fbc and groups
+    // attributes)
+    if (validation) {
+      validate(doc);
+      Path path = Paths.get(output + "_validationErrors.txt");
+      byte[] byteWrite = doc.getErrorLog().getValidationErrors().toString()
+                            .getBytes(StandardCharsets.UTF_8);
+      Files.write(path, byteWrite);
+    }
+    log("write model to COMBINE archive");
+    // write both documents directly into the CombineArchive
+    String entryName = new File(output).getName();
+    File archiveFile = new File(output + archiveExtension);
+    MEArchiveWriter archive = new MEArchiveWriter(archiveFile);
+    boolean written = false;
+    try {
+      archive.writeSBML(entryName + sbmlExtension, doc, tidy);
+      archive.writeSBOL(entryName + sbolExtension, documents.getSBOLDocument());
+      archive.finish();
+      written = true;
+    } finally {
+      archive.close();
+      if (!written) {
+        archiveFile.delete();
+      }
+    }
+  }
+
+
+  /**
+   * Creates a converter that does not convert anything by itself, see
+   * {@link MEConverter}.
+   * 
+   * @param objectMapper
+   *        the mapper for reading COBRAme JSON, see
+   *        {@link #createCOBRAmeMapper()}
+   * @param parallel
+   *        whether the reactions should be prepared in parallel on all
+   *        available processors
+   * @param log
+   *        the stream for progress messages, null for no messages
+   */
+  MEJsonToSBML(ObjectMapper objectMapper, boolean parallel, PrintStream log) {
+    this.objectMapper = objectMapper;
+    this.parallel = parallel;
+    this.log = log;
+  }
+
+
+  /**
+   * Sets the metrics that record the phases of the following conversions.
+   * 
+   * @param metrics
+   *        the metrics or null if no metrics should be recorded
+   */
+  void setMetrics(MEMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+
+  /**
+   * Sets whether the following conversions only create flux objectives for
+   * reactions with an objective coefficient other than 0.
+   * 
+   * @param sparseObjective
+   *        whether flux objectives with a coefficient of 0 are omitted
+   */
+  void setSparseObjective(boolean sparseObjective) {
+    this.sparseObjective = sparseObjective;
+  }
+
+
+  /**
+   * Converts the COBRAme JSON document of the given parser to the SBML and
+   * SBOL documents of its SBMLme representation. The parser is closed.
+   * 
+   * @param jsonParser
+   *        the parser of the JSON document, created by the mapper of this
+   *        converter
+   * @param jsonFile
+   *        the file of the JSON document, which is read again in streaming
+   *        mode if the reactions precede the content they depend on, or null
+   *        if the reactions should be buffered in that case
+   * @param modelName
+   *        the name of the model in SBML
+   * @param streaming
+   *        whether the model should be built while the JSON document is read
+   * @return the documents or null if the root of the JSON document is not an
+   *         object
+   * @throws IOException
+   * @throws ParseException
+   * @throws SBOLValidationException
+   */
+  MEDocuments convert(JsonParser jsonParser, File jsonFile, String modelName,
+    boolean streaming)
+    throws IOException, ParseException, SBOLValidationException {
     String sbmlPrefix = prefix;
     String sbmlNamespace = ns;
     String uriSBOL = sbolURI;
+    // setting up documents
+    // create new SBML and SBOL documents and set their namespaces
+    SBMLDocument doc = new SBMLDocument(3, 1);
+    doc.addDeclaredNamespace(sbmlPrefix, sbmlNamespace);
+    SBOLDocument sbol = new SBOLDocument();
+    sbol.setDefaultURIprefix(uriSBOL);
+    // initialize model
+    Model model = doc.createModel(modelName);
+    model.initDefaults(3, 1);
+    // create basic objective
+    // Objective for flux coefficient
+    FBCModelPlugin fbcModel =
+      (FBCModelPlugin) model.getPlugin(FBCConstants.shortLabel);
+    // needs to be false due to InitialAssignments for SpeciesReferences
+    fbcModel.setStrict(false);
+    /*
+     * may require test for type if an attribute for this gets included into the
+     * JSON file
+     */
+    Objective objective =
+      fbcModel.createObjective("objective", Objective.Type.MAXIMIZE);
+    fbcModel.setActiveObjective(objective);
+    // basic groups package Implementation
+    GroupsModelPlugin groups =
+      (GroupsModelPlugin) model.getPlugin(GroupsConstants.shortLabel);
+    try {
+      if (streaming) {
+        if (!addModelFromJSONStream(jsonParser, jsonFile, model, sbol, groups,
+          objective)) {
+          return null;
+        }
+      } else if (!addModelFromJSON(jsonParser, model, sbol, groups,
+        objective)) {
+        return null;
+      }
+    } finally {
+      jsonParser.close();
+    }
+    log("Reactions in SBML model: " + model.getReactionCount());
+    log("Species in SBML model: " + model.getSpeciesCount());
+    return new MEDocuments(doc, sbol);
+  }
+
+
+  /**
+   * Validates the SBML document, currently only for core, fbc and groups
+   * attributes. The errors are stored in the error log of the document.
+   * 
+   * @param doc
+   *        the SBML document
+   */
+  void validate(SBMLDocument doc) {
+    log("Validate SBML document");
+    MEMetrics.Phase phase = startPhase(MEMetrics.phaseValidation);
+    doc.checkConsistencyOffline();
+    stopPhase(phase, doc.getErrorCount());
+    log(doc.getErrorLog().getValidationErrors().toString());
+  }
+
+
+  /**
+   * Reads the complete COBRAme JSON document into the typed COBRAme classes
+   * and adds its content to the SBML and SBOL documents afterwards.
+   * 
+   * @param jsonParser
+   *        the parser of the JSON document
+   * @param model
+   *        the SBML model
+   * @param sbol
+   *        the SBOL document
+   * @param groups
+   *        the GroupsModelPlugin of the SBML model
+   * @param objective
+   *        the objective of the model
+   * @return {@code false} if the root of the JSON document is not an object,
+   *         {@code true} otherwise
+   * @throws IOException
+   * @throws ParseException
+   * @throws SBOLValidationException
+   */
+  private boolean addModelFromJSON(JsonParser jsonParser, Model model,
+    SBOLDocument sbol, GroupsModelPlugin groups, Objective objective)
+    throws IOException, ParseException, SBOLValidationException {
     // lists for main classes in COBRAme
-    List<JsonNode> reactions = new ArrayList<JsonNode>();
-    List<JsonNode> metabolites = new ArrayList<JsonNode>();
-    LinkedHashMap<String, JsonNode> processData =
-      new LinkedHashMap<String, JsonNode>();
+    List<MEJsonReaction> reactions = new ArrayList<MEJsonReaction>();
+    List<MEJsonMetabolite> metabolites = new ArrayList<MEJsonMetabolite>();
+    LinkedHashMap<String, MEJsonProcessData> processData =
+      new LinkedHashMap<String, MEJsonProcessData>();
     JsonNode globalInfo = null;
-    // list for ProcessData objects which won't be used in the iteration through
-    // the reactions list (StoichiometricData, SubreactionData,
+    // list for ProcessData objects which won't be used in the iteration
+    // through the reactions list (StoichiometricData, SubreactionData,
     // TranslocationData)
-    List<JsonNode> processDataSBML = new ArrayList<JsonNode>();
-    // memory efficient JSON file reading
-    JsonFactory factory = new MappingJsonFactory();
-    JsonParser jsonParser = factory.createParser(new File(jsonFile));
+    List<MEJsonProcessData> processDataSBML =
+      new ArrayList<MEJsonProcessData>();
+    // memory efficient JSON file reading into the typed COBRAme classes
     JsonToken currentToken;
     currentToken = jsonParser.nextToken();
     // test if root is object
     if (currentToken != JsonToken.START_OBJECT) {
-      System.out.println("Error: root should be object: quiting.");
-      return;
+      log("Error: root should be object: quiting.");
+      return false;
     }
-    // initiate globalInfo for test
+    MEMetrics.Phase phase = startPhase(MEMetrics.phaseReading);
     // loop for adding nodes to lists
     while (jsonParser.nextToken() != JsonToken.END_OBJECT) {
       String fieldName = jsonParser.getCurrentName();
@@ -118,39 +440,37 @@ public class MEJsonToSBML implements MEConstants, MEJsonConstants {
       currentToken = jsonParser.nextToken();
       // add reactions to reaction list
       if (fieldName.equals(reactionsField)) {
-        System.out.println("reading reactions");
+        log("reading reactions");
         if (currentToken == JsonToken.START_ARRAY) {
           // for each reaction in array
           while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
-            JsonNode tempNode = jsonParser.readValueAsTree();
-            reactions.add(tempNode);
+            reactions.add(jsonParser.readValueAs(MEJsonReaction.class));
           }
         }
         // add metabolites to metabolite list
       } else if (fieldName.equals(metabolitesField)) {
-        System.out.println("reading metabolites");
+        log("reading metabolites");
         if (currentToken == JsonToken.START_ARRAY) {
           // for each metabolite in array
           while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
-            JsonNode tempNode = jsonParser.readValueAsTree();
-            metabolites.add(tempNode);
+            metabolites.add(jsonParser.readValueAs(MEJsonMetabolite.class));
           }
         }
       } else if (fieldName.equals(processDataField)) {
-        System.out.println("reading ProcessData");
+        log("reading ProcessData");
         if (currentToken == JsonToken.START_ARRAY) {
           // for each ProcessData in array
           while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
-            JsonNode tempNode = jsonParser.readValueAsTree();
+            MEJsonProcessData tempData =
+              jsonParser.readValueAs(MEJsonProcessData.class);
             // if entry can not be processed by reaction reference add it to
             // separate list
-            if (tempNode.get(processDataType).has(StoichiometricData)
-              || tempNode.get(processDataType).has(SubreactionData)
-              || tempNode.get(processDataType).has(TranslocationData)) {
-              processDataSBML.add(tempNode);
+            if (isModelProcessData(tempData)) {
+              processDataSBML.add(tempData);
             } else {
-              // includes generic Data although it will currently not be used
-              processData.put(tempNode.get(id).textValue(), tempNode);
+              // includes generic Data although it will currently not be
+              // used
+              processData.put(tempData.getId(), tempData);
             }
           }
         }
@@ -158,86 +478,345 @@ public class MEJsonToSBML implements MEConstants, MEJsonConstants {
         globalInfo = jsonParser.readValueAsTree();
       }
     }
-    System.out.println("reactions: " + String.valueOf(reactions.size()));
-    System.out.println("metabolites: " + String.valueOf(metabolites.size()));
-    // setting up documents
-    // create new SBML and SBOL documents and set their namespaces
-    SBMLDocument doc = new SBMLDocument(3, 1);
-    doc.addDeclaredNamespace(sbmlPrefix, sbmlNamespace);
-    SBOLDocument sbol = new SBOLDocument();
-    sbol.setDefaultURIprefix(uriSBOL);
-    // initialize model
-    Model model = doc.createModel(modelName);
-    model.initDefaults(3, 1);
-    // create basic objective
-    // Objective for flux coefficient
-    FBCModelPlugin fbcModel =
-      (FBCModelPlugin) model.getPlugin(FBCConstants.shortLabel);
-    // needs to be false due to InitialAssignments for SpeciesReferences
-    fbcModel.setStrict(false);
-    /*
-     * may require test for type if an attribute for this gets included into the
-     * JSON file
-     */
-    Objective objective =
-      fbcModel.createObjective("objective", Objective.Type.MAXIMIZE);
-    fbcModel.setActiveObjective(objective);
-    // basic groups package Implementation
-    GroupsModelPlugin groups =
-      (GroupsModelPlugin) model.getPlugin(GroupsConstants.shortLabel);
+    stopPhase(phase, reactions.size() + metabolites.size() + processData.size()
+      + processDataSBML.size());
+    log("reactions: " + String.valueOf(reactions.size()));
+    log("metabolites: " + String.valueOf(metabolites.size()));
     // adding species from list of metabolites to SBML and SBOL documents
-    System.out.println("adding Species to model");
+    log("adding Species to model");
+    phase = startPhase(MEMetrics.phaseSpecies);
     addSpeciesFromJSON(model, sbol, groups, metabolites);
+    stopPhase(phase, metabolites.size());
     // add globalInfo to Parameters
-    System.out.println("adding globalInfo to Parameters");
+    log("adding globalInfo to Parameters");
+    phase = startPhase(MEMetrics.phaseGlobalInfo);
     addGlobalInfoFromJSON(model, globalInfo, groups);
+    stopPhase(phase, globalInfo == null ? 0 : globalInfo.size());
     // add ProcessDataSBML entries to the model annotation
-    System.out.println(
+    log(
       "adding SubreactionData, TranslocationData and StoichiometricData to MEProcessData annotation");
+    phase = startPhase(MEMetrics.phaseMEProcessData);
     addMEProcessDataFromJSON(model, processDataSBML);
+    stopPhase(phase, processDataSBML.size());
     // add reactions to documents
-    System.out.println("adding reactions to model");
+    log("adding reactions to model");
+    phase = startPhase(MEMetrics.phaseReactions);
     addReactionsFromJSON(model, sbol, groups, objective, reactions,
       processData);
-    // write combine archive
-    System.out.println("Reactions in SBML model: " + model.getReactionCount());
-    System.out.println("Species in SBML model: " + model.getSpeciesCount());
-    // Validation of SBML document (currently only for core, fbc and groups
-    // attributes)
-    if (validation) {
-      System.out.println("Validate SBML document");
-      doc.checkConsistencyOffline();
-      System.out.println(doc.getErrorLog().getValidationErrors());
-      Path path = Paths.get(output + "_validationErrors.txt");
-      byte[] byteWrite =
-        doc.getErrorLog().getValidationErrors().toString().getBytes();
-      Files.write(path, byteWrite);
+    stopPhase(phase, reactions.size());
+    return true;
+  }
+
+
+  /**
+   * Builds the SBML and SBOL content of the given COBRAme JSON file while it is
+   * read. Metabolites, global information and the process data that is stored
+   * in the model annotation are added as soon as they are read, only the
+   * process data entries referenced by reactions are kept until the reactions
+   * are built.
+   * <p>
+   * Reactions can only be built after the metabolites, the process data and
+   * the global information are known. If the reactions appear later in the
+   * file they are added directly, otherwise they are skipped in the first pass
+   * and added in a second pass over the file.
+   * </p>
+   * 
+   * @param jsonFile
+   *        the JSON file of the COBRAme model
+   * @param model
+   *        the SBML model
+   * @param sbol
+   *        the SBOL document
+   * @param groups
+   *        the GroupsModelPlugin of the SBML model
+   * @param objective
+   *        the objective of the model
+   * @return {@code false} if the root of the JSON file is not an object,
+   *         {@code true} otherwise
+   * @throws IOException
+   * @throws ParseException
+   * @throws SBOLValidationException
+   */
+  public boolean addModelFromJSONStream(String jsonFile, Model model,
+    SBOLDocument sbol, GroupsModelPlugin groups, Objective objective)
+    throws IOException, ParseException, SBOLValidationException {
+    File file = new File(jsonFile);
+    JsonParser jsonParser = objectMapper.getFactory().createParser(file);
+    try {
+      return addModelFromJSONStream(jsonParser, file, model, sbol, groups,
+        objective);
+    } finally {
+      jsonParser.close();
     }
-    System.out.println("write model to COMBINE archive");
-    // write to CombineArchive
-    if (tidy) {
-      TidySBMLWriter tidySBMLWriter = new TidySBMLWriter();
-      tidySBMLWriter.write(doc, output + ".sbex");
-    } else {
-      SBMLWriter SBMLWriter = new SBMLWriter();
-      SBMLWriter.write(doc, output + ".sbex");
+  }
+
+
+  /**
+   * Builds the SBML and SBOL content of the COBRAme JSON document of the given
+   * parser while it is read, see
+   * {@link #addModelFromJSONStream(String, Model, SBOLDocument, GroupsModelPlugin, Objective)}.
+   * If the reactions precede the content they depend on and the document can
+   * not be read again, the reactions are copied to a temporary file, which is
+   * read after the rest of the document and deleted afterwards.
+   * 
+   * @param jsonParser
+   *        the parser of the JSON document
+   * @param jsonFile
+   *        the file of the JSON document or null if it can not be read again
+   * @param model
+   *        the SBML model
+   * @param sbol
+   *        the SBOL document
+   * @param groups
+   *        the GroupsModelPlugin of the SBML model
+   * @param objective
+   *        the objective of the model
+   * @return {@code false} if the root of the JSON document is not an object,
+   *         {@code true} otherwise
+   * @throws IOException
+   * @throws ParseException
+   * @throws SBOLValidationException
+   */
+  private boolean addModelFromJSONStream(JsonParser jsonParser, File jsonFile,
+    Model model, SBOLDocument sbol, GroupsModelPlugin groups,
+    Objective objective)
+    throws IOException, ParseException, SBOLValidationException {
+    MESpeciesPlugin meSpeciesPlugin = new MESpeciesPlugin();
+    MEReactionPlugin meReactionPlugin = new MEReactionPlugin();
+    meReactionPlugin.setSparseObjective(sparseObjective);
+    MEProcessData meProcessData = new MEProcessData();
+    meProcessData = meProcessData.createMEProcessData();
+    // process data referenced by reactions
+    LinkedHashMap<String, MEJsonProcessData> processData =
+      new LinkedHashMap<String, MEJsonProcessData>();
+    boolean metabolitesRead = false;
+    boolean processDataRead = false;
+    boolean globalInfoRead = false;
+    boolean reactionsSkipped = false;
+    // the skipped reactions if the document can not be read again
+    File reactionFile = null;
+    int reactionCount = 0;
+    int metaboliteCount = 0;
+    // test if root is object
+    if (jsonParser.nextToken() != JsonToken.START_OBJECT) {
+      log("Error: root should be object: quiting.");
+      return false;
     }
-    // SBOL Test
-    sbol.write(output + ".sbox ");
-    CombineArchive ca = new CombineArchive(new File(output + ".zip"));
-    ca.addEntry(new File(""), new File(output + ".sbex"),
-      new URI("http://identifiers.org/combine.specifications/sbml"));
-    ca.addEntry(new File(""), new File(output + ".sbox"),
-      new URI("http://identifiers.org/combine.specifications/sbol"));
-    ca.pack();
-    ca.close();
+    try {
+      while (jsonParser.nextToken() != JsonToken.END_OBJECT) {
+        String fieldName = jsonParser.getCurrentName();
+        JsonToken currentToken = jsonParser.nextToken();
+        if (fieldName.equals(reactionsField)) {
+          if (metabolitesRead && processDataRead && globalInfoRead) {
+            log("adding reactions to model");
+            MEMetrics.Phase phase = startPhase(MEMetrics.phaseReactions);
+            int count = addReactionsFromJSONStream(jsonParser, model, sbol,
+              groups, objective, meReactionPlugin, processData);
+            stopPhase(phase, count);
+            reactionCount += count;
+          } else if (jsonFile != null) {
+            // reactions depend on the remaining content, add them afterwards
+            MEMetrics.Phase phase = startPhase(MEMetrics.phaseReading);
+            jsonParser.skipChildren();
+            stopPhase(phase, 0);
+            reactionsSkipped = true;
+          } else {
+            log(
+              "Warning: the reactions precede the metabolites, the process data or the global information and are copied to a temporary file");
+            MEMetrics.Phase phase = startPhase(MEMetrics.phaseReading);
+            reactionFile = File.createTempFile("sbmlme_reactions", ".json");
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(
+              reactionFile, JsonEncoding.UTF8);
+            try {
+              generator.copyCurrentStructure(jsonParser);
+            } finally {
+              generator.close();
+            }
+            stopPhase(phase, 0);
+            reactionsSkipped = true;
+          }
+        } else if (fieldName.equals(metabolitesField)) {
+          log("adding Species to model");
+          MEMetrics.Phase phase = startPhase(MEMetrics.phaseSpecies);
+          int count = metaboliteCount;
+          if (currentToken == JsonToken.START_ARRAY) {
+            while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+              addSpeciesFromJSON(model, sbol, groups, meSpeciesPlugin,
+                jsonParser.readValueAs(MEJsonMetabolite.class));
+              metaboliteCount++;
+            }
+          }
+          stopPhase(phase, metaboliteCount - count);
+          metabolitesRead = true;
+        } else if (fieldName.equals(processDataField)) {
+          log("adding ProcessData");
+          MEMetrics.Phase phase = startPhase(MEMetrics.phaseMEProcessData);
+          int count = 0;
+          if (currentToken == JsonToken.START_ARRAY) {
+            while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+              MEJsonProcessData tempData =
+                jsonParser.readValueAs(MEJsonProcessData.class);
+              if (isModelProcessData(tempData)) {
+                addMEProcessDataFromJSON(meProcessData, tempData);
+                count++;
+              } else if (tempData.getProcessDataType()
+                                 .getGenericData() == null) {
+                // generic data is not referenced by any reaction
+                processData.put(tempData.getId(), tempData);
+              }
+            }
+          }
+          stopPhase(phase, count);
+          processDataRead = true;
+        } else if (fieldName.equals(global_Info)) {
+          log("adding globalInfo to Parameters");
+          MEMetrics.Phase phase = startPhase(MEMetrics.phaseGlobalInfo);
+          JsonNode globalInfo = jsonParser.<JsonNode> readValueAsTree();
+          addGlobalInfoFromJSON(model, globalInfo, groups);
+          stopPhase(phase, globalInfo == null ? 0 : globalInfo.size());
+          globalInfoRead = true;
+        } else {
+          jsonParser.skipChildren();
+        }
+      }
+      // append process data
+      model.appendAnnotation(meProcessData);
+      // second pass for reactions that appeared before the content they need
+      if (reactionFile != null) {
+        log("adding reactions to model");
+        MEMetrics.Phase phase = startPhase(MEMetrics.phaseReactions);
+        int count = reactionCount;
+        JsonParser reactionParser = objectMapper.getFactory().createParser(
+          reactionFile);
+        try {
+          reactionParser.nextToken();
+          reactionCount += addReactionsFromJSONStream(reactionParser, model,
+            sbol, groups, objective, meReactionPlugin, processData);
+        } finally {
+          reactionParser.close();
+        }
+        stopPhase(phase, reactionCount - count);
+      } else if (reactionsSkipped) {
+        log("adding reactions to model");
+        MEMetrics.Phase phase = startPhase(MEMetrics.phaseReactions);
+        int count = reactionCount;
+        JsonParser reactionParser = objectMapper.getFactory().createParser(
+          jsonFile);
+        try {
+          reactionParser.nextToken();
+          while (reactionParser.nextToken() != JsonToken.END_OBJECT) {
+            String fieldName = reactionParser.getCurrentName();
+            reactionParser.nextToken();
+            if (fieldName.equals(reactionsField)) {
+              reactionCount += addReactionsFromJSONStream(reactionParser, model,
+                sbol, groups, objective, meReactionPlugin, processData);
+            } else {
+              reactionParser.skipChildren();
+            }
+          }
+        } finally {
+          reactionParser.close();
+        }
+        stopPhase(phase, reactionCount - count);
+      }
+    } finally {
+      if (reactionFile != null) {
+        reactionFile.delete();
+      }
+    }
+    log("reactions: " + String.valueOf(reactionCount));
+    log("metabolites: " + String.valueOf(metaboliteCount));
+    return true;
   }
 
 
   /**
-   * Adds all species from a list of JsonNodes to the SBML and SBOL models
-   * according to their
-   * type.
+   * Adds the reactions of the array the given parser is positioned at to the
+   * SBML and SBOL models. In parallel mode the reactions are read in blocks of
+   * {@value #reactionBlockSize} reactions that are prepared concurrently,
+   * otherwise one reaction is added after the other.
+   * 
+   * @param jsonParser
+   *        the parser positioned at the start of the reactions array
+   * @param model
+   *        the SBML model
+   * @param sbol
+   *        the SBOL document
+   * @param groups
+   *        the GroupsModelPlugin of the SBML model
+   * @param objective
+   *        the objective of the model
+   * @param meReactionPlugin
+   *        the plugin used for creating the reactions
+   * @param processData
+   *        the map of process data objects that encode additional reaction
+   *        specific information
+   * @return the number of added reactions
+   * @throws IOException
+   * @throws ParseException
+   * @throws SBOLValidationException
+   */
+  private int addReactionsFromJSONStream(JsonParser jsonParser, Model model,
+    SBOLDocument sbol, GroupsModelPlugin groups, Objective objective,
+    MEReactionPlugin meReactionPlugin,
+    LinkedHashMap<String, MEJsonProcessData> processData)
+    throws IOException, ParseException, SBOLValidationException {
+    int count = 0;
+    if (jsonParser.getCurrentToken() != JsonToken.START_ARRAY) {
+      jsonParser.skipChildren();
+      return count;
+    }
+    if (!parallel) {
+      while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+        addReactionFromJSON(model, sbol, groups, objective, meReactionPlugin,
+          jsonParser.readValueAs(MEJsonReaction.class), processData);
+        count++;
+      }
+      return count;
+    }
+    ForkJoinPool pool = new ForkJoinPool();
+    try {
+      List<MEJsonReaction> block =
+        new ArrayList<MEJsonReaction>(reactionBlockSize);
+      while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+        block.add(jsonParser.readValueAs(MEJsonReaction.class));
+        if (block.size() == reactionBlockSize) {
+          addReactionsInParallel(pool, model, sbol, groups, objective,
+            meReactionPlugin, block, processData);
+          count += block.size();
+          block.clear();
+        }
+      }
+      addReactionsInParallel(pool, model, sbol, groups, objective,
+        meReactionPlugin, block, processData);
+      count += block.size();
+    } finally {
+      pool.shutdown();
+    }
+    return count;
+  }
+
+
+  /**
+   * Tests whether a process data entry is stored in the model annotation
+   * instead of being referenced by a single reaction, which is the case for
+   * StoichiometricData, SubreactionData and TranslocationData.
+   * 
+   * @param entry
+   *        the process data entry from the JSON file
+   * @return {@code true} if the entry belongs to the MEProcessData annotation
+   */
+  private boolean isModelProcessData(MEJsonProcessData entry) {
+    MEJsonProcessDataType type = entry.getProcessDataType();
+    return type.getStoichiometricData() != null
+      || type.getSubreactionData() != null
+      || type.getTranslocationData() != null;
+  }
+
+
+  /**
+   * Adds all species from a list of COBRAme metabolites to the SBML and SBOL
+   * models according to their type.
    * 
    * @param model
    *        the SBML model
@@ -250,44 +829,51 @@ public class MEJsonToSBML implements MEConstants, MEJsonConstants {
    * @throws SBOLValidationException
    */
   public void addSpeciesFromJSON(Model model, SBOLDocument sbol,
-    GroupsModelPlugin groups, List<JsonNode> metabolites)
+    GroupsModelPlugin groups, List<MEJsonMetabolite> metabolites)
     throws SBOLValidationException {
     MESpeciesPlugin meSpeciesPlugin = new MESpeciesPlugin();
-    for (JsonNode species : metabolites) {
-      if (species.get(metaboliteType).has(transcribedGene)) {
-        String tempStrand = null;
-        if (species.get(metaboliteType).get(transcribedGene)
-                   .get(strand) != null) {
-          tempStrand = species.get(metaboliteType).get(transcribedGene)
-                              .get(strand).textValue();
-        }
-        meSpeciesPlugin.createMESequenceSpecies(model,
-          species.get(id).textValue(), species.get(formula).textValue(),
-          species.get(name).textValue(), species.get(compartment).textValue(),
-          sbol,
-          species.get(metaboliteType).get(transcribedGene)
-                 .get(nucleotide_sequence).textValue(),
-          species.get(metaboliteType).get(transcribedGene).get(rna_type)
-                 .textValue(),
-          tempStrand,
-          species.get(metaboliteType).get(transcribedGene).get(left_pos)
-                 .asInt(),
-          species.get(metaboliteType).get(transcribedGene).get(right_pos)
-                 .asInt(),
-          groups, transcribedGene);
-      } else if (species.get(metaboliteType).has(processedProtein)) {
-        meSpeciesPlugin.createMEProcessedSpecies(model,
-          species.get(id).textValue(), species.get(formula).textValue(),
-          species.get(name).textValue(), species.get(compartment).textValue(),
-          species.get(metaboliteType).get(processedProtein)
-                 .get(unprocessed_protein).textValue(),
-          groups, processedProtein);
-      } else {
-        meSpeciesPlugin.createMESpecies(model, species.get(id).textValue(),
-          species.get(formula).textValue(), species.get(name).textValue(),
-          species.get(compartment).textValue(), groups,
-          species.get(metaboliteType).toString().split("\"")[1]);
-      }
+    for (MEJsonMetabolite species : metabolites) {
+      addSpeciesFromJSON(model, sbol, groups, meSpeciesPlugin, species);
+    }
+  }
+
+
+  /**
+   * Adds a single species of the COBRAme model to the SBML and SBOL models
+   * according to its type.
+   * 
+   * @param model
+   *        the SBML model
+   * @param sbol
+   *        the SBOL document
+   * @param groups
+   *        the GroupsModelPlugin of the SBML model
+   * @param meSpeciesPlugin
+   *        the plugin used for creating the species
+   * @param species
+   *        the species from the JSON file
+   * @throws SBOLValidationException
+   */
+  public void addSpeciesFromJSON(Model model, SBOLDocument sbol,
+    GroupsModelPlugin groups, MESpeciesPlugin meSpeciesPlugin,
+    MEJsonMetabolite species) throws SBOLValidationException {
+    MEJsonMetaboliteType type = species.getMetaboliteType();
+    if (type.getTranscribedGene() != null) {
+      MEJsonMetaboliteTypeAttributes attributes = type.getTranscribedGene();
+      meSpeciesPlugin.createMESequenceSpecies(model, species.getId(),
+        species.getFormula(), species.getName(), species.getCompartment(),
+        sbol, attributes.getNucleotideSequence(), attributes.getRNAType(),
+        attributes.getStrand(), intValue(attributes.getLeftPos()),
+        intValue(attributes.getRightPos()), groups, transcribedGene);
+    } else if (type.getProcessedProtein() != null) {
+      meSpeciesPlugin.createMEProcessedSpecies(model, species.getId(),
+        species.getFormula(), species.getName(), species.getCompartment(),
+        type.getProcessedProtein().getUnprocessedProteinId(), groups,
+        processedProtein);
+    } else {
+      meSpeciesPlugin.createMESpecies(model, species.getId(),
+        species.getFormula(), species.getName(), species.getCompartment(),
+        groups, type.getTypeName());
     }
   }
 
@@ -305,6 +891,7 @@ public class MEJsonToSBML implements MEConstants, MEJsonConstants {
    */
   public void addGlobalInfoFromJSON(Model model, JsonNode globalInfo,
     GroupsModelPlugin groups) {
+    List<String> parameterIds = new ArrayList<String>(globalInfo.size());
     for (Iterator<Entry<String, JsonNode>> fnIterate =
       globalInfo.fields(); fnIterate.hasNext();) {
       Entry<String, JsonNode> globalInfoEntry = fnIterate.next();
@@ -314,16 +901,11 @@ public class MEJsonToSBML implements MEConstants, MEJsonConstants {
       model.createParameter(parameterName);
       model.getParameter(parameterName).initDefaults(2, 4, true);
       model.getParameter(parameterName).setValue(parameterValue);
-      // add parameter to group of GlobalInfo
-      Group group = (Group) groups.getGroup(globalInformation);
-      if (group != null) {
-        group.createMemberWithIdRef(parameterName);
-      } else {
-        group = groups.createGroup(globalInformation);
-        group.setKind(Group.Kind.classification);
-        group.createMemberWithIdRef(parameterName);
-      }
+      parameterIds.add(parameterName);
     }
+    // add parameters to group of GlobalInfo
+    MEGroupRegistry.get(groups).addMembers(globalInformation,
+      Group.Kind.classification, parameterIds);
   }
 
 
@@ -340,117 +922,11 @@ public class MEJsonToSBML implements MEConstants, MEJsonConstants {
    *        single reaction
    */
   public void addMEProcessDataFromJSON(Model model,
-    List<JsonNode> processDataSBML) {
+    List<MEJsonProcessData> processDataSBML) {
     MEProcessData meProcessData = new MEProcessData();
     meProcessData = meProcessData.createMEProcessData();
-    for (JsonNode entry : processDataSBML) {
-      if (entry.get(processDataType).has(StoichiometricData)) {
-        LinkedHashMap<String, Double> subreactionMap =
-          new LinkedHashMap<String, Double>();
-        List<String> speciesReferences = new ArrayList<String>();
-        List<Double> stoichiometries = new ArrayList<Double>();
-        // fill map for SubreactionReferences
-        for (Iterator<Entry<String, JsonNode>> subreactionEntry =
-          entry.get(processDataType).get(StoichiometricData).get(subreactions)
-               .fields(); subreactionEntry.hasNext();) {
-          Entry<String, JsonNode> currentEntry = subreactionEntry.next();
-          subreactionMap.put(currentEntry.getKey(),
-            currentEntry.getValue().asDouble());
-        }
-        // fill Lists for Stoichiometries
-        for (Iterator<Entry<String, JsonNode>> stoichiometricEntry =
-          entry.get(processDataType).get(StoichiometricData).get(stoichiometry_)
-               .fields(); stoichiometricEntry.hasNext();) {
-          Entry<String, JsonNode> currentEntry = stoichiometricEntry.next();
-          speciesReferences.add(currentEntry.getKey());
-          stoichiometries.add(currentEntry.getValue().asDouble());
-        }
-        // add StoichiometricData
-        meProcessData.addStoichiometricData(meProcessData,
-          entry.get(id).textValue(),
-          entry.get(processDataType).get(StoichiometricData).get(lower_Bound)
-               .asDouble(),
-          entry.get(processDataType).get(StoichiometricData).get(upper_bound)
-               .asDouble(),
-          subreactionMap, speciesReferences, stoichiometries);
-      } else if (entry.get(processDataType).has(SubreactionData)) {
-        List<String> enzymes = new ArrayList<String>();
-        LinkedHashMap<String, Integer> elementContributions =
-          new LinkedHashMap<String, Integer>();
-        List<String> speciesReferences = new ArrayList<String>();
-        List<Double> stoichiometries = new ArrayList<Double>();
-        // prepare list for enzymes
-        // several cases in COBRAme: null, single String, (empty) List
-        // first case: is null (nullnode)?
-        if (!entry.get(processDataType).get(SubreactionData).get(enzyme)
-                  .isNull()) {
-          // second case: is array?
-          if (entry.get(processDataType).get(SubreactionData).get(enzyme)
-                   .isArray()) {
-            for (JsonNode node : entry.get(processDataType).get(SubreactionData)
-                                      .get(enzyme)) {
-              enzymes.add(node.asText());
-            }
-            // else: single string
-          } else {
-            enzymes.add(entry.get(processDataType).get(SubreactionData)
-                             .get(enzyme).asText());
-          }
-        }
-        // prepare lists for element contributions
-        for (Iterator<Entry<String, JsonNode>> elementEntry =
-          entry.get(processDataType).get(SubreactionData)
-               .get(element_contribution).fields(); elementEntry.hasNext();) {
-          Entry<String, JsonNode> currentEntry = elementEntry.next();
-          elementContributions.put(currentEntry.getKey(),
-            currentEntry.getValue().asInt());
-        }
-        // prepare lists for subreaction stoichiometries
-        for (Iterator<Entry<String, JsonNode>> stoichiometryEntry =
-          entry.get(processDataType).get(SubreactionData).get(stoichiometry)
-               .fields(); stoichiometryEntry.hasNext();) {
-          Entry<String, JsonNode> currentEntry = stoichiometryEntry.next();
-          speciesReferences.add(currentEntry.getKey());
-          stoichiometries.add(currentEntry.getValue().asDouble());
-        }
-        // add SubreactionData
-        meProcessData.addSubreactionData(meProcessData,
-          entry.get(id).textValue(),
-          entry.get(processDataType).get(SubreactionData).get(keff).asDouble(),
-          enzymes, elementContributions, speciesReferences, stoichiometries);
-      } else {
-        List<String> enzymeReferences = new ArrayList<String>();
-        List<Boolean> fixedKeff = new ArrayList<Boolean>();
-        List<Boolean> listLengthDependent = new ArrayList<Boolean>();
-        List<String> speciesReferences = new ArrayList<String>();
-        List<Double> listStoichiometries = new ArrayList<Double>();
-        // prepare lists for stoichiometries
-        for (Iterator<Entry<String, JsonNode>> stoichiometryEntry =
-          entry.get(processDataType).get(TranslocationData).get(stoichiometry)
-               .fields(); stoichiometryEntry.hasNext();) {
-          Entry<String, JsonNode> currentEntry = stoichiometryEntry.next();
-          speciesReferences.add(currentEntry.getKey());
-          listStoichiometries.add(currentEntry.getValue().asDouble());
-        }
-        // prepare lists for enzyme dictionary
-        for (Iterator<Entry<String, JsonNode>> dictEntry =
-          entry.get(processDataType).get(TranslocationData).get(enzyme_dict)
-               .fields(); dictEntry.hasNext();) {
-          Entry<String, JsonNode> currentEntry = dictEntry.next();
-          enzymeReferences.add(currentEntry.getKey());
-          fixedKeff.add(currentEntry.getValue().get(fixed_keff).asBoolean());
-          listLengthDependent.add(
-            currentEntry.getValue().get(lengthDep).asBoolean());
-        }
-        // add TranslocationData
-        meProcessData.addTranslocationData(meProcessData,
-          entry.get(id).textValue(),
-          entry.get(processDataType).get(TranslocationData).get(keff)
-               .asDouble(),
-          enzymeReferences, fixedKeff, listLengthDependent, speciesReferences,
-          listStoichiometries, entry.get(processDataType).get(TranslocationData)
-                                    .get(lengthDepEnergy).asBoolean());
-      }
+    for (MEJsonProcessData entry : processDataSBML) {
+      addMEProcessDataFromJSON(meProcessData, entry);
     }
     // append process data
     model.appendAnnotation(meProcessData);
@@ -458,9 +934,83 @@ public class MEJsonToSBML implements MEConstants, MEJsonConstants {
 
 
   /**
-   * Adds all reactions from a list of JsonNodes to the SBML and SBOL models
-   * according to their type. Also adds all process data information to the
-   * reaction annotations that is not added to the model annotation by the
+   * Adds a single StoichiometricData, SubreactionData or TranslocationData
+   * entry of the JSON file to the given MEProcessData annotation.
+   * 
+   * @param meProcessData
+   *        the MEProcessData annotation of the model
+   * @param entry
+   *        the process data entry from the JSON file
+   */
+  public void addMEProcessDataFromJSON(MEProcessData meProcessData,
+    MEJsonProcessData entry) {
+    MEJsonProcessDataType type = entry.getProcessDataType();
+    if (type.getStoichiometricData() != null) {
+      MEJsonProcessDataTypeAttributes data = type.getStoichiometricData();
+      List<String> speciesReferences = new ArrayList<String>();
+      List<Double> stoichiometries = new ArrayList<Double>();
+      // fill Lists for Stoichiometries
+      for (Entry<String, Double> currentEntry : nonNull(
+        data.get_stoichiometry()).entrySet()) {
+        speciesReferences.add(currentEntry.getKey());
+        stoichiometries.add(doubleValue(currentEntry.getValue()));
+      }
+      // add StoichiometricData
+      meProcessData.addStoichiometricData(meProcessData, entry.getId(),
+        doubleValue(data.getLower_bound()), doubleValue(data.getUpper_bound()),
+        nonNull(data.getSubreactions()), speciesReferences, stoichiometries);
+    } else if (type.getSubreactionData() != null) {
+      MEJsonProcessDataTypeAttributes data = type.getSubreactionData();
+      List<String> speciesReferences = new ArrayList<String>();
+      List<Double> stoichiometries = new ArrayList<Double>();
+      // several cases in COBRAme for enzymes: null, single String, (empty)
+      // List, the mapper reads single Strings as List
+      List<String> enzymes = nonNull(data.getEnzyme());
+      // prepare lists for subreaction stoichiometries
+      for (Entry<String, Double> currentEntry : nonNull(
+        data.getStoichiometry()).entrySet()) {
+        speciesReferences.add(currentEntry.getKey());
+        stoichiometries.add(doubleValue(currentEntry.getValue()));
+      }
+      // add SubreactionData
+      meProcessData.addSubreactionData(meProcessData, entry.getId(),
+        doubleValue(data.getKeff()), enzymes,
+        nonNull(data.getElement_contribution()), speciesReferences,
+        stoichiometries);
+    } else {
+      MEJsonProcessDataTypeAttributes data = type.getTranslocationData();
+      List<String> enzymeReferences = new ArrayList<String>();
+      List<Boolean> fixedKeff = new ArrayList<Boolean>();
+      List<Boolean> listLengthDependent = new ArrayList<Boolean>();
+      List<String> speciesReferences = new ArrayList<String>();
+      List<Double> listStoichiometries = new ArrayList<Double>();
+      // prepare lists for stoichiometries
+      for (Entry<String, Double> currentEntry : nonNull(
+        data.getStoichiometry()).entrySet()) {
+        speciesReferences.add(currentEntry.getKey());
+        listStoichiometries.add(doubleValue(currentEntry.getValue()));
+      }
+      // prepare lists for enzyme dictionary
+      for (Entry<String, LinkedHashMap<String, Boolean>> currentEntry : nonNull(
+        data.getEnzyme_dict()).entrySet()) {
+        enzymeReferences.add(currentEntry.getKey());
+        fixedKeff.add(booleanValue(currentEntry.getValue().get(fixed_keff)));
+        listLengthDependent.add(
+          booleanValue(currentEntry.getValue().get(lengthDep)));
+      }
+      // add TranslocationData
+      meProcessData.addTranslocationData(meProcessData, entry.getId(),
+        doubleValue(data.getKeff()), enzymeReferences, fixedKeff,
+        listLengthDependent, speciesReferences, listStoichiometries,
+        booleanValue(data.getLength_dependent_energy()));
+    }
+  }
+
+
+  /**
+   * Adds all reactions from a list of COBRAme reactions to the SBML and SBOL
+   * models according to their type. Also adds all process data information to
+   * the reaction annotations that is not added to the model annotation by the
    * {@link #addMEProcessDataFromJSON(Model, List)} method.
    * 
    * @param model
@@ -480,296 +1030,430 @@ public class MEJsonToSBML implements MEConstants, MEJsonConstants {
    * @throws SBOLValidationException
    */
   public void addReactionsFromJSON(Model model, SBOLDocument sbol,
-    GroupsModelPlugin groups, Objective objective, List<JsonNode> reactions,
-    LinkedHashMap<String, JsonNode> processData)
+    GroupsModelPlugin groups, Objective objective,
+    List<MEJsonReaction> reactions,
+    LinkedHashMap<String, MEJsonProcessData> processData)
     throws ParseException, SBOLValidationException {
     // create ME Reactions
     MEReactionPlugin meReactionPlugin = new MEReactionPlugin();
-    for (JsonNode entry : reactions) {
-      if (entry.get(reactionType).has(summaryVariable)) {
-        // add SummaryVariable to model
-        List<String> speciesIds = new ArrayList<String>();
-        List<String> coefficients = new ArrayList<String>();
-        for (Iterator<Entry<String, JsonNode>> elementEntry =
-          entry.get(metabolitesField).fields(); elementEntry.hasNext();) {
-          Entry<String, JsonNode> currentEntry = elementEntry.next();
-          speciesIds.add(currentEntry.getKey());
-          coefficients.add(currentEntry.getValue().asText());
-        }
-        meReactionPlugin.createSummaryVariableReaction(model, groups, objective,
-          entry.get(id).textValue(), entry.get(name).textValue(),
-          entry.get(upper_bound).asText(), entry.get(lower_Bound).asText(),
-          speciesIds, coefficients, entry.get(objectiveCoefficient).asDouble(),
-          entry.get(variable_kind).textValue());
-      } else if (entry.get(reactionType).has(genericFormation)) {
-        // add GenericFormationReaction to model
-        List<String> speciesIds = new ArrayList<String>();
-        List<String> coefficients = new ArrayList<String>();
-        for (Iterator<Entry<String, JsonNode>> elementEntry =
-          entry.get(metabolitesField).fields(); elementEntry.hasNext();) {
-          Entry<String, JsonNode> currentEntry = elementEntry.next();
-          speciesIds.add(currentEntry.getKey());
-          coefficients.add(currentEntry.getValue().asText());
-        }
-        meReactionPlugin.createGenericFormationReaction(model, groups,
-          objective, entry.get(id).textValue(), entry.get(name).textValue(),
-          entry.get(upper_bound).asDouble(), entry.get(lower_Bound).asDouble(),
-          speciesIds, coefficients, entry.get(objectiveCoefficient).asDouble(),
-          entry.get(variable_kind).textValue());
-      } else if (entry.get(reactionType).has(metabolicReaction)) {
-        // add Metabolic Reaction to model
-        List<String> speciesIds = new ArrayList<String>();
-        List<String> coefficients = new ArrayList<String>();
-        for (Iterator<Entry<String, JsonNode>> elementEntry =
-          entry.get(metabolitesField).fields(); elementEntry.hasNext();) {
-          Entry<String, JsonNode> currentEntry = elementEntry.next();
-          speciesIds.add(currentEntry.getKey());
-          coefficients.add(currentEntry.getValue().asText());
-        }
-        meReactionPlugin.createMetabolicReaction(model, groups, objective,
-          entry.get(id).textValue(), entry.get(name).textValue(),
-          entry.get(reactionType).get(metabolicReaction)
-               .get(stoichiometric_Data).textValue(),
-          entry.get(upper_bound).asDouble(), entry.get(lower_Bound).asDouble(),
-          speciesIds, coefficients, entry.get(objectiveCoefficient).asDouble(),
-          entry.get(variable_kind).textValue(),
-          entry.get(reactionType).get(metabolicReaction).get(keff).asDouble(),
-          entry.get(reactionType).get(metabolicReaction).get(reverse)
-               .asBoolean(),
-          entry.get(reactionType).get(metabolicReaction).get(complex_data)
-               .textValue());
-      } else if (entry.get(reactionType).has(meReaction)) {
-        // add MEReaction to model
-        List<String> speciesIds = new ArrayList<String>();
-        List<String> coefficients = new ArrayList<String>();
-        for (Iterator<Entry<String, JsonNode>> elementEntry =
-          entry.get(metabolitesField).fields(); elementEntry.hasNext();) {
-          Entry<String, JsonNode> currentEntry = elementEntry.next();
-          speciesIds.add(currentEntry.getKey());
-          coefficients.add(currentEntry.getValue().asText());
-        }
-        meReactionPlugin.createMEReaction(model, groups, objective,
-          entry.get(id).textValue(), entry.get(name).textValue(),
-          entry.get(upper_bound).asDouble(), entry.get(lower_Bound).asDouble(),
-          speciesIds, coefficients, entry.get(objectiveCoefficient).asDouble(),
-          entry.get(variable_kind).textValue());
-      } else if (entry.get(reactionType).has(transcription)) {
-        // add TranscriptionReaction to model
-        List<String> speciesIds = new ArrayList<String>();
-        List<String> coefficients = new ArrayList<String>();
-        LinkedHashMap<String, Double> subreactionMap =
-          new LinkedHashMap<String, Double>();
-        String dataId = entry.get(reactionType).get(transcription)
-                             .get(transcription_data).asText();
-        // get ProcessData object
-        JsonNode processDataEntry =
-          processData.get(dataId).get(processDataType).get(transcriptionData);
-        for (Iterator<Entry<String, JsonNode>> elementEntry =
-          entry.get(metabolitesField).fields(); elementEntry.hasNext();) {
-          Entry<String, JsonNode> currentEntry = elementEntry.next();
-          speciesIds.add(currentEntry.getKey());
-          coefficients.add(currentEntry.getValue().asText());
-        }
-        for (Iterator<Entry<String, JsonNode>> elementEntry =
-          processDataEntry.get(subreactions).fields(); elementEntry
-                                                                   .hasNext();) {
-          Entry<String, JsonNode> currentEntry = elementEntry.next();
-          subreactionMap.put(currentEntry.getKey(),
-            currentEntry.getValue().asDouble());
-        }
-        meReactionPlugin.createTranscriptionReaction(model, sbol, groups,
-          objective, entry.get(id).textValue(), entry.get(name).textValue(),
-          dataId, entry.get(upper_bound).asDouble(),
-          entry.get(lower_Bound).asDouble(), speciesIds, coefficients,
-          entry.get(objectiveCoefficient).asDouble(),
-          entry.get(variable_kind).textValue(),
-          processDataEntry.get(nucleotide_sequence).asText(), subreactionMap);
-      } else if (entry.get(reactionType).has(translation)) {
-        // add TranslationReaction to model
-        List<String> speciesIds = new ArrayList<String>();
-        List<String> coefficients = new ArrayList<String>();
-        LinkedHashMap<String, Double> subreactionMap =
-          new LinkedHashMap<String, Double>();
-        String dataId = entry.get(reactionType).get(translation)
-                             .get(translation_data).asText();
-        // get ProcessData object
-        JsonNode processDataEntry =
-          processData.get(dataId).get(processDataType).get(translationData);
-        // fill stoichiometry lists
-        for (Iterator<Entry<String, JsonNode>> elementEntry =
-          entry.get(metabolitesField).fields(); elementEntry.hasNext();) {
-          Entry<String, JsonNode> currentEntry = elementEntry.next();
-          speciesIds.add(currentEntry.getKey());
-          coefficients.add(currentEntry.getValue().asText());
-        }
-        for (Iterator<Entry<String, JsonNode>> elementEntry =
-          processDataEntry.get(subreactions).fields(); elementEntry
-                                                                   .hasNext();) {
-          Entry<String, JsonNode> currentEntry = elementEntry.next();
-          subreactionMap.put(currentEntry.getKey(),
-            currentEntry.getValue().asDouble());
-        }
-        meReactionPlugin.createTranslationReaction(model, sbol, groups,
-          objective, entry.get(id).textValue(), entry.get(name).textValue(),
-          dataId, entry.get(upper_bound).asDouble(),
-          entry.get(lower_Bound).asDouble(), speciesIds, coefficients,
-          entry.get(objectiveCoefficient).asDouble(),
-          entry.get(variable_kind).textValue(),
-          processDataEntry.get(nucleotide_sequence).asText(), subreactionMap);
-      } else if (entry.get(reactionType).has(tRNACharging)) {
-        // add tRNAChargingReaction to model
-        List<String> speciesIds = new ArrayList<String>();
-        List<String> coefficients = new ArrayList<String>();
-        LinkedHashMap<String, Double> subreactionMap =
-          new LinkedHashMap<String, Double>();
-        String dataId =
-          entry.get(reactionType).get(tRNACharging).get(tRNA_data).asText();
-        // get ProcessData object
-        JsonNode processDataEntry =
-          processData.get(dataId).get(processDataType).get(tRNAData);
-        for (Iterator<Entry<String, JsonNode>> elementEntry =
-          entry.get(metabolitesField).fields(); elementEntry.hasNext();) {
-          Entry<String, JsonNode> currentEntry = elementEntry.next();
-          speciesIds.add(currentEntry.getKey());
-          coefficients.add(currentEntry.getValue().asText());
-        }
-        for (Iterator<Entry<String, JsonNode>> elementEntry =
-          processDataEntry.get(subreactions).fields(); elementEntry
-                                                                   .hasNext();) {
-          Entry<String, JsonNode> currentEntry = elementEntry.next();
-          subreactionMap.put(currentEntry.getKey(),
-            currentEntry.getValue().asDouble());
-        }
-        meReactionPlugin.createtRNAChargingReaction(model, groups, objective,
-          entry.get(id).textValue(), entry.get(name).textValue(), dataId,
-          entry.get(upper_bound).asDouble(), entry.get(lower_Bound).asDouble(),
-          processDataEntry.get(synthetaseKeff).asDouble(), speciesIds,
-          coefficients, entry.get(objectiveCoefficient).asDouble(),
-          entry.get(variable_kind).textValue(), subreactionMap,
-          processDataEntry.get(synthetase).textValue(),
-          processDataEntry.get(codon).textValue(),
-          processDataEntry.get(amino_acid).textValue());
-      } else if (entry.get(reactionType).has(complexFormation)) {
-        // add ComplexFormation Reaction
-        List<String> speciesIds = new ArrayList<String>();
-        List<String> coefficients = new ArrayList<String>();
-        LinkedHashMap<String, Double> subreactionMap =
-          new LinkedHashMap<String, Double>();
-        LinkedHashMap<String, Double> stoichiometricMap =
-          new LinkedHashMap<String, Double>();
-        String dataId = entry.get(reactionType).get(complexFormation)
-                             .get(complex_data_id).asText();
-        String complexId = entry.get(reactionType).get(complexFormation)
-                                .get(complex_id_).asText();
-        // get ProcessData object
-        JsonNode processDataEntry =
-          processData.get(dataId).get(processDataType).get(complexData);
-        for (Iterator<Entry<String, JsonNode>> elementEntry =
-          entry.get(metabolitesField).fields(); elementEntry.hasNext();) {
-          Entry<String, JsonNode> currentEntry = elementEntry.next();
-          speciesIds.add(currentEntry.getKey());
-          coefficients.add(currentEntry.getValue().asText());
-        }
-        for (Iterator<Entry<String, JsonNode>> elementEntry =
-          processDataEntry.get(subreactions).fields(); elementEntry
-                                                                   .hasNext();) {
-          Entry<String, JsonNode> currentEntry = elementEntry.next();
-          subreactionMap.put(currentEntry.getKey(),
-            currentEntry.getValue().asDouble());
-        }
-        for (Iterator<Entry<String, JsonNode>> elementEntry =
-          processDataEntry.get(stoichiometry).fields(); elementEntry
-                                                                    .hasNext();) {
-          Entry<String, JsonNode> currentEntry = elementEntry.next();
-          stoichiometricMap.put(currentEntry.getKey(),
-            currentEntry.getValue().asDouble());
-        }
-        meReactionPlugin.createComplexFormationReaction(model, groups,
-          objective, entry.get(id).textValue(), entry.get(name).textValue(),
-          dataId, complexId, entry.get(upper_bound).asDouble(),
-          entry.get(lower_Bound).asDouble(), speciesIds, coefficients,
-          entry.get(objectiveCoefficient).asDouble(),
-          entry.get(variable_kind).textValue(), subreactionMap,
-          stoichiometricMap);
-      } else if (entry.get(reactionType).has(postTranslationReaction)) {
-        // add PostTranslationReaction to model
-        List<String> speciesIds = new ArrayList<String>();
-        List<String> coefficients = new ArrayList<String>();
-        LinkedHashMap<String, Double> subreactionMap =
-          new LinkedHashMap<String, Double>();
-        List<String> translocationList = new ArrayList<String>();
-        List<Double> multipliers = new ArrayList<Double>();
-        List<String> keqFolding = new ArrayList<String>();
-        List<Double> keqValues = new ArrayList<Double>();
-        List<String> kFolding = new ArrayList<String>();
-        List<Double> kValues = new ArrayList<Double>();
-        List<String> surfaceArea = new ArrayList<String>();
-        List<Double> surfaceAreaValue = new ArrayList<Double>();
-        String dataId = entry.get(reactionType).get(postTranslationReaction)
-                             .get(posttranslation_data).asText();
-        // get ProcessData object
-        JsonNode processDataEntry =
-          processData.get(dataId).get(processDataType).get(posttranslationData);
-        for (Iterator<Entry<String, JsonNode>> elementEntry =
-          entry.get(metabolitesField).fields(); elementEntry.hasNext();) {
-          Entry<String, JsonNode> currentEntry = elementEntry.next();
-          speciesIds.add(currentEntry.getKey());
-          coefficients.add(currentEntry.getValue().asText());
-        }
-        for (Iterator<Entry<String, JsonNode>> elementEntry =
-          processDataEntry.get(subreactions).fields(); elementEntry
-                                                                   .hasNext();) {
-          Entry<String, JsonNode> currentEntry = elementEntry.next();
-          subreactionMap.put(currentEntry.getKey(),
-            currentEntry.getValue().asDouble());
-        }
-        // combine list of translocation multipliers with list of translocation
-        for (Iterator<Entry<String, JsonNode>> elementEntry =
-          processDataEntry.get(translocation_multiplier).fields(); elementEntry
-                                                                               .hasNext();) {
-          Entry<String, JsonNode> currentEntry = elementEntry.next();
-          translocationList.add(currentEntry.getKey());
-          multipliers.add(currentEntry.getValue().asDouble());
-        }
-        // set multiplier to 0.0 for entries of translocation list
-        for (JsonNode node : processDataEntry.get(translocation)) {
-          translocationList.add(node.asText());
-          multipliers.add(0.0);
-        }
-        // set lists for keqFolding
-        for (Iterator<Entry<String, JsonNode>> elementEntry =
-          processDataEntry.get(keq_folding).fields(); elementEntry.hasNext();) {
-          Entry<String, JsonNode> currentEntry = elementEntry.next();
-          keqFolding.add(currentEntry.getKey());
-          keqValues.add(currentEntry.getValue().asDouble());
-        }
-        // set lists for kFolding
-        for (Iterator<Entry<String, JsonNode>> elementEntry =
-          processDataEntry.get(k_folding).fields(); elementEntry.hasNext();) {
-          Entry<String, JsonNode> currentEntry = elementEntry.next();
-          kFolding.add(currentEntry.getKey());
-          kValues.add(currentEntry.getValue().asDouble());
+    meReactionPlugin.setSparseObjective(sparseObjective);
+    if (parallel) {
+      ForkJoinPool pool = new ForkJoinPool();
+      try {
+        addReactionsInParallel(pool, model, sbol, groups, objective,
+          meReactionPlugin, reactions, processData);
+      } finally {
+        pool.shutdown();
+      }
+    } else {
+      for (MEJsonReaction entry : reactions) {
+        addReactionFromJSON(model, sbol, groups, objective, meReactionPlugin,
+          entry, processData);
+      }
+    }
+  }
+
+
+  /**
+   * Prepares the given reactions concurrently in the given pool and adds them
+   * to the SBML and SBOL models afterwards in the order of the list.
+   * <p>
+   * The preparation of a reaction only reads the model, while adding it
+   * changes the model, the SBOL document and the groups. As neither JSBML nor
+   * libSBOLj are thread-safe, the reactions are added by the calling thread
+   * after all reactions of the list have been prepared.
+   * </p>
+   * 
+   * @param pool
+   *        the pool used for preparing the reactions
+   * @param model
+   *        the SBML model
+   * @param sbol
+   *        the SBOL document
+   * @param groups
+   *        the GroupsModelPlugin of the SBML model
+   * @param objective
+   *        the objective of the model
+   * @param meReactionPlugin
+   *        the plugin used for creating the reactions
+   * @param reactions
+   *        the list of reactions from the JSON file
+   * @param processData
+   *        the map of process data objects that encode additional reaction
+   *        specific information
+   * @throws ParseException
+   * @throws SBOLValidationException
+   */
+  private void addReactionsInParallel(ForkJoinPool pool, Model model,
+    SBOLDocument sbol, GroupsModelPlugin groups, Objective objective,
+    MEReactionPlugin meReactionPlugin, List<MEJsonReaction> reactions,
+    LinkedHashMap<String, MEJsonProcessData> processData)
+    throws ParseException, SBOLValidationException {
+    MEReactionFragment[] fragments = new MEReactionFragment[reactions.size()];
+    try {
+      pool.invoke(new ReactionPreparation(model, sbol, meReactionPlugin,
+        reactions, processData, fragments, 0, fragments.length));
+    } catch (RuntimeException e) {
+      // ParseExceptions of the workers are wrapped, possibly more than once
+      for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+        if (cause instanceof ParseException) {
+          throw (ParseException) cause;
         }
-        // set lists for surface area
-        for (Iterator<Entry<String, JsonNode>> elementEntry =
-          processDataEntry.get(surface_area).fields(); elementEntry
-                                                                   .hasNext();) {
-          Entry<String, JsonNode> currentEntry = elementEntry.next();
-          surfaceArea.add(currentEntry.getKey());
-          surfaceAreaValue.add(currentEntry.getValue().asDouble());
+      }
+      throw e;
+    }
+    for (MEReactionFragment fragment : fragments) {
+      if (fragment != null) {
+        fragment.commit(model, sbol, groups, objective);
+      }
+    }
+  }
+
+
+  /**
+   * Adds a single reaction of the COBRAme model to the SBML and SBOL models
+   * according to its type, including the process data information referenced
+   * by the reaction.
+   * 
+   * @param model
+   *        the SBML model
+   * @param sbol
+   *        the SBOL document
+   * @param groups
+   *        the GroupsModelPlugin of the SBML model
+   * @param objective
+   *        the objective of the model
+   * @param meReactionPlugin
+   *        the plugin used for creating the reactions
+   * @param entry
+   *        the reaction from the JSON file
+   * @param processData
+   *        the map of process data objects that encode additional reaction
+   *        specific information
+   * @throws ParseException
+   * @throws SBOLValidationException
+   */
+  public void addReactionFromJSON(Model model, SBOLDocument sbol,
+    GroupsModelPlugin groups, Objective objective,
+    MEReactionPlugin meReactionPlugin, MEJsonReaction entry,
+    LinkedHashMap<String, MEJsonProcessData> processData)
+    throws ParseException, SBOLValidationException {
+    MEReactionFragment fragment = prepareReactionFromJSON(model, sbol,
+      meReactionPlugin, entry, processData);
+    if (fragment != null) {
+      fragment.commit(model, sbol, groups, objective);
+    }
+  }
+
+
+  /**
+   * Prepares a single reaction of the COBRAme model according to its type,
+   * including the process data information referenced by the reaction,
+   * without changing the SBML and SBOL models.
+   * 
+   * @param model
+   *        the SBML model
+   * @param sbol
+   *        the SBOL document
+   * @param meReactionPlugin
+   *        the plugin used for creating the reactions
+   * @param entry
+   *        the reaction from the JSON file
+   * @param processData
+   *        the map of process data objects that encode additional reaction
+   *        specific information
+   * @return the prepared reaction or {@code null} if the type of the reaction
+   *         is not known
+   * @throws ParseException
+   */
+  public MEReactionFragment prepareReactionFromJSON(Model model,
+    SBOLDocument sbol, MEReactionPlugin meReactionPlugin, MEJsonReaction entry,
+    LinkedHashMap<String, MEJsonProcessData> processData)
+    throws ParseException {
+    MEJsonReactionType type = entry.getReactionType();
+    List<String> speciesIds = new ArrayList<String>();
+    List<String> coefficients = new ArrayList<String>();
+    for (Iterator<Entry<String, JsonNode>> elementEntry =
+      entry.getMetabolites().fields(); elementEntry.hasNext();) {
+      Entry<String, JsonNode> currentEntry = elementEntry.next();
+      JsonNode coefficient = currentEntry.getValue();
+      speciesIds.add(currentEntry.getKey());
+      // numbers of reactions buffered in streaming mode are BigDecimals, whose
+      // text may be in scientific notation, e.g. "-7E+1" for -70.0
+      coefficients.add(coefficient.isBigDecimal()
+        ? coefficient.decimalValue().toPlainString() : coefficient.asText());
+    }
+    double upperBound = boundValue(entry.getUpperBound());
+    double lowerBound = boundValue(entry.getLowerBound());
+    if (type.getSummaryVariable() != null) {
+      // prepare SummaryVariable
+      return meReactionPlugin.prepareSummaryVariableReaction(model,
+        entry.getId(), entry.getName(), entry.getUpperBound(),
+        entry.getLowerBound(), speciesIds, coefficients,
+        entry.getObjectiveCoefficient(), entry.getVariableKind());
+    } else if (type.getGenericFormationReaction() != null) {
+      // prepare GenericFormationReaction
+      return meReactionPlugin.prepareGenericFormationReaction(model,
+        entry.getId(), entry.getName(), upperBound, lowerBound, speciesIds,
+        coefficients, entry.getObjectiveCoefficient(), entry.getVariableKind());
+    } else if (type.getMetabolicReaction() != null) {
+      // prepare Metabolic Reaction
+      MEJsonReactionTypeAttributes attributes = type.getMetabolicReaction();
+      return meReactionPlugin.prepareMetabolicReaction(model, entry.getId(),
+        entry.getName(), attributes.getStoichiometricDataId(), upperBound,
+        lowerBound, speciesIds, coefficients, entry.getObjectiveCoefficient(),
+        entry.getVariableKind(), doubleValue(attributes.getKeff()),
+        booleanValue(attributes.getReverse()),
+        attributes.getMetabolicReactionComplexData());
+    } else if (type.getMEReaction() != null) {
+      // prepare MEReaction
+      return meReactionPlugin.prepareMEReaction(model, entry.getId(),
+        entry.getName(), upperBound, lowerBound, speciesIds, coefficients,
+        entry.getObjectiveCoefficient(), entry.getVariableKind());
+    } else if (type.getTranscriptionReaction() != null) {
+      // prepare TranscriptionReaction
+      String dataId = type.getTranscriptionReaction().getTranscriptionDataId();
+      // get ProcessData object
+      MEJsonProcessDataTypeAttributes data =
+        processData.get(dataId).getProcessDataType().getTranscriptionData();
+      return meReactionPlugin.prepareTranscriptionReaction(model, sbol,
+        entry.getId(), entry.getName(), dataId, upperBound, lowerBound,
+        speciesIds, coefficients, entry.getObjectiveCoefficient(),
+        entry.getVariableKind(), data.getNucleotideSequence(),
+        nonNull(data.getSubreactions()));
+    } else if (type.getTranslationReaction() != null) {
+      // prepare TranslationReaction
+      String dataId = type.getTranslationReaction().getTranslationDataId();
+      // get ProcessData object
+      MEJsonProcessDataTypeAttributes data =
+        processData.get(dataId).getProcessDataType().getTranslationData();
+      return meReactionPlugin.prepareTranslationReaction(model, sbol,
+        entry.getId(), entry.getName(), dataId, upperBound, lowerBound,
+        speciesIds, coefficients, entry.getObjectiveCoefficient(),
+        entry.getVariableKind(), data.getNucleotideSequence(),
+        nonNull(data.getSubreactions()));
+    } else if (type.gettRNAChargingReaction() != null) {
+      // prepare tRNAChargingReaction
+      String dataId = type.gettRNAChargingReaction().gettRNADataId();
+      // get ProcessData object
+      MEJsonProcessDataTypeAttributes data =
+        processData.get(dataId).getProcessDataType().gettRNAData();
+      return meReactionPlugin.preparetRNAChargingReaction(model, entry.getId(),
+        entry.getName(), dataId, upperBound, lowerBound,
+        doubleValue(data.getSynthetase_keff()), speciesIds, coefficients,
+        entry.getObjectiveCoefficient(), entry.getVariableKind(),
+        nonNull(data.getSubreactions()), data.getSynthetase(), data.getCodon(),
+        data.getAmino_acid());
+    } else if (type.getComplexFormation() != null) {
+      // prepare ComplexFormation Reaction
+      MEJsonReactionTypeAttributes attributes = type.getComplexFormation();
+      String dataId = attributes.getComplexDataId();
+      // get ProcessData object
+      MEJsonProcessDataTypeAttributes data =
+        processData.get(dataId).getProcessDataType().getComplexData();
+      return meReactionPlugin.prepareComplexFormationReaction(model,
+        entry.getId(), entry.getName(), dataId,
+        attributes.getComplexFormationComplexId(), upperBound, lowerBound,
+        speciesIds, coefficients, entry.getObjectiveCoefficient(),
+        entry.getVariableKind(), nonNull(data.getSubreactions()),
+        nonNull(data.getStoichiometry()));
+    } else if (type.getPostTranslationReaction() != null) {
+      // prepare PostTranslationReaction
+      List<String> translocationList = new ArrayList<String>();
+      List<Double> multipliers = new ArrayList<Double>();
+      List<String> keqFolding = new ArrayList<String>();
+      List<Double> keqValues = new ArrayList<Double>();
+      List<String> kFolding = new ArrayList<String>();
+      List<Double> kValues = new ArrayList<Double>();
+      List<String> surfaceArea = new ArrayList<String>();
+      List<Double> surfaceAreaValue = new ArrayList<Double>();
+      String dataId =
+        type.getPostTranslationReaction().getPostTranslationDataId();
+      // get ProcessData object
+      MEJsonProcessDataTypeAttributes data =
+        processData.get(dataId).getProcessDataType().getPostTranslationData();
+      // combine list of translocation multipliers with list of translocation
+      for (Entry<String, Double> currentEntry : nonNull(
+        data.getTranslocation_multipliers()).entrySet()) {
+        translocationList.add(currentEntry.getKey());
+        multipliers.add(doubleValue(currentEntry.getValue()));
+      }
+      // set multiplier to 0.0 for entries of translocation list
+      for (String translocation : nonNull(data.getTranslocation())) {
+        translocationList.add(translocation);
+        multipliers.add(0.0);
+      }
+      // set lists for keqFolding
+      for (Entry<String, Double> currentEntry : nonNull(
+        data.getKeq_folding()).entrySet()) {
+        keqFolding.add(currentEntry.getKey());
+        keqValues.add(doubleValue(currentEntry.getValue()));
+      }
+      // set lists for kFolding
+      for (Entry<String, Double> currentEntry : nonNull(
+        data.getK_folding()).entrySet()) {
+        kFolding.add(currentEntry.getKey());
+        kValues.add(doubleValue(currentEntry.getValue()));
+      }
+      // set lists for surface area
+      for (Entry<String, Double> currentEntry : nonNull(
+        data.getSurface_area()).entrySet()) {
+        surfaceArea.add(currentEntry.getKey());
+        surfaceAreaValue.add(doubleValue(currentEntry.getValue()));
+      }
+      return meReactionPlugin.preparePostTranslationReaction(model,
+        entry.getId(), entry.getName(), dataId, upperBound, lowerBound,
+        speciesIds, coefficients, entry.getObjectiveCoefficient(),
+        entry.getVariableKind(), nonNull(data.getSubreactions()),
+        doubleValue(data.getAggregation_propensity()), translocationList,
+        multipliers, doubleValue(data.getPropensity_scaling()), surfaceArea,
+        surfaceAreaValue, keqFolding, keqValues, kFolding, kValues,
+        data.getBiomass_type(), data.getProcessed_protein_id(),
+        data.getUnprocessed_protein_id());
+    }
+    return null;
+  }
+
+
+  /**
+   * Creates the mapper for reading COBRAme JSON files into the typed classes
+   * of this package. Unknown attributes are ignored and single values are
+   * accepted for lists, as COBRAme writes e.g. enzymes as null, single String
+   * or List.
+   * 
+   * @return the mapper for reading COBRAme JSON files
+   */
+  public static ObjectMapper createCOBRAmeMapper() {
+    ObjectMapper objectMapper = new ObjectMapper();
+    objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES,
+      false);
+    objectMapper.configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY,
+      true);
+    return objectMapper;
+  }
+
+
+  private void log(String message) {
+    if (log != null) {
+      log.println(message);
+    }
+  }
+
+
+  private MEMetrics.Phase startPhase(String name) {
+    return metrics == null ? null : metrics.startPhase(name);
+  }
+
+
+  private static void stopPhase(MEMetrics.Phase phase, long count) {
+    if (phase != null) {
+      phase.stop(count);
+    }
+  }
+
+
+  /**
+   * Returns the numeric value of a flux bound of a COBRAme reaction, symbolic
+   * bounds result in 0.0.
+   * 
+   * @param bound
+   *        the bound as read from the JSON file
+   * @return the value of the bound
+   */
+  private static double boundValue(String bound) {
+    if (bound == null) {
+      return 0.0;
+    }
+    try {
+      return Double.parseDouble(bound.trim());
+    } catch (NumberFormatException e) {
+      return 0.0;
+    }
+  }
+
+
+  private static double doubleValue(Double value) {
+    return value != null ? value.doubleValue() : 0.0;
+  }
+
+
+  private static int intValue(Integer value) {
+    return value != null ? value.intValue() : 0;
+  }
+
+
+  private static boolean booleanValue(Boolean value) {
+    return value != null && value.booleanValue();
+  }
+
+
+  private static <T> List<T> nonNull(List<T> list) {
+    return list != null ? list : new ArrayList<T>();
+  }
+
+
+  private static <K, V> LinkedHashMap<K, V> nonNull(LinkedHashMap<K, V> map) {
+    return map != null ? map : new LinkedHashMap<K, V>();
+  }
+
+
+  /**
+   * Prepares a range of reactions of a list by splitting it into smaller
+   * ranges until these contain at most {@value #reactionTaskThreshold}
+   * reactions. The fragment of each reaction is stored at the index of the
+   * reaction in the list.
+   * 
+   * @author Marc A. Voigt
+   */
+  private class ReactionPreparation extends RecursiveAction {
+
+    /**
+     * 
+     */
+    private static final long                        serialVersionUID = 1L;
+    private Model                                    model;
+    private SBOLDocument                             sbol;
+    private MEReactionPlugin                         meReactionPlugin;
+    private List<MEJsonReaction>                     reactions;
+    private LinkedHashMap<String, MEJsonProcessData> processData;
+    private MEReactionFragment[]                     fragments;
+    private int                                      start;
+    private int                                      end;
+
+
+    public ReactionPreparation(Model model, SBOLDocument sbol,
+      MEReactionPlugin meReactionPlugin, List<MEJsonReaction> reactions,
+      LinkedHashMap<String, MEJsonProcessData> processData,
+      MEReactionFragment[] fragments, int start, int end) {
+      this.model = model;
+      this.sbol = sbol;
+      this.meReactionPlugin = meReactionPlugin;
+      this.reactions = reactions;
+      this.processData = processData;
+      this.fragments = fragments;
+      this.start = start;
+      this.end = end;
+    }
+
+
+    @Override
+    protected void compute() {
+      if (end - start <= reactionTaskThreshold) {
+        for (int i = start; i < end; i++) {
+          try {
+            fragments[i] = prepareReactionFromJSON(model, sbol,
+              meReactionPlugin, reactions.get(i), processData);
+          } catch (ParseException e) {
+            throw new RuntimeException(e);
+          }
         }
-        meReactionPlugin.createPostTranslationReaction(model, groups, objective,
-          entry.get(id).textValue(), entry.get(name).textValue(), dataId,
-          entry.get(upper_bound).asDouble(), entry.get(lower_Bound).asDouble(),
-          speciesIds, coefficients, entry.get(objectiveCoefficient).asDouble(),
-          entry.get(variable_kind).textValue(), subreactionMap,
-          processDataEntry.get(aggregation_propensity).asDouble(),
-          translocationList, multipliers,
-          processDataEntry.get(propensity_scaling).asDouble(), surfaceArea,
-          surfaceAreaValue, keqFolding, keqValues, kFolding, kValues,
-          processDataEntry.get(biomass_type).textValue(),
-          processDataEntry.get(processed_protein).textValue(),
-          processDataEntry.get(unprocessed_protein).textValue());
+      } else {
+        int middle = (start + end) >>> 1;
+        invokeAll(
+          new ReactionPreparation(model, sbol, meReactionPlugin, reactions,
+            processData, fragments, start, middle),
+          new ReactionPreparation(model, sbol, meReactionPlugin, reactions,
+            processData, fragments, middle, end));
       }
     }
   }
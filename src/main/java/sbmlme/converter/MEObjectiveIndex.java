@@ -0,0 +1,71 @@
+package sbmlme.converter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.sbml.jsbml.Model;
+import org.sbml.jsbml.ext.fbc.FBCConstants;
+import org.sbml.jsbml.ext.fbc.FBCModelPlugin;
+import org.sbml.jsbml.ext.fbc.FluxObjective;
+import org.sbml.jsbml.ext.fbc.Objective;
+
+/**
+ * Index of the coefficients of the flux objectives of the active objective of
+ * a SBMLme model.
+ * <p>
+ * The list of flux objectives is searched completely for each lookup by id,
+ * while ME models contain one reaction and therefore up to one flux objective
+ * for every COBRAme reaction. The index maps the ids of the flux objectives to
+ * their coefficients in a single pass instead. Models written with a sparse
+ * objective only contain the flux objectives with a coefficient other than
+ * 0, so that the coefficient of a missing flux objective is 0.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+public class MEObjectiveIndex {
+
+  /**
+   * the coefficients of the flux objectives by their ids
+   */
+  private Map<String, Double> coefficients;
+
+
+  /**
+   * Builds the index of the active objective of the given model.
+   * 
+   * @param model
+   *        the SBML model
+   */
+  public MEObjectiveIndex(Model model) {
+    coefficients = new HashMap<String, Double>();
+    FBCModelPlugin fbcModel =
+      (FBCModelPlugin) model.getExtension(FBCConstants.shortLabel);
+    Objective objective =
+      fbcModel != null ? fbcModel.getActiveObjectiveInstance() : null;
+    if (objective == null) {
+      return;
+    }
+    for (FluxObjective fluxObjective : objective.getListOfFluxObjectives()) {
+      // like ListOf.get(String) use the first flux objective with an id
+      if (!coefficients.containsKey(fluxObjective.getId())) {
+        coefficients.put(fluxObjective.getId(),
+          Double.valueOf(fluxObjective.getCoefficient()));
+      }
+    }
+  }
+
+
+  /**
+   * Returns the coefficient of the flux objective with the given id.
+   * 
+   * @param id
+   *        the id of the flux objective
+   * @return the coefficient or 0.0 if the active objective contains no flux
+   *         objective with the id
+   */
+  public double getCoefficient(String id) {
+    Double coefficient = coefficients.get(id);
+    return coefficient != null ? coefficient.doubleValue() : 0.0;
+  }
+}
@@ -0,0 +1,519 @@
+package sbmlme.converter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.sbml.jsbml.Reaction;
+import org.sbml.jsbml.xml.XMLAttributes;
+import org.sbml.jsbml.xml.XMLNode;
+
+import sbmlme.MEConstants;
+
+/**
+ * Contains the content of the "meReactionPlugin" annotation of a SBMLme
+ * reaction.
+ * <p>
+ * The annotation is decoded in a single visit of its attributes and child
+ * elements, so that the conversion of a reaction to JSON does not need to
+ * search the annotation again for every value. Ids are kept as they are found
+ * in the SBML model. Attributes that are not set are returned as empty
+ * strings and missing lists as empty lists.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+public class MEReactionAnnotation implements MEJsonConstants, MEConstants {
+
+  private String              variableKindValue          = "";
+  private String              dataIdValue                = "";
+  private String              sequenceValue              = "";
+  private String              keffValue                  = "";
+  private String              complexIdValue             = "";
+  private String              synthetaseValue            = "";
+  private String              codonValue                 = "";
+  private String              aminoAcidValue             = "";
+  private String              unprocessedValue           = "";
+  private String              processedValue             = "";
+  private String              biomassTypeValue           = "";
+  private String              aggregationPropensityValue = "";
+  private String              propensityScalingValue     = "";
+  private String              reverseValue               = "";
+  private String              surfaceAreaInnerValue      = null;
+  private String              surfaceAreaOuterValue      = null;
+  /**
+   * stoichiometries of the subreactions by their ids
+   */
+  private Map<String, Double> subreactions               =
+    Collections.emptyMap();
+  /**
+   * stoichiometries of the subunits of a complex by their ids
+   */
+  private Map<String, Double> stoichiometries            =
+    Collections.emptyMap();
+  /**
+   * ids of the translocations in order of the annotation
+   */
+  private List<String>        translocationIds           =
+    Collections.emptyList();
+  /**
+   * multipliers of the translocations in the same order as their ids
+   */
+  private List<Double>        translocationMultipliers   =
+    Collections.emptyList();
+  /**
+   * equilibrium constants by their temperatures
+   */
+  private Map<String, Double> equilibriumConstants       =
+    Collections.emptyMap();
+  /**
+   * rate constants by their temperatures
+   */
+  private Map<String, Double> rateConstants              =
+    Collections.emptyMap();
+
+
+  /**
+   * Creates the content of a reaction without annotation.
+   */
+  MEReactionAnnotation() {
+  }
+
+
+  /**
+   * Decodes the annotation of the given reaction.
+   * 
+   * @param reaction
+   *        the SBMLme reaction
+   */
+  public MEReactionAnnotation(Reaction reaction) {
+    this(getPlugin(reaction));
+  }
+
+
+  /**
+   * Decodes the given "meReactionPlugin" node.
+   * 
+   * @param plugin
+   *        the node of the reaction plugin, may be null
+   */
+  public MEReactionAnnotation(XMLNode plugin) {
+    if (plugin == null) {
+      return;
+    }
+    readAttributes(plugin.getAttributes());
+    boolean subreactionsRead = false;
+    boolean stoichiometriesRead = false;
+    boolean translocationsRead = false;
+    boolean equilibriumRead = false;
+    boolean rateRead = false;
+    // only the first list of each kind is used
+    for (int i = 0; i < plugin.getChildCount(); i++) {
+      XMLNode child = plugin.getChildAt(i);
+      if (!child.isElement()) {
+        continue;
+      }
+      String childName = child.getName();
+      if (!subreactionsRead && childName.equals(listSubreactionReferences)) {
+        subreactions = readValues(child, subreactionRef, subreaction,
+          stoichiometry);
+        subreactionsRead = true;
+      } else if (!stoichiometriesRead
+        && childName.equals(listStoichiometricReferences)) {
+        stoichiometries =
+          readValues(child, stoichiometricRef, subunit, stoichiometry);
+        stoichiometriesRead = true;
+      } else if (!translocationsRead
+        && childName.equals(listTranslocationReferences)) {
+        readTranslocations(child);
+        translocationsRead = true;
+      } else if (!equilibriumRead && childName.equals(listEquilibrium)) {
+        equilibriumConstants =
+          readValues(child, rateConstant, temperature, rate);
+        equilibriumRead = true;
+      } else if (!rateRead && childName.equals(listRateConstant)) {
+        rateConstants = readValues(child, rateConstant, temperature, rate);
+        rateRead = true;
+      }
+    }
+  }
+
+
+  /**
+   * Decodes the "meReactionPlugin" element at the current position of the
+   * given reader and moves the reader to the end of the element.
+   * 
+   * @param reader
+   *        the reader at the start of the reaction plugin
+   * @throws XMLStreamException
+   */
+  public MEReactionAnnotation(XMLStreamReader reader)
+    throws XMLStreamException {
+    for (int i = reader.getAttributeCount() - 1; i >= 0; i--) {
+      readAttribute(reader.getAttributeLocalName(i),
+        reader.getAttributeValue(i));
+    }
+    boolean subreactionsRead = false;
+    boolean stoichiometriesRead = false;
+    boolean translocationsRead = false;
+    boolean equilibriumRead = false;
+    boolean rateRead = false;
+    // only the first list of each kind is used
+    while (MEStaxReader.nextChild(reader)) {
+      String childName = reader.getLocalName();
+      if (!subreactionsRead && childName.equals(listSubreactionReferences)) {
+        subreactions = readValues(reader, subreactionRef, subreaction,
+          stoichiometry);
+        subreactionsRead = true;
+      } else if (!stoichiometriesRead
+        && childName.equals(listStoichiometricReferences)) {
+        stoichiometries =
+          readValues(reader, stoichiometricRef, subunit, stoichiometry);
+        stoichiometriesRead = true;
+      } else if (!translocationsRead
+        && childName.equals(listTranslocationReferences)) {
+        readTranslocations(reader);
+        translocationsRead = true;
+      } else if (!equilibriumRead && childName.equals(listEquilibrium)) {
+        equilibriumConstants =
+          readValues(reader, rateConstant, temperature, rate);
+        equilibriumRead = true;
+      } else if (!rateRead && childName.equals(listRateConstant)) {
+        rateConstants = readValues(reader, rateConstant, temperature, rate);
+        rateRead = true;
+      } else {
+        MEStaxReader.skipElement(reader);
+      }
+    }
+  }
+
+
+  /**
+   * Returns the "meReactionPlugin" node of the given reaction without creating
+   * an annotation if the reaction has none, so that reactions can be decoded
+   * concurrently.
+   */
+  private static XMLNode getPlugin(Reaction reaction) {
+    if (!reaction.isSetAnnotation()) {
+      return null;
+    }
+    return reaction.getAnnotation().getFullAnnotation()
+                   .getChildElement(reactionPlugin, "*");
+  }
+
+
+  /**
+   * Stores the values of the known attributes. If an attribute occurs more
+   * than once the first value is used.
+   */
+  private void readAttributes(XMLAttributes attributes) {
+    for (int i = attributes.getLength() - 1; i >= 0; i--) {
+      readAttribute(attributes.getName(i), attributes.getValue(i));
+    }
+  }
+
+
+  private void readAttribute(String attributeName, String value) {
+    switch (attributeName) {
+    case variableKind:
+      variableKindValue = value;
+      break;
+    case dataId:
+      dataIdValue = value;
+      break;
+    case sequence:
+      sequenceValue = value;
+      break;
+    case keff:
+      keffValue = value;
+      break;
+    case complexId:
+      complexIdValue = value;
+      break;
+    case synthetase:
+      synthetaseValue = value;
+      break;
+    case codon:
+      codonValue = value;
+      break;
+    case aminoAcid:
+      aminoAcidValue = value;
+      break;
+    case unprocessed:
+      unprocessedValue = value;
+      break;
+    case processed:
+      processedValue = value;
+      break;
+    case biomassType:
+      biomassTypeValue = value;
+      break;
+    case aggregationPropensity:
+      aggregationPropensityValue = value;
+      break;
+    case propensityScaling:
+      propensityScalingValue = value;
+      break;
+    case reverse:
+      reverseValue = value;
+      break;
+    case surfaceAreaInner:
+      surfaceAreaInnerValue = value;
+      break;
+    case surfaceAreaOuter:
+      surfaceAreaOuterValue = value;
+      break;
+    default:
+      break;
+    }
+  }
+
+
+  /**
+   * Reads the elements of a list into a map from the value of the key
+   * attribute to the numeric value of the value attribute.
+   */
+  private static Map<String, Double> readValues(XMLNode list,
+    String elementName, String keyAttribute, String valueAttribute) {
+    Map<String, Double> values = new LinkedHashMap<String, Double>();
+    for (int i = 0; i < list.getChildCount(); i++) {
+      XMLNode element = list.getChildAt(i);
+      if (element.isElement() && element.getName().equals(elementName)) {
+        values.put(element.getAttrValue(keyAttribute),
+          Double.valueOf(element.getAttrValue(valueAttribute)));
+      }
+    }
+    return values;
+  }
+
+
+  private void readTranslocations(XMLNode list) {
+    translocationIds = new ArrayList<String>();
+    translocationMultipliers = new ArrayList<Double>();
+    for (int i = 0; i < list.getChildCount(); i++) {
+      XMLNode element = list.getChildAt(i);
+      if (element.isElement() && element.getName().equals(translocationRef)) {
+        translocationIds.add(element.getAttrValue(translocation));
+        translocationMultipliers.add(
+          Double.valueOf(element.getAttrValue(multiplier)));
+      }
+    }
+  }
+
+
+  /**
+   * Reads the elements of the list at the current position of the reader into
+   * a map from the value of the key attribute to the numeric value of the
+   * value attribute.
+   */
+  private static Map<String, Double> readValues(XMLStreamReader reader,
+    String elementName, String keyAttribute, String valueAttribute)
+    throws XMLStreamException {
+    Map<String, Double> values = new LinkedHashMap<String, Double>();
+    while (MEStaxReader.nextChild(reader)) {
+      if (reader.getLocalName().equals(elementName)) {
+        values.put(MEStaxReader.attrValue(reader, keyAttribute),
+          Double.valueOf(MEStaxReader.attrValue(reader, valueAttribute)));
+      }
+      MEStaxReader.skipElement(reader);
+    }
+    return values;
+  }
+
+
+  private void readTranslocations(XMLStreamReader reader)
+    throws XMLStreamException {
+    translocationIds = new ArrayList<String>();
+    translocationMultipliers = new ArrayList<Double>();
+    while (MEStaxReader.nextChild(reader)) {
+      if (reader.getLocalName().equals(translocationRef)) {
+        translocationIds.add(MEStaxReader.attrValue(reader, translocation));
+        translocationMultipliers.add(
+          Double.valueOf(MEStaxReader.attrValue(reader, multiplier)));
+      }
+      MEStaxReader.skipElement(reader);
+    }
+  }
+
+
+  /**
+   * @return the variable kind of the reaction
+   */
+  public String getVariableKind() {
+    return variableKindValue;
+  }
+
+
+  /**
+   * @return the id of the process data of the reaction
+   */
+  public String getDataId() {
+    return dataIdValue;
+  }
+
+
+  /**
+   * @return the id of the ComponentDefinition of the sequence in SBOL
+   */
+  public String getSequence() {
+    return sequenceValue;
+  }
+
+
+  /**
+   * @return the keff of the reaction
+   */
+  public String getKeff() {
+    return keffValue;
+  }
+
+
+  /**
+   * @return the id of the complex
+   */
+  public String getComplexId() {
+    return complexIdValue;
+  }
+
+
+  /**
+   * @return the id of the synthetase
+   */
+  public String getSynthetase() {
+    return synthetaseValue;
+  }
+
+
+  /**
+   * @return the codon of the charged tRNA
+   */
+  public String getCodon() {
+    return codonValue;
+  }
+
+
+  /**
+   * @return the amino acid of the charged tRNA
+   */
+  public String getAminoAcid() {
+    return aminoAcidValue;
+  }
+
+
+  /**
+   * @return the id of the unprocessed protein
+   */
+  public String getUnprocessedProteinId() {
+    return unprocessedValue;
+  }
+
+
+  /**
+   * @return the id of the processed protein
+   */
+  public String getProcessedProteinId() {
+    return processedValue;
+  }
+
+
+  /**
+   * @return the biomass type
+   */
+  public String getBiomassType() {
+    return biomassTypeValue;
+  }
+
+
+  /**
+   * @return the aggregation propensity
+   */
+  public String getAggregationPropensity() {
+    return aggregationPropensityValue;
+  }
+
+
+  /**
+   * @return the propensity scaling
+   */
+  public String getPropensityScaling() {
+    return propensityScalingValue;
+  }
+
+
+  /**
+   * @return whether the metabolic reaction is reversed
+   */
+  public String getReverse() {
+    return reverseValue;
+  }
+
+
+  /**
+   * @return the surface area of the inner membrane or null if it is not set
+   */
+  public String getSurfaceAreaInner() {
+    return surfaceAreaInnerValue;
+  }
+
+
+  /**
+   * @return the surface area of the outer membrane or null if it is not set
+   */
+  public String getSurfaceAreaOuter() {
+    return surfaceAreaOuterValue;
+  }
+
+
+  /**
+   * @return the stoichiometries of the subreactions by their ids
+   */
+  public Map<String, Double> getSubreactions() {
+    return subreactions;
+  }
+
+
+  /**
+   * @return the stoichiometries of the subunits by their ids
+   */
+  public Map<String, Double> getStoichiometries() {
+    return stoichiometries;
+  }
+
+
+  /**
+   * @return the ids of the translocations
+   */
+  public List<String> getTranslocationIds() {
+    return translocationIds;
+  }
+
+
+  /**
+   * @return the multipliers of the translocations in the order of
+   *         {@link #getTranslocationIds()}
+   */
+  public List<Double> getTranslocationMultipliers() {
+    return translocationMultipliers;
+  }
+
+
+  /**
+   * @return the equilibrium constants by their temperatures
+   */
+  public Map<String, Double> getEquilibriumConstants() {
+    return equilibriumConstants;
+  }
+
+
+  /**
+   * @return the rate constants by their temperatures
+   */
+  public Map<String, Double> getRateConstants() {
+    return rateConstants;
+  }
+}
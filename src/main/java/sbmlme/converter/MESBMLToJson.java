@@ -1,17 +1,23 @@
 package sbmlme.converter;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.InputStream;
+import java.io.PrintStream;
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import javax.xml.stream.XMLStreamException;
 
-import org.sbml.jsbml.ASTNode;
 import org.sbml.jsbml.Model;
 import org.sbml.jsbml.Parameter;
 import org.sbml.jsbml.Reaction;
@@ -20,7 +26,6 @@ import org.sbml.jsbml.SBMLReader;
 import org.sbml.jsbml.Species;
 import org.sbml.jsbml.SpeciesReference;
 import org.sbml.jsbml.ext.fbc.FBCConstants;
-import org.sbml.jsbml.ext.fbc.FBCModelPlugin;
 import org.sbml.jsbml.ext.fbc.FBCReactionPlugin;
 import org.sbml.jsbml.ext.fbc.FBCSpeciesPlugin;
 import org.sbml.jsbml.ext.groups.Group;
@@ -29,20 +34,20 @@ import org.sbml.jsbml.ext.groups.GroupsModelPlugin;
 import org.sbml.jsbml.ext.groups.Member;
 import org.sbml.jsbml.xml.XMLNode;
 import org.sbolstandard.core2.OrientationType;
-import org.sbolstandard.core2.Range;
 import org.sbolstandard.core2.SBOLConversionException;
-import org.sbolstandard.core2.SBOLDocument;
-import org.sbolstandard.core2.SBOLReader;
 import org.sbolstandard.core2.SBOLValidationException;
-import org.sbolstandard.core2.Sequence;
-import org.sbolstandard.core2.SystemsBiologyOntology;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import sbmlme.IdCodec;
+import sbmlme.MEArchiveReader;
 import sbmlme.MEConstants;
+import sbmlme.MERoleTable;
 
 /**
  * Contains methods for converting a SBMLme model to a COBRAme JSON file.
@@ -52,6 +57,30 @@ import sbmlme.MEConstants;
 @SuppressWarnings("restriction")
 public class MESBMLToJson implements MEJsonConstants, MEConstants {
 
+  /**
+   * number of members of a group that are converted in parallel before they
+   * are written to the JSON file
+   */
+  private static final int memberBlockSize     = 2048;
+  /**
+   * number of members that a single task converts without further splitting
+   */
+  private static final int memberTaskThreshold = 64;
+  /**
+   * whether the members of the groups are converted in parallel
+   */
+  private boolean          parallel;
+  /**
+   * the mapper for writing the entries of the JSON file, see
+   * {@link #createJSONMapper()}
+   */
+  private ObjectMapper     objectMapper;
+  /**
+   * the stream for progress messages, null for no messages
+   */
+  private PrintStream      log;
+
+
   /**
    * Reads in a SBML file and a SBOL file of a SBMLme model and converts it to a
    * COBRAme JSON file.
@@ -72,154 +101,663 @@ public class MESBMLToJson implements MEJsonConstants, MEConstants {
   public MESBMLToJson(String sbmlFile, String sbolFile, String output,
     boolean tidy) throws XMLStreamException, IOException,
     SBOLValidationException, SBOLConversionException {
-    // read the SBML and SBOL documents
-    System.out.println("Read in SBML and SBOL files");
-    SBMLReader sbmlReader = new SBMLReader();
-    SBMLDocument sbmlDoc = sbmlReader.readSBML(sbmlFile);
-    Model model = sbmlDoc.getModel();
-    SBOLDocument sbolDoc = SBOLReader.read(sbolFile);
-    // start building JSON
-    MEJsonCOBRAme jsonCOBRAme = new MEJsonCOBRAme();
-    List<MEJsonReaction> reactions = new ArrayList<MEJsonReaction>();
+    this(sbmlFile, sbolFile, output, tidy, false);
+  }
+
+
+  /**
+   * Reads in a SBML file and a SBOL file of a SBMLme model and converts it to a
+   * COBRAme JSON file.
+   * <p>
+   * In parallel mode the reactions and metabolites of each group are converted
+   * concurrently and written in the order of the group, so that the JSON file
+   * is the same as in serial mode.
+   * </p>
+   * 
+   * @param sbmlFile
+   *        the location of the SBML file
+   * @param sbolFile
+   *        the location of the SBOL file
+   * @param output
+   *        the prefix of the output file
+   * @param tidy
+   *        whether the JSON file should be printed tidy
+   * @param parallel
+   *        whether the members of the groups should be converted in parallel
+   *        on all available processors
+   * @throws XMLStreamException
+   * @throws IOException
+   * @throws SBOLValidationException
+   * @throws SBOLConversionException
+   */
+  public MESBMLToJson(String sbmlFile, String sbolFile, String output,
+    boolean tidy, boolean parallel) throws XMLStreamException, IOException,
+    SBOLValidationException, SBOLConversionException {
+    this(sbmlFile, sbolFile, output, tidy, false, parallel);
+  }
+
+
+  /**
+   * Reads in a SBML file and a SBOL file of a SBMLme model and converts it to a
+   * COBRAme JSON file.
+   * <p>
+   * In streaming mode the SBML file is read by the {@link MEStaxReader}
+   * instead of JSBML, which keeps only the content of the model that is needed
+   * for the conversion. The JSON file is the same in both modes.
+   * </p>
+   * 
+   * @param sbmlFile
+   *        the location of the SBML file
+   * @param sbolFile
+   *        the location of the SBOL file
+   * @param output
+   *        the prefix of the output file
+   * @param tidy
+   *        whether the JSON file should be printed tidy
+   * @param streaming
+   *        whether the SBML file should be read with the {@link MEStaxReader}
+   * @param parallel
+   *        whether the members of the groups should be converted in parallel
+   *        on all available processors
+   * @throws XMLStreamException
+   * @throws IOException
+   * @throws SBOLValidationException
+   * @throws SBOLConversionException
+   */
+  public MESBMLToJson(String sbmlFile, String sbolFile, String output,
+    boolean tidy, boolean streaming, boolean parallel)
+    throws XMLStreamException, IOException, SBOLValidationException,
+    SBOLConversionException {
+    this(createJSONMapper(), parallel, System.out);
+    MESequenceIndex sequenceIndex =
+      new MESequenceIndex(new File(sbolFile), false, log);
+    // read the SBML document, the SBOL document is read on demand
+    log("Read in SBML file");
+    if (streaming) {
+      MEStaxReader document;
+      InputStream stream =
+        new BufferedInputStream(new FileInputStream(sbmlFile));
+      try {
+        document = new MEStaxReader(stream);
+      } finally {
+        stream.close();
+      }
+      convertToJSON(document, sequenceIndex, output, tidy);
+    } else {
+      SBMLReader sbmlReader = new SBMLReader();
+      SBMLDocument sbmlDoc = sbmlReader.readSBML(sbmlFile);
+      convertToJSON(sbmlDoc.getModel(), sequenceIndex, output, tidy);
+    }
+  }
+
+
+  /**
+   * Reads in the SBML and SBOL documents of a SBMLme model from a COMBINE
+   * archive and converts it to a COBRAme JSON file.
+   * <p>
+   * The documents are resolved by their formats in the manifest of the archive
+   * and read directly from the zip file, see {@link MEArchiveReader}.
+   * </p>
+   * 
+   * @param archiveFile
+   *        the location of the COMBINE archive
+   * @param output
+   *        the prefix of the output file
+   * @param tidy
+   *        whether the JSON file should be printed tidy
+   * @throws XMLStreamException
+   * @throws IOException
+   * @throws SBOLValidationException
+   * @throws SBOLConversionException
+   */
+  public MESBMLToJson(String archiveFile, String output, boolean tidy)
+    throws XMLStreamException, IOException, SBOLValidationException,
+    SBOLConversionException {
+    this(archiveFile, output, tidy, false);
+  }
+
+
+  /**
+   * Reads in the SBML and SBOL documents of a SBMLme model from a COMBINE
+   * archive and converts it to a COBRAme JSON file, optionally in parallel
+   * mode, see {@link #MESBMLToJson(String, String, String, boolean, boolean)}.
+   * 
+   * @param archiveFile
+   *        the location of the COMBINE archive
+   * @param output
+   *        the prefix of the output file
+   * @param tidy
+   *        whether the JSON file should be printed tidy
+   * @param parallel
+   *        whether the members of the groups should be converted in parallel
+   *        on all available processors
+   * @throws XMLStreamException
+   * @throws IOException
+   * @throws SBOLValidationException
+   * @throws SBOLConversionException
+   */
+  public MESBMLToJson(String archiveFile, String output, boolean tidy,
+    boolean parallel) throws XMLStreamException, IOException,
+    SBOLValidationException, SBOLConversionException {
+    this(archiveFile, output, tidy, false, parallel);
+  }
+
+
+  /**
+   * Reads in the SBML and SBOL documents of a SBMLme model from a COMBINE
+   * archive and converts it to a COBRAme JSON file, optionally in streaming
+   * and parallel mode, see
+   * {@link #MESBMLToJson(String, String, String, boolean, boolean, boolean)}.
+   * 
+   * @param archiveFile
+   *        the location of the COMBINE archive
+   * @param output
+   *        the prefix of the output file
+   * @param tidy
+   *        whether the JSON file should be printed tidy
+   * @param streaming
+   *        whether the SBML document should be read with the
+   *        {@link MEStaxReader}
+   * @param parallel
+   *        whether the members of the groups should be converted in parallel
+   *        on all available processors
+   * @throws XMLStreamException
+   * @throws IOException
+   * @throws SBOLValidationException
+   * @throws SBOLConversionException
+   */
+  public MESBMLToJson(String archiveFile, String output, boolean tidy,
+    boolean streaming, boolean parallel) throws XMLStreamException,
+    IOException, SBOLValidationException, SBOLConversionException {
+    this(createJSONMapper(), parallel, System.out);
+    MESequenceIndex sequenceIndex =
+      new MESequenceIndex(new File(archiveFile), true, log);
+    // read the SBML document, the SBOL document is read on demand
+    log("Read in SBML document from COMBINE archive");
+    MEStaxReader document = null;
+    SBMLDocument sbmlDoc = null;
+    MEArchiveReader archive = new MEArchiveReader(new File(archiveFile));
+    try {
+      if (streaming) {
+        InputStream stream = archive.openSBML();
+        try {
+          document = new MEStaxReader(stream);
+        } finally {
+          stream.close();
+        }
+      } else {
+        sbmlDoc = archive.readSBML();
+      }
+    } finally {
+      archive.close();
+    }
+    if (streaming) {
+      convertToJSON(document, sequenceIndex, output, tidy);
+    } else {
+      convertToJSON(sbmlDoc.getModel(), sequenceIndex, output, tidy);
+    }
+  }
+
+
+  /**
+   * Creates a converter that does not convert anything by itself, see
+   * {@link MEConverter}, but whose methods for single entries, e.g.
+   * {@link #addReaction(String, Model, MEObjectiveIndex, List, String, MESequenceIndex, MESpeciesIndex, MEInitialAssignmentIndex)},
+   * can be used directly.
+   * 
+   * @param objectMapper
+   *        the mapper for writing the entries, see {@link #createJSONMapper()}
+   * @param parallel
+   *        whether the members of the groups should be converted in parallel
+   *        on all available processors
+   * @param log
+   *        the stream for progress messages, null for no messages
+   */
+  public MESBMLToJson(ObjectMapper objectMapper, boolean parallel,
+    PrintStream log) {
+    this.objectMapper = objectMapper;
+    this.parallel = parallel;
+    this.log = log;
+  }
+
+
+  /**
+   * Creates the mapper for writing COBRAme JSON files, which writes the
+   * entries one after another into the same file.
+   * 
+   * @return the mapper for writing COBRAme JSON files
+   */
+  public static ObjectMapper createJSONMapper() {
+    ObjectMapper objectMapper = new ObjectMapper();
+    objectMapper.configure(SerializationFeature.FLUSH_AFTER_WRITE_VALUE,
+      false);
+    return objectMapper;
+  }
+
+
+  private void convertToJSON(Model model, MESequenceIndex sequenceIndex,
+    String output, boolean tidy) throws IOException {
+    JsonGenerator generator = createGenerator(output, tidy);
+    try {
+      convertToJSON(model, sequenceIndex, generator);
+    } finally {
+      generator.close();
+    }
+  }
+
+
+  private void convertToJSON(MEStaxReader document,
+    MESequenceIndex sequenceIndex, String output, boolean tidy)
+    throws IOException {
+    JsonGenerator generator = createGenerator(output, tidy);
+    try {
+      convertToJSON(document, sequenceIndex, generator);
+    } finally {
+      generator.close();
+    }
+  }
+
+
+  /**
+   * Converts the SBML model and the SBOL document of a SBMLme model to a
+   * COBRAme JSON file.
+   * <p>
+   * The JSON file is written with a {@link JsonGenerator} while the model is
+   * converted. Each reaction and metabolite is written as soon as it is
+   * created, only the process data and the global information are collected
+   * and written at the end. The reactions are written in a first pass over
+   * the groups of the model and the metabolites in a second one, so that the
+   * order of the entries is the same as in the COBRAme schema.
+   * </p>
+   * <p>
+   * In parallel mode the members of each group are converted concurrently in
+   * blocks of {@value #memberBlockSize} members, see
+   * {@link #writeMembersInParallel}.
+   * </p>
+   * 
+   * @param model
+   *        the SBML model
+   * @param sequenceIndex
+   *        the index of the sequences of the SBOL document
+   * @param generator
+   *        the generator of the JSON file, which is not closed
+   * @throws IOException
+   */
+  void convertToJSON(Model model, MESequenceIndex sequenceIndex,
+    JsonGenerator generator) throws IOException {
+    // process data and global info are written after reactions and
+    // metabolites
     List<MEJsonProcessData> processData = new ArrayList<MEJsonProcessData>();
-    List<MEJsonMetabolite> meMetabolites = new ArrayList<MEJsonMetabolite>();
-    // iterate over groups to add all reactions and species to the JSON
-    GroupsModelPlugin groups =
-      (GroupsModelPlugin) model.getPlugin(GroupsConstants.shortLabel);
-    // get list of IdRef from groups for easier parsing
-    // need to first create a link to a Group since .getGroup(String) returns a
-    // SBase instead of a Group
-    Group transcribed = (Group) groups.getGroup(transcribedGene);
-    List<String> listTranscribed = new ArrayList<String>();
-    for (Member member : transcribed.getListOfMembers()) {
-      listTranscribed.add(member.getIdRef());
-    }
-    Group rnap = (Group) groups.getGroup(rnaPolymerase);
-    List<String> listRNAP = new ArrayList<String>();
-    for (Member member : rnap.getListOfMembers()) {
-      listRNAP.add(member.getIdRef());
-    }
-    Group translated = (Group) groups.getGroup(translatedGene);
-    List<String> listTranslated = new ArrayList<String>();
-    for (Member member : translated.getListOfMembers()) {
-      listTranslated.add(member.getIdRef());
-    }
-    Group generictRNA = (Group) groups.getGroup(gentRNA);
-    List<String> listtRNA = new ArrayList<String>();
-    for (Member member : generictRNA.getListOfMembers()) {
-      listtRNA.add(member.getIdRef());
-    }
-    Group processed = (Group) groups.getGroup(processedProtein);
-    List<String> listProcessed = new ArrayList<String>();
-    for (Member member : processed.getListOfMembers()) {
-      listProcessed.add(member.getIdRef());
-    }
-    Group complexGroup = (Group) groups.getGroup(complex);
-    List<String> listComplex = new ArrayList<String>();
-    for (Member member : complexGroup.getListOfMembers()) {
-      listComplex.add(member.getIdRef());
-    }
-    // set Map for global info
     LinkedHashMap<String, Double> globalInfo =
       new LinkedHashMap<String, Double>();
-    FBCModelPlugin fbcModel =
-      (FBCModelPlugin) model.getPlugin(FBCConstants.shortLabel);
-    for (Group group : groups.getListOfGroups()) {
-      String groupId = group.getId();
-      System.out.println("Add " + groupId + " to JSON");
-      // reactions
-      if (groupId.equals(summaryVariable) || groupId.equals(meReaction)
-        || groupId.equals(genericFormation) || groupId.equals(transcription)
-        || groupId.equals(translation) || groupId.equals(tRNACharging)
-        || groupId.equals(postTranslationReaction)
-        || groupId.equals(complexFormationReaction)
-        || groupId.equals(metabolicReaction)) {
-        for (Member member : group.getListOfMembers()) {
-          reactions.add(addReaction(member, model, fbcModel, processData,
-            groupId, sbolDoc, listTranscribed, listRNAP, listTranslated,
-            listtRNA, listProcessed, listComplex));
+    GroupsModelPlugin groups =
+      (GroupsModelPlugin) model.getPlugin(GroupsConstants.shortLabel);
+    // index the types of the species for the lookups in the reactions
+    MESpeciesIndex speciesIndex = new MESpeciesIndex(groups);
+    // index the InitialAssignments for symbolic bounds and stoichiometries
+    MEInitialAssignmentIndex assignmentIndex =
+      new MEInitialAssignmentIndex(model);
+    // index the flux objectives, which may be missing for coefficients of 0
+    MEObjectiveIndex objectiveIndex = new MEObjectiveIndex(model);
+    log("Write JSON to file");
+    ForkJoinPool pool = parallel ? new ForkJoinPool() : null;
+    try {
+      generator.writeStartObject();
+      // iterate over groups to write all reactions and collect global info
+      // and generic data
+      generator.writeArrayFieldStart(reactionsField);
+      for (Group group : groups.getListOfGroups()) {
+        String groupId = group.getId();
+        if (isReactionType(groupId)) {
+          log("Add " + groupId + " to JSON");
+          if (pool != null) {
+            writeMembersInParallel(pool, generator, objectMapper, groupId,
+              getMemberIds(group), model, objectiveIndex, null, processData,
+              sequenceIndex, speciesIndex, assignmentIndex);
+          } else {
+            for (Member member : group.getListOfMembers()) {
+              objectMapper.writeValue(generator,
+                addReaction(member.getIdRef(), model, objectiveIndex,
+                  processData, groupId, sequenceIndex, speciesIndex,
+                  assignmentIndex));
+            }
+          }
+        } else if (groupId.equals(globalInformation)) {
+          log("Add " + groupId + " to JSON");
+          // add globalInfo
+          for (Member member : group.getListOfMembers()) {
+            String memberId = member.getIdRef();
+            globalInfo.put(ConvertSBMLIdToCOBRAId(memberId),
+              model.getParameter(memberId).getValue());
+          }
+        } else if (groupId.startsWith(genericData)) {
+          log("Add " + groupId + " to JSON");
+          // add Generic Data to ProcessData list
+          processData.add(addGenericData(groupId, getMemberIds(group)));
         }
-      } else if (groupId.equals(globalInformation)) {
-        // add globalInfo
-        for (Member member : group.getListOfMembers()) {
-          String memberId = member.getIdRef();
-          globalInfo.put(ConvertSBMLIdToCOBRAId(memberId),
-            model.getParameter(memberId).getValue());
+      }
+      generator.writeEndArray();
+      // iterate over groups again to write all species as metabolites
+      generator.writeArrayFieldStart(metabolitesField);
+      for (Group group : groups.getListOfGroups()) {
+        String groupId = group.getId();
+        if (MESpeciesIndex.isSpeciesType(groupId)) {
+          log("Add " + groupId + " to JSON");
+          if (pool != null) {
+            writeMembersInParallel(pool, generator, objectMapper, groupId,
+              getMemberIds(group), model, objectiveIndex, null, processData,
+              sequenceIndex, speciesIndex, assignmentIndex);
+          } else {
+            for (Member member : group.getListOfMembers()) {
+              objectMapper.writeValue(generator, addMetabolites(
+                member.getIdRef(), model, sequenceIndex, groupId));
+            }
+          }
         }
-      } else if (groupId.startsWith(genericData)) {
-        // add Generic Data to ProcessData list
-        String genericDataId = groupId.replace(genericData, "");
-        List<String> component_list = new ArrayList<String>();
-        MEJsonProcessData genericData = new MEJsonProcessData();
-        MEJsonProcessDataType genericDataType = new MEJsonProcessDataType();
-        MEJsonProcessDataTypeAttributes genericDataTypeAttributes =
-          new MEJsonProcessDataTypeAttributes();
-        genericData.setId(ConvertSBMLIdToCOBRAId(genericDataId));
-        // add all component to a list
-        for (Member member : group.getListOfMembers()) {
-          component_list.add(ConvertSBMLIdToCOBRAId(member.getIdRef()));
+      }
+      generator.writeEndArray();
+      // read SubreactionData, TranslocationData and StoichiometricData from
+      // SBML model annotation
+      XMLNode modelAnnotation = model.getAnnotation().getFullAnnotation();
+      List<XMLNode> listSubreactionData =
+        modelAnnotation.getChildElement(processDataPlugin, "*")
+                       .getChildElement(listOfSubreactionData, "*")
+                       .getChildElements(subreactionData, "*");
+      List<XMLNode> listTranslocationData =
+        modelAnnotation.getChildElement(processDataPlugin, "*")
+                       .getChildElement(listOfTranslocationData, "*")
+                       .getChildElements(subreactionData, "*");
+      List<XMLNode> listStoichiometricData =
+        modelAnnotation.getChildElement(processDataPlugin, "*")
+                       .getChildElement(listOfStoichiometricData, "*")
+                       .getChildElements(stoichiometricData, "*");
+      // add SubreactionData
+      log("Add SubreactionData to JSON");
+      for (XMLNode subreactionData : listSubreactionData) {
+        processData.add(addSubreactionData(subreactionData));
+      }
+      // add TranslocationData
+      log("Add TranslocationData to JSON");
+      for (XMLNode translocationData : listTranslocationData) {
+        processData.add(addTranslocationData(translocationData));
+      }
+      // add StoichiometricData
+      log("Add StoichiometricData to JSON");
+      for (XMLNode stoichiometricData : listStoichiometricData) {
+        processData.add(addStoichiometricData(stoichiometricData));
+      }
+      // finish JSON
+      generator.writeFieldName(processDataField);
+      objectMapper.writeValue(generator, processData);
+      generator.writeFieldName(global_Info);
+      objectMapper.writeValue(generator, globalInfo);
+      generator.writeEndObject();
+    } finally {
+      if (pool != null) {
+        pool.shutdown();
+      }
+    }
+  }
+
+
+  /**
+   * Converts a SBMLme document read by the {@link MEStaxReader} and the SBOL
+   * document to a COBRAme JSON file. The groups are visited in the same passes
+   * as by {@link #convertToJSON(Model, MESequenceIndex, JsonGenerator)}, so
+   * that the JSON file is the same.
+   * 
+   * @param document
+   *        the SBMLme document
+   * @param sequenceIndex
+   *        the index of the sequences of the SBOL document
+   * @param generator
+   *        the generator of the JSON file, which is not closed
+   * @throws IOException
+   */
+  void convertToJSON(MEStaxReader document, MESequenceIndex sequenceIndex,
+    JsonGenerator generator) throws IOException {
+    List<MEJsonProcessData> processData = new ArrayList<MEJsonProcessData>();
+    LinkedHashMap<String, Double> globalInfo =
+      new LinkedHashMap<String, Double>();
+    Map<String, List<String>> groups = document.getGroups();
+    MESpeciesIndex speciesIndex = new MESpeciesIndex(groups);
+    log("Write JSON to file");
+    ForkJoinPool pool = parallel ? new ForkJoinPool() : null;
+    try {
+      generator.writeStartObject();
+      // iterate over groups to write all reactions and collect global info
+      // and generic data
+      generator.writeArrayFieldStart(reactionsField);
+      for (Entry<String, List<String>> group : groups.entrySet()) {
+        String groupId = group.getKey();
+        if (isReactionType(groupId)) {
+          log("Add " + groupId + " to JSON");
+          if (pool != null) {
+            writeMembersInParallel(pool, generator, objectMapper, groupId,
+              group.getValue(), null, null, document, processData,
+              sequenceIndex, speciesIndex, null);
+          } else {
+            for (String memberId : group.getValue()) {
+              objectMapper.writeValue(generator, addReaction(document,
+                memberId, processData, groupId, sequenceIndex, speciesIndex));
+            }
+          }
+        } else if (groupId.equals(globalInformation)) {
+          log("Add " + groupId + " to JSON");
+          // add globalInfo, parameters without value are not a number
+          for (String memberId : group.getValue()) {
+            if (!document.containsParameter(memberId)) {
+              throw new IOException("SBML document contains no parameter "
+                + memberId);
+            }
+            Double value = document.getParameterValue(memberId);
+            globalInfo.put(ConvertSBMLIdToCOBRAId(memberId),
+              value != null ? value : Double.valueOf(Double.NaN));
+          }
+        } else if (groupId.startsWith(genericData)) {
+          log("Add " + groupId + " to JSON");
+          // add Generic Data to ProcessData list
+          processData.add(addGenericData(groupId, group.getValue()));
         }
-        // set ProcessData structure
-        genericDataTypeAttributes.setComponent_list(component_list);
-        genericDataType.setGenericData(genericDataTypeAttributes);
-        genericData.setProcessDataType(genericDataType);
-        processData.add(genericData);
-      } else if (groupId.equals(constraint) || groupId.equals(complex)
-        || groupId.equals(metabolite) || groupId.equals(translatedGene)
-        || groupId.equals(gentRNA) || groupId.equals(transcribedGene)
-        || groupId.equals(genericComponent) || groupId.equals(processedProtein)
-        || groupId.equals(ribosome) || groupId.equals(rnaPolymerase)) {
-        // add species to metabolites
-        for (Member member : group.getListOfMembers()) {
-          meMetabolites.add(addMetabolites(member, model, sbolDoc, groupId));
+      }
+      generator.writeEndArray();
+      // iterate over groups again to write all species as metabolites
+      generator.writeArrayFieldStart(metabolitesField);
+      for (Entry<String, List<String>> group : groups.entrySet()) {
+        String groupId = group.getKey();
+        if (MESpeciesIndex.isSpeciesType(groupId)) {
+          log("Add " + groupId + " to JSON");
+          if (pool != null) {
+            writeMembersInParallel(pool, generator, objectMapper, groupId,
+              group.getValue(), null, null, document, processData,
+              sequenceIndex, speciesIndex, null);
+          } else {
+            for (String memberId : group.getValue()) {
+              objectMapper.writeValue(generator,
+                addMetabolites(document, memberId, sequenceIndex, groupId));
+            }
+          }
         }
       }
+      generator.writeEndArray();
+      // the process data of the model annotation has already been converted
+      log("Add SubreactionData to JSON");
+      processData.addAll(document.getSubreactionData());
+      log("Add TranslocationData to JSON");
+      processData.addAll(document.getTranslocationData());
+      log("Add StoichiometricData to JSON");
+      processData.addAll(document.getStoichiometricData());
+      // finish JSON
+      generator.writeFieldName(processDataField);
+      objectMapper.writeValue(generator, processData);
+      generator.writeFieldName(global_Info);
+      objectMapper.writeValue(generator, globalInfo);
+      generator.writeEndObject();
+    } finally {
+      if (pool != null) {
+        pool.shutdown();
+      }
     }
-    // read SubreactionData, TranslocationData and StoichiometricData from SBML
-    // model annotation
-    XMLNode modelAnnotation = model.getAnnotation().getFullAnnotation();
-    List<XMLNode> listSubreactionData =
-      modelAnnotation.getChildElement(processDataPlugin, "*")
-                     .getChildElement(listOfSubreactionData, "*")
-                     .getChildElements(subreactionData, "*");
-    List<XMLNode> listTranslocationData =
-      modelAnnotation.getChildElement(processDataPlugin, "*")
-                     .getChildElement(listOfTranslocationData, "*")
-                     .getChildElements(subreactionData, "*");
-    List<XMLNode> listStoichiometricData =
-      modelAnnotation.getChildElement(processDataPlugin, "*")
-                     .getChildElement(listOfStoichiometricData, "*")
-                     .getChildElements(stoichiometricData, "*");
-    // add SubreactionData
-    System.out.println("Add SubreactionData to JSON");
-    for (XMLNode subreactionData : listSubreactionData) {
-      processData.add(addSubreactionData(subreactionData));
-    }
-    // add TranslocationData
-    System.out.println("Add TranslocationData to JSON");
-    for (XMLNode translocationData : listTranslocationData) {
-      processData.add(addTranslocationData(translocationData));
-    }
-    // add StoichiometricData
-    System.out.println("Add StoichiometricData to JSON");
-    for (XMLNode stoichiometricData : listStoichiometricData) {
-      processData.add(addStoichiometricData(stoichiometricData));
-    }
-    // finish JSON
-    jsonCOBRAme.setReactions(reactions);
-    jsonCOBRAme.setProcessData(processData);
-    jsonCOBRAme.setMetabolites(meMetabolites);
-    jsonCOBRAme.setGlobalInfo(globalInfo);
-    // print JSON
-    System.out.println("Write JSON to file");
-    ObjectMapper objectMapper = new ObjectMapper();
+  }
+
+
+  /**
+   * Creates the generator of the JSON file.
+   */
+  private JsonGenerator createGenerator(String output, boolean tidy)
+    throws IOException {
+    JsonGenerator generator = objectMapper.getFactory().createGenerator(
+      new File(output + ".json"), JsonEncoding.UTF8);
     // readable output
     if (tidy) {
-      objectMapper.configure(SerializationFeature.INDENT_OUTPUT, true);
+      generator.useDefaultPrettyPrinter();
+    }
+    return generator;
+  }
+
+
+  private void log(String message) {
+    if (log != null) {
+      log.println(message);
+    }
+  }
+
+
+  /**
+   * @return the ids of the members of the group in the order of the group
+   */
+  private static List<String> getMemberIds(Group group) {
+    List<String> memberIds = new ArrayList<String>(group.getMemberCount());
+    for (Member member : group.getListOfMembers()) {
+      memberIds.add(member.getIdRef());
+    }
+    return memberIds;
+  }
+
+
+  /**
+   * Converts the members of a reaction or species group concurrently in the
+   * given pool and writes them to the JSON file in the order of the group.
+   * <p>
+   * The conversion of a member only reads the SBML model or the document of
+   * the {@link MEStaxReader} and the SBOL document, so that the members can be
+   * converted by several threads. The
+   * process data created for the reactions is collected per member and added
+   * to the list of process data in the order of the group as well, so that the
+   * output is the same as in serial mode. The members are converted in blocks
+   * of {@value #memberBlockSize}, so that only the entries of one block are
+   * kept in memory.
+   * </p>
+   * 
+   * @param pool
+   *        the pool used for converting the members
+   * @param generator
+   *        the generator of the JSON file
+   * @param objectMapper
+   *        the mapper used for writing the entries
+   * @param groupId
+   *        the id of the reaction or species group
+   * @param memberIds
+   *        the ids of the members of the group
+   * @param model
+   *        the SBML model, null if the document is given
+   * @param objectiveIndex
+   *        the index of the objective of the model, null if the document is
+   *        given
+   * @param document
+   *        the document read by the {@link MEStaxReader}, null if the model is
+   *        given
+   * @param processData
+   *        the list with the JSON representation of the process data
+   * @param sequenceIndex
+   *        the index of the sequences of the SBOL document
+   * @param speciesIndex
+   *        the index of the types of the species
+   * @param assignmentIndex
+   *        the index of the InitialAssignments of the model, null if the
+   *        document is given
+   * @throws IOException
+   */
+  private void writeMembersInParallel(ForkJoinPool pool,
+    JsonGenerator generator, ObjectMapper objectMapper, String groupId,
+    List<String> memberIds, Model model, MEObjectiveIndex objectiveIndex,
+    MEStaxReader document, List<MEJsonProcessData> processData,
+    MESequenceIndex sequenceIndex, MESpeciesIndex speciesIndex,
+    MEInitialAssignmentIndex assignmentIndex) throws IOException {
+    int size = memberIds.size();
+    for (int offset = 0; offset < size; offset += memberBlockSize) {
+      int length = Math.min(memberBlockSize, size - offset);
+      Object[] entries = new Object[length];
+      List<List<MEJsonProcessData>> memberData =
+        new ArrayList<List<MEJsonProcessData>>(
+          Collections.<List<MEJsonProcessData>> nCopies(length, null));
+      try {
+        pool.invoke(new MemberConversion(model, objectiveIndex, document,
+          sequenceIndex, speciesIndex, assignmentIndex, groupId,
+          memberIds.subList(offset, offset + length), entries, memberData, 0,
+          length));
+      } catch (RuntimeException e) {
+        // IOExceptions of the workers are wrapped, possibly more than once
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+          if (cause instanceof IOException) {
+            throw (IOException) cause;
+          }
+        }
+        throw e;
+      }
+      for (int i = 0; i < length; i++) {
+        objectMapper.writeValue(generator, entries[i]);
+        processData.addAll(memberData.get(i));
+      }
     }
-    StringWriter stringJSON = new StringWriter();
-    objectMapper.writeValue(stringJSON, jsonCOBRAme);
-    objectMapper.writeValue(new File(output + ".json"), jsonCOBRAme);
+  }
+
+
+  /**
+   * Returns whether the group with the given id classifies reactions.
+   * 
+   * @param groupId
+   *        the id of the group
+   * @return {@code true} if the group id is a COBRAme reaction type
+   */
+  private static boolean isReactionType(String groupId) {
+    return groupId.equals(summaryVariable) || groupId.equals(meReaction)
+      || groupId.equals(genericFormation) || groupId.equals(transcription)
+      || groupId.equals(translation) || groupId.equals(tRNACharging)
+      || groupId.equals(postTranslationReaction)
+      || groupId.equals(complexFormationReaction)
+      || groupId.equals(metabolicReaction);
+  }
+
+
+  /**
+   * Creates a GenericData entry for the list of process data in the JSON
+   * output from a collection group.
+   * 
+   * @param groupId
+   *        the id of the group of the generic data
+   * @param memberIds
+   *        the ids of the components in the group
+   * @return the JSON representation of the generic data
+   */
+  private MEJsonProcessData addGenericData(String groupId,
+    List<String> memberIds) {
+    String genericDataId = groupId.replace(genericData, "");
+    List<String> component_list = new ArrayList<String>();
+    MEJsonProcessData genericData = new MEJsonProcessData();
+    MEJsonProcessDataType genericDataType = new MEJsonProcessDataType();
+    MEJsonProcessDataTypeAttributes genericDataTypeAttributes =
+      new MEJsonProcessDataTypeAttributes();
+    genericData.setId(ConvertSBMLIdToCOBRAId(genericDataId));
+    // add all component to a list
+    for (String memberId : memberIds) {
+      component_list.add(ConvertSBMLIdToCOBRAId(memberId));
+    }
+    // set ProcessData structure
+    genericDataTypeAttributes.setComponent_list(component_list);
+    genericDataType.setGenericData(genericDataTypeAttributes);
+    genericData.setProcessDataType(genericDataType);
+    return genericData;
   }
 
 
@@ -228,47 +766,125 @@ public class MESBMLToJson implements MEJsonConstants, MEConstants {
    * forbidden in SBML they had to be converted to create SBML conform ids. This
    * method is intended to be used to convert ids back to COBRA ids from these
    * SBML conform
-   * ids.
+   * ids, see {@link IdCodec}.
    * 
    * @param id
    *        the SBML id
    * @return the COBRAme id
    */
   public String ConvertSBMLIdToCOBRAId(String id) {
-    id = id.replaceAll("__meCOLONme__", ":");
-    id = id.replaceAll("__meMINUSme__", "-");
-    id = id.replaceAll("__meSLASHme__", "/");
-    id = id.replaceAll("__meSTARTme__", "");
-    return id;
+    return IdCodec.decode(id);
   }
 
 
   /**
    * Creates a metabolite for the list of metabolites in the JSON output.
    * 
-   * @param member
-   *        the {@link Member} with the id of the species
+   * @param speciesId
+   *        the id of the species
    * @param model
    *        the SBML model
-   * @param sbolDoc
-   *        the SBOLDocument
+   * @param sequenceIndex
+   *        the index of the sequences of the SBOL document
    * @param groupId
    *        the Id of the group that contains the member
    * @return the JSON representation of the metabolite
+   * @throws IOException
+   *         if the SBOL document can not be read
    */
-  public MEJsonMetabolite addMetabolites(Member member, Model model,
-    SBOLDocument sbolDoc, String groupId) {
+  public MEJsonMetabolite addMetabolites(String speciesId, Model model,
+    MESequenceIndex sequenceIndex, String groupId) throws IOException {
     MEJsonMetabolite species = new MEJsonMetabolite();
-    MEJsonMetaboliteType speciesType = new MEJsonMetaboliteType();
-    MEJsonMetaboliteTypeAttributes speciesTypeAttributes =
-      new MEJsonMetaboliteTypeAttributes();
-    Species sbmlSpecies = model.getSpecies(member.getIdRef());
+    Species sbmlSpecies = model.getSpecies(speciesId);
     species.setName(sbmlSpecies.getName());
     species.setCompartment(sbmlSpecies.getCompartment());
-    species.setId(ConvertSBMLIdToCOBRAId(member.getIdRef()));
+    species.setId(ConvertSBMLIdToCOBRAId(speciesId));
+    // the plugin is not created if it is missing, so that the species can be
+    // converted concurrently
     FBCSpeciesPlugin fbcSpecies =
-      (FBCSpeciesPlugin) sbmlSpecies.getPlugin(FBCConstants.shortLabel);
-    species.setFormula(fbcSpecies.getChemicalFormula());
+      (FBCSpeciesPlugin) sbmlSpecies.getExtension(FBCConstants.shortLabel);
+    if (fbcSpecies != null) {
+      species.setFormula(fbcSpecies.getChemicalFormula());
+    }
+    // only processed proteins and transcribed genes use the annotation
+    String sbolId = null;
+    String genomePosition = null;
+    String unprocessedId = null;
+    if (groupId.equals(processedProtein) || groupId.equals(transcribedGene)) {
+      XMLNode plugin = sbmlSpecies.getAnnotation().getFullAnnotation()
+                                  .getChildElement(speciesPlugin, "*");
+      sbolId = plugin.getAttrValue(sequence);
+      genomePosition = plugin.getAttrValue(genomePos);
+      unprocessedId = plugin.getAttrValue(unprocessed);
+    }
+    setMetaboliteType(species, speciesId, groupId, sbolId, genomePosition,
+      unprocessedId, sequenceIndex);
+    return species;
+  }
+
+
+  /**
+   * Creates a metabolite for the list of metabolites in the JSON output from
+   * a species read by the {@link MEStaxReader}.
+   * 
+   * @param document
+   *        the SBMLme document
+   * @param speciesId
+   *        the id of the species
+   * @param sequenceIndex
+   *        the index of the sequences of the SBOL document
+   * @param groupId
+   *        the Id of the group that contains the member
+   * @return the JSON representation of the metabolite
+   * @throws IOException
+   *         if the document does not contain the species or if the SBOL
+   *         document can not be read
+   */
+  public MEJsonMetabolite addMetabolites(MEStaxReader document,
+    String speciesId, MESequenceIndex sequenceIndex, String groupId)
+    throws IOException {
+    MEStaxReader.SpeciesData sbmlSpecies = document.getSpecies(speciesId);
+    if (sbmlSpecies == null) {
+      throw new IOException("SBML document contains no species " + speciesId);
+    }
+    MEJsonMetabolite species = new MEJsonMetabolite();
+    species.setName(sbmlSpecies.getName());
+    species.setCompartment(sbmlSpecies.getCompartment());
+    species.setId(ConvertSBMLIdToCOBRAId(speciesId));
+    species.setFormula(sbmlSpecies.getChemicalFormula());
+    setMetaboliteType(species, speciesId, groupId, sbmlSpecies.getSequence(),
+      sbmlSpecies.getGenomePosition(), sbmlSpecies.getUnprocessedProteinId(),
+      sequenceIndex);
+    return species;
+  }
+
+
+  /**
+   * Sets the type of the metabolite by the group that contains the species.
+   * 
+   * @param species
+   *        the JSON representation of the metabolite
+   * @param speciesId
+   *        the id of the species in SBML
+   * @param groupId
+   *        the Id of the group that contains the species
+   * @param sbolId
+   *        the URI of the sequence of a transcribed gene
+   * @param genomePosition
+   *        the position of a transcribed gene on the genome
+   * @param unprocessedId
+   *        the id of the unprocessed protein of a processed protein
+   * @param sequenceIndex
+   *        the index of the sequences of the SBOL document
+   * @throws IOException
+   *         if the SBOL document can not be read
+   */
+  private void setMetaboliteType(MEJsonMetabolite species, String speciesId,
+    String groupId, String sbolId, String genomePosition,
+    String unprocessedId, MESequenceIndex sequenceIndex) throws IOException {
+    MEJsonMetaboliteType speciesType = new MEJsonMetaboliteType();
+    MEJsonMetaboliteTypeAttributes speciesTypeAttributes =
+      new MEJsonMetaboliteTypeAttributes();
     if (groupId.equals(constraint)) {
       speciesType.setConstraint(speciesTypeAttributes);
     } else if (groupId.equals(complex)) {
@@ -287,59 +903,35 @@ public class MESBMLToJson implements MEJsonConstants, MEConstants {
       speciesType.setRNAP(speciesTypeAttributes);
     } else if (groupId.equals(processedProtein)) {
       speciesTypeAttributes.setUnprocessedProteinId(
-        ConvertSBMLIdToCOBRAId(sbmlSpecies.getAnnotation().getFullAnnotation()
-                                          .getChildElement(speciesPlugin, "*")
-                                          .getAttrValue(unprocessed)));
+        ConvertSBMLIdToCOBRAId(unprocessedId));
       speciesType.setProcessedProtein(speciesTypeAttributes);
     } else if (groupId.equals(transcribedGene)) {
-      String sbolId =
-        sbmlSpecies.getAnnotation().getFullAnnotation()
-                   .getChildElement(speciesPlugin, "*").getAttrValue(sequence);
-      Integer leftPos =
-        Integer.valueOf(sbmlSpecies.getAnnotation().getFullAnnotation()
-                                   .getChildElement(speciesPlugin, "*")
-                                   .getAttrValue(genomePos));
-      // the set of sequences should only contain one element therefore
-      // the next element can simply be added as the nucleotide sequence
-      for (Iterator<Sequence> sequenceIterator =
-        sbolDoc.getComponentDefinition(java.net.URI.create(sbolId))
-               .getSequences().iterator(); sequenceIterator.hasNext();) {
-        speciesTypeAttributes.setNucleotideSequence(
-          // elements may not be visible
-          sequenceIterator.next().getElements());
-      }
-      Range range =
-        (Range) sbolDoc.getComponentDefinition(java.net.URI.create(sbolId))
-                       .getSequenceAnnotation(
-                         member.getIdRef() + sbolAnnotation)
-                       .getLocation(member.getIdRef() + sbolLoc);
+      Integer leftPos = Integer.valueOf(genomePosition);
+      speciesTypeAttributes.setNucleotideSequence(
+        sequenceIndex.getElements(sbolId));
+      String locationId = speciesId + sbolLoc;
+      int rangeEnd = sequenceIndex.getRangeEnd(sbolId, locationId);
       // set Positions on genome
       // dummy rna can have left, right and strand of null, which cannot be
       // represented correctly in SBOL
-      if (range.getEnd() == 1) {
+      if (rangeEnd == 1) {
       } else {
         speciesTypeAttributes.setLeftPos(leftPos);
-        speciesTypeAttributes.setRightPos(leftPos + range.getEnd());
+        speciesTypeAttributes.setRightPos(leftPos + rangeEnd);
       }
-      URI rnaURI =
-        (URI) sbolDoc.getComponentDefinition(java.net.URI.create(sbolId))
-                     .getRoles().toArray()[0];
+      URI rnaURI = sequenceIndex.getRole(sbolId);
       // set RNA type
-      SystemsBiologyOntology sbo = new SystemsBiologyOntology();
-      if (rnaURI.equals(sbo.getURIbyName(messengerRNA))) {
-        speciesTypeAttributes.setRNAType(mRNA);
-      } else if (rnaURI.equals(sbo.getURIbyName(transferRNA))) {
-        speciesTypeAttributes.setRNAType(tRNA);
-      } else if (rnaURI.equals(sbo.getURIbyName(noncodingRNA))) {
-        speciesTypeAttributes.setRNAType(ncRNA);
-      } else if (rnaURI.equals(sbo.getURIbyName(ribosomalRNA))) {
-        speciesTypeAttributes.setRNAType(rRNA);
+      String rnaType = MERoleTable.getType(rnaURI);
+      if ((rnaType != null) && MERoleTable.isRNA(rnaType)) {
+        speciesTypeAttributes.setRNAType(rnaType);
       }
       // set Strand
-      if (range.getOrientation() == null) {
+      OrientationType orientation =
+        sequenceIndex.getOrientation(sbolId, locationId);
+      if (orientation == null) {
         speciesTypeAttributes.setStrand(null);
       } else {
-        if (range.getOrientation().equals(OrientationType.INLINE)) {
+        if (orientation.equals(OrientationType.INLINE)) {
           speciesTypeAttributes.setStrand("+");
         } else {
           speciesTypeAttributes.setStrand("-");
@@ -348,7 +940,6 @@ public class MESBMLToJson implements MEJsonConstants, MEConstants {
       speciesType.setTranscribedGene(speciesTypeAttributes);
     }
     species.setMetaboliteType(speciesType);
-    return species;
   }
 
 
@@ -378,15 +969,18 @@ public class MESBMLToJson implements MEJsonConstants, MEConstants {
       listEnzymes.add(ConvertSBMLIdToCOBRAId(enzyme.getAttrValue(enzymeRef)));
     }
     processDataEntryTypeAttributes.setEnzyme(listEnzymes);
-    // add Map of Element Contributions
-    List<XMLNode> listElementNodes =
-      subreactionData.getChildElement(listOfElementContributions, "*")
-                     .getChildElements(elementContribution, "*");
+    // add Map of Element Contributions, the list is missing if the
+    // SubreactionData was created without element contributions
+    XMLNode listElements =
+      subreactionData.getChildElement(listOfElementContributions, "*");
     LinkedHashMap<String, Integer> elementContributions =
       new LinkedHashMap<String, Integer>();
-    for (XMLNode elementNode : listElementNodes) {
-      elementContributions.put(elementNode.getAttrValue(element),
-        Integer.valueOf(elementNode.getAttrValue(value)));
+    if (listElements != null) {
+      for (XMLNode elementNode : listElements.getChildElements(
+        elementContribution, "*")) {
+        elementContributions.put(elementNode.getAttrValue(element),
+          Integer.valueOf(elementNode.getAttrValue(value)));
+      }
     }
     processDataEntryTypeAttributes.setElement_contribution(
       elementContributions);
@@ -492,15 +1086,19 @@ public class MESBMLToJson implements MEJsonConstants, MEConstants {
       Double.valueOf(stoichiometricData.getAttrValue(lowerFluxBound)));
     processDataEntryTypeAttributes.setUpper_bound(
       Double.valueOf(stoichiometricData.getAttrValue(upperFluxBound)));
-    // add subreations
-    List<XMLNode> listSubreactions =
-      stoichiometricData.getChildElement(listSubreactionReferences, "*")
-                        .getChildElements(subreactionRef, "*");
+    // add subreations, the list is missing if the StoichiometricData was
+    // created without subreactions
+    XMLNode listSubreactions =
+      stoichiometricData.getChildElement(listSubreactionReferences, "*");
     LinkedHashMap<String, Double> subreactions =
       new LinkedHashMap<String, Double>();
-    for (XMLNode entry : listSubreactions) {
-      subreactions.put(ConvertSBMLIdToCOBRAId(entry.getAttrValue(subreaction)),
-        Double.valueOf(entry.getAttrValue(stoichiometry)));
+    if (listSubreactions != null) {
+      for (XMLNode entry : listSubreactions.getChildElements(subreactionRef,
+        "*")) {
+        subreactions.put(
+          ConvertSBMLIdToCOBRAId(entry.getAttrValue(subreaction)),
+          Double.valueOf(entry.getAttrValue(stoichiometry)));
+      }
     }
     processDataEntryTypeAttributes.setSubreactions(subreactions);
     // add stoichiometry
@@ -530,43 +1128,42 @@ public class MESBMLToJson implements MEJsonConstants, MEConstants {
   /**
    * Creates a reaction entry for the list of reactions in the JSON output.
    * 
-   * @param member
-   *        the {@link Member} with the id of the reaction
+   * @param memberId
+   *        the id of the reaction
    * @param model
    *        the SBML model
-   * @param fbcModel
-   *        the FBCModelPlugin of the SBML model
+   * @param objectiveIndex
+   *        the index of the objective of the model
    * @param processData
    *        the list with the JSON representation of the process data
    * @param groupId
    *        the id of the group that contains the member
-   * @param sbolDoc
-   *        the SBOLDocument
-   * @param listTranscribed
-   *        the list of transcribed genes
-   * @param listRNAP
-   *        the list of RNA polymerases
-   * @param listTranslated
-   *        the list of translated genes
-   * @param listtRNA
-   *        the list of charged tRNAs
-   * @param listProcessed
-   *        the list of processed proteins
-   * @param listComplex
-   *        the list of protein complexes
+   * @param sequenceIndex
+   *        the index of the sequences of the SBOL document
+   * @param speciesIndex
+   *        the index of the types of the species
+   * @param assignmentIndex
+   *        the index of the InitialAssignments of the model
    * @return the JSON representation of the reaction
+   * @throws IOException
+   *         if the SBOL document can not be read
    */
-  public MEJsonReaction addReaction(Member member, Model model,
-    FBCModelPlugin fbcModel, List<MEJsonProcessData> processData,
-    String groupId, SBOLDocument sbolDoc, List<String> listTranscribed,
-    List<String> listRNAP, List<String> listTranslated, List<String> listtRNA,
-    List<String> listProcessed, List<String> listComplex) {
-    String memberId = member.getIdRef();
+  public MEJsonReaction addReaction(String memberId, Model model,
+    MEObjectiveIndex objectiveIndex, List<MEJsonProcessData> processData,
+    String groupId, MESequenceIndex sequenceIndex, MESpeciesIndex speciesIndex,
+    MEInitialAssignmentIndex assignmentIndex) throws IOException {
     Reaction reaction = model.getReaction(memberId);
     FBCReactionPlugin fbcTemp =
-      (FBCReactionPlugin) reaction.getPlugin(FBCConstants.shortLabel);
+      (FBCReactionPlugin) reaction.getExtension(FBCConstants.shortLabel);
+    // empty lists of species references are not created, so that the
+    // reactions can be converted concurrently
+    List<SpeciesReference> products = reaction.isSetListOfProducts()
+      ? reaction.getListOfProducts()
+      : Collections.<SpeciesReference> emptyList();
+    List<SpeciesReference> reactants = reaction.isSetListOfReactants()
+      ? reaction.getListOfReactants()
+      : Collections.<SpeciesReference> emptyList();
     MEJsonReaction jsonReaction = new MEJsonReaction();
-    MEJsonReactionType reactionType = new MEJsonReactionType();
     // set common attributes
     jsonReaction.setId(ConvertSBMLIdToCOBRAId(memberId));
     Parameter lower = fbcTemp.getLowerFluxBoundInstance();
@@ -574,38 +1171,33 @@ public class MESBMLToJson implements MEJsonConstants, MEConstants {
       jsonReaction.setLowerBound(String.valueOf(lower.getValue()));
     } else {
       jsonReaction.setLowerBound(
-        model.getInitialAssignmentBySymbol(lower.getId()).getMath().toFormula()
-             .replace("^", "**"));
+        assignmentIndex.getBoundFormula(lower.getId()));
     }
     Parameter upper = fbcTemp.getUpperFluxBoundInstance();
     if (upper.isSetValue()) {
       jsonReaction.setUpperBound(String.valueOf(upper.getValue()));
     } else {
       jsonReaction.setUpperBound(
-        model.getInitialAssignmentBySymbol(upper.getId()).getMath().toFormula()
-             .replace("^", "**"));
+        assignmentIndex.getBoundFormula(upper.getId()));
     }
     jsonReaction.setName(reaction.getName());
     // active objective -> List<FluxObjectives> ->
     // FluxObjective.coefficient
     jsonReaction.setObjectiveCoefficient(
-      fbcModel.getActiveObjectiveInstance().getListOfFluxObjectives()
-              .get(memberId + coefficientEnd).getCoefficient());
-    // full annotation -> child "meReactionPlugin" -> value of attribute
-    // variableKind
-    jsonReaction.setVariableKind(
-      reaction.getAnnotation().getFullAnnotation()
-              .getChildElement(reactionPlugin, "*").getAttrValue(variableKind));
+      objectiveIndex.getCoefficient(memberId + coefficientEnd));
+    // decode the "meReactionPlugin" annotation once for all attributes
+    MEReactionAnnotation annotation = new MEReactionAnnotation(reaction);
+    jsonReaction.setVariableKind(annotation.getVariableKind());
     // add species to ObjectNode for metabolite
     ObjectNode node = JsonNodeFactory.instance.objectNode();
-    for (SpeciesReference species : reaction.getListOfProducts()) {
+    List<String> productIds = new ArrayList<String>(products.size());
+    for (SpeciesReference species : products) {
+      productIds.add(species.getSpecies());
       if (species.isSetValue()) {
         node.put(ConvertSBMLIdToCOBRAId(species.getSpecies()),
           species.getValue());
       } else {
-        ASTNode tempProductMath =
-          model.getInitialAssignmentBySymbol(species.getId()).getMath();
-        String math = tempProductMath.toString().replace("^", "**");
+        String math = assignmentIndex.getFormula(species.getId());
         node.put(ConvertSBMLIdToCOBRAId(species.getSpecies()), math);
       }
     }
@@ -614,28 +1206,181 @@ public class MESBMLToJson implements MEJsonConstants, MEConstants {
     // allowed in SBML. As a solution the value of the species has been
     // multiplied with -1 which needs to get undone when converting back
     // to JSON
-    for (SpeciesReference species : reaction.getListOfReactants()) {
+    List<String> reactantIds = new ArrayList<String>(reactants.size());
+    for (SpeciesReference species : reactants) {
+      reactantIds.add(species.getSpecies());
       if (species.isSetValue()) {
         node.put(ConvertSBMLIdToCOBRAId(species.getSpecies()),
           species.getValue() * -1);
       } else {
-        ASTNode tempReactantMath =
-          model.getInitialAssignmentBySymbol(species.getId()).getMath();
-        String math = tempReactantMath.toString().replace("^", "**");
-        // the multiplication with -1 should appear at the end of the
-        // formula string
-        if (math.endsWith("*-1")) {
-          math = math.substring(0, math.length() - 3);
-          // just for safety purpose if the species reference has not been
-          // added correctly to the SBML model
-        } else if (math.startsWith("-1*")) {
-          math = math.substring(3, math.length());
-        }
-        node.put(ConvertSBMLIdToCOBRAId(species.getSpecies()), math);
+        node.put(ConvertSBMLIdToCOBRAId(species.getSpecies()),
+          removeReactantSign(assignmentIndex.getFormula(species.getId())));
       }
     }
     jsonReaction.setMetabolites(node);
-    // set type of reaction
+    setReactionType(jsonReaction, groupId, annotation, productIds,
+      reactantIds, processData, sequenceIndex, speciesIndex);
+    return jsonReaction;
+  }
+
+
+  /**
+   * Creates a reaction entry for the list of reactions in the JSON output from
+   * a reaction read by the {@link MEStaxReader}.
+   * 
+   * @param document
+   *        the SBMLme document
+   * @param memberId
+   *        the id of the reaction
+   * @param processData
+   *        the list with the JSON representation of the process data
+   * @param groupId
+   *        the id of the group that contains the member
+   * @param sequenceIndex
+   *        the index of the sequences of the SBOL document
+   * @param speciesIndex
+   *        the index of the types of the species
+   * @return the JSON representation of the reaction
+   * @throws IOException
+   *         if the document does not contain the reaction or its bounds or if
+   *         the SBOL document can not be read
+   */
+  public MEJsonReaction addReaction(MEStaxReader document, String memberId,
+    List<MEJsonProcessData> processData, String groupId,
+    MESequenceIndex sequenceIndex, MESpeciesIndex speciesIndex)
+    throws IOException {
+    MEStaxReader.ReactionData reaction = document.getReaction(memberId);
+    if (reaction == null) {
+      throw new IOException("SBML document contains no reaction " + memberId);
+    }
+    MEJsonReaction jsonReaction = new MEJsonReaction();
+    // set common attributes
+    jsonReaction.setId(ConvertSBMLIdToCOBRAId(memberId));
+    jsonReaction.setLowerBound(
+      getBound(document, memberId, reaction.getLowerFluxBound()));
+    jsonReaction.setUpperBound(
+      getBound(document, memberId, reaction.getUpperFluxBound()));
+    jsonReaction.setName(reaction.getName());
+    // a sparse objective contains no flux objectives with a coefficient of 0
+    Double coefficient =
+      document.getObjectiveCoefficient(memberId + coefficientEnd);
+    jsonReaction.setObjectiveCoefficient(
+      coefficient != null ? coefficient.doubleValue() : 0.0);
+    MEReactionAnnotation annotation = reaction.getAnnotation();
+    jsonReaction.setVariableKind(annotation.getVariableKind());
+    // add species to ObjectNode for metabolite, see the JSBML version above
+    ObjectNode node = JsonNodeFactory.instance.objectNode();
+    List<String> productIds = new ArrayList<String>();
+    for (MEStaxReader.SpeciesReferenceData species : reaction.getProducts()) {
+      productIds.add(species.getSpecies());
+      if (species.getStoichiometry() != null) {
+        node.put(ConvertSBMLIdToCOBRAId(species.getSpecies()),
+          species.getStoichiometry().doubleValue());
+      } else {
+        node.put(ConvertSBMLIdToCOBRAId(species.getSpecies()),
+          getFormula(document, species.getId()));
+      }
+    }
+    List<String> reactantIds = new ArrayList<String>();
+    for (MEStaxReader.SpeciesReferenceData species : reaction.getReactants()) {
+      reactantIds.add(species.getSpecies());
+      if (species.getStoichiometry() != null) {
+        node.put(ConvertSBMLIdToCOBRAId(species.getSpecies()),
+          species.getStoichiometry().doubleValue() * -1);
+      } else {
+        node.put(ConvertSBMLIdToCOBRAId(species.getSpecies()),
+          removeReactantSign(getFormula(document, species.getId())));
+      }
+    }
+    jsonReaction.setMetabolites(node);
+    setReactionType(jsonReaction, groupId, annotation, productIds,
+      reactantIds, processData, sequenceIndex, speciesIndex);
+    return jsonReaction;
+  }
+
+
+  /**
+   * Returns the value of a flux bound of a reaction read by the
+   * {@link MEStaxReader} or the formula of its InitialAssignment if the
+   * parameter has no value.
+   */
+  private static String getBound(MEStaxReader document, String reactionId,
+    String parameterId) throws IOException {
+    if ((parameterId == null) || !document.containsParameter(parameterId)) {
+      throw new IOException(
+        "SBML document contains no flux bound parameter for reaction "
+          + reactionId);
+    }
+    Double value = document.getParameterValue(parameterId);
+    if (value != null) {
+      return String.valueOf(value.doubleValue());
+    }
+    return getFormula(document, parameterId);
+  }
+
+
+  private static String getFormula(MEStaxReader document, String symbol)
+    throws IOException {
+    String formula = document.getFormula(symbol);
+    if (formula == null) {
+      throw new IOException("SBML document contains no InitialAssignment for "
+        + symbol);
+    }
+    return formula;
+  }
+
+
+  /**
+   * Removes the multiplication with -1 from the formula of the stoichiometry
+   * of a reactant.
+   * 
+   * @param math
+   *        the formula of the stoichiometry in SBML
+   * @return the formula without the sign
+   */
+  private static String removeReactantSign(String math) {
+    // the multiplication with -1 should appear at the end of the
+    // formula string
+    if (math.endsWith("*-1")) {
+      return math.substring(0, math.length() - 3);
+      // just for safety purpose if the species reference has not been
+      // added correctly to the SBML model
+    } else if (math.startsWith("-1*")) {
+      return math.substring(3, math.length());
+    }
+    return math;
+  }
+
+
+  /**
+   * Sets the type of the reaction by the group that contains it and adds the
+   * process data of the reaction to the list of process data.
+   * 
+   * @param jsonReaction
+   *        the JSON representation of the reaction
+   * @param groupId
+   *        the id of the group that contains the reaction
+   * @param annotation
+   *        the decoded "meReactionPlugin" annotation of the reaction
+   * @param productIds
+   *        the ids of the products in SBML
+   * @param reactantIds
+   *        the ids of the reactants in SBML
+   * @param processData
+   *        the list with the JSON representation of the process data
+   * @param sequenceIndex
+   *        the index of the sequences of the SBOL document
+   * @param speciesIndex
+   *        the index of the types of the species
+   * @throws IOException
+   *         if the SBOL document can not be read
+   */
+  private void setReactionType(MEJsonReaction jsonReaction, String groupId,
+    MEReactionAnnotation annotation, List<String> productIds,
+    List<String> reactantIds, List<MEJsonProcessData> processData,
+    MESequenceIndex sequenceIndex, MESpeciesIndex speciesIndex)
+    throws IOException {
+    MEJsonReactionType reactionType = new MEJsonReactionType();
     MEJsonReactionTypeAttributes typeAttributes =
       new MEJsonReactionTypeAttributes();
     if (groupId.equals(summaryVariable)) {
@@ -645,9 +1390,7 @@ public class MESBMLToJson implements MEJsonConstants, MEConstants {
     } else if (groupId.equals(genericFormation)) {
       reactionType.setGenericFormationReaction(typeAttributes);
     } else if (groupId.equals(transcription)) {
-      XMLNode sbmlAnnotation = reaction.getAnnotation().getFullAnnotation();
-      String sbmlDataId = sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                                        .getAttrValue(dataId);
+      String sbmlDataId = annotation.getDataId();
       typeAttributes.setTranscriptionDataId(ConvertSBMLIdToCOBRAId(sbmlDataId));
       reactionType.setTranscriptionReaction(typeAttributes);
       MEJsonProcessData tempProcess = new MEJsonProcessData();
@@ -655,47 +1398,33 @@ public class MESBMLToJson implements MEJsonConstants, MEConstants {
       MEJsonProcessDataTypeAttributes tempProcessTypeAttributes =
         new MEJsonProcessDataTypeAttributes();
       tempProcess.setId(ConvertSBMLIdToCOBRAId(sbmlDataId));
-      String sbolId = sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                                    .getAttrValue(sequence);
-      // the set of sequences should only contain one element therefore
-      // the next element can simply be added as the nucleotide sequence
-      for (Iterator<Sequence> sequenceIterator =
-        sbolDoc.getComponentDefinition(java.net.URI.create(sbolId))
-               .getSequences().iterator(); sequenceIterator.hasNext();) {
-        tempProcessTypeAttributes.setNucleotideSequence(
-          // elements may not be visible
-          sequenceIterator.next().getElements());
-      }
+      String sbolId = annotation.getSequence();
+      tempProcessTypeAttributes.setNucleotideSequence(
+        sequenceIndex.getElements(sbolId));
       // add subreations to ProcessData
       LinkedHashMap<String, Double> subreactions =
         new LinkedHashMap<String, Double>();
-      List<XMLNode> subreactionReferences =
-        sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                      .getChildElement(listSubreactionReferences, "*")
-                      .getChildElements(subreactionRef, "*");
-      // iterate over List of Subreaction References
-      for (Iterator<XMLNode> subreactionIter =
-        subreactionReferences.iterator(); subreactionIter.hasNext();) {
-        XMLNode sub = subreactionIter.next();
-        subreactions.put(ConvertSBMLIdToCOBRAId(sub.getAttrValue(subreaction)),
-          Double.valueOf(sub.getAttrValue(stoichiometry)));
+      // iterate over the Subreaction References
+      for (Entry<String, Double> sub : annotation.getSubreactions()
+                                                 .entrySet()) {
+        subreactions.put(ConvertSBMLIdToCOBRAId(sub.getKey()), sub.getValue());
       }
       tempProcessTypeAttributes.setSubreactions(subreactions);
       // add list of RNA products
       List<String> listRNAProducts = new ArrayList<String>();
-      for (SpeciesReference species : reaction.getListOfProducts()) {
+      for (String speciesId : productIds) {
         // check if current product is a RNA
-        if (listTranscribed.contains(species.getSpecies())) {
-          listRNAProducts.add(ConvertSBMLIdToCOBRAId(species.getSpecies()));
+        if (speciesIndex.isOfType(speciesId, transcribedGene)) {
+          listRNAProducts.add(ConvertSBMLIdToCOBRAId(speciesId));
         }
       }
       tempProcessTypeAttributes.setRNAProducts(listRNAProducts);
       // add the single RNA polymerase to ProcessData attributes
-      for (SpeciesReference species : reaction.getListOfReactants()) {
+      for (String speciesId : reactantIds) {
         // check if current species is the polymerase
-        if (listRNAP.contains(species.getSpecies())) {
+        if (speciesIndex.isOfType(speciesId, rnaPolymerase)) {
           tempProcessTypeAttributes.setRNA_polymerase(
-            ConvertSBMLIdToCOBRAId(species.getSpecies()));
+            ConvertSBMLIdToCOBRAId(speciesId));
           break;
         }
       }
@@ -703,9 +1432,7 @@ public class MESBMLToJson implements MEJsonConstants, MEConstants {
       tempProcess.setProcessDataType(tempProcessType);
       processData.add(tempProcess);
     } else if (groupId.equals(translation)) {
-      XMLNode sbmlAnnotation = reaction.getAnnotation().getFullAnnotation();
-      String sbmlDataId = sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                                        .getAttrValue(dataId);
+      String sbmlDataId = annotation.getDataId();
       typeAttributes.setTranslationDataId(ConvertSBMLIdToCOBRAId(sbmlDataId));
       reactionType.setTranslationReaction(typeAttributes);
       MEJsonProcessData tempProcess = new MEJsonProcessData();
@@ -713,47 +1440,33 @@ public class MESBMLToJson implements MEJsonConstants, MEConstants {
       MEJsonProcessDataTypeAttributes tempProcessTypeAttributes =
         new MEJsonProcessDataTypeAttributes();
       tempProcess.setId(ConvertSBMLIdToCOBRAId(sbmlDataId));
-      String sbolId = sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                                    .getAttrValue(sequence);
-      // the set of sequences should only contain one element therefore
-      // the next element can simply be added as the nucleotide sequence
-      for (Iterator<Sequence> sequenceIterator =
-        sbolDoc.getComponentDefinition(java.net.URI.create(sbolId))
-               .getSequences().iterator(); sequenceIterator.hasNext();) {
-        tempProcessTypeAttributes.setNucleotideSequence(
-          // elements may not be visible
-          sequenceIterator.next().getElements());
-      }
+      String sbolId = annotation.getSequence();
+      tempProcessTypeAttributes.setNucleotideSequence(
+        sequenceIndex.getElements(sbolId));
       // add subreations to ProcessData
       LinkedHashMap<String, Double> subreactions =
         new LinkedHashMap<String, Double>();
-      List<XMLNode> subreactionReferences =
-        sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                      .getChildElement(listSubreactionReferences, "*")
-                      .getChildElements(subreactionRef, "*");
-      // iterate over List of Subreaction References
-      for (Iterator<XMLNode> subreactionIter =
-        subreactionReferences.iterator(); subreactionIter.hasNext();) {
-        XMLNode sub = subreactionIter.next();
-        subreactions.put(ConvertSBMLIdToCOBRAId(sub.getAttrValue(subreaction)),
-          Double.valueOf(sub.getAttrValue(stoichiometry)));
+      // iterate over the Subreaction References
+      for (Entry<String, Double> sub : annotation.getSubreactions()
+                                                 .entrySet()) {
+        subreactions.put(ConvertSBMLIdToCOBRAId(sub.getKey()), sub.getValue());
       }
       tempProcessTypeAttributes.setSubreactions(subreactions);
       // add mRNA
-      for (SpeciesReference species : reaction.getListOfReactants()) {
+      for (String speciesId : reactantIds) {
         // check if current product is a RNA
-        if (listTranscribed.contains(species.getSpecies())) {
+        if (speciesIndex.isOfType(speciesId, transcribedGene)) {
           tempProcessTypeAttributes.setmRNA(
-            ConvertSBMLIdToCOBRAId(species.getSpecies()));
+            ConvertSBMLIdToCOBRAId(speciesId));
           break;
         }
       }
       // add protein
-      for (SpeciesReference species : reaction.getListOfProducts()) {
+      for (String speciesId : productIds) {
         // check if current product is a RNA
-        if (listTranslated.contains(species.getSpecies())) {
+        if (speciesIndex.isOfType(speciesId, translatedGene)) {
           tempProcessTypeAttributes.setProtein(
-            ConvertSBMLIdToCOBRAId(species.getSpecies()));
+            ConvertSBMLIdToCOBRAId(speciesId));
           break;
         }
       }
@@ -761,9 +1474,7 @@ public class MESBMLToJson implements MEJsonConstants, MEConstants {
       tempProcess.setProcessDataType(tempProcessType);
       processData.add(tempProcess);
     } else if (groupId.equals(tRNACharging)) {
-      XMLNode sbmlAnnotation = reaction.getAnnotation().getFullAnnotation();
-      String sbmlDataId = sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                                        .getAttrValue(dataId);
+      String sbmlDataId = annotation.getDataId();
       typeAttributes.settRNADataId(ConvertSBMLIdToCOBRAId(sbmlDataId));
       reactionType.settRNAChargingReaction(typeAttributes);
       MEJsonProcessData tempProcess = new MEJsonProcessData();
@@ -774,46 +1485,32 @@ public class MESBMLToJson implements MEJsonConstants, MEConstants {
       // add subreations to ProcessData
       LinkedHashMap<String, Double> subreactions =
         new LinkedHashMap<String, Double>();
-      List<XMLNode> subreactionReferences =
-        sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                      .getChildElement(listSubreactionReferences, "*")
-                      .getChildElements(subreactionRef, "*");
-      // iterate over List of Subreaction References
-      for (Iterator<XMLNode> subreactionIter =
-        subreactionReferences.iterator(); subreactionIter.hasNext();) {
-        XMLNode sub = subreactionIter.next();
-        subreactions.put(ConvertSBMLIdToCOBRAId(sub.getAttrValue(subreaction)),
-          Double.valueOf(sub.getAttrValue(stoichiometry)));
+      // iterate over the Subreaction References
+      for (Entry<String, Double> sub : annotation.getSubreactions()
+                                                 .entrySet()) {
+        subreactions.put(ConvertSBMLIdToCOBRAId(sub.getKey()), sub.getValue());
       }
       // add RNA
-      for (SpeciesReference species : reaction.getListOfReactants()) {
+      for (String speciesId : reactantIds) {
         // check if current product is a RNA
-        if (listTranscribed.contains(species.getSpecies())) {
+        if (speciesIndex.isOfType(speciesId, transcribedGene)) {
           tempProcessTypeAttributes.setRNA(
-            ConvertSBMLIdToCOBRAId(species.getSpecies()));
+            ConvertSBMLIdToCOBRAId(speciesId));
           break;
         }
       }
       tempProcessTypeAttributes.setSubreactions(subreactions);
       tempProcessTypeAttributes.setSynthetase_keff(
-        Double.valueOf(sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                                     .getAttrValue(keff)));
-      tempProcessTypeAttributes.setSynthetase(ConvertSBMLIdToCOBRAId(
-        sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                      .getAttrValue(synthetase)));
-      tempProcessTypeAttributes.setCodon(
-        sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                      .getAttrValue(codon));
-      tempProcessTypeAttributes.setAmino_acid(
-        sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                      .getAttrValue(aminoAcid));
+        Double.valueOf(annotation.getKeff()));
+      tempProcessTypeAttributes.setSynthetase(
+        ConvertSBMLIdToCOBRAId(annotation.getSynthetase()));
+      tempProcessTypeAttributes.setCodon(annotation.getCodon());
+      tempProcessTypeAttributes.setAmino_acid(annotation.getAminoAcid());
       tempProcessType.settRNAData(tempProcessTypeAttributes);
       tempProcess.setProcessDataType(tempProcessType);
       processData.add(tempProcess);
     } else if (groupId.equals(postTranslationReaction)) {
-      XMLNode sbmlAnnotation = reaction.getAnnotation().getFullAnnotation();
-      String sbmlDataId = sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                                        .getAttrValue(dataId);
+      String sbmlDataId = annotation.getDataId();
       typeAttributes.setPostTranslationDataId(
         ConvertSBMLIdToCOBRAId(sbmlDataId));
       reactionType.setPostTranslationReaction(typeAttributes);
@@ -825,57 +1522,38 @@ public class MESBMLToJson implements MEJsonConstants, MEConstants {
       // add subreations to ProcessData
       LinkedHashMap<String, Double> subreactions =
         new LinkedHashMap<String, Double>();
-      List<XMLNode> subreactionReferences =
-        sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                      .getChildElement(listSubreactionReferences, "*")
-                      .getChildElements(subreactionRef, "*");
-      // iterate over List of Subreaction References
-      for (Iterator<XMLNode> subreactionIter =
-        subreactionReferences.iterator(); subreactionIter.hasNext();) {
-        XMLNode sub = subreactionIter.next();
-        subreactions.put(ConvertSBMLIdToCOBRAId(sub.getAttrValue(subreaction)),
-          Double.valueOf(sub.getAttrValue(stoichiometry)));
+      // iterate over the Subreaction References
+      for (Entry<String, Double> sub : annotation.getSubreactions()
+                                                 .entrySet()) {
+        subreactions.put(ConvertSBMLIdToCOBRAId(sub.getKey()), sub.getValue());
       }
       tempProcessTypeAttributes.setSubreactions(subreactions);
       // add unprocessed Protein
       tempProcessTypeAttributes.setUnprocessed_protein_id(
-        ConvertSBMLIdToCOBRAId(
-          sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                        .getAttrValue(unprocessed)));
+        ConvertSBMLIdToCOBRAId(annotation.getUnprocessedProteinId()));
       // add processed Protein
-      tempProcessTypeAttributes.setProcessed_protein_id(ConvertSBMLIdToCOBRAId(
-        sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                      .getAttrValue(processed)));
-      tempProcessTypeAttributes.setBiomass_type(
-        sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                      .getAttrValue(biomassType));
+      tempProcessTypeAttributes.setProcessed_protein_id(
+        ConvertSBMLIdToCOBRAId(annotation.getProcessedProteinId()));
+      tempProcessTypeAttributes.setBiomass_type(annotation.getBiomassType());
       tempProcessTypeAttributes.setAggregation_propensity(
-        Double.valueOf(sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                                     .getAttrValue(aggregationPropensity)));
+        Double.valueOf(annotation.getAggregationPropensity()));
       tempProcessTypeAttributes.setPropensity_scaling(
-        Double.valueOf(sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                                     .getAttrValue(propensityScaling)));
+        Double.valueOf(annotation.getPropensityScaling()));
       // add Translocations to ProcessData
       LinkedHashMap<String, Double> translocationMultipliers =
         new LinkedHashMap<String, Double>();
       List<String> translocationList = new ArrayList<String>();
-      List<XMLNode> translocationReferences =
-        sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                      .getChildElement(listTranslocationReferences, "*")
-                      .getChildElements(translocationRef, "*");
-      // iterate over List of Translocation References
-      for (Iterator<XMLNode> translocationIter =
-        translocationReferences.iterator(); translocationIter.hasNext();) {
-        XMLNode translocationRef = translocationIter.next();
-        if (Double.valueOf(translocationRef.getAttrValue(multiplier))
-                  .equals(0.0)) {
-          translocationList.add(ConvertSBMLIdToCOBRAId(
-            translocationRef.getAttrValue(translocation)));
+      List<String> translocationIds = annotation.getTranslocationIds();
+      List<Double> multipliers = annotation.getTranslocationMultipliers();
+      // iterate over the Translocation References
+      for (int i = 0; i < translocationIds.size(); i++) {
+        if (multipliers.get(i).equals(0.0)) {
+          translocationList.add(
+            ConvertSBMLIdToCOBRAId(translocationIds.get(i)));
         } else {
           translocationMultipliers.put(
-            ConvertSBMLIdToCOBRAId(
-              translocationRef.getAttrValue(translocation)),
-            Double.valueOf(translocationRef.getAttrValue(multiplier)));
+            ConvertSBMLIdToCOBRAId(translocationIds.get(i)),
+            multipliers.get(i));
         }
       }
       tempProcessTypeAttributes.setTranslocation_multipliers(
@@ -884,58 +1562,40 @@ public class MESBMLToJson implements MEJsonConstants, MEConstants {
       // add EquilibriumConstants to ProcessData
       LinkedHashMap<String, Double> keqFolding =
         new LinkedHashMap<String, Double>();
-      List<XMLNode> EquilibriumConstantReferences =
-        sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                      .getChildElement(listEquilibrium, "*")
-                      .getChildElements(rateConstant, "*");
-      // iterate over List of Equilibrium Constant References
-      for (Iterator<XMLNode> keqIter =
-        EquilibriumConstantReferences.iterator(); keqIter.hasNext();) {
-        XMLNode keqRef = keqIter.next();
-        keqFolding.put(ConvertSBMLIdToCOBRAId(keqRef.getAttrValue(temperature)),
-          Double.valueOf(keqRef.getAttrValue(rate)));
+      // iterate over the Equilibrium Constant References
+      for (Entry<String, Double> keqRef : annotation.getEquilibriumConstants()
+                                                    .entrySet()) {
+        keqFolding.put(ConvertSBMLIdToCOBRAId(keqRef.getKey()),
+          keqRef.getValue());
       }
       tempProcessTypeAttributes.setKeq_folding(keqFolding);
       // add RateConstants to ProcessData
       LinkedHashMap<String, Double> kFolding =
         new LinkedHashMap<String, Double>();
-      List<XMLNode> RateConstantReferences =
-        sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                      .getChildElement(listRateConstant, "*")
-                      .getChildElements(rateConstant, "*");
-      // iterate over List of Rate Constant References
-      for (Iterator<XMLNode> kIter =
-        RateConstantReferences.iterator(); kIter.hasNext();) {
-        XMLNode kRef = kIter.next();
-        kFolding.put(ConvertSBMLIdToCOBRAId(kRef.getAttrValue(temperature)),
-          Double.valueOf(kRef.getAttrValue(rate)));
+      // iterate over the Rate Constant References
+      for (Entry<String, Double> kRef : annotation.getRateConstants()
+                                                  .entrySet()) {
+        kFolding.put(ConvertSBMLIdToCOBRAId(kRef.getKey()), kRef.getValue());
       }
       tempProcessTypeAttributes.setK_folding(kFolding);
       // add surface area to ProcessData
       LinkedHashMap<String, Double> surfaceArea =
         new LinkedHashMap<String, Double>();
-      if (sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                        .hasAttr(surfaceAreaInner)) {
+      if (annotation.getSurfaceAreaInner() != null) {
         surfaceArea.put(saInner,
-          Double.valueOf(sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                                       .getAttrValue(surfaceAreaInner)));
+          Double.valueOf(annotation.getSurfaceAreaInner()));
       }
-      if (sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                        .hasAttr(surfaceAreaOuter)) {
+      if (annotation.getSurfaceAreaOuter() != null) {
         surfaceArea.put(saOuter,
-          Double.valueOf(sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                                       .getAttrValue(surfaceAreaOuter)));
+          Double.valueOf(annotation.getSurfaceAreaOuter()));
       }
       tempProcessTypeAttributes.setSurface_area(surfaceArea);
       tempProcessType.setPostTranslationData(tempProcessTypeAttributes);
       tempProcess.setProcessDataType(tempProcessType);
       processData.add(tempProcess);
     } else if (groupId.equals(complexFormationReaction)) {
-      XMLNode sbmlAnnotation = reaction.getAnnotation().getFullAnnotation();
-      String sbmlDataId = sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                                        .getAttrValue(dataId);
-      String sbmlComplexId = sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                                           .getAttrValue(complexId);
+      String sbmlDataId = annotation.getDataId();
+      String sbmlComplexId = annotation.getComplexId();
       typeAttributes.setComplexDataId(ConvertSBMLIdToCOBRAId(sbmlDataId));
       typeAttributes.setComplexFormationComplexId(
         ConvertSBMLIdToCOBRAId(sbmlComplexId));
@@ -948,30 +1608,19 @@ public class MESBMLToJson implements MEJsonConstants, MEConstants {
       // add subreations to ProcessData
       LinkedHashMap<String, Double> subreactions =
         new LinkedHashMap<String, Double>();
-      List<XMLNode> subreactionReferences =
-        sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                      .getChildElement(listSubreactionReferences, "*")
-                      .getChildElements(subreactionRef, "*");
-      // iterate over List of Subreaction References
-      for (Iterator<XMLNode> subreactionIter =
-        subreactionReferences.iterator(); subreactionIter.hasNext();) {
-        XMLNode sub = subreactionIter.next();
-        subreactions.put(ConvertSBMLIdToCOBRAId(sub.getAttrValue(subreaction)),
-          Double.valueOf(sub.getAttrValue(stoichiometry)));
+      // iterate over the Subreaction References
+      for (Entry<String, Double> sub : annotation.getSubreactions()
+                                                 .entrySet()) {
+        subreactions.put(ConvertSBMLIdToCOBRAId(sub.getKey()), sub.getValue());
       }
       tempProcessTypeAttributes.setSubreactions(subreactions);
       // set stoichiometry in Process Data
       LinkedHashMap<String, Double> stoichiometries =
         new LinkedHashMap<String, Double>();
-      List<XMLNode> stoichiometricReferences =
-        sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                      .getChildElement(listStoichiometricReferences, "*")
-                      .getChildElements(stoichiometricRef, "*");
-      for (Iterator<XMLNode> stoichiometricIter =
-        stoichiometricReferences.iterator(); stoichiometricIter.hasNext();) {
-        XMLNode sto = stoichiometricIter.next();
-        stoichiometries.put(ConvertSBMLIdToCOBRAId(sto.getAttrValue(subunit)),
-          Double.valueOf(sto.getAttrValue(stoichiometry)));
+      for (Entry<String, Double> sto : annotation.getStoichiometries()
+                                                 .entrySet()) {
+        stoichiometries.put(ConvertSBMLIdToCOBRAId(sto.getKey()),
+          sto.getValue());
       }
       tempProcessTypeAttributes.setStoichiometry(stoichiometries);
       // add Complex to Process Data
@@ -981,23 +1630,105 @@ public class MESBMLToJson implements MEJsonConstants, MEConstants {
       tempProcess.setProcessDataType(tempProcessType);
       processData.add(tempProcess);
     } else if (groupId.equals(metabolicReaction)) {
-      XMLNode sbmlAnnotation = reaction.getAnnotation().getFullAnnotation();
-      String sbmlDataId = sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                                        .getAttrValue(dataId);
+      String sbmlDataId = annotation.getDataId();
       typeAttributes.setStoichiometricDataId(
         ConvertSBMLIdToCOBRAId(sbmlDataId));
-      typeAttributes.setMetabolicReactionComplexData(ConvertSBMLIdToCOBRAId(
-        sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                      .getAttrValue(complexId)));
+      typeAttributes.setMetabolicReactionComplexData(
+        ConvertSBMLIdToCOBRAId(annotation.getComplexId()));
       typeAttributes.setKeff(
-        Double.valueOf(sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                                     .getAttrValue(keff)));
+        Double.valueOf(annotation.getKeff()));
       typeAttributes.setReverse(
-        Boolean.valueOf(sbmlAnnotation.getChildElement(reactionPlugin, "*")
-                                      .getAttrValue(reverse)));
+        Boolean.valueOf(annotation.getReverse()));
       reactionType.setMetabolicReaction(typeAttributes);
     }
     jsonReaction.setReactionType(reactionType);
-    return jsonReaction;
+  }
+
+
+  /**
+   * Converts a range of members of a reaction or species group by splitting it
+   * into smaller ranges until these contain at most
+   * {@value #memberTaskThreshold} members. The entry and the process data of
+   * each member are stored at the index of the member in the list.
+   * 
+   * @author Marc A. Voigt
+   */
+  private class MemberConversion extends RecursiveAction {
+
+    /**
+     * 
+     */
+    private static final long             serialVersionUID = 1L;
+    private Model                         model;
+    private MEObjectiveIndex              objectiveIndex;
+    private MEStaxReader                  document;
+    private MESequenceIndex               sequenceIndex;
+    private MESpeciesIndex                speciesIndex;
+    private MEInitialAssignmentIndex      assignmentIndex;
+    private String                        groupId;
+    private List<String>                  memberIds;
+    private Object[]                      entries;
+    private List<List<MEJsonProcessData>> memberData;
+    private int                           start;
+    private int                           end;
+
+
+    public MemberConversion(Model model, MEObjectiveIndex objectiveIndex,
+      MEStaxReader document, MESequenceIndex sequenceIndex,
+      MESpeciesIndex speciesIndex, MEInitialAssignmentIndex assignmentIndex,
+      String groupId, List<String> memberIds, Object[] entries,
+      List<List<MEJsonProcessData>> memberData, int start, int end) {
+      this.model = model;
+      this.objectiveIndex = objectiveIndex;
+      this.document = document;
+      this.sequenceIndex = sequenceIndex;
+      this.speciesIndex = speciesIndex;
+      this.assignmentIndex = assignmentIndex;
+      this.groupId = groupId;
+      this.memberIds = memberIds;
+      this.entries = entries;
+      this.memberData = memberData;
+      this.start = start;
+      this.end = end;
+    }
+
+
+    @Override
+    protected void compute() {
+      if (end - start <= memberTaskThreshold) {
+        boolean reactions = isReactionType(groupId);
+        for (int i = start; i < end; i++) {
+          List<MEJsonProcessData> data =
+            new ArrayList<MEJsonProcessData>(1);
+          String memberId = memberIds.get(i);
+          try {
+            if (document != null) {
+              entries[i] = reactions
+                ? addReaction(document, memberId, data, groupId,
+                  sequenceIndex, speciesIndex)
+                : addMetabolites(document, memberId, sequenceIndex, groupId);
+            } else if (reactions) {
+              entries[i] = addReaction(memberId, model, objectiveIndex, data,
+                groupId, sequenceIndex, speciesIndex, assignmentIndex);
+            } else {
+              entries[i] =
+                addMetabolites(memberId, model, sequenceIndex, groupId);
+            }
+          } catch (IOException e) {
+            throw new RuntimeException(e);
+          }
+          memberData.set(i, data);
+        }
+      } else {
+        int middle = (start + end) >>> 1;
+        invokeAll(
+          new MemberConversion(model, objectiveIndex, document, sequenceIndex,
+            speciesIndex, assignmentIndex, groupId, memberIds, entries,
+            memberData, start, middle),
+          new MemberConversion(model, objectiveIndex, document, sequenceIndex,
+            speciesIndex, assignmentIndex, groupId, memberIds, entries,
+            memberData, middle, end));
+      }
+    }
   }
 }
@@ -0,0 +1,299 @@
+package sbmlme.converter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.Location;
+import org.sbolstandard.core2.OrientationType;
+import org.sbolstandard.core2.Range;
+import org.sbolstandard.core2.SBOLConversionException;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLReader;
+import org.sbolstandard.core2.SBOLValidationException;
+import org.sbolstandard.core2.Sequence;
+import org.sbolstandard.core2.SequenceAnnotation;
+
+import sbmlme.MEArchiveReader;
+
+/**
+ * Index of the sequences of the SBOL document of a SBMLme model by the URIs of
+ * their ComponentDefinitions.
+ * <p>
+ * The SBOL document is only needed for transcribed genes and for
+ * transcription and translation reactions. It is therefore not read before
+ * the first sequence is requested. The document is then read once and the
+ * nucleotide sequence, the first role and the ranges of each
+ * ComponentDefinition are stored in a hash map by its identity and its
+ * persistent identity, so that later requests do not navigate the SBOL
+ * objects. The index is safe to be used by several threads.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+public class MESequenceIndex {
+
+  /**
+   * the SBOL file or the COMBINE archive that contains the SBOL document
+   */
+  private File                        file;
+  /**
+   * whether the file is a COMBINE archive
+   */
+  private boolean                     archive;
+  /**
+   * the sequences by the URIs of their ComponentDefinitions, null until the
+   * SBOL document has been read
+   */
+  private volatile Map<String, IndexEntry> entries;
+  /**
+   * the stream for progress messages, null for no messages
+   */
+  private PrintStream                 log;
+
+
+  /**
+   * Creates an index of the sequences of the given SBOL file or COMBINE
+   * archive. The file is not read before the first request.
+   * 
+   * @param file
+   *        the SBOL file or the COMBINE archive
+   * @param archive
+   *        whether the file is a COMBINE archive
+   */
+  public MESequenceIndex(File file, boolean archive) {
+    this(file, archive, System.out);
+  }
+
+
+  /**
+   * Creates an index of the sequences of the given SBOL file or COMBINE
+   * archive, which reports the reading of the file to the given stream.
+   * 
+   * @param file
+   *        the SBOL file or the COMBINE archive
+   * @param archive
+   *        whether the file is a COMBINE archive
+   * @param log
+   *        the stream for progress messages, null for no messages
+   */
+  public MESequenceIndex(File file, boolean archive, PrintStream log) {
+    this.file = file;
+    this.archive = archive;
+    this.log = log;
+  }
+
+
+  /**
+   * Creates an index of the sequences of an SBOL document that has already
+   * been read.
+   * 
+   * @param sbolDoc
+   *        the SBOL document
+   */
+  public MESequenceIndex(SBOLDocument sbolDoc) {
+    entries = createEntries(sbolDoc);
+  }
+
+
+  /**
+   * Returns the elements of the sequence of the ComponentDefinition with the
+   * given URI.
+   * 
+   * @param uri
+   *        the URI of the ComponentDefinition
+   * @return the nucleotide sequence or null if the ComponentDefinition has no
+   *         sequence
+   * @throws IOException
+   *         if the SBOL document can not be read or does not contain the
+   *         ComponentDefinition
+   */
+  public String getElements(String uri) throws IOException {
+    return getIndexEntry(uri).elements;
+  }
+
+
+  /**
+   * Returns the first role of the ComponentDefinition with the given URI.
+   * 
+   * @param uri
+   *        the URI of the ComponentDefinition
+   * @return the role or null if the ComponentDefinition has no role
+   * @throws IOException
+   *         if the SBOL document can not be read or does not contain the
+   *         ComponentDefinition
+   */
+  public URI getRole(String uri) throws IOException {
+    return getIndexEntry(uri).role;
+  }
+
+
+  /**
+   * Returns the end of the range of the ComponentDefinition with the given URI
+   * and the given display id of the location.
+   * 
+   * @param uri
+   *        the URI of the ComponentDefinition
+   * @param locationId
+   *        the display id of the range, e.g. "geneId_loc"
+   * @return the end of the range
+   * @throws IOException
+   *         if the SBOL document can not be read or does not contain the
+   *         range
+   */
+  public int getRangeEnd(String uri, String locationId) throws IOException {
+    return getRange(uri, locationId).getEnd();
+  }
+
+
+  /**
+   * Returns the orientation of the range of the ComponentDefinition with the
+   * given URI and the given display id of the location.
+   * 
+   * @param uri
+   *        the URI of the ComponentDefinition
+   * @param locationId
+   *        the display id of the range, e.g. "geneId_loc"
+   * @return the orientation or null if it is not set
+   * @throws IOException
+   *         if the SBOL document can not be read or does not contain the
+   *         range
+   */
+  public OrientationType getOrientation(String uri, String locationId)
+    throws IOException {
+    return getRange(uri, locationId).getOrientation();
+  }
+
+
+  private Range getRange(String uri, String locationId) throws IOException {
+    Range range = getIndexEntry(uri).ranges.get(locationId);
+    if (range == null) {
+      throw new IOException("SBOL document contains no range " + locationId
+        + " for " + uri);
+    }
+    return range;
+  }
+
+
+  private IndexEntry getIndexEntry(String uri) throws IOException {
+    IndexEntry entry = getEntries().get(uri);
+    if (entry == null) {
+      throw new IOException(
+        "SBOL document contains no ComponentDefinition " + uri);
+    }
+    return entry;
+  }
+
+
+  /**
+   * Returns the entries of the index and reads the SBOL document on the first
+   * call.
+   */
+  private Map<String, IndexEntry> getEntries() throws IOException {
+    Map<String, IndexEntry> result = entries;
+    if (result == null) {
+      synchronized (this) {
+        result = entries;
+        if (result == null) {
+          if (log != null) {
+            log.println("Read in SBOL document");
+          }
+          result = createEntries(readDocument());
+          entries = result;
+        }
+      }
+    }
+    return result;
+  }
+
+
+  private SBOLDocument readDocument() throws IOException {
+    try {
+      if (!archive) {
+        return SBOLReader.read(file);
+      }
+      MEArchiveReader reader = new MEArchiveReader(file);
+      try {
+        return reader.readSBOL();
+      } finally {
+        reader.close();
+      }
+    } catch (SBOLValidationException e) {
+      throw new IOException("Invalid SBOL document in " + file, e);
+    } catch (SBOLConversionException e) {
+      throw new IOException("Invalid SBOL document in " + file, e);
+    } catch (XMLStreamException e) {
+      throw new IOException("Invalid COMBINE archive " + file, e);
+    }
+  }
+
+
+  /**
+   * Stores the sequence, the role and the ranges of every ComponentDefinition
+   * of the document.
+   */
+  private static Map<String, IndexEntry> createEntries(SBOLDocument sbolDoc) {
+    Map<String, IndexEntry> entries = new HashMap<String, IndexEntry>();
+    for (ComponentDefinition definition : sbolDoc.getComponentDefinitions()) {
+      IndexEntry entry = new IndexEntry();
+      // the set of sequences should only contain one element therefore
+      // the last element is simply used as the nucleotide sequence
+      for (Sequence sequence : definition.getSequences()) {
+        entry.elements = sequence.getElements();
+      }
+      Iterator<URI> roles = definition.getRoles().iterator();
+      if (roles.hasNext()) {
+        entry.role = roles.next();
+      }
+      for (SequenceAnnotation annotation : definition
+        .getSequenceAnnotations()) {
+        for (Location location : annotation.getLocations()) {
+          if (location instanceof Range) {
+            if (entry.ranges.isEmpty()) {
+              entry.ranges = new HashMap<String, Range>();
+            }
+            entry.ranges.put(location.getDisplayId(), (Range) location);
+          }
+        }
+      }
+      entries.put(definition.getIdentity().toString(), entry);
+    }
+    // like SBOLDocument.getComponentDefinition the persistent identity refers
+    // to the latest version
+    for (ComponentDefinition definition : sbolDoc.getComponentDefinitions()) {
+      URI persistentId = definition.getPersistentIdentity();
+      if ((persistentId != null)
+        && !entries.containsKey(persistentId.toString())) {
+        ComponentDefinition latest =
+          sbolDoc.getComponentDefinition(persistentId);
+        entries.put(persistentId.toString(),
+          entries.get(latest.getIdentity().toString()));
+      }
+    }
+    return entries;
+  }
+
+
+  /**
+   * The indexed content of a single ComponentDefinition.
+   * 
+   * @author Marc A. Voigt
+   */
+  private static class IndexEntry {
+
+    private String             elements;
+    private URI                role;
+    /**
+     * the ranges by the display ids of their locations
+     */
+    private Map<String, Range> ranges = Collections.emptyMap();
+  }
+}
@@ -0,0 +1,148 @@
+package sbmlme.converter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.sbml.jsbml.ext.groups.Group;
+import org.sbml.jsbml.ext.groups.GroupsModelPlugin;
+import org.sbml.jsbml.ext.groups.Member;
+
+/**
+ * Index of the COBRAme metabolite types of the species of a SBMLme model.
+ * <p>
+ * SBMLme encodes the type of a species ("TranscribedGene", "RNAP",
+ * "Complex",...) by the classification group the species is a member of. The
+ * index is built in a single pass over the groups of the model and maps each
+ * species id to its type, so that the type of a species can be looked up in
+ * constant time instead of searching the members of the groups.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+public class MESpeciesIndex implements MEJsonConstants {
+
+  /**
+   * ids of the groups that classify species
+   */
+  private static final Set<String> speciesTypes =
+    Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(constraint,
+      complex, metabolite, translatedGene, gentRNA, transcribedGene,
+      genericComponent, processedProtein, ribosome, rnaPolymerase)));
+  /**
+   * type of each species by its id
+   */
+  private Map<String, String>      types;
+  /**
+   * further types of species that are members of more than one group
+   */
+  private Map<String, Set<String>> additionalTypes;
+
+
+  /**
+   * Builds the index from the groups of the given plugin.
+   * 
+   * @param groups
+   *        the GroupsModelPlugin of the SBML model
+   */
+  public MESpeciesIndex(GroupsModelPlugin groups) {
+    types = new HashMap<String, String>();
+    additionalTypes = new HashMap<String, Set<String>>();
+    for (Group group : groups.getListOfGroups()) {
+      String groupId = group.getId();
+      if (!isSpeciesType(groupId)) {
+        continue;
+      }
+      for (Member member : group.getListOfMembers()) {
+        addType(member.getIdRef(), groupId);
+      }
+    }
+  }
+
+
+  /**
+   * Builds the index from the ids of the members of the groups.
+   * 
+   * @param groups
+   *        the ids of the members of each group by the id of the group in the
+   *        order of the model
+   */
+  public MESpeciesIndex(Map<String, List<String>> groups) {
+    types = new HashMap<String, String>();
+    additionalTypes = new HashMap<String, Set<String>>();
+    for (Entry<String, List<String>> group : groups.entrySet()) {
+      String groupId = group.getKey();
+      if (!isSpeciesType(groupId)) {
+        continue;
+      }
+      for (String speciesId : group.getValue()) {
+        addType(speciesId, groupId);
+      }
+    }
+  }
+
+
+  private void addType(String speciesId, String groupId) {
+    String type = types.get(speciesId);
+    if (type == null) {
+      types.put(speciesId, groupId);
+    } else if (!type.equals(groupId)) {
+      Set<String> additional = additionalTypes.get(speciesId);
+      if (additional == null) {
+        additional = new HashSet<String>();
+        additionalTypes.put(speciesId, additional);
+      }
+      additional.add(groupId);
+    }
+  }
+
+
+  /**
+   * Returns whether the group with the given id classifies species.
+   * 
+   * @param groupId
+   *        the id of the group
+   * @return {@code true} if the group id is a COBRAme metabolite type
+   */
+  public static boolean isSpeciesType(String groupId) {
+    return speciesTypes.contains(groupId);
+  }
+
+
+  /**
+   * Returns the type of the species with the given id. If the species is a
+   * member of more than one classification group the first group of the model
+   * is returned.
+   * 
+   * @param speciesId
+   *        the id of the species in SBML
+   * @return the type of the species, e.g. "TranscribedGene", or null if the
+   *         species is not classified
+   */
+  public String getType(String speciesId) {
+    return types.get(speciesId);
+  }
+
+
+  /**
+   * Returns whether the species with the given id is of the given type.
+   * 
+   * @param speciesId
+   *        the id of the species in SBML
+   * @param type
+   *        the type, e.g. "TranscribedGene"
+   * @return {@code true} if the species is a member of the group of the type
+   */
+  public boolean isOfType(String speciesId, String type) {
+    if (type.equals(types.get(speciesId))) {
+      return true;
+    }
+    Set<String> additional = additionalTypes.get(speciesId);
+    return (additional != null) && additional.contains(type);
+  }
+}
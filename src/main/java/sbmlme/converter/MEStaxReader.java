@@ -0,0 +1,1088 @@
+package sbmlme.converter;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.sbml.jsbml.ASTNode;
+import org.sbml.jsbml.util.StringTools;
+
+import sbmlme.IdCodec;
+import sbmlme.MEConstants;
+
+/**
+ * Reads a SBMLme document directly with StAX into the structures needed for
+ * the conversion to a COBRAme JSON file.
+ * <p>
+ * Reading a document with JSBML creates the complete object model including
+ * generic XMLNode trees for every annotation, which are visited only once by
+ * the conversion. This reader visits each element of the document once and
+ * keeps only the species, reactions, flux bound parameters,
+ * InitialAssignments, the flux objectives and the groups of the model. The
+ * "meReactionPlugin" annotations are decoded into
+ * {@link MEReactionAnnotation}s and the process data of the model annotation
+ * directly into {@link MEJsonProcessData}. No SBase or XMLNode objects of
+ * JSBML are created; only the math of the InitialAssignments is built as
+ * {@link ASTNode}, so that the formulas are printed the same way as by the
+ * JSBML path.
+ * </p>
+ * <p>
+ * Ids are kept as they are found in the SBML document, except for the process
+ * data which is already converted to COBRAme ids.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+public class MEStaxReader implements MEJsonConstants, MEConstants {
+
+  /**
+   * ids of the members of each group by the id of the group in the order of
+   * the document
+   */
+  private Map<String, List<String>>        groups;
+  /**
+   * the species by their ids
+   */
+  private Map<String, SpeciesData>         speciesById;
+  /**
+   * the reactions by their ids
+   */
+  private Map<String, ReactionData>        reactionsById;
+  /**
+   * values of the parameters by their ids, null if a parameter has no value
+   */
+  private Map<String, Double>              parameters;
+  /**
+   * COBRAme formulas of the first InitialAssignment of each symbol
+   */
+  private Map<String, String>              formulas;
+  /**
+   * coefficients of the flux objectives by their ids for each objective
+   */
+  private Map<String, Map<String, Double>> objectives;
+  /**
+   * the id of the active objective
+   */
+  private String                           activeObjective;
+  private List<MEJsonProcessData>          subreactions;
+  private List<MEJsonProcessData>          translocations;
+  private List<MEJsonProcessData>          stoichiometries;
+
+
+  /**
+   * Reads the SBMLme document from the given stream. The stream is not
+   * closed.
+   * 
+   * @param stream
+   *        the stream of the SBML document
+   * @throws XMLStreamException
+   *         if the document is not valid XML or contains unsupported MathML
+   */
+  public MEStaxReader(InputStream stream) throws XMLStreamException {
+    groups = new LinkedHashMap<String, List<String>>();
+    speciesById = new HashMap<String, SpeciesData>();
+    reactionsById = new HashMap<String, ReactionData>();
+    parameters = new HashMap<String, Double>();
+    formulas = new HashMap<String, String>();
+    objectives = new HashMap<String, Map<String, Double>>();
+    subreactions = new ArrayList<MEJsonProcessData>();
+    translocations = new ArrayList<MEJsonProcessData>();
+    stoichiometries = new ArrayList<MEJsonProcessData>();
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+    XMLStreamReader reader = factory.createXMLStreamReader(stream);
+    try {
+      while (reader.hasNext()) {
+        if ((reader.next() == XMLStreamConstants.START_ELEMENT)
+          && reader.getLocalName().equals("model")) {
+          readModel(reader);
+          break;
+        }
+      }
+    } finally {
+      reader.close();
+    }
+  }
+
+
+  /**
+   * @return the ids of the members of each group by the id of the group in
+   *         the order of the document
+   */
+  public Map<String, List<String>> getGroups() {
+    return groups;
+  }
+
+
+  /**
+   * @param id
+   *        the id of the species
+   * @return the species or null if the document contains no species with the
+   *         id
+   */
+  public SpeciesData getSpecies(String id) {
+    return speciesById.get(id);
+  }
+
+
+  /**
+   * @param id
+   *        the id of the reaction
+   * @return the reaction or null if the document contains no reaction with
+   *         the id
+   */
+  public ReactionData getReaction(String id) {
+    return reactionsById.get(id);
+  }
+
+
+  /**
+   * @return the number of species in the document
+   */
+  public int getSpeciesCount() {
+    return speciesById.size();
+  }
+
+
+  /**
+   * @return the number of reactions in the document
+   */
+  public int getReactionCount() {
+    return reactionsById.size();
+  }
+
+
+  /**
+   * @param id
+   *        the id of the parameter
+   * @return whether the document contains a parameter with the id
+   */
+  public boolean containsParameter(String id) {
+    return parameters.containsKey(id);
+  }
+
+
+  /**
+   * @param id
+   *        the id of the parameter
+   * @return the value of the parameter or null if it has no value
+   */
+  public Double getParameterValue(String id) {
+    return parameters.get(id);
+  }
+
+
+  /**
+   * Returns the math of the first InitialAssignment of the given symbol as
+   * formula in the syntax of COBRAme, i.e. powers are written as "**".
+   * 
+   * @param symbol
+   *        the id of the parameter or species reference
+   * @return the formula or null if the symbol has no InitialAssignment
+   */
+  public String getFormula(String symbol) {
+    return formulas.get(symbol);
+  }
+
+
+  /**
+   * Returns the coefficient of a flux objective of the active objective.
+   * 
+   * @param id
+   *        the id of the flux objective
+   * @return the coefficient or null if the active objective contains no flux
+   *         objective with the id or the flux objective has no coefficient
+   */
+  public Double getObjectiveCoefficient(String id) {
+    Map<String, Double> coefficients = objectives.get(activeObjective);
+    return coefficients != null ? coefficients.get(id) : null;
+  }
+
+
+  /**
+   * @return the SubreactionData of the model annotation
+   */
+  public List<MEJsonProcessData> getSubreactionData() {
+    return subreactions;
+  }
+
+
+  /**
+   * @return the TranslocationData of the model annotation
+   */
+  public List<MEJsonProcessData> getTranslocationData() {
+    return translocations;
+  }
+
+
+  /**
+   * @return the StoichiometricData of the model annotation
+   */
+  public List<MEJsonProcessData> getStoichiometricData() {
+    return stoichiometries;
+  }
+
+
+  private void readModel(XMLStreamReader reader) throws XMLStreamException {
+    while (nextChild(reader)) {
+      String name = reader.getLocalName();
+      if (name.equals("annotation")) {
+        boolean processDataRead = false;
+        while (nextChild(reader)) {
+          if (!processDataRead
+            && reader.getLocalName().equals(processDataPlugin)) {
+            readProcessData(reader);
+            processDataRead = true;
+          } else {
+            skipElement(reader);
+          }
+        }
+      } else if (name.equals("listOfSpecies")) {
+        while (nextChild(reader)) {
+          readSpecies(reader);
+        }
+      } else if (name.equals("listOfParameters")) {
+        while (nextChild(reader)) {
+          String value = attribute(reader, "value");
+          parameters.put(attribute(reader, "id"),
+            value != null ? Double.valueOf(StringTools.parseSBMLDouble(value))
+              : null);
+          skipElement(reader);
+        }
+      } else if (name.equals("listOfInitialAssignments")) {
+        while (nextChild(reader)) {
+          readInitialAssignment(reader);
+        }
+      } else if (name.equals("listOfReactions")) {
+        while (nextChild(reader)) {
+          readReaction(reader);
+        }
+      } else if (name.equals("listOfObjectives")) {
+        activeObjective = attribute(reader, "activeObjective");
+        while (nextChild(reader)) {
+          readObjective(reader);
+        }
+      } else if (name.equals("listOfGroups")) {
+        while (nextChild(reader)) {
+          readGroup(reader);
+        }
+      } else {
+        skipElement(reader);
+      }
+    }
+  }
+
+
+  private void readSpecies(XMLStreamReader reader) throws XMLStreamException {
+    SpeciesData data = new SpeciesData();
+    data.id = attribute(reader, "id");
+    data.name = attrValue(reader, "name");
+    data.compartment = attrValue(reader, "compartment");
+    data.chemicalFormula = attribute(reader, "chemicalFormula");
+    while (nextChild(reader)) {
+      if (reader.getLocalName().equals("annotation")) {
+        while (nextChild(reader)) {
+          // only the first plugin is used
+          if ((data.sequence == null)
+            && reader.getLocalName().equals(speciesPlugin)) {
+            data.sequence = attrValue(reader, sequence);
+            data.genomePosition = attrValue(reader, genomePos);
+            data.unprocessedProteinId = attrValue(reader, unprocessed);
+          }
+          skipElement(reader);
+        }
+      } else {
+        skipElement(reader);
+      }
+    }
+    speciesById.put(data.id, data);
+  }
+
+
+  private void readReaction(XMLStreamReader reader)
+    throws XMLStreamException {
+    ReactionData data = new ReactionData();
+    data.id = attribute(reader, "id");
+    data.name = attrValue(reader, "name");
+    data.lowerFluxBound = attribute(reader, "lowerFluxBound");
+    data.upperFluxBound = attribute(reader, "upperFluxBound");
+    while (nextChild(reader)) {
+      String name = reader.getLocalName();
+      if (name.equals("annotation")) {
+        while (nextChild(reader)) {
+          if ((data.annotation == null)
+            && reader.getLocalName().equals(reactionPlugin)) {
+            data.annotation = new MEReactionAnnotation(reader);
+          } else {
+            skipElement(reader);
+          }
+        }
+      } else if (name.equals("listOfReactants")) {
+        data.reactants = readSpeciesReferences(reader);
+      } else if (name.equals("listOfProducts")) {
+        data.products = readSpeciesReferences(reader);
+      } else {
+        skipElement(reader);
+      }
+    }
+    if (data.annotation == null) {
+      data.annotation = new MEReactionAnnotation();
+    }
+    reactionsById.put(data.id, data);
+  }
+
+
+  private static List<SpeciesReferenceData> readSpeciesReferences(
+    XMLStreamReader reader) throws XMLStreamException {
+    List<SpeciesReferenceData> references =
+      new ArrayList<SpeciesReferenceData>();
+    while (nextChild(reader)) {
+      SpeciesReferenceData reference = new SpeciesReferenceData();
+      reference.id = attribute(reader, "id");
+      reference.species = attribute(reader, species);
+      String value = attribute(reader, stoichiometry);
+      if (value != null) {
+        reference.stoichiometry =
+          Double.valueOf(StringTools.parseSBMLDouble(value));
+      }
+      references.add(reference);
+      skipElement(reader);
+    }
+    return references;
+  }
+
+
+  private void readInitialAssignment(XMLStreamReader reader)
+    throws XMLStreamException {
+    String symbol = attribute(reader, "symbol");
+    while (nextChild(reader)) {
+      if (reader.getLocalName().equals("math")) {
+        ASTNode math = null;
+        while (nextChild(reader)) {
+          if (math == null) {
+            math = readMathElement(reader);
+          } else {
+            skipElement(reader);
+          }
+        }
+        // like Model.getInitialAssignmentBySymbol use the first assignment
+        if ((math != null) && !formulas.containsKey(symbol)) {
+          formulas.put(symbol, math.toFormula().replace("^", "**"));
+        }
+      } else {
+        skipElement(reader);
+      }
+    }
+  }
+
+
+  private void readObjective(XMLStreamReader reader)
+    throws XMLStreamException {
+    Map<String, Double> coefficients = new HashMap<String, Double>();
+    String objectiveId = attribute(reader, "id");
+    while (nextChild(reader)) {
+      if (reader.getLocalName().equals("listOfFluxObjectives")) {
+        while (nextChild(reader)) {
+          String fluxObjectiveId = attribute(reader, "id");
+          String coefficient = attribute(reader, "coefficient");
+          if (!coefficients.containsKey(fluxObjectiveId)) {
+            coefficients.put(fluxObjectiveId, coefficient != null
+              ? Double.valueOf(StringTools.parseSBMLDouble(coefficient))
+              : null);
+          }
+          skipElement(reader);
+        }
+      } else {
+        skipElement(reader);
+      }
+    }
+    objectives.put(objectiveId, coefficients);
+  }
+
+
+  private void readGroup(XMLStreamReader reader) throws XMLStreamException {
+    String groupId = attribute(reader, "id");
+    List<String> members = new ArrayList<String>();
+    while (nextChild(reader)) {
+      if (reader.getLocalName().equals("listOfMembers")) {
+        while (nextChild(reader)) {
+          members.add(attribute(reader, "idRef"));
+          skipElement(reader);
+        }
+      } else {
+        skipElement(reader);
+      }
+    }
+    groups.put(groupId, members);
+  }
+
+
+  /**
+   * Reads the first list of each kind of process data of the
+   * "meProcessData" annotation.
+   */
+  private void readProcessData(XMLStreamReader reader)
+    throws XMLStreamException {
+    boolean subreactionsRead = false;
+    boolean translocationsRead = false;
+    boolean stoichiometriesRead = false;
+    while (nextChild(reader)) {
+      String name = reader.getLocalName();
+      if (!subreactionsRead && name.equals(listOfSubreactionData)) {
+        while (nextChild(reader)) {
+          if (reader.getLocalName().equals(subreactionData)) {
+            subreactions.add(readSubreactionData(reader));
+          } else {
+            skipElement(reader);
+          }
+        }
+        subreactionsRead = true;
+      } else if (!translocationsRead && name.equals(listOfTranslocationData)) {
+        // the entries of the TranslocationData are "subreactionData" elements
+        while (nextChild(reader)) {
+          if (reader.getLocalName().equals(subreactionData)) {
+            translocations.add(readTranslocationData(reader));
+          } else {
+            skipElement(reader);
+          }
+        }
+        translocationsRead = true;
+      } else if (!stoichiometriesRead
+        && name.equals(listOfStoichiometricData)) {
+        while (nextChild(reader)) {
+          if (reader.getLocalName().equals(stoichiometricData)) {
+            stoichiometries.add(readStoichiometricData(reader));
+          } else {
+            skipElement(reader);
+          }
+        }
+        stoichiometriesRead = true;
+      } else {
+        skipElement(reader);
+      }
+    }
+  }
+
+
+  private static MEJsonProcessData readSubreactionData(XMLStreamReader reader)
+    throws XMLStreamException {
+    MEJsonProcessData processDataEntry = new MEJsonProcessData();
+    MEJsonProcessDataType processDataEntryType = new MEJsonProcessDataType();
+    MEJsonProcessDataTypeAttributes processDataEntryTypeAttributes =
+      new MEJsonProcessDataTypeAttributes();
+    processDataEntry.setId(IdCodec.decode(attrValue(reader, id)));
+    processDataEntryTypeAttributes.setKeff(
+      Double.valueOf(attrValue(reader, keff)));
+    List<String> listEnzymes = new ArrayList<String>();
+    LinkedHashMap<String, Integer> elementContributions =
+      new LinkedHashMap<String, Integer>();
+    StoichiometryReader stoichiometries = new StoichiometryReader();
+    boolean enzymesRead = false;
+    boolean elementsRead = false;
+    while (nextChild(reader)) {
+      String name = reader.getLocalName();
+      if (!enzymesRead && name.equals(listOfEnzymeInformation)) {
+        while (nextChild(reader)) {
+          if (reader.getLocalName().equals(enzymeInformation)) {
+            listEnzymes.add(IdCodec.decode(attrValue(reader, enzymeRef)));
+          }
+          skipElement(reader);
+        }
+        enzymesRead = true;
+      } else if (!elementsRead && name.equals(listOfElementContributions)) {
+        while (nextChild(reader)) {
+          if (reader.getLocalName().equals(elementContribution)) {
+            elementContributions.put(attrValue(reader, element),
+              Integer.valueOf(attrValue(reader, value)));
+          }
+          skipElement(reader);
+        }
+        elementsRead = true;
+      } else {
+        stoichiometries.read(reader);
+      }
+    }
+    processDataEntryTypeAttributes.setEnzyme(listEnzymes);
+    processDataEntryTypeAttributes.setElement_contribution(
+      elementContributions);
+    processDataEntryTypeAttributes.setStoichiometry(
+      stoichiometries.getStoichiometries());
+    processDataEntryType.setSubreactionData(processDataEntryTypeAttributes);
+    processDataEntry.setProcessDataType(processDataEntryType);
+    return processDataEntry;
+  }
+
+
+  private static MEJsonProcessData readTranslocationData(
+    XMLStreamReader reader) throws XMLStreamException {
+    MEJsonProcessData processDataEntry = new MEJsonProcessData();
+    MEJsonProcessDataType processDataEntryType = new MEJsonProcessDataType();
+    MEJsonProcessDataTypeAttributes processDataEntryTypeAttributes =
+      new MEJsonProcessDataTypeAttributes();
+    processDataEntry.setId(IdCodec.decode(attrValue(reader, id)));
+    processDataEntryTypeAttributes.setKeff(
+      Double.valueOf(attrValue(reader, keff)));
+    processDataEntryTypeAttributes.setLength_dependent_energy(
+      Boolean.valueOf(attrValue(reader, lengthDependent)));
+    LinkedHashMap<String, LinkedHashMap<String, Boolean>> enzymeDict =
+      new LinkedHashMap<String, LinkedHashMap<String, Boolean>>();
+    StoichiometryReader stoichiometries = new StoichiometryReader();
+    boolean enzymesRead = false;
+    while (nextChild(reader)) {
+      if (!enzymesRead
+        && reader.getLocalName().equals(listOfEnzymeInformation)) {
+        while (nextChild(reader)) {
+          if (reader.getLocalName().equals(enzymeInformation)) {
+            LinkedHashMap<String, Boolean> dict =
+              new LinkedHashMap<String, Boolean>();
+            dict.put(fixed_keff,
+              Boolean.valueOf(attrValue(reader, fixedkeff)));
+            dict.put(lengthDep,
+              Boolean.valueOf(attrValue(reader, lengthDependent)));
+            enzymeDict.put(IdCodec.decode(attrValue(reader, enzymeRef)),
+              dict);
+          }
+          skipElement(reader);
+        }
+        enzymesRead = true;
+      } else {
+        stoichiometries.read(reader);
+      }
+    }
+    processDataEntryTypeAttributes.setEnzyme_dict(enzymeDict);
+    processDataEntryTypeAttributes.setStoichiometry(
+      stoichiometries.getStoichiometries());
+    processDataEntryType.setTranslocationData(processDataEntryTypeAttributes);
+    processDataEntry.setProcessDataType(processDataEntryType);
+    return processDataEntry;
+  }
+
+
+  private static MEJsonProcessData readStoichiometricData(
+    XMLStreamReader reader) throws XMLStreamException {
+    MEJsonProcessData processDataEntry = new MEJsonProcessData();
+    MEJsonProcessDataType processDataEntryType = new MEJsonProcessDataType();
+    MEJsonProcessDataTypeAttributes processDataEntryTypeAttributes =
+      new MEJsonProcessDataTypeAttributes();
+    processDataEntry.setId(IdCodec.decode(attrValue(reader, id)));
+    processDataEntryTypeAttributes.setLower_bound(
+      Double.valueOf(attrValue(reader, lowerFluxBound)));
+    processDataEntryTypeAttributes.setUpper_bound(
+      Double.valueOf(attrValue(reader, upperFluxBound)));
+    LinkedHashMap<String, Double> subreactions =
+      new LinkedHashMap<String, Double>();
+    StoichiometryReader stoichiometries = new StoichiometryReader();
+    boolean subreactionsRead = false;
+    while (nextChild(reader)) {
+      if (!subreactionsRead
+        && reader.getLocalName().equals(listSubreactionReferences)) {
+        while (nextChild(reader)) {
+          if (reader.getLocalName().equals(subreactionRef)) {
+            subreactions.put(IdCodec.decode(attrValue(reader, subreaction)),
+              Double.valueOf(attrValue(reader, stoichiometry)));
+          }
+          skipElement(reader);
+        }
+        subreactionsRead = true;
+      } else {
+        stoichiometries.read(reader);
+      }
+    }
+    processDataEntryTypeAttributes.setSubreactions(subreactions);
+    processDataEntryTypeAttributes.set_stoichiometry(
+      stoichiometries.getStoichiometries());
+    processDataEntryType.setStoichiometricData(processDataEntryTypeAttributes);
+    processDataEntry.setProcessDataType(processDataEntryType);
+    return processDataEntry;
+  }
+
+
+  /**
+   * Reads a MathML element into an {@link ASTNode} the same way as the MathML
+   * parser of JSBML does for the elements used by SBMLme.
+   */
+  private static ASTNode readMathElement(XMLStreamReader reader)
+    throws XMLStreamException {
+    String name = reader.getLocalName();
+    ASTNode node;
+    if (name.equals("apply")) {
+      node = null;
+      while (nextChild(reader)) {
+        if (node != null) {
+          addMathChild(node, reader);
+        } else if (reader.getLocalName().equals("ci")) {
+          // the call of a function definition
+          node = new ASTNode(ASTNode.Type.FUNCTION);
+          node.setName(readText(reader).trim());
+        } else {
+          node = readMathElement(reader);
+        }
+      }
+      if (node == null) {
+        throw new XMLStreamException("Empty MathML apply element",
+          reader.getLocation());
+      }
+    } else if (name.equals("cn")) {
+      node = readNumber(reader);
+    } else if (name.equals("ci")) {
+      node = new ASTNode();
+      node.setType(name);
+      node.setName(readText(reader).trim());
+    } else if (name.equals("csymbol")) {
+      node = readSymbol(reader);
+    } else {
+      node = new ASTNode();
+      node.setType(name);
+      if (node.getType() == ASTNode.Type.UNKNOWN) {
+        throw new XMLStreamException("Unsupported MathML element " + name,
+          reader.getLocation());
+      }
+      while (nextChild(reader)) {
+        addMathChild(node, reader);
+      }
+    }
+    return node;
+  }
+
+
+  /**
+   * Adds the current MathML element to the given node. Elements that only
+   * group arguments, like "piece" or "bvar", add their children directly.
+   */
+  private static void addMathChild(ASTNode parent, XMLStreamReader reader)
+    throws XMLStreamException {
+    String name = reader.getLocalName();
+    if (name.equals("piece") || name.equals("otherwise") || name.equals("bvar")
+      || name.equals("degree") || name.equals("logbase")
+      || name.equals("semantics")) {
+      while (nextChild(reader)) {
+        addMathChild(parent, reader);
+      }
+    } else if (name.equals("annotation") || name.equals("annotation-xml")) {
+      // semantic annotations are not part of the formula
+      skipElement(reader);
+    } else {
+      parent.addChild(readMathElement(reader));
+    }
+  }
+
+
+  private static ASTNode readNumber(XMLStreamReader reader)
+    throws XMLStreamException {
+    ASTNode node = new ASTNode();
+    node.setType("cn");
+    String type = attribute(reader, "type");
+    if (type != null) {
+      if (type.equalsIgnoreCase("integer")) {
+        node.setType(ASTNode.Type.INTEGER);
+      } else if (type.equalsIgnoreCase("e-notation")) {
+        node.setType(ASTNode.Type.REAL_E);
+      } else if (type.equalsIgnoreCase("rational")) {
+        node.setType(ASTNode.Type.RATIONAL);
+      }
+    }
+    // e-notation and rational numbers are separated by a "sep" element
+    StringBuilder first = new StringBuilder();
+    StringBuilder second = new StringBuilder();
+    StringBuilder text = first;
+    int depth = 0;
+    while (depth >= 0) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        depth++;
+        text = second;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      } else if ((event == XMLStreamConstants.CHARACTERS)
+        || (event == XMLStreamConstants.CDATA)) {
+        text.append(reader.getText());
+      }
+    }
+    if (node.isInteger()) {
+      node.setValue(StringTools.parseSBMLInt(first.toString().trim()));
+    } else if (node.isRational()) {
+      node.setValue(StringTools.parseSBMLInt(first.toString().trim()),
+        StringTools.parseSBMLInt(second.toString().trim()));
+    } else if (node.getType() == ASTNode.Type.REAL_E) {
+      node.setValue(StringTools.parseSBMLDouble(first.toString().trim()),
+        StringTools.parseSBMLInt(second.toString().trim()));
+    } else {
+      node.setValue(Double.valueOf(first.toString().trim()));
+    }
+    return node;
+  }
+
+
+  private static ASTNode readSymbol(XMLStreamReader reader)
+    throws XMLStreamException {
+    String definition = attribute(reader, "definitionURL");
+    ASTNode node = new ASTNode();
+    if (definition == null) {
+      throw new XMLStreamException("MathML csymbol without definitionURL",
+        reader.getLocation());
+    } else if (definition.endsWith("/time")) {
+      node.setType(ASTNode.Type.NAME_TIME);
+    } else if (definition.endsWith("/avogadro")) {
+      node.setType(ASTNode.Type.NAME_AVOGADRO);
+    } else if (definition.endsWith("/delay")) {
+      node.setType(ASTNode.Type.FUNCTION_DELAY);
+    } else if (definition.endsWith("/rateOf")) {
+      node.setType(ASTNode.Type.FUNCTION_RATE_OF);
+    } else {
+      throw new XMLStreamException("Unsupported MathML csymbol " + definition,
+        reader.getLocation());
+    }
+    node.setDefinitionURL(definition);
+    node.setName(readText(reader).trim());
+    return node;
+  }
+
+
+  /**
+   * Moves the reader to the next child element of the current element.
+   * 
+   * @return {@code true} if the reader is at the start of a child element,
+   *         {@code false} if it is at the end of the current element
+   */
+  static boolean nextChild(XMLStreamReader reader)
+    throws XMLStreamException {
+    while (reader.hasNext()) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        return true;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        return false;
+      }
+    }
+    return false;
+  }
+
+
+  /**
+   * Moves the reader to the end of the current element.
+   */
+  static void skipElement(XMLStreamReader reader)
+    throws XMLStreamException {
+    int depth = 0;
+    while (depth >= 0) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        depth++;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      }
+    }
+  }
+
+
+  /**
+   * Returns the text of the current element and moves the reader to its end.
+   */
+  private static String readText(XMLStreamReader reader)
+    throws XMLStreamException {
+    StringBuilder text = new StringBuilder();
+    int depth = 0;
+    while (depth >= 0) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        depth++;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      } else if ((event == XMLStreamConstants.CHARACTERS)
+        || (event == XMLStreamConstants.CDATA)) {
+        text.append(reader.getText());
+      }
+    }
+    return text.toString();
+  }
+
+
+  /**
+   * Returns the value of the attribute with the given local name of the
+   * current element, regardless of its namespace.
+   * 
+   * @return the value or null if the element has no such attribute
+   */
+  static String attribute(XMLStreamReader reader, String localName) {
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      if (reader.getAttributeLocalName(i).equals(localName)) {
+        return reader.getAttributeValue(i);
+      }
+    }
+    return null;
+  }
+
+
+  /**
+   * Returns the value of the attribute with the given local name of the
+   * current element like {@code XMLNode.getAttrValue}.
+   * 
+   * @return the value or an empty string if the element has no such attribute
+   */
+  static String attrValue(XMLStreamReader reader, String localName) {
+    String attributeValue = attribute(reader, localName);
+    return attributeValue != null ? attributeValue : "";
+  }
+
+
+  /**
+   * Collects the stoichiometries of the first list of reactants and products
+   * of a process data entry. Reactants are stored with negative values and
+   * before the products, as COBRAme has a single list for both.
+   * 
+   * @author Marc A. Voigt
+   */
+  private static class StoichiometryReader {
+
+    private List<String[]> reactants;
+    private List<String[]> products;
+
+
+    /**
+     * Reads the current element if it is the first list of reactants or
+     * products, skips it otherwise.
+     */
+    public void read(XMLStreamReader reader) throws XMLStreamException {
+      String name = reader.getLocalName();
+      if ((reactants == null) && name.equals(listOfReactants)) {
+        reactants = readReferences(reader);
+      } else if ((products == null) && name.equals(listOfProducts)) {
+        products = readReferences(reader);
+      } else {
+        skipElement(reader);
+      }
+    }
+
+
+    private static List<String[]> readReferences(XMLStreamReader reader)
+      throws XMLStreamException {
+      List<String[]> references = new ArrayList<String[]>();
+      while (nextChild(reader)) {
+        if (reader.getLocalName().equals(speciesRef)) {
+          references.add(new String[] {attrValue(reader, species),
+            attrValue(reader, stoichiometry)});
+        }
+        skipElement(reader);
+      }
+      return references;
+    }
+
+
+    public LinkedHashMap<String, Double> getStoichiometries() {
+      LinkedHashMap<String, Double> stoichiometries =
+        new LinkedHashMap<String, Double>();
+      if (reactants != null) {
+        for (String[] reference : reactants) {
+          stoichiometries.put(IdCodec.decode(reference[0]),
+            Double.valueOf(reference[1]) * -1);
+        }
+      }
+      if (products != null) {
+        for (String[] reference : products) {
+          stoichiometries.put(IdCodec.decode(reference[0]),
+            Double.valueOf(reference[1]));
+        }
+      }
+      return stoichiometries;
+    }
+  }
+
+
+  /**
+   * A species of the SBMLme document.
+   * 
+   * @author Marc A. Voigt
+   */
+  public static class SpeciesData {
+
+    private String id;
+    private String name;
+    private String compartment;
+    private String chemicalFormula;
+    private String sequence;
+    private String genomePosition;
+    private String unprocessedProteinId;
+
+
+    /**
+     * @return the id of the species
+     */
+    public String getId() {
+      return id;
+    }
+
+
+    /**
+     * @return the name of the species or an empty string if it is not set
+     */
+    public String getName() {
+      return name;
+    }
+
+
+    /**
+     * @return the compartment of the species or an empty string if it is not
+     *         set
+     */
+    public String getCompartment() {
+      return compartment;
+    }
+
+
+    /**
+     * @return the FBC chemical formula or null if it is not set
+     */
+    public String getChemicalFormula() {
+      return chemicalFormula;
+    }
+
+
+    /**
+     * @return the URI of the sequence of the "speciesPlugin" annotation or
+     *         null if the species has no such annotation
+     */
+    public String getSequence() {
+      return sequence;
+    }
+
+
+    /**
+     * @return the genome position of the "speciesPlugin" annotation or null
+     *         if the species has no such annotation
+     */
+    public String getGenomePosition() {
+      return genomePosition;
+    }
+
+
+    /**
+     * @return the id of the unprocessed protein of the "speciesPlugin"
+     *         annotation or null if the species has no such annotation
+     */
+    public String getUnprocessedProteinId() {
+      return unprocessedProteinId;
+    }
+  }
+
+
+  /**
+   * A reaction of the SBMLme document.
+   * 
+   * @author Marc A. Voigt
+   */
+  public static class ReactionData {
+
+    private String                     id;
+    private String                     name;
+    private String                     lowerFluxBound;
+    private String                     upperFluxBound;
+    private MEReactionAnnotation       annotation;
+    private List<SpeciesReferenceData> reactants =
+      Collections.emptyList();
+    private List<SpeciesReferenceData> products  =
+      Collections.emptyList();
+
+
+    /**
+     * @return the id of the reaction
+     */
+    public String getId() {
+      return id;
+    }
+
+
+    /**
+     * @return the name of the reaction or an empty string if it is not set
+     */
+    public String getName() {
+      return name;
+    }
+
+
+    /**
+     * @return the id of the parameter of the lower flux bound
+     */
+    public String getLowerFluxBound() {
+      return lowerFluxBound;
+    }
+
+
+    /**
+     * @return the id of the parameter of the upper flux bound
+     */
+    public String getUpperFluxBound() {
+      return upperFluxBound;
+    }
+
+
+    /**
+     * @return the decoded "meReactionPlugin" annotation
+     */
+    public MEReactionAnnotation getAnnotation() {
+      return annotation;
+    }
+
+
+    /**
+     * @return the reactants in the order of the document
+     */
+    public List<SpeciesReferenceData> getReactants() {
+      return reactants;
+    }
+
+
+    /**
+     * @return the products in the order of the document
+     */
+    public List<SpeciesReferenceData> getProducts() {
+      return products;
+    }
+  }
+
+
+  /**
+   * A species reference of a reaction of the SBMLme document.
+   * 
+   * @author Marc A. Voigt
+   */
+  public static class SpeciesReferenceData {
+
+    private String id;
+    private String species;
+    private Double stoichiometry;
+
+
+    /**
+     * @return the id of the species reference
+     */
+    public String getId() {
+      return id;
+    }
+
+
+    /**
+     * @return the id of the referenced species
+     */
+    public String getSpecies() {
+      return species;
+    }
+
+
+    /**
+     * @return the stoichiometry or null if it is given by an
+     *         InitialAssignment
+     */
+    public Double getStoichiometry() {
+      return stoichiometry;
+    }
+  }
+}
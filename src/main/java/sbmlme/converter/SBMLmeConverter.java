@@ -1,7 +1,15 @@
 package sbmlme.converter;
 
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
 
 import javax.xml.stream.XMLStreamException;
 import javax.xml.transform.TransformerException;
@@ -13,6 +21,8 @@ import org.sbolstandard.core2.SBOLConversionException;
 import org.sbolstandard.core2.SBOLValidationException;
 
 import de.unirostock.sems.cbarchive.CombineArchiveException;
+import sbmlme.MEConstants;
+import sbmlme.MEMetrics;
 
 /**
  * Contains the main method for the bidirectional conversion between an SBMLme
@@ -31,17 +41,45 @@ import de.unirostock.sems.cbarchive.CombineArchiveException;
  * <p>
  * The conversion from SBML to JSON has two additional required options:
  * 'direction' to set the direction to SBML to JSON and 'sbol' which is given
- * the path to the SBOL file of the model.
+ * the path to the SBOL file of the model. The 'sbol' option is not needed if
+ * the input is the COMBINE archive (.zip) created by the conversion from JSON
+ * to SBML, the SBML and SBOL documents are then read from the archive.
+ * </p>
+ * There are four optional options: 'tidy' to indicate that the output file(s)
+ * should contain additional intends to be easier readable by humans,
+ * 'validation' to validate the created SBML model, 'streaming' to build the
+ * SBML model while the JSON file is read, or to read the SBML document with
+ * StAX instead of JSBML respectively, and 'parallel' to prepare the
+ * reactions of the SBML model, or to convert the reactions and metabolites to
+ * JSON respectively, on all available processors.
+ * <p>
+ * With the 'batch' option several models are converted in one JVM: the
+ * 'input' option is then a directory with COBRAme JSON files or COMBINE
+ * archives, depending on the 'direction', or a manifest file with one input
+ * file per line, and the 'output' option is the directory of the converted
+ * files. The models are named like their JSON files, so the 'model' option is
+ * not needed. The 'workers' option sets the number of files which are
+ * converted at the same time, by default the number of available
+ * processors. A report with the status and the duration of each conversion
+ * is written to the output directory.
+ * </p>
+ * <p>
+ * With the 'metrics' option the duration, the allocated memory and the number
+ * of processed elements of each phase of a conversion, as well as the number
+ * of formula parses, regular expression fallbacks and created SBOL objects,
+ * are written as JSON next to the output, e.g. "output_metrics.json".
  * </p>
- * There are two optional options: 'tidy' to indicate that the output file(s)
- * should contain additional intends to be easier readable by humans and
- * 'validation' to validate the created SBML model.
  * 
  * @author Marc A. Voigt
  */
 @SuppressWarnings("restriction")
 public class SBMLmeConverter {
 
+  /**
+   * the suffix of the file name of the metrics report
+   */
+  static final String metricsSuffix = "_metrics.json";
+
   public static void main(String[] args) throws XMLStreamException, IOException,
     SBOLValidationException, SBOLConversionException, SBMLException,
     org.sbml.jsbml.text.parser.ParseException, JDOMException,
@@ -50,7 +88,7 @@ public class SBMLmeConverter {
     // create command line arguments
     Options options = new Options();
     Option input = new Option("i", "input", true,
-      "(required) input file path of SBML file or COBRAme JSON file containing the model");
+      "(required) input file path of SBML file, COMBINE archive or COBRAme JSON file containing the model");
     input.setRequired(true);
     Option model =
       new Option("m", "model", true, "name to be used for the SBML model");
@@ -58,7 +96,7 @@ public class SBMLmeConverter {
     options.addOption(model);
     options.addOption(input);
     Option sbol = new Option("s", "sbol", true,
-      "input file path of SBOL file when converting from SBML to JSON");
+      "input file path of SBOL file when converting from SBML to JSON, not needed for a COMBINE archive");
     sbol.setRequired(false);
     options.addOption(sbol);
     Option direction = new Option("d", "direction", false,
@@ -73,6 +111,30 @@ public class SBMLmeConverter {
       "Flag to be used if the created files should be printed with intends for easier reading");
     tidy.setRequired(false);
     options.addOption(tidy);
+    Option streaming = new Option("l", "streaming", false,
+      "Flag to be used if the SBML model should be built while the JSON file is read, or the SBML file should be read without JSBML, to reduce the memory footprint");
+    streaming.setRequired(false);
+    options.addOption(streaming);
+    Option parallel = new Option("p", "parallel", false,
+      "Flag to be used if the reactions should be converted in parallel");
+    parallel.setRequired(false);
+    options.addOption(parallel);
+    Option sparse = new Option("f", "sparse", false,
+      "Flag to be used if flux objectives should only be written for reactions with an objective coefficient other than 0, missing flux objectives are read as 0");
+    sparse.setRequired(false);
+    options.addOption(sparse);
+    Option batch = new Option("b", "batch", false,
+      "Flag to be used if the input is a directory or a manifest file with one input file per line and the output is a directory");
+    batch.setRequired(false);
+    options.addOption(batch);
+    Option workers = new Option("w", "workers", true,
+      "number of files converted at the same time in batch mode, default is the number of available processors");
+    workers.setRequired(false);
+    options.addOption(workers);
+    Option metrics = new Option("r", "metrics", false,
+      "Flag to be used if a JSON report with the duration, allocated memory and processed elements of each phase should be written next to the output");
+    metrics.setRequired(false);
+    options.addOption(metrics);
     Option output = new Option("o", "output", true,
       "(required) output path of SBML file or COBRAme JSON file containing the model (file endings will be added autmatically)");
     output.setRequired(true);
@@ -95,6 +157,12 @@ public class SBMLmeConverter {
     Boolean validate = false;
     Boolean tidyPrint = false;
     Boolean conversionDirection = false;
+    Boolean streamingMode = false;
+    Boolean parallelMode = false;
+    Boolean sparseObjective = false;
+    Boolean batchMode = false;
+    Boolean metricsReport = false;
+    int workerCount = Runtime.getRuntime().availableProcessors();
     String sbolFile = "";
     // if direction of conversion is SBML/SBOL to JSON set true
     if (cmd.hasOption("direction")) {
@@ -106,6 +174,33 @@ public class SBMLmeConverter {
     if (cmd.hasOption("tidy")) {
       tidyPrint = true;
     }
+    if (cmd.hasOption("streaming")) {
+      streamingMode = true;
+    }
+    if (cmd.hasOption("parallel")) {
+      parallelMode = true;
+    }
+    if (cmd.hasOption("sparse")) {
+      sparseObjective = true;
+    }
+    if (cmd.hasOption("metrics")) {
+      metricsReport = true;
+    }
+    if (cmd.hasOption("batch")) {
+      batchMode = true;
+    }
+    if (cmd.hasOption("workers")) {
+      try {
+        workerCount = Integer.parseInt(cmd.getOptionValue("workers"));
+      } catch (NumberFormatException e) {
+        workerCount = 0;
+      }
+      if (workerCount < 1) {
+        System.out.println("The number of workers needs to be positive");
+        System.exit(1);
+        return;
+      }
+    }
     if (cmd.hasOption("sbol")) {
       sbolFile = cmd.getOptionValue("sbol");
     }
@@ -113,9 +208,12 @@ public class SBMLmeConverter {
       modelName = cmd.getOptionValue("model");
     }
     // check inputs for validity
-    if (conversionDirection && sbolFile.equals("")) {
+    boolean archiveInput = inputFile.endsWith(MEConstants.archiveExtension);
+    if (batchMode) {
+      // the inputs and the names of the models are given by the files
+    } else if (conversionDirection && sbolFile.equals("") && !archiveInput) {
       System.out.println(
-        "A SBOL file is required when converting from SBML to JSON");
+        "A SBOL file or a COMBINE archive is required when converting from SBML to JSON");
       System.exit(1);
       return;
     } else if (!conversionDirection && modelName.equals("")) {
@@ -125,10 +223,63 @@ public class SBMLmeConverter {
     }
     // convert file
     long startTime = System.nanoTime();
-    if (conversionDirection) {
-      new MESBMLToJson(inputFile, sbolFile, outputFile, tidyPrint);
+    MEConverterOptions converterOptions = new MEConverterOptions();
+    converterOptions.setModelName(modelName);
+    converterOptions.setValidation(validate);
+    converterOptions.setTidy(tidyPrint);
+    converterOptions.setStreaming(streamingMode);
+    converterOptions.setParallel(parallelMode);
+    converterOptions.setSparseObjective(sparseObjective);
+    converterOptions.setMetrics(metricsReport);
+    // the messages of parallel conversions would be interleaved
+    converterOptions.setLog(batchMode ? null : System.out);
+    MEConverter converter = new MEConverter(converterOptions);
+    if (batchMode) {
+      List<Path> inputs =
+        MEBatchConverter.readInputs(Paths.get(inputFile), conversionDirection);
+      List<MEBatchConverter.Result> results;
+      try {
+        results = new MEBatchConverter(converter, workerCount, System.out)
+          .convert(inputs, Paths.get(outputFile), conversionDirection);
+      } catch (IllegalArgumentException e) {
+        System.out.println(e.getMessage());
+        System.exit(1);
+        return;
+      }
+      for (MEBatchConverter.Result result : results) {
+        if (!result.isSuccess()) {
+          System.exit(1);
+          return;
+        }
+      }
+    } else if (conversionDirection) {
+      MEMetrics conversionMetrics;
+      OutputStream stream = new BufferedOutputStream(
+        new FileOutputStream(outputFile + ".json"));
+      try {
+        if (sbolFile.equals("")) {
+          conversionMetrics =
+            converter.convertArchiveToJSON(Paths.get(inputFile), stream);
+        } else {
+          conversionMetrics = converter.convertToJSON(Paths.get(inputFile),
+            Paths.get(sbolFile), stream);
+        }
+      } finally {
+        stream.close();
+      }
+      writeMetrics(conversionMetrics, outputFile);
     } else {
-      new MEJsonToSBML(inputFile, outputFile, modelName, validate, tidyPrint);
+      MEDocuments documents = converter.convertToSBML(Paths.get(inputFile));
+      // the validation errors have been printed by the converter
+      if (validate) {
+        byte[] byteWrite = documents.getSBMLDocument().getErrorLog()
+          .getValidationErrors().toString().getBytes(StandardCharsets.UTF_8);
+        Files.write(Paths.get(outputFile + "_validationErrors.txt"),
+          byteWrite);
+      }
+      converter.writeArchive(documents,
+        Paths.get(outputFile + MEConstants.archiveExtension));
+      writeMetrics(documents.getMetrics(), outputFile);
     }
     long endTime = System.nanoTime();
     long duration = (endTime - startTime) / 1000000;
@@ -136,4 +287,23 @@ public class SBMLmeConverter {
     System.out.println(
       "Finished conversion after " + String.valueOf(stopped) + " seconds.");
   }
+
+
+  /**
+   * Writes the metrics of a conversion to "output_metrics.json" if there are
+   * any.
+   */
+  private static void writeMetrics(MEMetrics metrics, String outputFile)
+    throws IOException {
+    if (metrics == null) {
+      return;
+    }
+    OutputStream stream = new BufferedOutputStream(
+      new FileOutputStream(outputFile + metricsSuffix));
+    try {
+      metrics.writeReport(stream);
+    } finally {
+      stream.close();
+    }
+  }
 }
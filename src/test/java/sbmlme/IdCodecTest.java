@@ -0,0 +1,93 @@
+package sbmlme;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ * Tests that {@link IdCodec} translates ids exactly like the replace chains
+ * it replaced.
+ * 
+ * @author Marc A. Voigt
+ */
+public class IdCodecTest {
+
+  private static final String[] ids = {"", "atp_c", "h2o_c", "1", "2pg_c",
+    "9-cis-retinal", "RNA_b0001", "protein_b0001:Fe2", "CPLX0-7000",
+    "a/b/c", "EX_glc__D_e", ":", "-", "/", "::--//", "_", "__me", "__me__",
+    "me__", "__meCOLONme__", "__meMINUSme__", "__meSLASHme__",
+    "__meSTARTme__", "1__meSTARTme__", "__meCOLON", "__meMINUS-me__",
+    "__meMINUSme__meCOLONme__", "__meSTARTme__meSLASHme__",
+    "__meCOL__meSTARTme__ONme__", "__meCOLONme__meCOLONme__",
+    "__meCOLONme____meCOLONme__", "x__meSTARTme__", "0__me:__me-__me/",
+    "formation_CPLX0-7000:mod_4fe4s", "RNA_b0001-2/3:4", "\u00e9-\u00fc",
+    "\u0663abc"};
+
+
+  /**
+   * the COBRA to SBML id conversion before {@link IdCodec}, copied verbatim
+   */
+  private static String createSBMLConformId(String id) {
+    id = id.replace(":", "__meCOLONme__");
+    id = id.replace("-", "__meMINUSme__");
+    id = id.replace("/", "__meSLASHme__");
+    if (id.matches("^\\d.*")) {
+      id = "__meSTARTme__" + id;
+    }
+    return id;
+  }
+
+
+  /**
+   * the SBML to COBRA id conversion before {@link IdCodec}, copied verbatim
+   */
+  private static String ConvertSBMLIdToCOBRAId(String id) {
+    id = id.replaceAll("__meCOLONme__", ":");
+    id = id.replaceAll("__meMINUSme__", "-");
+    id = id.replaceAll("__meSLASHme__", "/");
+    id = id.replaceAll("__meSTARTme__", "");
+    return id;
+  }
+
+
+  @Test
+  public void encodeMatchesReplaceChain() {
+    for (String id : ids) {
+      assertEquals(id, createSBMLConformId(id), IdCodec.encode(id));
+      // the cached translation is the same
+      assertEquals(id, createSBMLConformId(id), IdCodec.encode(id));
+    }
+  }
+
+
+  @Test
+  public void decodeMatchesReplaceChain() {
+    for (String id : ids) {
+      assertEquals(id, ConvertSBMLIdToCOBRAId(id), IdCodec.decode(id));
+      String sbmlId = createSBMLConformId(id);
+      assertEquals(sbmlId, ConvertSBMLIdToCOBRAId(sbmlId),
+        IdCodec.decode(sbmlId));
+    }
+  }
+
+
+  @Test
+  public void idsWithoutPlaceholdersRoundTrip() {
+    String[] plain = {"atp_c", "9-cis-retinal", "protein_b0001:Fe2",
+      "RNA_b0001-2/3:4", "2pg_c"};
+    for (String id : plain) {
+      assertEquals(id, IdCodec.decode(IdCodec.encode(id)));
+    }
+  }
+
+
+  @Test
+  public void unchangedIdsAreNotCopied() {
+    // ids that no other test translates, so that they are not cached yet
+    String id = "unchanged_" + System.nanoTime();
+    assertSame(id, IdCodec.encode(id));
+    String other = "undecoded_" + System.nanoTime();
+    assertSame(other, IdCodec.decode(other));
+  }
+}
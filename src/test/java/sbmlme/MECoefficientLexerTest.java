@@ -0,0 +1,117 @@
+package sbmlme;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests that {@link MECoefficientLexer} classifies coefficients and finds
+ * their parameters exactly like the regular expressions it replaced.
+ * 
+ * @author Marc A. Voigt
+ */
+public class MECoefficientLexerTest {
+
+  private static final String[] coefficients = {"-1", "1", "2.0", "-0.5",
+    "1.", "-1.", ".5", "-.5", "--1", "1..0", "+1", " 1", "-1 ", "1.0E-5",
+    "-4.27350427350427e-6*mu", "mu", "-0.000116266666666667*mu",
+    "0.01*mu + 0.02", "-(mu*2 + 3)", "-1/(mu + 0.5)",
+    "-(0.000116266666666667*mu + 3.3e-5)", "-2.34405624e-5*mu - 0.0001",
+    "-1.0*(mu*0.0036363636 + 0.000954)", "kt*mu/(mu + r0*kt)", "-1337.0",
+    "-(mu/(0.0001*mu + 0.000116))*1.5", " -mu", "( -mu)", "(( - mu))",
+    "((mu))", "(-", "(", "-", "", " ", "m u*2", "mu*mu + mu", "mu**2",
+    "mu^2", "1e5*mu", "2*3", "k_1*mu_max", "_", "\u00e9*mu", "\u0663*mu",
+    "mu\t+ 1", "\tmu", "-\tmu", "mu_1.5", "(mu)(kt)", "-1337.0*"};
+
+
+  /**
+   * Returns the kind of the coefficient followed by its parameters, as
+   * {@link MEReactionPlugin#addCOBRAmeSpeciesToFragment(MEReactionFragment, String, String)}
+   * and the {@link MECoefficientFormula} determined them before
+   * {@link MECoefficientLexer}, copied verbatim.
+   */
+  private static List<String> regex(String coefficient) {
+    List<String> result = new ArrayList<String>();
+    // Is coefficient integer or double
+    if (coefficient.matches("-?\\d+\\.?\\d*")) {
+      result.add(MECoefficientLexer.Kind.NUMERIC.name());
+      return result;
+    }
+    String expression = coefficient.replace(" ", "");
+    // search for new parameter ids
+    List<String> parameterSearch = Arrays.asList(
+      expression.split("(?<=[-+*/\\(\\)])|(?=[-+*/\\(\\)])"));
+    List<String> tempParameters = new ArrayList<String>();
+    for (int i = 0; i < parameterSearch.size(); i++) {
+      // if element contains word characters and does not match an Integer
+      if ((parameterSearch.get(i).matches("\\w+"))
+        && !(parameterSearch.get(i).matches("\\d+"))
+        && !tempParameters.contains(parameterSearch.get(i))) {
+        tempParameters.add(parameterSearch.get(i));
+      }
+    }
+    // check the first character that is not an opening bracket, for minus to
+    // decide between reactant and product
+    int i = 0;
+    while ((i < expression.length()) && (expression.charAt(i) == '(')) {
+      i++;
+    }
+    boolean reactant =
+      (i < expression.length()) && (expression.charAt(i) == '-');
+    result.add(reactant ? MECoefficientLexer.Kind.SYMBOLIC_NEGATIVE.name()
+      : MECoefficientLexer.Kind.SYMBOLIC_POSITIVE.name());
+    result.addAll(tempParameters);
+    return result;
+  }
+
+
+  /**
+   * Returns the kind of the coefficient followed by its parameters, as the
+   * {@link MECoefficientFormula} determines them with the lexer.
+   */
+  private static List<String> lexer(String coefficient) {
+    List<String> result = new ArrayList<String>();
+    MECoefficientLexer.Kind kind = MECoefficientLexer.classify(coefficient);
+    result.add(kind.name());
+    if (kind != MECoefficientLexer.Kind.NUMERIC) {
+      result.addAll(MECoefficientLexer.findParameters(
+        MECoefficientLexer.removeSpaces(coefficient)));
+    }
+    return result;
+  }
+
+
+  @Test
+  public void lexerMatchesRegularExpressions() {
+    for (String coefficient : coefficients) {
+      assertEquals(coefficient, regex(coefficient), lexer(coefficient));
+    }
+  }
+
+
+  @Test
+  public void spacesInParametersAreIgnored() {
+    // the lexer also ignores white spaces in coefficients that still have them
+    for (String coefficient : coefficients) {
+      if (!MECoefficientLexer.isNumeric(coefficient)) {
+        assertEquals(coefficient,
+          MECoefficientLexer.findParameters(
+            MECoefficientLexer.removeSpaces(coefficient)),
+          MECoefficientLexer.findParameters(coefficient));
+      }
+    }
+  }
+
+
+  @Test
+  public void numbersMatchRegularExpression() {
+    for (String coefficient : coefficients) {
+      assertEquals(coefficient, coefficient.matches("-?\\d+\\.?\\d*"),
+        MECoefficientLexer.isNumeric(coefficient));
+    }
+  }
+}
@@ -0,0 +1,236 @@
+package sbmlme.benchmark;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Compares two COBRAme JSON documents semantically, so that the output of a
+ * round trip can be checked although the converters may change the order of
+ * entries and the notation of numbers and formulas.
+ * <p>
+ * The fields of objects are compared regardless of their order, as are the
+ * entries of arrays whose elements are objects with a unique id, e.g. the
+ * reactions, metabolites and process data. Numbers, also numbers given as
+ * text, are equal if they differ by at most the relative tolerance.
+ * Symbolic coefficients are compared after removing whitespace and replacing
+ * the exponentiation operator "**" of COBRAme by "^".
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+public class MEJsonComparator {
+
+  /**
+   * the default relative tolerance for numbers
+   */
+  public static final double defaultTolerance = 1e-9;
+  /**
+   * the number of differences after which the comparison stops
+   */
+  private static final int   maxDifferences   = 100;
+  private double             tolerance;
+  private List<String>       differences;
+
+
+  /**
+   * Creates a comparator with the {@link #defaultTolerance}.
+   */
+  public MEJsonComparator() {
+    this(defaultTolerance);
+  }
+
+
+  /**
+   * @param tolerance
+   *        the relative tolerance of numbers, absolute for numbers below 1
+   */
+  public MEJsonComparator(double tolerance) {
+    this.tolerance = tolerance;
+  }
+
+
+  /**
+   * Compares two JSON documents.
+   * 
+   * @param expected
+   *        the root of the expected document
+   * @param actual
+   *        the root of the actual document
+   * @return the paths and values of the differences, empty if the documents
+   *         are equal. At most 100 differences are listed.
+   */
+  public List<String> compare(JsonNode expected, JsonNode actual) {
+    differences = new ArrayList<String>();
+    compare("", expected, actual);
+    return differences;
+  }
+
+
+  private void compare(String path, JsonNode expected, JsonNode actual) {
+    if (differences.size() >= maxDifferences) {
+      return;
+    }
+    if (expected.isObject() && actual.isObject()) {
+      compareObjects(path, expected, actual);
+    } else if (expected.isArray() && actual.isArray()) {
+      Map<String, JsonNode> expectedEntries = getEntriesById(expected);
+      Map<String, JsonNode> actualEntries = getEntriesById(actual);
+      if (expectedEntries != null && actualEntries != null) {
+        compareEntries(path, expectedEntries, actualEntries);
+      } else if (expected.size() != actual.size()) {
+        addDifference(path, "size " + expected.size(),
+          "size " + actual.size());
+      } else {
+        for (int i = 0; i < expected.size(); i++) {
+          compare(path + "[" + i + "]", expected.get(i), actual.get(i));
+        }
+      }
+    } else if (!equalValues(expected, actual)) {
+      addDifference(path, expected.toString(), actual.toString());
+    }
+  }
+
+
+  private void compareObjects(String path, JsonNode expected,
+    JsonNode actual) {
+    for (Iterator<Entry<String, JsonNode>> iterator =
+      expected.fields(); iterator.hasNext();) {
+      Entry<String, JsonNode> field = iterator.next();
+      JsonNode value = actual.get(field.getKey());
+      if (value == null) {
+        addDifference(path + "/" + field.getKey(),
+          field.getValue().toString(), "missing");
+      } else {
+        compare(path + "/" + field.getKey(), field.getValue(), value);
+      }
+    }
+    for (Iterator<String> iterator = actual.fieldNames(); iterator.hasNext();) {
+      String name = iterator.next();
+      if (!expected.has(name)) {
+        addDifference(path + "/" + name, "missing",
+          actual.get(name).toString());
+      }
+    }
+  }
+
+
+  private void compareEntries(String path, Map<String, JsonNode> expected,
+    Map<String, JsonNode> actual) {
+    for (Entry<String, JsonNode> entry : expected.entrySet()) {
+      JsonNode value = actual.get(entry.getKey());
+      if (value == null) {
+        addDifference(path + "[id=" + entry.getKey() + "]", "entry",
+          "missing");
+      } else {
+        compare(path + "[id=" + entry.getKey() + "]", entry.getValue(), value);
+      }
+    }
+    for (String id : actual.keySet()) {
+      if (!expected.containsKey(id)) {
+        addDifference(path + "[id=" + id + "]", "missing", "entry");
+      }
+    }
+  }
+
+
+  /**
+   * @param array
+   *        a JSON array
+   * @return the elements of the array by their ids or null if not all
+   *         elements are objects with a unique id
+   */
+  private static Map<String, JsonNode> getEntriesById(JsonNode array) {
+    if (array.size() == 0) {
+      return null;
+    }
+    Map<String, JsonNode> entries = new LinkedHashMap<String, JsonNode>();
+    for (JsonNode element : array) {
+      JsonNode id = element.get("id");
+      if (!element.isObject() || id == null || !id.isTextual()
+        || entries.put(id.asText(), element) != null) {
+        return null;
+      }
+    }
+    return entries;
+  }
+
+
+  private boolean equalValues(JsonNode expected, JsonNode actual) {
+    if (expected.equals(actual)) {
+      return true;
+    }
+    Double expectedNumber = getNumber(expected);
+    Double actualNumber = getNumber(actual);
+    if (expectedNumber != null && actualNumber != null) {
+      return equalNumbers(expectedNumber.doubleValue(),
+        actualNumber.doubleValue());
+    }
+    if (expected.isTextual() && actual.isTextual()) {
+      return normalizeFormula(expected.asText()).equals(
+        normalizeFormula(actual.asText()));
+    }
+    return false;
+  }
+
+
+  private boolean equalNumbers(double expected, double actual) {
+    if (expected == actual) {
+      return true;
+    }
+    double scale = Math.max(1, Math.max(Math.abs(expected), Math.abs(actual)));
+    return Math.abs(expected - actual) <= tolerance * scale;
+  }
+
+
+  /**
+   * @param node
+   *        a JSON value
+   * @return the number of the value, also if it is given as text, or null if
+   *         the value is no number
+   */
+  private static Double getNumber(JsonNode node) {
+    if (node.isNumber()) {
+      return Double.valueOf(node.doubleValue());
+    }
+    if (node.isTextual()) {
+      try {
+        return Double.valueOf(node.asText().trim());
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+
+  /**
+   * Removes the whitespace of a symbolic coefficient and replaces the
+   * exponentiation operator "**" by "^".
+   * 
+   * @param formula
+   *        the formula of a coefficient
+   * @return the normalized formula
+   */
+  public static String normalizeFormula(String formula) {
+    return formula.replace("**", "^").replaceAll("\\s+", "");
+  }
+
+
+  private void addDifference(String path, String expected, String actual) {
+    if (differences.size() < maxDifferences) {
+      differences.add(path + ": expected " + shorten(expected) + " but was "
+        + shorten(actual));
+    }
+  }
+
+
+  private static String shorten(String value) {
+    return value.length() > 80 ? value.substring(0, 77) + "..." : value;
+  }
+}
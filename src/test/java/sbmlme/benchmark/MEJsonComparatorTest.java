@@ -0,0 +1,92 @@
+package sbmlme.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Tests the semantic comparison of COBRAme JSON documents.
+ * 
+ * @author Marc A. Voigt
+ */
+public class MEJsonComparatorTest {
+
+  private ObjectMapper     mapper     = new ObjectMapper();
+  private MEJsonComparator comparator = new MEJsonComparator();
+
+
+  private List<String> compare(String expected, String actual)
+    throws IOException {
+    JsonNode expectedNode = mapper.readTree(expected.replace('\'', '"'));
+    JsonNode actualNode = mapper.readTree(actual.replace('\'', '"'));
+    return comparator.compare(expectedNode, actualNode);
+  }
+
+
+  @Test
+  public void fieldsAreComparedRegardlessOfOrder() throws IOException {
+    assertTrue(
+      compare("{'a': 1, 'b': 'mu'}", "{'b': 'mu', 'a': 1}").isEmpty());
+  }
+
+
+  @Test
+  public void entriesWithIdsAreComparedRegardlessOfOrder()
+    throws IOException {
+    assertTrue(compare("{'reactions': [{'id': 'r1'}, {'id': 'r2'}]}",
+      "{'reactions': [{'id': 'r2'}, {'id': 'r1'}]}").isEmpty());
+    List<String> differences =
+      compare("{'reactions': [{'id': 'r1'}, {'id': 'r2'}]}",
+        "{'reactions': [{'id': 'r2'}, {'id': 'r3'}]}");
+    assertEquals(2, differences.size());
+    assertTrue(differences.get(0).startsWith("/reactions[id=r1]:"));
+    assertTrue(differences.get(1).startsWith("/reactions[id=r3]:"));
+  }
+
+
+  @Test
+  public void arraysWithoutIdsKeepTheirOrder() throws IOException {
+    assertTrue(compare("['a', 'b']", "['a', 'b']").isEmpty());
+    assertEquals(2, compare("['a', 'b']", "['b', 'a']").size());
+  }
+
+
+  @Test
+  public void numbersAreComparedWithTolerance() throws IOException {
+    assertTrue(compare("{'atp_c': -1.0}", "{'atp_c': -1}").isEmpty());
+    assertTrue(compare("{'atp_c': -1.0}", "{'atp_c': '-1'}").isEmpty());
+    assertTrue(
+      compare("{'kt': 4.5}", "{'kt': 4.5000000000000001}").isEmpty());
+    assertEquals(1, compare("{'kt': 4.5}", "{'kt': 4.51}").size());
+    comparator = new MEJsonComparator(0.01);
+    assertTrue(compare("{'kt': 4.5}", "{'kt': 4.51}").isEmpty());
+  }
+
+
+  @Test
+  public void formulasAreNormalized() throws IOException {
+    assertTrue(compare("{'bound': 'mu*(mu**3.9 + 0.1)'}",
+      "{'bound': 'mu*(mu^3.9+0.1)'}").isEmpty());
+    assertEquals(1,
+      compare("{'bound': 'mu**2'}", "{'bound': 'mu^3'}").size());
+    assertEquals("-mu^2/(mu+1)",
+      MEJsonComparator.normalizeFormula("-mu**2 / (mu + 1)"));
+  }
+
+
+  @Test
+  public void missingFieldsAreReported() throws IOException {
+    List<String> differences =
+      compare("{'a': 1, 'b': 2}", "{'a': 1, 'c': 2}");
+    assertEquals(2, differences.size());
+    assertTrue(differences.get(0).startsWith("/b:"));
+    assertTrue(differences.get(1).startsWith("/c:"));
+  }
+}
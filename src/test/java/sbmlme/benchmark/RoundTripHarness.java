@@ -0,0 +1,217 @@
+package sbmlme.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.sbml.jsbml.SBMLException;
+import org.sbml.jsbml.text.parser.ParseException;
+import org.sbolstandard.core2.SBOLConversionException;
+import org.sbolstandard.core2.SBOLValidationException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import sbmlme.converter.MEConverter;
+import sbmlme.converter.MEConverterOptions;
+import sbmlme.converter.MEDocuments;
+
+/**
+ * Converts COBRAme JSON documents to a SBMLme COMBINE archive and back to
+ * JSON, measures the duration of each leg and compares the result with the
+ * input, so that a change of the converters is checked for equivalence in the
+ * same run that measures its speed.
+ * <p>
+ * The legs are the conversion of the JSON document to the SBML and SBOL
+ * documents, the writing of the archive and the conversion of the archive to
+ * JSON. The result of a round trip is byte identical to the input or at least
+ * equal according to the {@link MEJsonComparator}.
+ * </p>
+ * <p>
+ * The harness is part of the test sources, so that the tests check the round
+ * trip of small models. The RoundTripRunner of the benchmarks module times
+ * large models with it.
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+public class RoundTripHarness {
+
+  /**
+   * the names of the legs of a round trip in the order of the durations of
+   * {@link Result#getNanoseconds(int)}
+   */
+  public static final List<String> legs = Arrays.asList("JSON to SBML",
+    "SBML to archive", "archive to JSON");
+  private MEConverter              converter;
+  private MEJsonComparator         comparator;
+
+
+  /**
+   * Creates a harness that converts in both directions with the given
+   * options.
+   * 
+   * @param options
+   *        the options of the converter, e.g. the streaming or the parallel
+   *        mode
+   */
+  public RoundTripHarness(MEConverterOptions options) {
+    converter = new MEConverter(options);
+    comparator = new MEJsonComparator();
+  }
+
+
+  /**
+   * Converts a SBMLme model to COBRAme JSON as input of a round trip.
+   * 
+   * @param documents
+   *        the SBML and SBOL documents of the model
+   * @return the JSON document
+   * @throws IOException
+   */
+  public static byte[] toJSON(MEDocuments documents) throws IOException {
+    ByteArrayOutputStream json = new ByteArrayOutputStream();
+    new MEConverter().convertToJSON(documents.getSBMLDocument(),
+      documents.getSBOLDocument(), json);
+    return json.toByteArray();
+  }
+
+
+  /**
+   * Converts the JSON document to a COMBINE archive and back to JSON and
+   * compares the result with the document. The archive is written to a
+   * temporary file, which is deleted afterwards.
+   * 
+   * @param json
+   *        the COBRAme JSON document
+   * @param name
+   *        the name of the model and of the entries of the archive
+   * @return the durations and the differences of the round trip
+   * @throws IOException
+   * @throws ParseException
+   * @throws SBOLValidationException
+   * @throws SBMLException
+   * @throws XMLStreamException
+   * @throws SBOLConversionException
+   */
+  public Result run(byte[] json, String name) throws IOException,
+    ParseException, SBOLValidationException, SBMLException, XMLStreamException,
+    SBOLConversionException {
+    Result result = new Result();
+    converter.getOptions().setModelName(name);
+    Path archive = Files.createTempFile(name, ".zip");
+    try {
+      long startTime = System.nanoTime();
+      MEDocuments documents =
+        converter.convertToSBML(new ByteArrayInputStream(json));
+      result.nanoseconds[0] = System.nanoTime() - startTime;
+      result.reactions = documents.getSBMLDocument().getModel()
+                                  .getReactionCount();
+      startTime = System.nanoTime();
+      converter.writeArchive(documents, archive);
+      result.nanoseconds[1] = System.nanoTime() - startTime;
+      // allow the documents to be collected before the last leg
+      documents = null;
+      ByteArrayOutputStream output = new ByteArrayOutputStream(json.length);
+      startTime = System.nanoTime();
+      converter.convertArchiveToJSON(archive, output);
+      result.nanoseconds[2] = System.nanoTime() - startTime;
+      result.json = output.toByteArray();
+    } finally {
+      Files.deleteIfExists(archive);
+    }
+    result.identical = Arrays.equals(json, result.json);
+    if (result.identical) {
+      result.differences = new ArrayList<String>();
+    } else {
+      ObjectMapper mapper = new ObjectMapper();
+      result.differences = comparator.compare(mapper.readTree(json),
+        mapper.readTree(result.json));
+    }
+    return result;
+  }
+
+
+  /**
+   * The durations and the differences of a round trip.
+   * 
+   * @author Marc A. Voigt
+   */
+  public static class Result {
+
+    private long[]       nanoseconds = new long[legs.size()];
+    private int          reactions;
+    private byte[]       json;
+    private boolean      identical;
+    private List<String> differences;
+
+
+    /**
+     * @param leg
+     *        the index of the leg in {@link RoundTripHarness#legs}
+     * @return the duration of the leg in nanoseconds
+     */
+    public long getNanoseconds(int leg) {
+      return nanoseconds[leg];
+    }
+
+
+    /**
+     * @param leg
+     *        the index of the leg in {@link RoundTripHarness#legs}
+     * @return the number of reactions converted per second by the leg
+     */
+    public double getThroughput(int leg) {
+      return reactions / (nanoseconds[leg] / 1e9);
+    }
+
+
+    /**
+     * @return the number of reactions of the model
+     */
+    public int getReactions() {
+      return reactions;
+    }
+
+
+    /**
+     * @return the JSON document created by the round trip
+     */
+    public byte[] getJSON() {
+      return json;
+    }
+
+
+    /**
+     * @return whether the JSON document of the round trip is byte identical
+     *         to the input
+     */
+    public boolean isIdentical() {
+      return identical;
+    }
+
+
+    /**
+     * @return whether the JSON document of the round trip is semantically
+     *         equal to the input
+     */
+    public boolean isEquivalent() {
+      return differences.isEmpty();
+    }
+
+
+    /**
+     * @return the differences between the input and the JSON document of the
+     *         round trip, empty if they are equivalent
+     */
+    public List<String> getDifferences() {
+      return differences;
+    }
+  }
+}
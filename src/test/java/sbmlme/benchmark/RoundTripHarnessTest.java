@@ -0,0 +1,87 @@
+package sbmlme.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import sbmlme.converter.MEConverter;
+import sbmlme.converter.MEConverterOptions;
+
+/**
+ * Tests that the round trip from COBRAme JSON to SBMLme and back preserves
+ * the model in each combination of the streaming and the parallel mode.
+ * 
+ * @author Marc A. Voigt
+ */
+public class RoundTripHarnessTest {
+
+  private static void assertRoundTrip(byte[] json, String name,
+    boolean sparseObjective) throws Exception {
+    for (int mode = 0; mode < 4; mode++) {
+      MEConverterOptions options = new MEConverterOptions();
+      options.setStreaming(mode % 2 == 1);
+      options.setParallel(mode >= 2);
+      options.setSparseObjective(sparseObjective);
+      RoundTripHarness.Result result =
+        new RoundTripHarness(options).run(json, name);
+      assertTrue(result.getDifferences().toString(), result.isEquivalent());
+      assertTrue(result.getReactions() > 0);
+    }
+  }
+
+
+  private static byte[] generateModel() throws Exception {
+    SyntheticModelGenerator generator = new SyntheticModelGenerator(1L);
+    generator.setGenes(60);
+    generator.setComplexes(30);
+    generator.setMetabolicReactions(60);
+    generator.setSubreactions(10);
+    return RoundTripHarness.toJSON(generator.generate());
+  }
+
+
+  @Test
+  public void generatedModel() throws Exception {
+    assertRoundTrip(generateModel(), "synthetic_model", false);
+  }
+
+
+  @Test
+  public void sparseObjective() throws Exception {
+    assertRoundTrip(generateModel(), "synthetic_model", true);
+  }
+
+
+  @Test
+  public void exampleModel() throws Exception {
+    ByteArrayOutputStream json = new ByteArrayOutputStream();
+    new MEConverter().convertToJSON(
+      Paths.get("ExampleArchive", "ExampleModel.sbml"),
+      Paths.get("ExampleArchive", "ExampleModel.sbol"), json);
+    assertRoundTrip(json.toByteArray(), "ExampleModel", false);
+  }
+
+
+  @Test
+  public void resultReportsEachLeg() throws Exception {
+    SyntheticModelGenerator generator = new SyntheticModelGenerator(2L);
+    generator.setGenes(20);
+    generator.setComplexes(10);
+    generator.setMetabolicReactions(20);
+    generator.setSubreactions(5);
+    byte[] json = RoundTripHarness.toJSON(generator.generate());
+    RoundTripHarness.Result result =
+      new RoundTripHarness(new MEConverterOptions()).run(json, "synthetic");
+    assertEquals(3, RoundTripHarness.legs.size());
+    for (int leg = 0; leg < RoundTripHarness.legs.size(); leg++) {
+      assertTrue(result.getNanoseconds(leg) > 0);
+      assertTrue(result.getThroughput(leg) > 0);
+    }
+    assertTrue(result.isIdentical());
+    assertTrue(result.getJSON().length > 0);
+  }
+}
@@ -0,0 +1,1022 @@
+package sbmlme.benchmark;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.sbml.jsbml.Model;
+import org.sbml.jsbml.SBMLDocument;
+import org.sbml.jsbml.SBMLException;
+import org.sbml.jsbml.ext.fbc.FBCConstants;
+import org.sbml.jsbml.ext.fbc.FBCModelPlugin;
+import org.sbml.jsbml.ext.fbc.Objective;
+import org.sbml.jsbml.ext.groups.Group;
+import org.sbml.jsbml.ext.groups.GroupsConstants;
+import org.sbml.jsbml.ext.groups.GroupsModelPlugin;
+import org.sbml.jsbml.text.parser.ParseException;
+import org.sbolstandard.core2.SBOLConversionException;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLValidationException;
+
+import sbmlme.MEConstants;
+import sbmlme.MEGroupRegistry;
+import sbmlme.MEProcessData;
+import sbmlme.MEReactionPlugin;
+import sbmlme.MESpeciesPlugin;
+import sbmlme.converter.MEConverter;
+import sbmlme.converter.MEDocuments;
+import sbmlme.converter.MEJsonConstants;
+
+/**
+ * Generates SBMLme models of a given size for reproducible performance tests.
+ * <p>
+ * The models are built like the {@link sbmlme.ExampleModel}, but the number of
+ * genes, complexes, metabolic reactions, subreactions and translocation
+ * pathways, as well as the share of stoichiometric coefficients that depend on
+ * the growth rate, are parameters. All names, sequences and values are drawn
+ * from a random generator with the given seed, so that the same parameters
+ * always create the same model.
+ * </p>
+ * <p>
+ * The ids have the shapes found in COBRAme models, i.e. they contain colons
+ * and dashes or start with a digit, and the sequences have the lengths of
+ * bacterial genes. Every gene is transcribed and either translated or, for
+ * every 20th gene, charged as tRNA. Each complex is formed from one to four
+ * proteins, each metabolic reaction is catalyzed by a complex and every tenth
+ * complex is part of a generic component. The number of reactions of a model
+ * is about four times the number of genes plus the number of complexes and
+ * metabolic reactions.
+ * </p>
+ * <p>
+ * The generator is part of the test sources and is packaged into the jar of
+ * the benchmarks module. The main method writes the model as COBRAme JSON
+ * file and as COMBINE archive, e.g. "synthetic.json" and "synthetic.zip" for
+ * the output "synthetic".
+ * </p>
+ * 
+ * @author Marc A. Voigt
+ */
+public class SyntheticModelGenerator implements MEConstants, MEJsonConstants {
+
+  /**
+   * the amino acids of the codons in the order TTT, TTC, TTA, ... GGG, stop
+   * codons are marked with '*'
+   */
+  private static final String   geneticCode           =
+    "FFLLSSSSYY**CC*WLLLLPPPPHHQQRRRRIIIMTTTTNNKKSSRRVVVVAAAADDEEGGGG";
+  private static final String   nucleotides           = "TCAG";
+  private static final String   aminoAcidLetters      =
+    "ACDEFGHIKLMNPQRSTVWY";
+  private static final String[] aminoAcids            = {"ala__L", "cys__L",
+    "asp__L", "glu__L", "phe__L", "gly", "his__L", "ile__L", "lys__L",
+    "leu__L", "met__L", "asn__L", "pro__L", "gln__L", "arg__L", "ser__L",
+    "thr__L", "val__L", "trp__L", "tyr__L"};
+  private static final String[] tRNAModifications     = {"D_at_16", "D_at_20",
+    "s4U_at_8", "m7G_at_46", "t6A_at_37", "Y_at_39", "Y_at_55", "Q_at_34",
+    "m5U_at_54", "i6A_at_37", "acp3U_at_47", "Gm_at_18"};
+  private static final String[] metaboliteBases       = {"10fthf", "3pg",
+    "ala__L", "glc__D", "2dmmq8", "accoa", "5mthf", "udpg", "13dpg", "g3p",
+    "4abz", "malcoa"};
+  private static final String[] compartments          =
+    {"c", "c", "c", "p", "e"};
+  private static final String[] cofactors             = {"fe2", "mg2", "zn2",
+    "pydx5p", "4fe4s", "2fe2s", "k", "mn2"};
+  private static final String[] sigmaFactors          = {"RpoD_mono",
+    "RpoS_mono", "RpoH_mono", "RpoE_mono"};
+  private static final String[] membranes             = {"Inner_Membrane",
+    "Outer_Membrane", "Periplasm"};
+  private static final String   variableKind          = "continuous";
+  private long                  seed;
+  private String                modelName             = "synthetic_model";
+  private int                   genes                 = 1000;
+  private int                   complexes             = 500;
+  private int                   metabolicReactions    = 1000;
+  private int                   subreactions          = 100;
+  private int                   translocationPathways = 5;
+  private double                growthRateShare       = 0.3;
+  /**
+   * the plugin that creates the reactions, it may record them instead
+   */
+  private MEReactionPlugin      reactionPlugin        = new MEReactionPlugin();
+  // state of the model that is currently generated
+  private Random                random;
+  private Model                 model;
+  private SBOLDocument          sbol;
+  private GroupsModelPlugin     groups;
+  private Objective             objective;
+  private MESpeciesPlugin       speciesPlugin;
+  private MEProcessData         processData;
+  private List<String>          metabolites;
+  private List<String>          proteins;
+  private List<String>          complexIds;
+  private List<String>          subreactionIds;
+  private List<String>          translocationIds;
+
+
+  public static void main(String[] args) throws IOException,
+    SBOLValidationException, ParseException, SBMLException, XMLStreamException,
+    SBOLConversionException {
+    Options options = new Options();
+    Option output = new Option("o", "output", true,
+      "(required) output path of the model without file ending, the COBRAme JSON file and the COMBINE archive are written to <output>.json and <output>.zip");
+    output.setRequired(true);
+    options.addOption(output);
+    options.addOption(new Option("g", "genes", true,
+      "number of genes, default is 1000"));
+    options.addOption(new Option("c", "complexes", true,
+      "number of complexes, default is 500"));
+    options.addOption(new Option("r", "reactions", true,
+      "number of metabolic reactions, default is 1000"));
+    options.addOption(new Option("s", "subreactions", true,
+      "number of subreactions, default is 100"));
+    options.addOption(new Option("t", "translocations", true,
+      "number of translocation pathways, default is 5"));
+    options.addOption(new Option("u", "mu", true,
+      "share of the coefficients that depend on the growth rate mu between 0 and 1, default is 0.3"));
+    options.addOption(new Option("x", "seed", true,
+      "seed of the random generator, default is 0"));
+    options.addOption(new Option("m", "model", true,
+      "name to be used for the SBML model, default is synthetic_model"));
+    CommandLineParser parser = new DefaultParser();
+    HelpFormatter formatter = new HelpFormatter();
+    CommandLine cmd;
+    SyntheticModelGenerator generator;
+    try {
+      cmd = parser.parse(options, args);
+      generator =
+        new SyntheticModelGenerator(Long.parseLong(cmd.getOptionValue("seed",
+          "0")));
+      generator.setGenes(Integer.parseInt(cmd.getOptionValue("genes",
+        "1000")));
+      generator.setComplexes(Integer.parseInt(cmd.getOptionValue("complexes",
+        "500")));
+      generator.setMetabolicReactions(
+        Integer.parseInt(cmd.getOptionValue("reactions", "1000")));
+      generator.setSubreactions(
+        Integer.parseInt(cmd.getOptionValue("subreactions", "100")));
+      generator.setTranslocationPathways(
+        Integer.parseInt(cmd.getOptionValue("translocations", "5")));
+      generator.setGrowthRateShare(
+        Double.parseDouble(cmd.getOptionValue("mu", "0.3")));
+      if (cmd.hasOption("model")) {
+        generator.setModelName(cmd.getOptionValue("model"));
+      }
+    } catch (org.apache.commons.cli.ParseException e) {
+      System.out.println(e.getMessage());
+      formatter.printHelp("SyntheticModelGenerator", options);
+      System.exit(1);
+      return;
+    } catch (IllegalArgumentException e) {
+      System.out.println(e.getMessage());
+      formatter.printHelp("SyntheticModelGenerator", options);
+      System.exit(1);
+      return;
+    }
+    String outputFile = cmd.getOptionValue("output");
+    long startTime = System.nanoTime();
+    MEDocuments documents = generator.generate();
+    Model model = documents.getSBMLDocument().getModel();
+    System.out.println("generated " + model.getSpeciesCount() + " species and "
+      + model.getReactionCount() + " reactions in "
+      + (System.nanoTime() - startTime) / 1000000 + " ms");
+    MEConverter converter = new MEConverter();
+    OutputStream json = new BufferedOutputStream(
+      Files.newOutputStream(Paths.get(outputFile + ".json")));
+    try {
+      converter.convertToJSON(documents.getSBMLDocument(),
+        documents.getSBOLDocument(), json);
+    } finally {
+      json.close();
+    }
+    Path archive = Paths.get(outputFile + archiveExtension);
+    Files.deleteIfExists(archive);
+    converter.writeArchive(documents, archive);
+  }
+
+
+  /**
+   * Creates a generator of models with the default sizes, i.e. 1000 genes, 500
+   * complexes, 1000 metabolic reactions, 100 subreactions and 5 translocation
+   * pathways, and 30% of the coefficients depending on the growth rate.
+   * 
+   * @param seed
+   *        the seed of the random generator
+   */
+  public SyntheticModelGenerator(long seed) {
+    this.seed = seed;
+  }
+
+
+  /**
+   * Generates a new model with the current parameters.
+   * 
+   * @return the SBML and SBOL documents of the model
+   * @throws SBOLValidationException
+   * @throws ParseException
+   */
+  public MEDocuments generate()
+    throws SBOLValidationException, ParseException {
+    random = new Random(seed);
+    SBMLDocument doc = new SBMLDocument(3, 1);
+    doc.addDeclaredNamespace(prefix, ns);
+    sbol = new SBOLDocument();
+    sbol.setDefaultURIprefix("http://cobramens.url/sbol/");
+    model = doc.createModel(modelName);
+    model.initDefaults(3, 1);
+    FBCModelPlugin fbcModel =
+      (FBCModelPlugin) model.getPlugin(FBCConstants.shortLabel);
+    // needs to be false due to InitialAssignments for SpeciesReferences
+    fbcModel.setStrict(false);
+    objective = fbcModel.createObjective("objOne", Objective.Type.MAXIMIZE);
+    fbcModel.setActiveObjective(objective);
+    groups = (GroupsModelPlugin) model.getPlugin(GroupsConstants.shortLabel);
+    speciesPlugin = new MESpeciesPlugin();
+    processData = new MEProcessData().createMEProcessData();
+    metabolites = new ArrayList<String>();
+    proteins = new ArrayList<String>();
+    complexIds = new ArrayList<String>();
+    subreactionIds = new ArrayList<String>();
+    translocationIds = new ArrayList<String>();
+    addGlobalInfo();
+    addCommonSpecies();
+    addMetabolites();
+    addSubreactionData();
+    addTranslocationData();
+    for (int i = 0; i < genes; i++) {
+      addGene(i);
+    }
+    addComplexes();
+    addMetabolicReactions();
+    addSummaryVariables();
+    model.appendAnnotation(processData);
+    return new MEDocuments(doc, sbol);
+  }
+
+
+  private void addGlobalInfo() {
+    LinkedHashMap<String, Double> globalInfo =
+      new LinkedHashMap<String, Double>();
+    globalInfo.put("m_nt", 0.324);
+    globalInfo.put("r0", 0.087);
+    globalInfo.put("temperature", 37.0);
+    globalInfo.put("f_tRNA", 0.12);
+    globalInfo.put("GC_fraction", 0.507896997096);
+    globalInfo.put("m_tRNA", 25.0);
+    globalInfo.put("kt", 4.5);
+    globalInfo.put("m_rr", 1453.0);
+    globalInfo.put("f_mRNA", 0.02);
+    globalInfo.put("propensity_scaling", 0.45);
+    globalInfo.put("f_rRNA", 0.086);
+    globalInfo.put("m_aa", 0.109);
+    globalInfo.put("k_deg", 12.0);
+    for (Entry<String, Double> entry : globalInfo.entrySet()) {
+      model.createParameter(entry.getKey());
+      model.getParameter(entry.getKey()).initDefaults(2, 4, true);
+      model.getParameter(entry.getKey()).setValue(entry.getValue());
+    }
+    MEGroupRegistry.get(groups).addMembers(globalInformation,
+      Group.Kind.classification,
+      new ArrayList<String>(globalInfo.keySet()));
+  }
+
+
+  /**
+   * Adds the species that every model contains: the biomass constraints, the
+   * nucleotides, amino acids and cofactors, the generic tRNAs of all codons,
+   * the RNA polymerase, the ribosome, the degradosome and the complexes of
+   * the translocation and the elongation.
+   */
+  private void addCommonSpecies() {
+    for (String id : Arrays.asList("biomass", "protein_biomass",
+      "mRNA_biomass", "tRNA_biomass", "DNA_biomass",
+      "unmodeled_protein_biomass")) {
+      speciesPlugin.createMESpecies(model, id, "", "", "c", groups, constraint);
+    }
+    for (String id : Arrays.asList("atp", "adp", "amp", "gtp", "gdp", "gmp",
+      "utp", "ump", "ctp", "cmp", "datp", "dgtp", "dctp", "dttp", "h2o", "h",
+      "pi", "ppi", "fmet__L")) {
+      speciesPlugin.createMESpecies(model, id + "_c", "", "", "c", groups,
+        metabolite);
+    }
+    for (String aminoAcid : aminoAcids) {
+      speciesPlugin.createMESpecies(model, aminoAcid + "_c", "", "", "c",
+        groups, metabolite);
+    }
+    for (String cofactor : cofactors) {
+      speciesPlugin.createMESpecies(model, cofactor + "_c", "", "", "c", groups,
+        metabolite);
+    }
+    for (int i = 0; i < geneticCode.length(); i++) {
+      if (geneticCode.charAt(i) != '*') {
+        speciesPlugin.createMESpecies(model, gettRNA(i), "", "", "c", groups,
+          gentRNA);
+      }
+    }
+    speciesPlugin.createMESpecies(model, "generic_tRNA_START_met__L_c", "", "",
+      "c", groups, gentRNA);
+    speciesPlugin.createMESpecies(model, "RNAP70-CPLX",
+      "C19713H31813Mg2N5539O6126S141Zn", "", "c", groups, rnaPolymerase);
+    speciesPlugin.createMESpecies(model, "ribosome",
+      "C38487H64147Mg171N11545O11295P3S201", "", "c", groups, ribosome);
+    speciesPlugin.createMESpecies(model, "RNA_degradosome",
+      "C40683H65406Mg6N11875O12685S200Zn2", "", "c", groups, complex);
+    speciesPlugin.createMESpecies(model, "SRP-CPLX",
+      "C3258H4875N1059O1439P114S29", "", "c", groups, complex);
+    speciesPlugin.createMESpecies(model, "Sec-CPLX", "C7955H12880N2101O2234S58",
+      "", "c", groups, complex);
+    speciesPlugin.createMESpecies(model, "YidC_MONOMER",
+      "C2805H4331N715O795S23", "", "c", groups, complex);
+    speciesPlugin.createMESpecies(model, "generic_Tuf", "", "", "c", groups,
+      genericComponent);
+  }
+
+
+  /**
+   * Adds half as many metabolites as metabolic reactions, at least ten, and an
+   * exchange reaction for each extracellular metabolite.
+   * 
+   * @throws ParseException
+   */
+  private void addMetabolites() throws ParseException {
+    int count = Math.max(10, metabolicReactions / 2);
+    for (int i = 0; i < count; i++) {
+      String compartment = compartments[random.nextInt(compartments.length)];
+      String id = metaboliteBases[i % metaboliteBases.length] + i + "_"
+        + compartment;
+      speciesPlugin.createMESpecies(model, id, createFormula(), id,
+        compartment, groups, metabolite);
+      metabolites.add(id);
+      if (compartment.equals("e")) {
+        reactionPlugin.createMEReaction(model, groups, objective, "EX_" + id,
+          "", 1000.0, -1000.0, Arrays.asList(id), Arrays.asList("-1.0"), 0.0,
+          variableKind);
+      }
+    }
+  }
+
+
+  /**
+   * Adds the subreactions: the additions of the amino acids at every codon
+   * first, then the modifications of tRNAs and finally unspecific
+   * subreactions. Some of them add elements to the product.
+   */
+  private void addSubreactionData() {
+    for (int i = 0; i < subreactions; i++) {
+      String id;
+      if (i < geneticCode.length() && getAminoAcid(i) != null) {
+        id = getAminoAcid(i) + "_addition_at_" + getCodon(i);
+      } else if (i < geneticCode.length()) {
+        id = "peptide_chain_release_at_" + getCodon(i);
+      } else if (i < geneticCode.length() + tRNAModifications.length) {
+        id = tRNAModifications[i - geneticCode.length()];
+      } else {
+        id = "subreaction_" + i;
+      }
+      LinkedHashMap<String, Integer> elementContribution =
+        new LinkedHashMap<String, Integer>();
+      if (random.nextInt(4) == 0) {
+        elementContribution.put("O", -1);
+        elementContribution.put("Se", 1);
+      }
+      List<String> species;
+      List<Double> stoichiometry;
+      if (i < geneticCode.length() && getAminoAcid(i) != null) {
+        species = Arrays.asList(gettRNA(i), "gtp_c", "h2o_c", "gdp_c", "h_c",
+          "pi_c");
+        stoichiometry = Arrays.asList(-1.0, -1.0, -1.0, 1.0, 1.0, 1.0);
+      } else {
+        species = Arrays.asList("atp_c", "h2o_c", "adp_c", "h_c", "pi_c");
+        stoichiometry = Arrays.asList(-1.0, -1.0, 1.0, 1.0, 1.0);
+      }
+      processData.addSubreactionData(processData, id, 65.0,
+        Arrays.asList("generic_Tuf"),
+        elementContribution, species, stoichiometry);
+      subreactionIds.add(id);
+    }
+  }
+
+
+  private void addTranslocationData() {
+    for (int i = 0; i < translocationPathways; i++) {
+      String id = (i % 2 == 0 ? "sec" : "tat") + "_translocation_" + i;
+      processData.addTranslocationData(processData, id, 20.0 + i,
+        Arrays.asList("SRP-CPLX", "Sec-CPLX", "YidC_MONOMER"),
+        Arrays.asList(false, false, i % 3 == 0),
+        Arrays.asList(true, true, false),
+        Arrays.asList("gtp_c", "h2o_c", "pi_c", "gdp_c", "h_c"),
+        Arrays.asList(-1.0, -1.0, 1.0, 1.0, 1.0), i % 2 == 1);
+      translocationIds.add(id);
+    }
+  }
+
+
+  /**
+   * Adds the transcribed RNA of a gene and its transcription and degradation,
+   * and either its charging as tRNA or its translation and, for some
+   * proteins, their translocation.
+   * 
+   * @param index
+   *        the index of the gene
+   * @throws SBOLValidationException
+   * @throws ParseException
+   */
+  private void addGene(int index)
+    throws SBOLValidationException, ParseException {
+    String gene = String.format("b%04d", index);
+    String rna = "RNA_" + gene;
+    boolean isTRNA = index % 20 == 19;
+    String sequence = isTRNA ? createSequence(74 + random.nextInt(16))
+      : createCodingSequence(createProteinLength());
+    // genes are about 1100 nucleotides apart
+    int left = 190 + index * 1100 + random.nextInt(100);
+    String strand = random.nextBoolean() ? "+" : "-";
+    speciesPlugin.createMESequenceSpecies(model, rna, createFormula(), "", "c",
+      sbol, sequence, isTRNA ? tRNA : mRNA, strand, left,
+      left + sequence.length() - 1, groups, transcribedGene);
+    String biomass = isTRNA ? "tRNA_biomass" : "mRNA_biomass";
+    String rnaMass = Double.toString(sequence.length() * 0.324);
+    // transcription unit with the promoter region in front of the gene
+    String unit = createSequence(20 + random.nextInt(60)) + sequence;
+    int[] counts = new int[4];
+    for (int i = 0; i < unit.length(); i++) {
+      counts[nucleotides.indexOf(unit.charAt(i))]++;
+    }
+    LinkedHashMap<String, Double> subreactionMap =
+      new LinkedHashMap<String, Double>();
+    subreactionMap.put(isTRNA ? "Transcription_stable_rho_dependent"
+      : "Transcription_normal_rho_dependent", 1.0);
+    String transcriptionId = "TU0-" + (1000 + index) + "_from_"
+      + sigmaFactors[random.nextInt(sigmaFactors.length)];
+    reactionPlugin.createTranscriptionReaction(model, sbol, groups, objective,
+      "transcription_" + transcriptionId, "", transcriptionId, 1000.0, 0.0,
+      Arrays.asList("utp_c", "ctp_c", "atp_c", "gtp_c", "ppi_c", rna, biomass,
+        "RNAP70-CPLX"),
+      Arrays.asList("-" + counts[0], "-" + counts[1], "-" + counts[2],
+        "-" + counts[3], Integer.toString(unit.length()), "1", rnaMass,
+        createCoefficient(-0.000157158045423262)),
+      0.0, variableKind, unit, subreactionMap);
+    reactionPlugin.createMEReaction(model, groups, objective, "DM_" + rna, "",
+      1000.0, 0.0, Arrays.asList(rna, biomass, "RNA_degradosome"),
+      Arrays.asList("-1", "-" + rnaMass, createCoefficient(-8.547e-6)), 0.0,
+      variableKind);
+    if (isTRNA) {
+      addtRNACharging(gene, rna);
+    } else {
+      addTranslation(gene, rna, sequence);
+    }
+  }
+
+
+  private void addtRNACharging(String gene, String rna)
+    throws ParseException, SBOLValidationException {
+    int codon;
+    do {
+      codon = random.nextInt(geneticCode.length());
+    } while (getAminoAcid(codon) == null);
+    String aminoAcid = getAminoAcid(codon) + "_c";
+    LinkedHashMap<String, Double> subreactionMap =
+      new LinkedHashMap<String, Double>();
+    for (int i = 0; i < 4; i++) {
+      String modification =
+        tRNAModifications[random.nextInt(tRNAModifications.length)];
+      if (subreactionIds.contains(modification)) {
+        subreactionMap.put(modification, 1.0);
+      }
+    }
+    String synthetase = getAminoAcid(codon).substring(0, 3) + "_RS_dim";
+    if (!complexIds.contains(synthetase)) {
+      speciesPlugin.createMESpecies(model, synthetase, createFormula(), "",
+        "c", groups, complex);
+      complexIds.add(synthetase);
+    }
+    reactionPlugin.createtRNAChargingReaction(model, groups, objective,
+      "charging_tRNA_" + gene + "_" + getCodon(codon), "",
+      "tRNA_" + gene + "_" + getCodon(codon), 1000.0, 0.0, 65.0,
+      Arrays.asList("h2o_c", rna, aminoAcid, "atp_c", "amp_c", "ppi_c",
+        gettRNA(codon), synthetase),
+      Arrays.asList(createCoefficient(0.0000455184),
+        createCoefficient(-0.0000455184), createCoefficient(-0.0000455184),
+        createCoefficient(-0.0000455184), createCoefficient(0.0000455184),
+        createCoefficient(0.0000455184), "1", createCoefficient(-4.27e-6)),
+      0.0, variableKind, subreactionMap, synthetase, getCodon(codon),
+      aminoAcid);
+  }
+
+
+  private void addTranslation(String gene, String rna, String sequence)
+    throws ParseException, SBOLValidationException {
+    String protein = "protein_" + gene;
+    speciesPlugin.createMESpecies(model, protein, createFormula(), "", "c",
+      groups, translatedGene);
+    // the amino acids and subreactions follow from the codons of the sequence
+    int length = sequence.length() / 3;
+    int[] codons = new int[geneticCode.length()];
+    for (int i = 3; i < length * 3; i += 3) {
+      codons[getCodonIndex(sequence, i)]++;
+    }
+    LinkedHashMap<String, Double> subreactionMap =
+      new LinkedHashMap<String, Double>();
+    LinkedHashMap<String, Integer> aminoAcidCounts =
+      new LinkedHashMap<String, Integer>();
+    List<String> species = new ArrayList<String>();
+    List<String> coefficients = new ArrayList<String>();
+    species.add("generic_tRNA_START_met__L_c");
+    coefficients.add("-1.0");
+    for (int i = 0; i < codons.length; i++) {
+      if (codons[i] > 0 && getAminoAcid(i) != null) {
+        String subreaction = getAminoAcid(i) + "_addition_at_" + getCodon(i);
+        if (subreactionIds.contains(subreaction)) {
+          subreactionMap.put(subreaction, (double) codons[i]);
+        }
+        species.add(gettRNA(i));
+        coefficients.add(createCoefficient(-codons[i]));
+        String aminoAcid = getAminoAcid(i) + "_c";
+        Integer count = aminoAcidCounts.get(aminoAcid);
+        aminoAcidCounts.put(aminoAcid,
+          (count == null ? 0 : count.intValue()) + codons[i]);
+      }
+    }
+    for (Entry<String, Integer> entry : aminoAcidCounts.entrySet()) {
+      species.add(entry.getKey());
+      coefficients.add("-" + entry.getValue() + ".0");
+    }
+    species.addAll(Arrays.asList("gtp_c", "h2o_c", "gdp_c", "pi_c", "h_c",
+      "fmet__L_c", rna, protein, "protein_biomass", "ribosome"));
+    coefficients.addAll(Arrays.asList("-" + 2 * length + ".0",
+      "-" + 2 * length + ".0", 2 * length + ".0", 2 * length + ".0",
+      2 * length + ".0", "-1.0", createCoefficient(-0.000195123456790123),
+      "1", Double.toString(length * 0.109),
+      createCoefficient(-0.000192307692307692)));
+    reactionPlugin.createTranslationReaction(model, sbol, groups, objective,
+      "translation_" + gene, "", gene, 1000.0, 0.0, species, coefficients, 0.0,
+      variableKind, sequence, subreactionMap);
+    // about every fourth protein is translocated into a membrane
+    if (!translocationIds.isEmpty() && random.nextInt(4) == 0) {
+      String processed =
+        protein + "_" + membranes[random.nextInt(membranes.length)];
+      speciesPlugin.createMEProcessedSpecies(model, processed, createFormula(),
+        "", "c", protein, groups, processedProtein);
+      String translocation =
+        translocationIds.get(random.nextInt(translocationIds.size()));
+      reactionPlugin.createPostTranslationReaction(model, groups, objective,
+        "translocation_" + gene, "", "translocation_" + protein, 1000.0, 0.0,
+        Arrays.asList("h2o_c", "gdp_c", processed, protein, "gtp_c", "h_c",
+          "pi_c"),
+        Arrays.asList("-1.0", "1.0", "1.0", "-1.0", "-1.0", "1.0", "1.0"), 0.0,
+        variableKind, null, 0.0, Arrays.asList(translocation),
+        Arrays.asList(1.0), 1.0, null, null, null, null, null, null, "",
+        processed, protein);
+      proteins.add(processed);
+    } else {
+      proteins.add(protein);
+    }
+  }
+
+
+  /**
+   * Adds the complexes with their formation from proteins and cofactors, and a
+   * generic component for every tenth complex.
+   * 
+   * @throws ParseException
+   */
+  private void addComplexes() throws ParseException {
+    List<String> subunits = new ArrayList<String>(proteins);
+    if (subunits.isEmpty()) {
+      subunits.add("unmodeled_protein_biomass");
+    }
+    String generic = null;
+    for (int i = 0; i < complexes; i++) {
+      String name = createName(i);
+      String cofactor = null;
+      String id;
+      switch (i % 4) {
+      case 0:
+        id = "CPLX0-" + (7000 + i);
+        break;
+      case 1:
+        cofactor = cofactors[random.nextInt(cofactors.length)];
+        id = name + "_mono_mod_" + (1 + random.nextInt(4)) + ":" + cofactor;
+        break;
+      case 2:
+        id = name.toUpperCase() + "-MONOMER";
+        break;
+      default:
+        id = name + "_dim";
+      }
+      speciesPlugin.createMESpecies(model, id, createFormula(), "", "c",
+        groups, complex);
+      complexIds.add(id);
+      List<String> species = new ArrayList<String>();
+      List<String> coefficients = new ArrayList<String>();
+      species.add(id);
+      coefficients.add("1");
+      int subunitCount = 1 + random.nextInt(4);
+      for (int j = 0; j < subunitCount; j++) {
+        String subunit = subunits.get(random.nextInt(subunits.size()));
+        if (!species.contains(subunit)) {
+          species.add(subunit);
+          coefficients.add("-" + (1 + random.nextInt(6)) + ".0");
+        }
+      }
+      if (cofactor != null) {
+        species.add(cofactor + "_c");
+        coefficients.add("-" + (1 + random.nextInt(4)) + ".0");
+      }
+      reactionPlugin.createComplexFormationReaction(model, groups, objective,
+        "formation_" + id, "", id, id, 1000.0, 0.0, species, coefficients,
+        0.0, variableKind, null, null);
+      if (i % 10 == 0) {
+        generic = "generic_" + name;
+        speciesPlugin.createMESpecies(model, generic, "", "", "c", groups,
+          genericComponent);
+      }
+      if (i % 10 < 2) {
+        reactionPlugin.createGenericFormationReaction(model, groups, objective,
+          id + "_to_" + generic, "", 1000.0, 0.0,
+          Arrays.asList(generic, id), Arrays.asList("1", "-1"), 0.0,
+          variableKind);
+      }
+    }
+  }
+
+
+  /**
+   * Adds the metabolic reactions, each with its StoichiometricData and
+   * catalyzed by a complex. About 40% of the StoichiometricData are reversible
+   * and used by a forward and a reverse reaction.
+   * 
+   * @throws ParseException
+   */
+  private void addMetabolicReactions() throws ParseException {
+    List<String> enzymes = complexIds.isEmpty()
+      ? Arrays.asList("RNA_degradosome") : complexIds;
+    int count = 0;
+    for (int i = 0; count < metabolicReactions; i++) {
+      String dataId;
+      switch (i % 3) {
+      case 0:
+        dataId = "RXN0-" + (5000 + i);
+        break;
+      case 1:
+        dataId = (1 + random.nextInt(9)) + "DGR" + i;
+        break;
+      default:
+        dataId = "ACO" + i + "pp";
+      }
+      boolean reversible = random.nextInt(5) < 2;
+      int reactants = 1 + random.nextInt(3);
+      int products = 1 + random.nextInt(3);
+      List<String> species = new ArrayList<String>();
+      List<Double> stoichiometry = new ArrayList<Double>();
+      while (species.size() < reactants + products) {
+        String id = metabolites.get(random.nextInt(metabolites.size()));
+        if (!species.contains(id)) {
+          species.add(id);
+          double value = 1 + random.nextInt(2);
+          stoichiometry.add(species.size() > reactants ? value : -value);
+        }
+      }
+      processData.addStoichiometricData(processData, dataId,
+        reversible ? -1000.0 : 0.0, 1000.0,
+        new LinkedHashMap<String, Double>(), species, stoichiometry);
+      String enzyme = enzymes.get(random.nextInt(enzymes.size()));
+      double keff = Math.pow(10, 3 * random.nextDouble());
+      for (int direction = 0; direction < (reversible ? 2 : 1)
+        && count < metabolicReactions; direction++) {
+        boolean reverse = direction == 1;
+        List<String> reactionSpecies = new ArrayList<String>(species);
+        List<String> coefficients = new ArrayList<String>();
+        for (Double value : stoichiometry) {
+          coefficients.add(Double.toString(reverse ? -value : value));
+        }
+        reactionSpecies.add(enzyme);
+        coefficients.add(createCoefficient(-1 / (3600 * keff)));
+        reactionPlugin.createMetabolicReaction(model, groups, objective,
+          dataId + (reverse ? "_REV_" : "_FWD_") + enzyme, "", dataId, 1000.0,
+          0.0, reactionSpecies, coefficients, 0.0, variableKind, keff, reverse,
+          enzyme);
+        count++;
+      }
+    }
+  }
+
+
+  private void addSummaryVariables() throws ParseException {
+    reactionPlugin.createSummaryVariableReaction(model, groups, objective,
+      "biomass_dilution", "", "mu", "mu", Arrays.asList("biomass"),
+      Arrays.asList("-1"), 1.0, variableKind);
+    reactionPlugin.createSummaryVariableReaction(model, groups, objective,
+      "protein_biomass_to_biomass", "", "1000.00000000000", "0.0",
+      Arrays.asList("protein_biomass", "biomass", "unmodeled_protein_biomass"),
+      Arrays.asList("-1", "1.56250000000000", "-0.56250000000000"), 0.0,
+      variableKind);
+    for (String biomass : Arrays.asList("mRNA", "tRNA")) {
+      reactionPlugin.createSummaryVariableReaction(model, groups, objective,
+        biomass + "_biomass_to_biomass", "", "1000.00000000000", "0.0",
+        Arrays.asList(biomass + "_biomass", "biomass"),
+        Arrays.asList("-1", "1"), 0.0, variableKind);
+    }
+    String replication =
+      "mu*(-0.125041790343836*mu**3.90364139015214/(mu**3.90364139015214 + 0.116858742296566) + 0.192933177925728)".replaceAll(
+        "\\*\\*", "\\^");
+    reactionPlugin.createSummaryVariableReaction(model, groups, objective,
+      "dna_replication", "", replication, replication,
+      Arrays.asList("datp_c", "ppi_c", "DNA_biomass", "dctp_c", "dgtp_c",
+        "dttp_c"),
+      Arrays.asList("-0.246051501452000", "1", "0.307433440943493",
+        "-0.253948498548000", "-0.253948498548000", "-0.246051501452000"),
+      0.0, variableKind);
+  }
+
+
+  /**
+   * Creates a stoichiometric coefficient of the given value, which depends on
+   * the growth rate with the probability of the share of growth rate
+   * dependent coefficients. The dependent coefficients have the forms used by
+   * COBRAme for the coupling of enzymes and ribosomes.
+   * 
+   * @param value
+   *        the value of the coefficient
+   * @return the coefficient as number or as formula of the growth rate mu
+   */
+  private String createCoefficient(double value) {
+    if (random.nextDouble() >= growthRateShare) {
+      return Double.toString(value);
+    }
+    switch (random.nextInt(3)) {
+    case 0:
+      return value + "*mu";
+    case 1:
+      return value + "*mu*(mu + 0.3915)/mu";
+    default:
+      return value * 2.5 + "*mu " + (value < 0 ? "- " : "+ ")
+        + Math.abs(value);
+    }
+  }
+
+
+  /**
+   * @return a random chemical formula
+   */
+  private String createFormula() {
+    int carbon = 3 + random.nextInt(2000);
+    return "C" + carbon + "H" + (carbon * 8 / 5) + "N" + (carbon / 4) + "O"
+      + (carbon / 3) + "S" + (1 + random.nextInt(30));
+  }
+
+
+  /**
+   * @param index
+   *        the index of the complex
+   * @return a name in the style of E. coli proteins, e.g. "YdcR12"
+   */
+  private String createName(int index) {
+    StringBuilder builder = new StringBuilder();
+    builder.append((char) ('A' + random.nextInt(26)));
+    builder.append((char) ('a' + random.nextInt(26)));
+    builder.append((char) ('a' + random.nextInt(26)));
+    builder.append((char) ('A' + random.nextInt(26)));
+    return builder.append(index).toString();
+  }
+
+
+  /**
+   * Draws the number of amino acids of a protein from an exponential
+   * distribution with a mean of about 320 amino acids, like the lengths of
+   * bacterial proteins.
+   * 
+   * @return the number of codons of a protein including the stop codon
+   */
+  private int createProteinLength() {
+    int length = 50 + (int) (-270 * Math.log(1 - random.nextDouble()));
+    return Math.min(length, 3000);
+  }
+
+
+  private String createSequence(int length) {
+    StringBuilder builder = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      builder.append(nucleotides.charAt(random.nextInt(4)));
+    }
+    return builder.toString();
+  }
+
+
+  /**
+   * @param codons
+   *        the number of codons including the start and the stop codon
+   * @return a sequence that starts with ATG, ends with TAA and has no stop
+   *         codons in between
+   */
+  private String createCodingSequence(int codons) {
+    StringBuilder builder = new StringBuilder(codons * 3);
+    builder.append("ATG");
+    for (int i = 2; i < codons; i++) {
+      int codon;
+      do {
+        codon = random.nextInt(geneticCode.length());
+      } while (geneticCode.charAt(codon) == '*');
+      builder.append(nucleotides.charAt(codon / 16));
+      builder.append(nucleotides.charAt(codon / 4 % 4));
+      builder.append(nucleotides.charAt(codon % 4));
+    }
+    return builder.append("TAA").toString();
+  }
+
+
+  private int getCodonIndex(String sequence, int position) {
+    return nucleotides.indexOf(sequence.charAt(position)) * 16
+      + nucleotides.indexOf(sequence.charAt(position + 1)) * 4
+      + nucleotides.indexOf(sequence.charAt(position + 2));
+  }
+
+
+  /**
+   * @param index
+   *        the index of the codon in {@link #geneticCode}
+   * @return the codon in the RNA alphabet, e.g. "GCU"
+   */
+  private String getCodon(int index) {
+    return new StringBuilder().append(nucleotides.charAt(index / 16))
+                              .append(nucleotides.charAt(index / 4 % 4))
+                              .append(nucleotides.charAt(index % 4))
+                              .toString().replace('T', 'U');
+  }
+
+
+  /**
+   * @param index
+   *        the index of the codon in {@link #geneticCode}
+   * @return the id of the amino acid without compartment, e.g. "ala__L", or
+   *         null for a stop codon
+   */
+  private String getAminoAcid(int index) {
+    int aminoAcid = aminoAcidLetters.indexOf(geneticCode.charAt(index));
+    return aminoAcid < 0 ? null : aminoAcids[aminoAcid];
+  }
+
+
+  /**
+   * @param index
+   *        the index of the codon in {@link #geneticCode}
+   * @return the id of the generic tRNA of the codon, e.g.
+   *         "generic_tRNA_GCU_ala__L_c"
+   */
+  private String gettRNA(int index) {
+    return "generic_tRNA_" + getCodon(index) + "_" + getAminoAcid(index)
+      + "_c";
+  }
+
+
+  public long getSeed() {
+    return seed;
+  }
+
+
+  public void setSeed(long seed) {
+    this.seed = seed;
+  }
+
+
+  public String getModelName() {
+    return modelName;
+  }
+
+
+  public void setModelName(String modelName) {
+    this.modelName = modelName;
+  }
+
+
+  public int getGenes() {
+    return genes;
+  }
+
+
+  /**
+   * Sets the number of genes and the numbers of complexes and metabolic
+   * reactions in the proportions of the default model, i.e. half as many
+   * complexes and as many metabolic reactions as genes.
+   * 
+   * @param genes
+   *        the number of genes
+   */
+  public void setSize(int genes) {
+    setGenes(genes);
+    setComplexes(genes / 2);
+    setMetabolicReactions(genes);
+  }
+
+
+  /**
+   * @param genes
+   *        the number of genes, every 20th gene is a tRNA
+   */
+  public void setGenes(int genes) {
+    this.genes = checkCount(genes);
+  }
+
+
+  public int getComplexes() {
+    return complexes;
+  }
+
+
+  public void setComplexes(int complexes) {
+    this.complexes = checkCount(complexes);
+  }
+
+
+  public int getMetabolicReactions() {
+    return metabolicReactions;
+  }
+
+
+  public void setMetabolicReactions(int metabolicReactions) {
+    this.metabolicReactions = checkCount(metabolicReactions);
+  }
+
+
+  public int getSubreactions() {
+    return subreactions;
+  }
+
+
+  /**
+   * @param subreactions
+   *        the number of subreactions, the first 64 are the additions of amino
+   *        acids at the codons, which are used by the translations
+   */
+  public void setSubreactions(int subreactions) {
+    this.subreactions = checkCount(subreactions);
+  }
+
+
+  public int getTranslocationPathways() {
+    return translocationPathways;
+  }
+
+
+  public void setTranslocationPathways(int translocationPathways) {
+    this.translocationPathways = checkCount(translocationPathways);
+  }
+
+
+  public double getGrowthRateShare() {
+    return growthRateShare;
+  }
+
+
+  /**
+   * @param growthRateShare
+   *        the share of the coefficients of enzymes, ribosomes and RNAs that
+   *        depend on the growth rate, between 0 and 1
+   */
+  public void setGrowthRateShare(double growthRateShare) {
+    if (growthRateShare < 0 || growthRateShare > 1) {
+      throw new IllegalArgumentException(
+        "The share of growth rate dependent coefficients needs to be between 0 and 1");
+    }
+    this.growthRateShare = growthRateShare;
+  }
+
+
+  public MEReactionPlugin getReactionPlugin() {
+    return reactionPlugin;
+  }
+
+
+  /**
+   * @param reactionPlugin
+   *        the plugin that creates the reactions of the model, e.g. a subclass
+   *        that records the reactions instead of creating them
+   */
+  public void setReactionPlugin(MEReactionPlugin reactionPlugin) {
+    this.reactionPlugin = reactionPlugin;
+  }
+
+
+  private static int checkCount(int count) {
+    if (count < 0) {
+      throw new IllegalArgumentException("The counts must not be negative");
+    }
+    return count;
+  }
+}
@@ -0,0 +1,9 @@
+/**
+ * The SBMLme benchmark package contains the tools of the tests that the
+ * benchmarks of the conversion between COBRAme and SBMLme are built on: the
+ * {@link sbmlme.benchmark.SyntheticModelGenerator} of models of any size and
+ * the {@link sbmlme.benchmark.RoundTripHarness} that checks and times a round
+ * trip with the {@link sbmlme.benchmark.MEJsonComparator}. The tests are
+ * packaged in the test-jar, which the JMH benchmarks depend on.
+ */
+package sbmlme.benchmark;
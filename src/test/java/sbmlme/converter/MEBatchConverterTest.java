@@ -0,0 +1,35 @@
+package sbmlme.converter;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Tests the checks of a batch before its files are converted.
+ * 
+ * @author Marc A. Voigt
+ */
+public class MEBatchConverterTest {
+
+  @Test
+  public void inputsWithTheSameNameAreRejected() throws Exception {
+    Path output = Paths.get("target", "batch-duplicates");
+    MEBatchConverter batch =
+      new MEBatchConverter(new MEConverter(), 1, null);
+    try {
+      batch.convert(Arrays.asList(Paths.get("a", "strain.json"),
+        Paths.get("b", "Strain.json")), output, false);
+      fail("inputs with the same name should be rejected");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("strain.json"));
+      // nothing is written
+      assertFalse(output.toFile().exists());
+    }
+  }
+}
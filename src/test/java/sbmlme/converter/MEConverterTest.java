@@ -0,0 +1,148 @@
+package sbmlme.converter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.Test;
+import org.sbml.jsbml.Model;
+import org.sbml.jsbml.SpeciesReference;
+import org.sbolstandard.core2.SBOLDocument;
+
+import sbmlme.MEConstants;
+
+/**
+ * Tests the conversion of COBRAme JSON documents given as streams.
+ * 
+ * @author Marc A. Voigt
+ */
+public class MEConverterTest {
+
+  /**
+   * a model whose reactions precede the metabolites, so that the reactions
+   * are copied to a temporary file when the model is converted from a stream
+   * in streaming mode
+   */
+  private static final String json =
+    ("{'reactions': [{'id': 'biomass_dilution', 'name': '',"
+      + " 'upper_bound': 1000.0, 'lower_bound': 0.0,"
+      + " 'objective_coefficient': 1.0, 'variable_kind': 'continuous',"
+      + " 'metabolites': {'biomass': -70.0, 'protein_biomass': 100.0},"
+      + " 'reaction_type': {'SummaryVariable': {}}}],"
+      + " 'metabolites': [{'id': 'biomass', 'name': '', 'formula': null,"
+      + " 'compartment': '', 'metabolite_type': {'Constraint': {}}},"
+      + " {'id': 'protein_biomass', 'name': '', 'formula': null,"
+      + " 'compartment': '', 'metabolite_type': {'Constraint': {}}}],"
+      + " 'process_data': [], 'global_info': {'kt': 4.5}}").replace('\'',
+        '"');
+
+
+  private static Model convert(boolean streaming) throws Exception {
+    MEConverterOptions options = new MEConverterOptions();
+    options.setModelName("buffered");
+    options.setStreaming(streaming);
+    return new MEConverter(options).convertToSBML(
+      new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))
+                                   .getSBMLDocument().getModel();
+  }
+
+
+  private static void assertStoichiometries(Model model) {
+    SpeciesReference reactant = model.getReaction("biomass_dilution")
+                                     .getReactant(0);
+    SpeciesReference product = model.getReaction("biomass_dilution")
+                                    .getProduct(0);
+    assertEquals(70.0, reactant.getStoichiometry(), 0.0);
+    assertEquals(100.0, product.getStoichiometry(), 0.0);
+    // integral coefficients are numbers, not symbolic InitialAssignments
+    assertEquals(null, model.getInitialAssignmentBySymbol(reactant.getId()));
+    assertEquals(null, model.getInitialAssignmentBySymbol(product.getId()));
+  }
+
+
+  @Test
+  public void bufferedReactionWithIntegralCoefficient() throws Exception {
+    Model model = convert(true);
+    assertStoichiometries(model);
+    assertFalse(model.containsParameter("7E"));
+  }
+
+
+  @Test
+  public void readReactionWithIntegralCoefficient() throws Exception {
+    assertStoichiometries(convert(false));
+  }
+
+
+  @Test
+  public void copyingReactionsIsLogged() throws Exception {
+    ByteArrayOutputStream log = new ByteArrayOutputStream();
+    MEConverterOptions options = new MEConverterOptions();
+    options.setModelName("buffered");
+    options.setStreaming(true);
+    options.setLog(new PrintStream(log, true, "UTF-8"));
+    new MEConverter(options).convertToSBML(
+      new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    assertTrue(log.toString("UTF-8").contains(
+      "Warning: the reactions precede the metabolites"));
+  }
+
+
+  @Test
+  public void archiveManifestIsWrittenLast() throws Exception {
+    MEDocuments documents = new MEDocuments(
+      convert(false).getSBMLDocument(), new SBOLDocument());
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    new MEConverter().writeArchive(documents, stream, "a&b");
+    List<String> entries = new ArrayList<String>();
+    String manifest = null;
+    ZipInputStream zip =
+      new ZipInputStream(new ByteArrayInputStream(stream.toByteArray()));
+    try {
+      ZipEntry entry;
+      while ((entry = zip.getNextEntry()) != null) {
+        entries.add(entry.getName());
+        if (entry.getName().equals(MEConstants.manifestFile)) {
+          manifest = new Scanner(zip, "UTF-8").useDelimiter("\\A").next();
+        }
+      }
+    } finally {
+      zip.close();
+    }
+    assertEquals(4, entries.size());
+    assertEquals(MEConstants.manifestFile, entries.get(3));
+    // entry names are escaped in the attributes of the manifest
+    assertTrue(manifest.contains("location=\"./a&amp;b.sbex\""));
+    assertFalse(manifest.contains("a&b"));
+  }
+
+
+  @Test
+  public void failedArchiveIsDeleted() throws Exception {
+    // the SBOL entry fails after the SBML entry was written
+    MEDocuments documents =
+      new MEDocuments(convert(false).getSBMLDocument(), null);
+    Path archive = Files.createTempFile("failed", MEConstants.archiveExtension);
+    try {
+      new MEConverter().writeArchive(documents, archive);
+      fail("writing an archive without SBOL document should fail");
+    } catch (NullPointerException expected) {
+      assertFalse(Files.exists(archive));
+    } finally {
+      Files.deleteIfExists(archive);
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package sbmlme.converter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+import org.sbml.jsbml.ASTNode;
+import org.sbml.jsbml.Model;
+
+import sbmlme.benchmark.SyntheticModelGenerator;
+
+/**
+ * Tests that the {@link MEStaxReader} and JSBML give the same JSON document
+ * for a SBMLme model.
+ * 
+ * @author Marc A. Voigt
+ */
+public class MEStaxReaderTest {
+
+  private static String toJSON(Path sbml, Path sbol, boolean streaming)
+    throws Exception {
+    MEConverterOptions options = new MEConverterOptions();
+    options.setStreaming(streaming);
+    ByteArrayOutputStream json = new ByteArrayOutputStream();
+    new MEConverter(options).convertToJSON(sbml, sbol, json);
+    return new String(json.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+
+  private static String toJSON(Path archive, boolean streaming)
+    throws Exception {
+    MEConverterOptions options = new MEConverterOptions();
+    options.setStreaming(streaming);
+    ByteArrayOutputStream json = new ByteArrayOutputStream();
+    new MEConverter(options).convertArchiveToJSON(archive, json);
+    return new String(json.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+
+  private static MEDocuments generateModel() throws Exception {
+    SyntheticModelGenerator generator = new SyntheticModelGenerator(3L);
+    generator.setGenes(40);
+    generator.setComplexes(20);
+    generator.setMetabolicReactions(40);
+    generator.setSubreactions(10);
+    return generator.generate();
+  }
+
+
+  private static String assertSameJSON(MEDocuments documents)
+    throws Exception {
+    Path archive = Files.createTempFile("stax", ".zip");
+    try {
+      new MEConverter().writeArchive(documents, archive);
+      String json = toJSON(archive, false);
+      assertEquals(json, toJSON(archive, true));
+      return json;
+    } finally {
+      Files.deleteIfExists(archive);
+    }
+  }
+
+
+  @Test
+  public void exampleModel() throws Exception {
+    Path sbml = Paths.get("ExampleArchive", "ExampleModel.sbml");
+    Path sbol = Paths.get("ExampleArchive", "ExampleModel.sbol");
+    assertEquals(toJSON(sbml, sbol, false), toJSON(sbml, sbol, true));
+  }
+
+
+  @Test
+  public void generatedModel() throws Exception {
+    assertSameJSON(generateModel());
+  }
+
+
+  @Test
+  public void initialAssignmentMath() throws Exception {
+    MEDocuments documents = generateModel();
+    Model model = documents.getSBMLDocument().getModel();
+    ASTNode eNotation = new ASTNode();
+    eNotation.setValue(1.5, -20);
+    ASTNode rational = new ASTNode();
+    rational.setValue(1, 3);
+    ASTNode integer = new ASTNode();
+    integer.setValue(7);
+    ASTNode time = new ASTNode(ASTNode.Type.NAME_TIME);
+    time.setName("t");
+    ASTNode avogadro = new ASTNode(ASTNode.Type.NAME_AVOGADRO);
+    avogadro.setName("avogadro");
+    ASTNode[] maths = {ASTNode.times(eNotation, new ASTNode("mu")),
+      ASTNode.sum(rational, new ASTNode("mu")), integer,
+      ASTNode.times(time, avogadro),
+      ASTNode.parseFormula("piecewise(mu, mu > 0.5, 0.5)"),
+      ASTNode.parseFormula("exp(-mu) + ln(mu)^2")};
+    assertTrue(model.getInitialAssignmentCount() >= maths.length);
+    for (int i = 0; i < maths.length; i++) {
+      model.getInitialAssignment(i).setMath(maths[i]);
+    }
+    String json = assertSameJSON(documents);
+    // the assigned formulas are written as COBRAme coefficients
+    String[] formulas = {"1.5E-20*mu", "1/3+mu", "\"7\"", "t*avogadro",
+      "piecewise(mu, mu > 0.5, 0.5)", "exp(-mu)+ln(mu)**2"};
+    for (String formula : formulas) {
+      assertTrue(formula, json.contains(formula));
+    }
+  }
+}